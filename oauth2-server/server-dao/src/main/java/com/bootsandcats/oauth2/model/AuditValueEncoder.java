@@ -0,0 +1,11 @@
+package com.bootsandcats.oauth2.model;
+
+/**
+ * Assigns the dictionary ids of the user agent and request URI of a {@link SecurityAuditEvent}
+ * from their text.
+ */
+public interface AuditValueEncoder {
+
+    /** Set the user agent and request URI ids of {@code event}. */
+    void encode(SecurityAuditEvent event);
+}
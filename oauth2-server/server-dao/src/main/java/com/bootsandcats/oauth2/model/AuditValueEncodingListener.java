@@ -0,0 +1,23 @@
+package com.bootsandcats.oauth2.model;
+
+import org.springframework.beans.factory.ObjectProvider;
+
+import jakarta.persistence.PrePersist;
+
+/**
+ * Sets the dictionary ids of audit events saved through JPA. Instantiated by Hibernate through the
+ * Spring bean container; without an {@link AuditValueEncoder} bean, events are saved unchanged.
+ */
+public class AuditValueEncodingListener {
+
+    private final ObjectProvider<AuditValueEncoder> encoder;
+
+    public AuditValueEncodingListener(ObjectProvider<AuditValueEncoder> encoder) {
+        this.encoder = encoder;
+    }
+
+    @PrePersist
+    void encode(SecurityAuditEvent event) {
+        encoder.ifAvailable(e -> e.encode(event));
+    }
+}
@@ -3,11 +3,13 @@ package com.bootsandcats.oauth2.model;
 import java.time.Instant;
 import java.util.UUID;
 
+import org.hibernate.annotations.Formula;
 import org.hibernate.annotations.JdbcTypeCode;
 import org.hibernate.type.SqlTypes;
 
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
 import jakarta.persistence.GeneratedValue;
@@ -23,16 +25,28 @@ import jakarta.persistence.Table;
  * <p>This entity captures authentication, authorization, token lifecycle, and other
  * security-related events for compliance and audit purposes. All fields are designed to support
  * comprehensive security auditing requirements.
+ *
+ * <p>The user agent and request URI are dictionary-encoded: the row stores ids into the {@code
+ * audit_user_agents} and {@code audit_request_uris} tables, which an {@link AuditValueEncoder}
+ * assigns from the text before insert, and the text is read back by subquery.
  */
 @Entity
+@EntityListeners(AuditValueEncodingListener.class)
 @Table(
         name = "security_audit_events",
         indexes = {
             @Index(name = "idx_audit_event_type", columnList = "event_type"),
             @Index(name = "idx_audit_event_category", columnList = "event_category"),
             @Index(name = "idx_audit_event_timestamp", columnList = "event_timestamp"),
-            @Index(name = "idx_audit_principal", columnList = "principal"),
-            @Index(name = "idx_audit_client_id", columnList = "client_id"),
+            @Index(
+                    name = "idx_audit_timestamp_id",
+                    columnList = "event_timestamp DESC, id DESC"),
+            @Index(
+                    name = "idx_audit_principal_timestamp",
+                    columnList = "principal, event_timestamp DESC, id DESC"),
+            @Index(
+                    name = "idx_audit_client_timestamp",
+                    columnList = "client_id, event_timestamp DESC, id DESC"),
             @Index(name = "idx_audit_user_id", columnList = "user_id"),
             @Index(name = "idx_audit_result", columnList = "result"),
             @Index(name = "idx_audit_ip_address", columnList = "ip_address"),
@@ -74,10 +88,16 @@ public class SecurityAuditEvent {
     @Column(name = "ip_address", length = 45)
     private String ipAddress;
 
-    @Column(name = "user_agent", columnDefinition = "TEXT")
+    @Column(name = "user_agent_id")
+    private Integer userAgentId;
+
+    @Formula("(SELECT d.user_agent FROM audit_user_agents d WHERE d.id = user_agent_id)")
     private String userAgent;
 
-    @Column(name = "request_uri", columnDefinition = "TEXT")
+    @Column(name = "request_uri_id")
+    private Integer requestUriId;
+
+    @Formula("(SELECT d.request_uri FROM audit_request_uris d WHERE d.id = request_uri_id)")
     private String requestUri;
 
     @Column(name = "request_method", length = 10)
@@ -124,7 +144,7 @@ public class SecurityAuditEvent {
     @PrePersist
     protected void onCreate() {
         if (eventId == null) {
-            eventId = UUID.randomUUID();
+            eventId = UuidV7.generate();
         }
         if (eventTimestamp == null) {
             eventTimestamp = Instant.now();
@@ -238,6 +258,22 @@ public class SecurityAuditEvent {
         this.requestUri = requestUri;
     }
 
+    public Integer getUserAgentId() {
+        return userAgentId;
+    }
+
+    public void setUserAgentId(Integer userAgentId) {
+        this.userAgentId = userAgentId;
+    }
+
+    public Integer getRequestUriId() {
+        return requestUriId;
+    }
+
+    public void setRequestUriId(Integer requestUriId) {
+        this.requestUriId = requestUriId;
+    }
+
     public String getRequestMethod() {
         return requestMethod;
     }
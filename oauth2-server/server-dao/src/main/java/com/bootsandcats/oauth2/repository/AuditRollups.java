@@ -0,0 +1,229 @@
+package com.bootsandcats.oauth2.repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.bootsandcats.oauth2.model.AuditRollupGranularity;
+import com.bootsandcats.oauth2.model.SecurityAuditEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Writes the per-minute and per-hour audit counters.
+ *
+ * <p>Events are folded into one increment per bucket and key before anything is sent, so a batch
+ * costs one upsert statement per granularity however many events it holds. Increments are applied
+ * in key order so concurrent writers lock counter rows in the same order.
+ *
+ * <p>A row counts as the number of events it stands for: the {@code count} of an aggregated
+ * summary event, the {@code sampleRate} of a sampled event, and one otherwise.
+ */
+final class AuditRollups {
+
+    /** Columns identifying a counter, in primary key order. */
+    static final String KEY_COLUMNS =
+            "bucket_start, event_type, event_category, result, client_id, grant_type";
+
+    /** Columns of {@code security_audit_events} that {@link #row(ResultSet)} reads. */
+    static final String EVENT_COLUMNS =
+            "event_timestamp, event_type, event_category, result, client_id, grant_type, details";
+
+    /**
+     * PostgreSQL expression for the number of events a {@code security_audit_events} row stands
+     * for; the SQL form of {@link #weight(String)}.
+     */
+    static final String PG_WEIGHT =
+            "COALESCE(CASE WHEN details ->> 'aggregated' = 'true'"
+                    + " THEN (details ->> 'count')::bigint END,"
+                    + " (details ->> 'sampleRate')::bigint, 1)";
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private static final String ROW = "(?, ?, ?, ?, ?, ?, ?)";
+
+    /** Rows per statement: 7 bind parameters each, well below the PostgreSQL limit. */
+    private static final int MAX_ROWS_PER_STATEMENT = 1000;
+
+    private static final Comparator<Key> KEY_ORDER =
+            Comparator.comparing(Key::timestamp)
+                    .thenComparing(Key::eventType)
+                    .thenComparing(Key::eventCategory)
+                    .thenComparing(Key::result)
+                    .thenComparing(Key::clientId)
+                    .thenComparing(Key::grantType);
+
+    private AuditRollups() {}
+
+    /** Counter table for {@code granularity}. */
+    static String table(AuditRollupGranularity granularity) {
+        return granularity == AuditRollupGranularity.MINUTE
+                ? "security_audit_rollup_minute"
+                : "security_audit_rollup_hour";
+    }
+
+    static Row row(SecurityAuditEvent event) {
+        return new Row(
+                new Key(
+                        event.getEventTimestamp(),
+                        event.getEventType().name(),
+                        event.getEventCategory(),
+                        event.getResult().name(),
+                        nullToEmpty(event.getClientId()),
+                        nullToEmpty(event.getGrantType())),
+                weight(event.getDetails()));
+    }
+
+    /** Reads a row selecting {@link #EVENT_COLUMNS}. */
+    static Row row(ResultSet rs) throws SQLException {
+        return new Row(
+                new Key(
+                        rs.getObject(1, OffsetDateTime.class).toInstant(),
+                        rs.getString(2),
+                        rs.getString(3),
+                        rs.getString(4),
+                        nullToEmpty(rs.getString(5)),
+                        nullToEmpty(rs.getString(6))),
+                weight(rs.getString(7)));
+    }
+
+    /**
+     * Number of events an audit row with these {@code details} stands for.
+     *
+     * @param details the JSON details of the row, or {@code null}
+     * @return the aggregated count, the sample rate, or one
+     */
+    static long weight(String details) {
+        if (details == null || details.isEmpty()) {
+            return 1;
+        }
+        try {
+            JsonNode node = OBJECT_MAPPER.readTree(details);
+            if (node.path("aggregated").asBoolean() && node.path("count").canConvertToLong()) {
+                return Math.max(1, node.get("count").asLong());
+            }
+            if (node.path("sampleRate").canConvertToLong()) {
+                return Math.max(1, node.get("sampleRate").asLong());
+            }
+        } catch (JsonProcessingException e) {
+            // Not JSON we wrote; the row is a single event.
+        }
+        return 1;
+    }
+
+    /** Count {@code rows} (keyed by their own timestamps) into every granularity. */
+    static void add(JdbcTemplate jdbcTemplate, boolean postgres, List<Row> rows) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        for (AuditRollupGranularity granularity : AuditRollupGranularity.values()) {
+            Map<Key, Long> increments = new TreeMap<>(KEY_ORDER);
+            for (Row row : rows) {
+                Key key = row.key();
+                increments.merge(
+                        key.withTimestamp(granularity.bucketStart(key.timestamp())),
+                        row.weight(),
+                        Long::sum);
+            }
+            if (postgres) {
+                upsert(jdbcTemplate, table(granularity), new ArrayList<>(increments.entrySet()));
+            } else {
+                increments.forEach(
+                        (key, count) -> increment(jdbcTemplate, table(granularity), key, count));
+            }
+        }
+    }
+
+    private static void upsert(
+            JdbcTemplate jdbcTemplate, String table, List<Map.Entry<Key, Long>> increments) {
+        for (int from = 0; from < increments.size(); from += MAX_ROWS_PER_STATEMENT) {
+            List<Map.Entry<Key, Long>> chunk =
+                    increments.subList(
+                            from, Math.min(increments.size(), from + MAX_ROWS_PER_STATEMENT));
+            List<Object> params = new ArrayList<>(chunk.size() * 7);
+            for (Map.Entry<Key, Long> increment : chunk) {
+                increment.getKey().addParams(params);
+                params.add(increment.getValue());
+            }
+            jdbcTemplate.update(
+                    "INSERT INTO "
+                            + table
+                            + " ("
+                            + KEY_COLUMNS
+                            + ", event_count) VALUES "
+                            + String.join(", ", Collections.nCopies(chunk.size(), ROW))
+                            + " ON CONFLICT ("
+                            + KEY_COLUMNS
+                            + ") DO UPDATE SET event_count = "
+                            + table
+                            + ".event_count + EXCLUDED.event_count",
+                    params.toArray());
+        }
+    }
+
+    /** Portable update-then-insert, used on H2 where there is a single writer. */
+    private static void increment(JdbcTemplate jdbcTemplate, String table, Key key, long count) {
+        List<Object> params = new ArrayList<>(7);
+        params.add(count);
+        key.addParams(params);
+        int updated =
+                jdbcTemplate.update(
+                        "UPDATE "
+                                + table
+                                + " SET event_count = event_count + ? WHERE bucket_start = ?"
+                                + " AND event_type = ? AND event_category = ? AND result = ?"
+                                + " AND client_id = ? AND grant_type = ?",
+                        params.toArray());
+        if (updated == 0) {
+            params.add(params.remove(0));
+            jdbcTemplate.update(
+                    "INSERT INTO "
+                            + table
+                            + " ("
+                            + KEY_COLUMNS
+                            + ", event_count) VALUES (?, ?, ?, ?, ?, ?, ?)",
+                    params.toArray());
+        }
+    }
+
+    private static String nullToEmpty(String value) {
+        return value == null ? "" : value;
+    }
+
+    /** An audit row to count: its counter key and the number of events it stands for. */
+    record Row(Key key, long weight) {}
+
+    /** Counter key; {@code timestamp} is the event time or, once bucketed, the bucket start. */
+    record Key(
+            Instant timestamp,
+            String eventType,
+            String eventCategory,
+            String result,
+            String clientId,
+            String grantType) {
+
+        Key withTimestamp(Instant bucketStart) {
+            return new Key(bucketStart, eventType, eventCategory, result, clientId, grantType);
+        }
+
+        void addParams(List<Object> params) {
+            params.add(timestamp.atOffset(ZoneOffset.UTC));
+            params.add(eventType);
+            params.add(eventCategory);
+            params.add(result);
+            params.add(clientId);
+            params.add(grantType);
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.bootsandcats.oauth2.repository;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.List;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.bootsandcats.oauth2.model.AuditValueEncoder;
+import com.bootsandcats.oauth2.model.SecurityAuditEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * Interns the user agents and request URIs of audit events into the {@code audit_user_agents} and
+ * {@code audit_request_uris} lookup tables, so audit rows store a small integer id instead of the
+ * text.
+ *
+ * <p>Ids are cached in process; a value not in the cache is looked up and, if missing, inserted.
+ * Inserts run in a transaction of their own, so an id handed out is committed even if the audit
+ * write that asked for it rolls back. Concurrent inserts of the same value from several instances
+ * are resolved by the unique digest: the loser reads the winner's id.
+ *
+ * <p>Values are read back through {@code @Formula} subqueries on {@link SecurityAuditEvent}.
+ * Without a database (e.g. {@code prod-no-db}) no ids are assigned.
+ */
+@Component
+public class AuditValueDictionary implements AuditValueEncoder {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DatabaseDialect dialect;
+    private final TransactionTemplate requiresNew;
+    private final Dictionary userAgents;
+    private final Dictionary requestUris;
+
+    public AuditValueDictionary(
+            ObjectProvider<JdbcTemplate> jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            @Value("${oauth2.audit.dictionary.cache-size:10000}") long cacheSize) {
+        this.jdbcTemplate = jdbcTemplate.getIfAvailable();
+        this.dialect = this.jdbcTemplate != null ? new DatabaseDialect(this.jdbcTemplate) : null;
+        this.requiresNew = new TransactionTemplate(transactionManager);
+        this.requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.userAgents = new Dictionary("audit_user_agents", "user_agent", cacheSize);
+        this.requestUris = new Dictionary("audit_request_uris", "request_uri", cacheSize);
+    }
+
+    /** Id of {@code userAgent}, or {@code null} if it is {@code null}. */
+    public Integer userAgentId(String userAgent) {
+        return intern(userAgents, userAgent);
+    }
+
+    /** Id of {@code requestUri}, or {@code null} if it is {@code null}. */
+    public Integer requestUriId(String requestUri) {
+        return intern(requestUris, requestUri);
+    }
+
+    /** Set the dictionary ids of {@code events} from their user agent and request URI. */
+    public void encode(List<SecurityAuditEvent> events) {
+        events.forEach(this::encode);
+    }
+
+    @Override
+    public void encode(SecurityAuditEvent event) {
+        event.setUserAgentId(userAgentId(event.getUserAgent()));
+        event.setRequestUriId(requestUriId(event.getRequestUri()));
+    }
+
+    private Integer intern(Dictionary dictionary, String value) {
+        if (value == null || jdbcTemplate == null) {
+            return null;
+        }
+        Integer id = dictionary.ids.getIfPresent(value);
+        if (id == null) {
+            id = requiresNew.execute(status -> lookupOrInsert(dictionary, value));
+            dictionary.ids.put(value, id);
+        }
+        return id;
+    }
+
+    private Integer lookupOrInsert(Dictionary dictionary, String value) {
+        byte[] hash = sha256(value);
+        List<Integer> ids = jdbcTemplate.queryForList(dictionary.selectSql, Integer.class, hash);
+        if (!ids.isEmpty()) {
+            return ids.get(0);
+        }
+        if (dialect.isPostgres()) {
+            jdbcTemplate.update(
+                    dictionary.insertSql + " ON CONFLICT (value_hash) DO NOTHING", hash, value);
+        } else {
+            try {
+                jdbcTemplate.update(dictionary.insertSql, hash, value);
+            } catch (DuplicateKeyException e) {
+                // Inserted concurrently; read it below.
+            }
+        }
+        return jdbcTemplate.queryForObject(dictionary.selectSql, Integer.class, hash);
+    }
+
+    private static byte[] sha256(String value) {
+        try {
+            return MessageDigest.getInstance("SHA-256")
+                    .digest(value.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static final class Dictionary {
+        private final String selectSql;
+        private final String insertSql;
+        private final Cache<String, Integer> ids;
+
+        private Dictionary(String table, String column, long cacheSize) {
+            this.selectSql = "SELECT id FROM " + table + " WHERE value_hash = ?";
+            this.insertSql = "INSERT INTO " + table + " (value_hash, " + column + ") VALUES (?, ?)";
+            this.ids = Caffeine.newBuilder().maximumSize(cacheSize).build();
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.bootsandcats.oauth2.repository;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Tells PostgreSQL from the embedded H2 database, for the JDBC code that needs dialect-specific
+ * SQL. The answer is looked up once per instance.
+ */
+public final class DatabaseDialect {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private volatile Boolean postgres;
+
+    public DatabaseDialect(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /** Whether the database behind the template is PostgreSQL. */
+    public boolean isPostgres() {
+        Boolean value = postgres;
+        if (value == null) {
+            value = jdbcTemplate.execute((ConnectionCallback<Boolean>) DatabaseDialect::isPostgres);
+            postgres = value;
+        }
+        return Boolean.TRUE.equals(value);
+    }
+
+    /** Whether {@code connection} is to a PostgreSQL database. */
+    public static boolean isPostgres(Connection connection) throws SQLException {
+        return "PostgreSQL".equalsIgnoreCase(connection.getMetaData().getDatabaseProductName());
+    }
+}
@@ -0,0 +1,27 @@
+package com.bootsandcats.oauth2.repository;
+
+import java.util.List;
+
+import com.bootsandcats.oauth2.model.SecurityAuditEvent;
+
+/**
+ * Repository fragment for high-throughput audit inserts.
+ *
+ * <p>{@link SecurityAuditEvent} uses {@code IDENTITY} ids, so Hibernate issues one {@code INSERT}
+ * per entity regardless of {@code hibernate.jdbc.batch_size}. This fragment bypasses the
+ * persistence context and writes rows with multi-row {@code INSERT} statements instead.
+ */
+public interface SecurityAuditEventBatchInsert {
+
+    /**
+     * Insert a batch of audit events in a single multi-row statement (larger batches are split
+     * into chunks to stay under the driver's bind-parameter limit).
+     *
+     * <p>Generated ids are not written back to the events. Rows whose {@code event_id} already
+     * exists are skipped on PostgreSQL, so replaying a batch is safe.
+     *
+     * @param events the audit events to insert
+     * @return number of rows inserted
+     */
+    int insertBatch(List<SecurityAuditEvent> events);
+}
@@ -0,0 +1,181 @@
+package com.bootsandcats.oauth2.repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.bootsandcats.oauth2.model.SecurityAuditEvent;
+import com.bootsandcats.oauth2.model.UuidV7;
+
+/**
+ * JDBC implementation of {@link SecurityAuditEventBatchInsert}.
+ *
+ * <p>Builds one {@code INSERT ... VALUES (...), (...), ...} statement per chunk so a typical
+ * pipeline batch is written in a single round trip on one pooled connection. Ids come from the
+ * table's identity column; nothing is loaded into the persistence context. User agents and request
+ * URIs are stored as {@link AuditValueDictionary} ids.
+ *
+ * <p>The rows actually inserted are then counted into the audit rollups (see {@link
+ * SecurityAuditEventRollups}); on PostgreSQL they are read back with {@code RETURNING}, so a
+ * replayed batch whose rows are skipped as duplicates is not counted twice.
+ */
+class SecurityAuditEventBatchInsertImpl implements SecurityAuditEventBatchInsert {
+
+    /**
+     * Rows per statement. With {@link #COLUMNS} bind parameters per row this stays well below the
+     * PostgreSQL limit of 65535 parameters per statement.
+     */
+    static final int MAX_ROWS_PER_STATEMENT = 1000;
+
+    private static final String[] COLUMNS = {
+        "event_id",
+        "event_type",
+        "event_category",
+        "event_timestamp",
+        "principal",
+        "principal_type",
+        "user_id",
+        "client_id",
+        "ip_address",
+        "user_agent_id",
+        "request_uri_id",
+        "request_method",
+        "session_id",
+        "correlation_id",
+        "result",
+        "result_code",
+        "error_message",
+        "grant_type",
+        "scopes",
+        "token_type",
+        "authorization_code_id",
+        "details",
+        "created_at"
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+    private final AuditValueDictionary dictionary;
+
+    private final DatabaseDialect dialect;
+
+    SecurityAuditEventBatchInsertImpl(JdbcTemplate jdbcTemplate, AuditValueDictionary dictionary) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.dictionary = dictionary;
+        this.dialect = new DatabaseDialect(jdbcTemplate);
+    }
+
+    @Override
+    public int insertBatch(List<SecurityAuditEvent> events) {
+        if (events == null || events.isEmpty()) {
+            return 0;
+        }
+        boolean pg = dialect.isPostgres();
+        dictionary.encode(events);
+        int inserted = 0;
+        for (int from = 0; from < events.size(); from += MAX_ROWS_PER_STATEMENT) {
+            List<SecurityAuditEvent> chunk =
+                    events.subList(from, Math.min(events.size(), from + MAX_ROWS_PER_STATEMENT));
+            List<AuditRollups.Row> rows;
+            if (pg) {
+                rows =
+                        jdbcTemplate.query(
+                                insertSql(chunk.size(), true)
+                                        + " RETURNING "
+                                        + AuditRollups.EVENT_COLUMNS,
+                                ps -> bindChunk(ps, chunk),
+                                (rs, rowNum) -> AuditRollups.row(rs));
+            } else {
+                jdbcTemplate.update(insertSql(chunk.size(), false), ps -> bindChunk(ps, chunk));
+                rows = chunk.stream().map(AuditRollups::row).toList();
+            }
+            AuditRollups.add(jdbcTemplate, pg, rows);
+            inserted += rows.size();
+        }
+        return inserted;
+    }
+
+    static String insertSql(int rows, boolean postgres) {
+        StringBuilder row = new StringBuilder("(");
+        for (int i = 0; i < COLUMNS.length; i++) {
+            if (i > 0) {
+                row.append(", ");
+            }
+            // details is JSONB on PostgreSQL and CLOB on H2.
+            row.append(postgres && "details".equals(COLUMNS[i]) ? "CAST(? AS jsonb)" : "?");
+        }
+        row.append(')');
+
+        StringBuilder sql =
+                new StringBuilder("INSERT INTO security_audit_events (")
+                        .append(String.join(", ", COLUMNS))
+                        .append(") VALUES ");
+        for (int r = 0; r < rows; r++) {
+            if (r > 0) {
+                sql.append(", ");
+            }
+            sql.append(row);
+        }
+        if (postgres) {
+            // No conflict target: on the partitioned table the key is (event_id, event_timestamp).
+            sql.append(" ON CONFLICT DO NOTHING");
+        }
+        return sql.toString();
+    }
+
+    private static void bindChunk(PreparedStatement ps, List<SecurityAuditEvent> chunk)
+            throws SQLException {
+        Instant now = Instant.now();
+        int i = 1;
+        for (SecurityAuditEvent e : chunk) {
+            applyDefaults(e, now);
+            ps.setObject(i++, e.getEventId());
+            ps.setString(i++, e.getEventType().name());
+            ps.setString(i++, e.getEventCategory());
+            ps.setObject(i++, e.getEventTimestamp().atOffset(ZoneOffset.UTC));
+            ps.setString(i++, e.getPrincipal());
+            ps.setString(i++, e.getPrincipalType());
+            if (e.getUserId() != null) {
+                ps.setLong(i++, e.getUserId());
+            } else {
+                ps.setNull(i++, Types.BIGINT);
+            }
+            ps.setString(i++, e.getClientId());
+            ps.setString(i++, e.getIpAddress());
+            ps.setObject(i++, e.getUserAgentId(), Types.INTEGER);
+            ps.setObject(i++, e.getRequestUriId(), Types.INTEGER);
+            ps.setString(i++, e.getRequestMethod());
+            ps.setString(i++, e.getSessionId());
+            ps.setString(i++, e.getCorrelationId());
+            ps.setString(i++, e.getResult().name());
+            ps.setString(i++, e.getResultCode());
+            ps.setString(i++, e.getErrorMessage());
+            ps.setString(i++, e.getGrantType());
+            ps.setString(i++, e.getScopes());
+            ps.setString(i++, e.getTokenType());
+            ps.setString(i++, e.getAuthorizationCodeId());
+            ps.setString(i++, e.getDetails());
+            ps.setObject(i++, e.getCreatedAt().atOffset(ZoneOffset.UTC));
+        }
+    }
+
+    /** Mirrors {@code SecurityAuditEvent#onCreate}, which JPA would otherwise run. */
+    private static void applyDefaults(SecurityAuditEvent e, Instant now) {
+        if (e.getEventId() == null) {
+            e.setEventId(UuidV7.generate());
+        }
+        if (e.getEventTimestamp() == null) {
+            e.setEventTimestamp(now);
+        }
+        if (e.getCreatedAt() == null) {
+            e.setCreatedAt(now);
+        }
+        if (e.getEventCategory() == null && e.getEventType() != null) {
+            e.setEventCategory(e.getEventType().getCategory());
+        }
+    }
+}
@@ -1,12 +1,12 @@
 package com.bootsandcats.oauth2.repository;
 
 import java.time.Instant;
-import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -19,10 +19,22 @@ import com.bootsandcats.oauth2.model.SecurityAuditEvent;
 /**
  * Repository for security audit events.
  *
- * <p>Provides methods to query and persist security audit records for compliance purposes.
+ * <p>Provides methods to query and persist security audit records for compliance purposes. Bulk
+ * writes from the audit pipeline go through {@link SecurityAuditEventBatchInsert#insertBatch}, and
+ * count queries are answered from the pre-aggregated counters of {@link SecurityAuditEventRollups}.
+ *
+ * <p>The {@code ...Before} queries page by keyset: they return the events strictly older than the
+ * {@code (eventTimestamp, id)} position of the last event the caller has seen, newest first. Only
+ * the page size of the {@link Pageable} is used and, since they return a {@link Slice}, no count
+ * query is issued. The position is compared as a row value rather than as an equivalent {@code OR},
+ * which PostgreSQL can use as the start of a range scan on the {@code (event_timestamp DESC, id
+ * DESC)} indexes; with the {@code OR} every page would scan from the newest row.
  */
 @Repository
-public interface SecurityAuditEventRepository extends JpaRepository<SecurityAuditEvent, Long> {
+public interface SecurityAuditEventRepository
+        extends JpaRepository<SecurityAuditEvent, Long>,
+                SecurityAuditEventBatchInsert,
+                SecurityAuditEventRollups {
 
     /**
      * Find an audit event by its unique event ID.
@@ -123,105 +135,112 @@ public interface SecurityAuditEventRepository extends JpaRepository<SecurityAudi
             String ipAddress, Pageable pageable);
 
     /**
-     * Find failed authentication events for a principal within a time window.
+     * Find recent audit events (for dashboard/monitoring).
      *
-     * @param principal the principal identifier
-     * @param result the result to filter by
-     * @param eventTypes the event types to include
-     * @param since the start time
-     * @return list of matching audit events
+     * @param pageable pagination information
+     * @return page of recent audit events
      */
-    @Query(
-            "SELECT e FROM SecurityAuditEvent e "
-                    + "WHERE e.principal = :principal "
-                    + "AND e.result = :result "
-                    + "AND e.eventType IN :eventTypes "
-                    + "AND e.eventTimestamp >= :since "
-                    + "ORDER BY e.eventTimestamp DESC")
-    List<SecurityAuditEvent> findByPrincipalAndResultAndEventTypeInAndEventTimestampAfter(
-            @Param("principal") String principal,
-            @Param("result") AuditEventResult result,
-            @Param("eventTypes") List<AuditEventType> eventTypes,
-            @Param("since") Instant since);
+    Page<SecurityAuditEvent> findAllByOrderByEventTimestampDesc(Pageable pageable);
 
     /**
-     * Find failed login attempts from an IP address within a time window.
+     * Complex search query for audit events.
      *
-     * @param ipAddress the IP address
-     * @param result the result to filter by
-     * @param eventTypes the event types to include
-     * @param since the start time
-     * @return list of matching audit events
+     * @param principal optional principal filter
+     * @param clientId optional client ID filter
+     * @param eventCategory optional category filter
+     * @param result optional result filter
+     * @param startTime start of time range
+     * @param endTime end of time range
+     * @param pageable pagination information
+     * @return page of matching audit events
      */
     @Query(
             "SELECT e FROM SecurityAuditEvent e "
-                    + "WHERE e.ipAddress = :ipAddress "
-                    + "AND e.result = :result "
-                    + "AND e.eventType IN :eventTypes "
-                    + "AND e.eventTimestamp >= :since "
+                    + "WHERE (:principal IS NULL OR e.principal = :principal) "
+                    + "AND (:clientId IS NULL OR e.clientId = :clientId) "
+                    + "AND (:eventCategory IS NULL OR e.eventCategory = :eventCategory) "
+                    + "AND (:result IS NULL OR e.result = :result) "
+                    + "AND e.eventTimestamp BETWEEN :startTime AND :endTime "
                     + "ORDER BY e.eventTimestamp DESC")
-    List<SecurityAuditEvent> findByIpAddressAndResultAndEventTypeInAndEventTimestampAfter(
-            @Param("ipAddress") String ipAddress,
+    Page<SecurityAuditEvent> searchAuditEvents(
+            @Param("principal") String principal,
+            @Param("clientId") String clientId,
+            @Param("eventCategory") String eventCategory,
             @Param("result") AuditEventResult result,
-            @Param("eventTypes") List<AuditEventType> eventTypes,
-            @Param("since") Instant since);
+            @Param("startTime") Instant startTime,
+            @Param("endTime") Instant endTime,
+            Pageable pageable);
 
     /**
-     * Count events by type within a time range.
+     * Find audit events older than a keyset position.
      *
-     * @param eventType the event type
-     * @param startTime start of the time range
-     * @param endTime end of the time range
-     * @return count of matching events
+     * @param beforeTimestamp timestamp of the last event already returned
+     * @param beforeId id of the last event already returned
+     * @param pageable page size
+     * @return slice of audit events, newest first
      */
     @Query(
-            "SELECT COUNT(e) FROM SecurityAuditEvent e "
-                    + "WHERE e.eventType = :eventType "
-                    + "AND e.eventTimestamp BETWEEN :startTime AND :endTime")
-    long countByEventTypeAndTimestampBetween(
-            @Param("eventType") AuditEventType eventType,
-            @Param("startTime") Instant startTime,
-            @Param("endTime") Instant endTime);
+            "SELECT e FROM SecurityAuditEvent e "
+                    + "WHERE (e.eventTimestamp, e.id) < (:beforeTimestamp, :beforeId) "
+                    + "ORDER BY e.eventTimestamp DESC, e.id DESC")
+    Slice<SecurityAuditEvent> findEventsBefore(
+            @Param("beforeTimestamp") Instant beforeTimestamp,
+            @Param("beforeId") long beforeId,
+            Pageable pageable);
 
     /**
-     * Count failed events by category within a time range.
+     * Find audit events for a principal older than a keyset position.
      *
-     * @param category the event category
-     * @param result the result to filter by
-     * @param startTime start of the time range
-     * @param endTime end of the time range
-     * @return count of matching events
+     * @param principal the principal identifier
+     * @param beforeTimestamp timestamp of the last event already returned
+     * @param beforeId id of the last event already returned
+     * @param pageable page size
+     * @return slice of audit events, newest first
      */
     @Query(
-            "SELECT COUNT(e) FROM SecurityAuditEvent e "
-                    + "WHERE e.eventCategory = :category "
-                    + "AND e.result = :result "
-                    + "AND e.eventTimestamp BETWEEN :startTime AND :endTime")
-    long countByCategoryAndResultAndTimestampBetween(
-            @Param("category") String category,
-            @Param("result") AuditEventResult result,
-            @Param("startTime") Instant startTime,
-            @Param("endTime") Instant endTime);
+            "SELECT e FROM SecurityAuditEvent e "
+                    + "WHERE e.principal = :principal "
+                    + "AND (e.eventTimestamp, e.id) < (:beforeTimestamp, :beforeId) "
+                    + "ORDER BY e.eventTimestamp DESC, e.id DESC")
+    Slice<SecurityAuditEvent> findByPrincipalBefore(
+            @Param("principal") String principal,
+            @Param("beforeTimestamp") Instant beforeTimestamp,
+            @Param("beforeId") long beforeId,
+            Pageable pageable);
 
     /**
-     * Find recent audit events (for dashboard/monitoring).
+     * Find audit events for a client older than a keyset position.
      *
-     * @param pageable pagination information
-     * @return page of recent audit events
+     * @param clientId the OAuth2 client ID
+     * @param beforeTimestamp timestamp of the last event already returned
+     * @param beforeId id of the last event already returned
+     * @param pageable page size
+     * @return slice of audit events, newest first
      */
-    Page<SecurityAuditEvent> findAllByOrderByEventTimestampDesc(Pageable pageable);
+    @Query(
+            "SELECT e FROM SecurityAuditEvent e "
+                    + "WHERE e.clientId = :clientId "
+                    + "AND (e.eventTimestamp, e.id) < (:beforeTimestamp, :beforeId) "
+                    + "ORDER BY e.eventTimestamp DESC, e.id DESC")
+    Slice<SecurityAuditEvent> findByClientIdBefore(
+            @Param("clientId") String clientId,
+            @Param("beforeTimestamp") Instant beforeTimestamp,
+            @Param("beforeId") long beforeId,
+            Pageable pageable);
 
     /**
-     * Complex search query for audit events.
+     * Search audit events older than a keyset position.
      *
      * @param principal optional principal filter
      * @param clientId optional client ID filter
      * @param eventCategory optional category filter
      * @param result optional result filter
      * @param startTime start of time range
-     * @param endTime end of time range
-     * @param pageable pagination information
-     * @return page of matching audit events
+     * @param beforeTimestamp timestamp of the last event already returned, or the exclusive end of
+     *     the time range for the first page
+     * @param beforeId id of the last event already returned
+     * @param pageable page size
+     * @return slice of matching audit events, newest first
      */
     @Query(
             "SELECT e FROM SecurityAuditEvent e "
@@ -229,14 +248,16 @@ public interface SecurityAuditEventRepository extends JpaRepository<SecurityAudi
                     + "AND (:clientId IS NULL OR e.clientId = :clientId) "
                     + "AND (:eventCategory IS NULL OR e.eventCategory = :eventCategory) "
                     + "AND (:result IS NULL OR e.result = :result) "
-                    + "AND e.eventTimestamp BETWEEN :startTime AND :endTime "
-                    + "ORDER BY e.eventTimestamp DESC")
-    Page<SecurityAuditEvent> searchAuditEvents(
+                    + "AND e.eventTimestamp >= :startTime "
+                    + "AND (e.eventTimestamp, e.id) < (:beforeTimestamp, :beforeId) "
+                    + "ORDER BY e.eventTimestamp DESC, e.id DESC")
+    Slice<SecurityAuditEvent> searchAuditEventsBefore(
             @Param("principal") String principal,
             @Param("clientId") String clientId,
             @Param("eventCategory") String eventCategory,
             @Param("result") AuditEventResult result,
             @Param("startTime") Instant startTime,
-            @Param("endTime") Instant endTime,
+            @Param("beforeTimestamp") Instant beforeTimestamp,
+            @Param("beforeId") long beforeId,
             Pageable pageable);
 }
@@ -0,0 +1,83 @@
+package com.bootsandcats.oauth2.repository;
+
+import java.time.Instant;
+import java.util.List;
+
+import com.bootsandcats.oauth2.dto.AuditStatsBucket;
+import com.bootsandcats.oauth2.model.AuditEventResult;
+import com.bootsandcats.oauth2.model.AuditEventType;
+import com.bootsandcats.oauth2.model.AuditRollupGranularity;
+import com.bootsandcats.oauth2.model.SecurityAuditEvent;
+
+/**
+ * Repository fragment for the pre-aggregated audit counters.
+ *
+ * <p>Per-minute and per-hour counters keyed by event type, category, result, client ID and grant
+ * type are maintained by {@link SecurityAuditEventBatchInsert#insertBatch} in the same
+ * transaction as the audit rows, so they agree with what was recorded. Aggregated and sampled rows
+ * count as the events they stand for ({@code details.count} and {@code details.sampleRate}). Range
+ * counts add up whole hours from the hourly counters and only touch raw events for the partial
+ * hours at either end. Counters are kept independently of the events, so they outlive events
+ * removed by retention.
+ */
+public interface SecurityAuditEventRollups {
+
+    /**
+     * Count events that were persisted without {@link SecurityAuditEventBatchInsert#insertBatch}
+     * (e.g. through JPA). Call in the transaction that persists them.
+     *
+     * @param events the persisted audit events
+     */
+    void addToRollups(List<SecurityAuditEvent> events);
+
+    /**
+     * Count events by type within a time range.
+     *
+     * @param eventType the event type
+     * @param startTime start of the time range (inclusive)
+     * @param endTime end of the time range (inclusive)
+     * @return count of matching events
+     */
+    long countByEventTypeAndTimestampBetween(
+            AuditEventType eventType, Instant startTime, Instant endTime);
+
+    /**
+     * Count events by category and result within a time range.
+     *
+     * @param category the event category
+     * @param result the result to filter by
+     * @param startTime start of the time range (inclusive)
+     * @param endTime end of the time range (inclusive)
+     * @return count of matching events
+     */
+    long countByCategoryAndResultAndTimestampBetween(
+            String category, AuditEventResult result, Instant startTime, Instant endTime);
+
+    /**
+     * Counters per bucket, event type and result.
+     *
+     * @param granularity bucket size
+     * @param startTime start of the first bucket (inclusive)
+     * @param endTime end of the range (exclusive)
+     * @param eventCategory optional category filter
+     * @param clientId optional client ID filter
+     * @param grantType optional grant type filter
+     * @return counters ordered by bucket, event type and result
+     */
+    List<AuditStatsBucket> findRollups(
+            AuditRollupGranularity granularity,
+            Instant startTime,
+            Instant endTime,
+            String eventCategory,
+            String clientId,
+            String grantType);
+
+    /**
+     * Delete counters of buckets starting before {@code before}.
+     *
+     * @param granularity bucket size
+     * @param before cutoff
+     * @return number of counters deleted
+     */
+    int purgeRollups(AuditRollupGranularity granularity, Instant before);
+}
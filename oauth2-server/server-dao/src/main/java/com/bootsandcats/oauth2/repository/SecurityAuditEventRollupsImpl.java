@@ -0,0 +1,177 @@
+package com.bootsandcats.oauth2.repository;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import com.bootsandcats.oauth2.dto.AuditStatsBucket;
+import com.bootsandcats.oauth2.model.AuditEventResult;
+import com.bootsandcats.oauth2.model.AuditEventType;
+import com.bootsandcats.oauth2.model.AuditRollupGranularity;
+import com.bootsandcats.oauth2.model.SecurityAuditEvent;
+
+/** JDBC implementation of {@link SecurityAuditEventRollups}. */
+class SecurityAuditEventRollupsImpl implements SecurityAuditEventRollups {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final DatabaseDialect dialect;
+
+    SecurityAuditEventRollupsImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.dialect = new DatabaseDialect(jdbcTemplate);
+    }
+
+    @Override
+    public void addToRollups(List<SecurityAuditEvent> events) {
+        if (events == null || events.isEmpty()) {
+            return;
+        }
+        AuditRollups.add(
+                jdbcTemplate,
+                dialect.isPostgres(),
+                events.stream().map(AuditRollups::row).toList());
+    }
+
+    @Override
+    public long countByEventTypeAndTimestampBetween(
+            AuditEventType eventType, Instant startTime, Instant endTime) {
+        return count("event_type = ?", List.of(eventType.name()), startTime, endTime);
+    }
+
+    @Override
+    public long countByCategoryAndResultAndTimestampBetween(
+            String category, AuditEventResult result, Instant startTime, Instant endTime) {
+        return count(
+                "event_category = ? AND result = ?",
+                List.of(category, result.name()),
+                startTime,
+                endTime);
+    }
+
+    @Override
+    public List<AuditStatsBucket> findRollups(
+            AuditRollupGranularity granularity,
+            Instant startTime,
+            Instant endTime,
+            String eventCategory,
+            String clientId,
+            String grantType) {
+        StringBuilder sql =
+                new StringBuilder("SELECT bucket_start, event_type, result, SUM(event_count) FROM ")
+                        .append(AuditRollups.table(granularity))
+                        .append(" WHERE bucket_start >= ? AND bucket_start < ?");
+        List<Object> params = new ArrayList<>(5);
+        params.add(startTime.atOffset(ZoneOffset.UTC));
+        params.add(endTime.atOffset(ZoneOffset.UTC));
+        if (eventCategory != null) {
+            sql.append(" AND event_category = ?");
+            params.add(eventCategory);
+        }
+        if (clientId != null) {
+            sql.append(" AND client_id = ?");
+            params.add(clientId);
+        }
+        if (grantType != null) {
+            sql.append(" AND grant_type = ?");
+            params.add(grantType);
+        }
+        sql.append(" GROUP BY bucket_start, event_type, result")
+                .append(" ORDER BY bucket_start, event_type, result");
+        return jdbcTemplate.query(
+                sql.toString(),
+                (rs, rowNum) ->
+                        new AuditStatsBucket(
+                                rs.getObject(1, OffsetDateTime.class).toInstant(),
+                                AuditEventType.valueOf(rs.getString(2)),
+                                AuditEventResult.valueOf(rs.getString(3)),
+                                rs.getLong(4)),
+                params.toArray());
+    }
+
+    @Override
+    public int purgeRollups(AuditRollupGranularity granularity, Instant before) {
+        return jdbcTemplate.update(
+                "DELETE FROM " + AuditRollups.table(granularity) + " WHERE bucket_start < ?",
+                before.atOffset(ZoneOffset.UTC));
+    }
+
+    /**
+     * Count events matching {@code filter} in {@code [startTime, endTime]}: whole hours from the
+     * hourly counters, the partial hours at either end from the events themselves, weighted like
+     * the counters.
+     */
+    private long count(
+            String filter, List<Object> filterParams, Instant startTime, Instant endTime) {
+        if (startTime.isAfter(endTime)) {
+            return 0;
+        }
+        Instant firstHour = startTime.truncatedTo(ChronoUnit.HOURS);
+        if (firstHour.isBefore(startTime)) {
+            firstHour = firstHour.plus(1, ChronoUnit.HOURS);
+        }
+        Instant lastHour = endTime.truncatedTo(ChronoUnit.HOURS);
+        if (!firstHour.isBefore(lastHour)) {
+            return countEvents(filter, filterParams, startTime, endTime, true);
+        }
+        long total = sumHours(filter, filterParams, firstHour, lastHour);
+        if (startTime.isBefore(firstHour)) {
+            total += countEvents(filter, filterParams, startTime, firstHour, false);
+        }
+        return total + countEvents(filter, filterParams, lastHour, endTime, true);
+    }
+
+    private long sumHours(String filter, List<Object> filterParams, Instant from, Instant to) {
+        List<Object> params = new ArrayList<>(filterParams);
+        params.add(from.atOffset(ZoneOffset.UTC));
+        params.add(to.atOffset(ZoneOffset.UTC));
+        Long sum =
+                jdbcTemplate.queryForObject(
+                        "SELECT COALESCE(SUM(event_count), 0) FROM "
+                                + AuditRollups.table(AuditRollupGranularity.HOUR)
+                                + " WHERE "
+                                + filter
+                                + " AND bucket_start >= ? AND bucket_start < ?",
+                        Long.class,
+                        params.toArray());
+        return sum == null ? 0 : sum;
+    }
+
+    private long countEvents(
+            String filter,
+            List<Object> filterParams,
+            Instant from,
+            Instant to,
+            boolean inclusiveEnd) {
+        List<Object> params = new ArrayList<>(filterParams);
+        params.add(from.atOffset(ZoneOffset.UTC));
+        params.add(to.atOffset(ZoneOffset.UTC));
+        String where =
+                " FROM security_audit_events WHERE "
+                        + filter
+                        + " AND event_timestamp >= ? AND event_timestamp "
+                        + (inclusiveEnd ? "<=" : "<")
+                        + " ?";
+        if (!dialect.isPostgres()) {
+            // details is a CLOB on H2; weigh the rows here.
+            long[] total = {0};
+            jdbcTemplate.query(
+                    "SELECT details" + where,
+                    (RowCallbackHandler) rs -> total[0] += AuditRollups.weight(rs.getString(1)),
+                    params.toArray());
+            return total[0];
+        }
+        Long count =
+                jdbcTemplate.queryForObject(
+                        "SELECT COALESCE(SUM(" + AuditRollups.PG_WEIGHT + "), 0)" + where,
+                        Long.class,
+                        params.toArray());
+        return count == null ? 0 : count;
+    }
+}
@@ -0,0 +1,15 @@
+-- Composite indexes for keyset (cursor) pagination of security_audit_events.
+--
+-- The audit API pages with "WHERE (event_timestamp, id) < (:ts, :id) ORDER BY event_timestamp
+-- DESC, id DESC LIMIT n", optionally filtered by principal or client_id. These indexes match that
+-- order exactly, so each page is a bounded index range scan no matter how deep the caller pages.
+CREATE INDEX IF NOT EXISTS idx_audit_timestamp_id
+    ON security_audit_events(event_timestamp DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_audit_principal_timestamp
+    ON security_audit_events(principal, event_timestamp DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_audit_client_timestamp
+    ON security_audit_events(client_id, event_timestamp DESC, id DESC);
+
+-- Superseded by the composite indexes above, which lead with the same column.
+DROP INDEX IF EXISTS idx_audit_principal;
+DROP INDEX IF EXISTS idx_audit_client_id;
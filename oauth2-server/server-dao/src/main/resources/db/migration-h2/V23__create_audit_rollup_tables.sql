@@ -0,0 +1,31 @@
+-- Per-minute and per-hour audit event counters (H2).
+--
+-- Maintained by the audit batch insert in the same transaction as the security_audit_events rows.
+-- Buckets are UTC-aligned. client_id and grant_type are '' when the event has none, so they can be
+-- part of the primary key.
+CREATE TABLE IF NOT EXISTS security_audit_rollup_minute (
+    bucket_start TIMESTAMP WITH TIME ZONE NOT NULL,
+    event_type VARCHAR(100) NOT NULL,
+    event_category VARCHAR(50) NOT NULL,
+    result VARCHAR(20) NOT NULL,
+    client_id VARCHAR(100) DEFAULT '' NOT NULL,
+    grant_type VARCHAR(50) DEFAULT '' NOT NULL,
+    event_count BIGINT NOT NULL,
+    PRIMARY KEY (bucket_start, event_type, event_category, result, client_id, grant_type)
+);
+
+CREATE TABLE IF NOT EXISTS security_audit_rollup_hour (
+    bucket_start TIMESTAMP WITH TIME ZONE NOT NULL,
+    event_type VARCHAR(100) NOT NULL,
+    event_category VARCHAR(50) NOT NULL,
+    result VARCHAR(20) NOT NULL,
+    client_id VARCHAR(100) DEFAULT '' NOT NULL,
+    grant_type VARCHAR(50) DEFAULT '' NOT NULL,
+    event_count BIGINT NOT NULL,
+    PRIMARY KEY (bucket_start, event_type, event_category, result, client_id, grant_type)
+);
+
+CREATE INDEX IF NOT EXISTS idx_audit_rollup_hour_type
+    ON security_audit_rollup_hour(event_type, bucket_start);
+CREATE INDEX IF NOT EXISTS idx_audit_rollup_hour_category
+    ON security_audit_rollup_hour(event_category, result, bucket_start);
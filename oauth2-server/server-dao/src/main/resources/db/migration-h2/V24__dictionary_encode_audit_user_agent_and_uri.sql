@@ -0,0 +1,45 @@
+-- Dictionary-encode the user agent and request URI of security_audit_events (H2).
+--
+-- Each distinct value is stored once in a lookup table, unique by its SHA-256 digest, and the
+-- audit rows keep its id. Entries are added by the application on first use and never deleted.
+-- Existing rows are backfilled before the text columns are dropped; the embedded database is
+-- small, so this is done in one transaction.
+CREATE TABLE IF NOT EXISTS audit_user_agents (
+    id INTEGER GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    value_hash VARBINARY(32) NOT NULL UNIQUE,
+    user_agent TEXT NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS audit_request_uris (
+    id INTEGER GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    value_hash VARBINARY(32) NOT NULL UNIQUE,
+    request_uri TEXT NOT NULL
+);
+
+ALTER TABLE security_audit_events ADD COLUMN IF NOT EXISTS user_agent_id INTEGER;
+ALTER TABLE security_audit_events ADD COLUMN IF NOT EXISTS request_uri_id INTEGER;
+
+-- HASH converts character strings to UTF-8, as the application does.
+INSERT INTO audit_user_agents (value_hash, user_agent)
+SELECT HASH('SHA-256', user_agent), user_agent
+FROM (SELECT DISTINCT user_agent FROM security_audit_events WHERE user_agent IS NOT NULL) v
+WHERE NOT EXISTS (
+    SELECT 1 FROM audit_user_agents d WHERE d.value_hash = HASH('SHA-256', v.user_agent));
+
+INSERT INTO audit_request_uris (value_hash, request_uri)
+SELECT HASH('SHA-256', request_uri), request_uri
+FROM (SELECT DISTINCT request_uri FROM security_audit_events WHERE request_uri IS NOT NULL) v
+WHERE NOT EXISTS (
+    SELECT 1 FROM audit_request_uris d WHERE d.value_hash = HASH('SHA-256', v.request_uri));
+
+UPDATE security_audit_events e
+SET user_agent_id = (
+        SELECT d.id FROM audit_user_agents d
+        WHERE d.value_hash = HASH('SHA-256', e.user_agent)),
+    request_uri_id = (
+        SELECT d.id FROM audit_request_uris d
+        WHERE d.value_hash = HASH('SHA-256', e.request_uri))
+WHERE e.user_agent IS NOT NULL OR e.request_uri IS NOT NULL;
+
+ALTER TABLE security_audit_events DROP COLUMN IF EXISTS user_agent;
+ALTER TABLE security_audit_events DROP COLUMN IF EXISTS request_uri;
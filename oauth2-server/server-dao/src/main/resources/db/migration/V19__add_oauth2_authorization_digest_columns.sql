@@ -0,0 +1,27 @@
+-- Columns for the JDBC OAuth2AuthorizationService (oauth2.authorization.store=jdbc).
+--
+-- Authorizations are stored as a single serialized document (authorization_payload) and looked up
+-- by the SHA-256 hex digest of the presented value, never by the raw token. expires_at is the
+-- latest expiry of any token on the authorization and drives the periodic purge.
+
+-- Registered clients may live in Kubernetes CRDs instead of oauth2_registered_client.
+ALTER TABLE oauth2_authorization DROP CONSTRAINT IF EXISTS fk_oauth2_authorization_client;
+
+ALTER TABLE oauth2_authorization ADD COLUMN IF NOT EXISTS authorization_payload TEXT;
+ALTER TABLE oauth2_authorization ADD COLUMN IF NOT EXISTS expires_at TIMESTAMP WITH TIME ZONE;
+ALTER TABLE oauth2_authorization ADD COLUMN IF NOT EXISTS state_digest VARCHAR(64);
+ALTER TABLE oauth2_authorization ADD COLUMN IF NOT EXISTS authorization_code_digest VARCHAR(64);
+ALTER TABLE oauth2_authorization ADD COLUMN IF NOT EXISTS access_token_digest VARCHAR(64);
+ALTER TABLE oauth2_authorization ADD COLUMN IF NOT EXISTS refresh_token_digest VARCHAR(64);
+ALTER TABLE oauth2_authorization ADD COLUMN IF NOT EXISTS oidc_id_token_digest VARCHAR(64);
+ALTER TABLE oauth2_authorization ADD COLUMN IF NOT EXISTS user_code_digest VARCHAR(64);
+ALTER TABLE oauth2_authorization ADD COLUMN IF NOT EXISTS device_code_digest VARCHAR(64);
+
+CREATE INDEX IF NOT EXISTS idx_oauth2_authorization_state_digest ON oauth2_authorization(state_digest);
+CREATE INDEX IF NOT EXISTS idx_oauth2_authorization_code_digest ON oauth2_authorization(authorization_code_digest);
+CREATE INDEX IF NOT EXISTS idx_oauth2_authorization_access_digest ON oauth2_authorization(access_token_digest);
+CREATE INDEX IF NOT EXISTS idx_oauth2_authorization_refresh_digest ON oauth2_authorization(refresh_token_digest);
+CREATE INDEX IF NOT EXISTS idx_oauth2_authorization_id_token_digest ON oauth2_authorization(oidc_id_token_digest);
+CREATE INDEX IF NOT EXISTS idx_oauth2_authorization_user_code_digest ON oauth2_authorization(user_code_digest);
+CREATE INDEX IF NOT EXISTS idx_oauth2_authorization_device_code_digest ON oauth2_authorization(device_code_digest);
+CREATE INDEX IF NOT EXISTS idx_oauth2_authorization_expires_at ON oauth2_authorization(expires_at);
@@ -0,0 +1,11 @@
+-- Transactional outbox for the auth events Redis Stream.
+--
+-- Each row holds the stream entry (JSON object of field -> value) of one audit event and is
+-- written in the same transaction as the security_audit_events row. The relay claims rows in id
+-- order with FOR UPDATE SKIP LOCKED, publishes them and deletes them.
+CREATE TABLE IF NOT EXISTS auth_event_outbox (
+    id BIGSERIAL PRIMARY KEY,
+    event_id UUID NOT NULL,
+    payload TEXT NOT NULL,
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
@@ -0,0 +1,102 @@
+-- Range-partition security_audit_events by event_timestamp.
+--
+-- The existing heap table is kept as-is and attached as the first partition, covering everything
+-- before the start of next month (UTC), so no rows are copied. Monthly partitions for the next
+-- three months are created here; after that, AuditPartitionManager keeps creating them ahead of
+-- time and detaches or drops partitions that fall out of the retention window.
+--
+-- A DEFAULT partition takes events past the last range partition, so audit inserts keep working
+-- if partition maintenance is disabled or keeps failing. The manager moves such events into the
+-- range partition it creates for them later.
+--
+-- On PostgreSQL a primary key or unique constraint on a partitioned table must contain the
+-- partition key, so they become (id, event_timestamp) and (event_id, event_timestamp). ids still
+-- come from the single shared sequence and event ids are UUIDv7s, whose random bits keep them
+-- unique even within one millisecond, so both stay unique.
+--
+-- ATTACH PARTITION scans the existing table to validate the bound and builds its indexes; on a
+-- large audit table run this migration in a maintenance window.
+DO $$
+DECLARE
+    cutover TIMESTAMPTZ := date_trunc('month', now(), 'UTC') + INTERVAL '1 month';
+    lower_bound TIMESTAMPTZ;
+BEGIN
+    IF (SELECT relkind FROM pg_class WHERE oid = 'security_audit_events'::regclass) = 'p' THEN
+        RETURN;
+    END IF;
+
+    ALTER TABLE security_audit_events RENAME TO security_audit_events_legacy;
+
+    -- Recreated below on the partitioned parent, which cascades them to every partition.
+    DROP INDEX IF EXISTS idx_audit_event_type;
+    DROP INDEX IF EXISTS idx_audit_event_category;
+    DROP INDEX IF EXISTS idx_audit_event_timestamp;
+    DROP INDEX IF EXISTS idx_audit_user_id;
+    DROP INDEX IF EXISTS idx_audit_result;
+    DROP INDEX IF EXISTS idx_audit_ip_address;
+    DROP INDEX IF EXISTS idx_audit_session_id;
+    DROP INDEX IF EXISTS idx_audit_correlation_id;
+    DROP INDEX IF EXISTS idx_audit_timestamp_type;
+    DROP INDEX IF EXISTS idx_audit_timestamp_principal;
+    DROP INDEX IF EXISTS idx_audit_details;
+    DROP INDEX IF EXISTS idx_audit_timestamp_id;
+    DROP INDEX IF EXISTS idx_audit_principal_timestamp;
+    DROP INDEX IF EXISTS idx_audit_client_timestamp;
+    ALTER TABLE security_audit_events_legacy DROP CONSTRAINT IF EXISTS security_audit_events_pkey;
+    ALTER TABLE security_audit_events_legacy
+        DROP CONSTRAINT IF EXISTS security_audit_events_event_id_key;
+
+    CREATE TABLE security_audit_events (
+        LIKE security_audit_events_legacy INCLUDING DEFAULTS INCLUDING COMMENTS
+    ) PARTITION BY RANGE (event_timestamp);
+
+    -- Dropping the legacy partition later must not take the id sequence with it.
+    ALTER SEQUENCE security_audit_events_id_seq OWNED BY security_audit_events.id;
+
+    ALTER TABLE security_audit_events
+        ADD CONSTRAINT security_audit_events_pkey PRIMARY KEY (id, event_timestamp);
+    ALTER TABLE security_audit_events
+        ADD CONSTRAINT security_audit_events_event_id_key UNIQUE (event_id, event_timestamp);
+
+    EXECUTE format(
+        'ALTER TABLE security_audit_events ATTACH PARTITION security_audit_events_legacy '
+            || 'FOR VALUES FROM (MINVALUE) TO (%L)',
+        cutover);
+
+    FOR i IN 0..2 LOOP
+        lower_bound := cutover + make_interval(months => i);
+        EXECUTE format(
+            'CREATE TABLE IF NOT EXISTS %I PARTITION OF security_audit_events '
+                || 'FOR VALUES FROM (%L) TO (%L)',
+            'security_audit_events_p' || to_char(lower_bound AT TIME ZONE 'UTC', 'YYYYMM'),
+            lower_bound,
+            lower_bound + INTERVAL '1 month');
+    END LOOP;
+
+    CREATE TABLE IF NOT EXISTS security_audit_events_default
+        PARTITION OF security_audit_events DEFAULT;
+END
+$$;
+
+CREATE INDEX IF NOT EXISTS idx_audit_event_type ON security_audit_events(event_type);
+CREATE INDEX IF NOT EXISTS idx_audit_event_category ON security_audit_events(event_category);
+CREATE INDEX IF NOT EXISTS idx_audit_event_timestamp ON security_audit_events(event_timestamp);
+CREATE INDEX IF NOT EXISTS idx_audit_user_id ON security_audit_events(user_id);
+CREATE INDEX IF NOT EXISTS idx_audit_result ON security_audit_events(result);
+CREATE INDEX IF NOT EXISTS idx_audit_ip_address ON security_audit_events(ip_address);
+CREATE INDEX IF NOT EXISTS idx_audit_session_id ON security_audit_events(session_id);
+CREATE INDEX IF NOT EXISTS idx_audit_correlation_id ON security_audit_events(correlation_id);
+CREATE INDEX IF NOT EXISTS idx_audit_timestamp_type
+    ON security_audit_events(event_timestamp, event_type);
+CREATE INDEX IF NOT EXISTS idx_audit_timestamp_principal
+    ON security_audit_events(event_timestamp, principal);
+CREATE INDEX IF NOT EXISTS idx_audit_details ON security_audit_events USING GIN (details);
+CREATE INDEX IF NOT EXISTS idx_audit_timestamp_id
+    ON security_audit_events(event_timestamp DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_audit_principal_timestamp
+    ON security_audit_events(principal, event_timestamp DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_audit_client_timestamp
+    ON security_audit_events(client_id, event_timestamp DESC, id DESC);
+
+COMMENT ON TABLE security_audit_events IS
+    'Security audit log for OAuth2 compliance tracking, range-partitioned by event_timestamp';
@@ -0,0 +1,55 @@
+-- Per-minute and per-hour audit event counters.
+--
+-- Maintained by the audit batch insert in the same transaction as the security_audit_events rows,
+-- counting only rows actually inserted, each as the number of events it stands for (see below).
+-- Buckets are UTC-aligned. client_id and grant_type are '' when the event has none, so they can
+-- be part of the primary key.
+CREATE TABLE IF NOT EXISTS security_audit_rollup_minute (
+    bucket_start TIMESTAMP WITH TIME ZONE NOT NULL,
+    event_type VARCHAR(100) NOT NULL,
+    event_category VARCHAR(50) NOT NULL,
+    result VARCHAR(20) NOT NULL,
+    client_id VARCHAR(100) NOT NULL DEFAULT '',
+    grant_type VARCHAR(50) NOT NULL DEFAULT '',
+    event_count BIGINT NOT NULL,
+    PRIMARY KEY (bucket_start, event_type, event_category, result, client_id, grant_type)
+);
+
+CREATE TABLE IF NOT EXISTS security_audit_rollup_hour (
+    bucket_start TIMESTAMP WITH TIME ZONE NOT NULL,
+    event_type VARCHAR(100) NOT NULL,
+    event_category VARCHAR(50) NOT NULL,
+    result VARCHAR(20) NOT NULL,
+    client_id VARCHAR(100) NOT NULL DEFAULT '',
+    grant_type VARCHAR(50) NOT NULL DEFAULT '',
+    event_count BIGINT NOT NULL,
+    PRIMARY KEY (bucket_start, event_type, event_category, result, client_id, grant_type)
+);
+
+CREATE INDEX IF NOT EXISTS idx_audit_rollup_hour_type
+    ON security_audit_rollup_hour(event_type, bucket_start);
+CREATE INDEX IF NOT EXISTS idx_audit_rollup_hour_category
+    ON security_audit_rollup_hour(event_category, result, bucket_start);
+
+-- Backfill from existing events: all hours, and minutes for the default minute retention. An
+-- aggregated summary row counts as its details.count events, a sampled row as its sample rate.
+INSERT INTO security_audit_rollup_hour
+SELECT date_trunc('hour', event_timestamp AT TIME ZONE 'UTC') AT TIME ZONE 'UTC',
+       event_type, event_category, result, COALESCE(client_id, ''), COALESCE(grant_type, ''),
+       SUM(COALESCE(CASE WHEN details ->> 'aggregated' = 'true'
+                         THEN (details ->> 'count')::bigint END,
+                    (details ->> 'sampleRate')::bigint, 1))
+FROM security_audit_events
+GROUP BY 1, 2, 3, 4, 5, 6
+ON CONFLICT DO NOTHING;
+
+INSERT INTO security_audit_rollup_minute
+SELECT date_trunc('minute', event_timestamp AT TIME ZONE 'UTC') AT TIME ZONE 'UTC',
+       event_type, event_category, result, COALESCE(client_id, ''), COALESCE(grant_type, ''),
+       SUM(COALESCE(CASE WHEN details ->> 'aggregated' = 'true'
+                         THEN (details ->> 'count')::bigint END,
+                    (details ->> 'sampleRate')::bigint, 1))
+FROM security_audit_events
+WHERE event_timestamp >= now() - INTERVAL '2 days'
+GROUP BY 1, 2, 3, 4, 5, 6
+ON CONFLICT DO NOTHING;
@@ -0,0 +1,84 @@
+-- Dictionary-encode the user agent and request URI of security_audit_events.
+--
+-- A few hundred distinct values repeat across millions of audit rows, so each is stored once in a
+-- lookup table and the audit rows keep a 4-byte id. Values are unique by their SHA-256 digest, as a
+-- long TEXT value may not fit in a B-tree entry. Entries are added by the application on first use
+-- and never deleted, so the ids carry no foreign keys, which would cost two lookups per insert.
+--
+-- Cost and locking: this script runs outside a transaction (see the .conf file next to it), so
+-- every statement commits on its own and no lock outlives its statement.
+--   * The dictionaries are filled from two DISTINCT scans of the audit table; they only read.
+--   * ADD COLUMN and DROP COLUMN change the catalog only. Each takes an ACCESS EXCLUSIVE lock, but
+--     only for a moment; it does wait for running queries on the table, such as an export.
+--   * The backfill rewrites every row that has a user agent or request URI, in batches of 10,000
+--     ids that commit one by one, so inserts keep going and no batch holds row locks for long. Its
+--     runtime and WAL volume grow with the table, roughly that of copying it once, and it leaves
+--     one dead tuple per updated row for (auto)vacuum.
+-- Instances of the previous version still write the text columns, so stop them before migrating
+-- (plan a maintenance window on a large audit table). Every step can be rerun: after a failure,
+-- fix the cause, run flyway repair and migrate again.
+CREATE TABLE IF NOT EXISTS audit_user_agents (
+    id INTEGER GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    value_hash BYTEA NOT NULL UNIQUE,
+    user_agent TEXT NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS audit_request_uris (
+    id INTEGER GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    value_hash BYTEA NOT NULL UNIQUE,
+    request_uri TEXT NOT NULL
+);
+
+ALTER TABLE security_audit_events
+    ADD COLUMN IF NOT EXISTS user_agent_id INTEGER,
+    ADD COLUMN IF NOT EXISTS request_uri_id INTEGER;
+
+DO $$
+DECLARE
+    batch_size CONSTANT BIGINT := 10000;
+    next_id BIGINT;
+    max_id BIGINT;
+BEGIN
+    -- Nothing to backfill once the text columns are gone.
+    IF NOT EXISTS (
+            SELECT 1 FROM information_schema.columns
+            WHERE table_name = 'security_audit_events' AND column_name = 'user_agent') THEN
+        RETURN;
+    END IF;
+
+    INSERT INTO audit_user_agents (value_hash, user_agent)
+    SELECT sha256(convert_to(user_agent, 'UTF8')), user_agent
+    FROM (SELECT DISTINCT user_agent FROM security_audit_events WHERE user_agent IS NOT NULL) v
+    ON CONFLICT DO NOTHING;
+    COMMIT;
+
+    INSERT INTO audit_request_uris (value_hash, request_uri)
+    SELECT sha256(convert_to(request_uri, 'UTF8')), request_uri
+    FROM (SELECT DISTINCT request_uri FROM security_audit_events WHERE request_uri IS NOT NULL) v
+    ON CONFLICT DO NOTHING;
+    COMMIT;
+
+    SELECT min(id), max(id) INTO next_id, max_id FROM security_audit_events;
+    WHILE next_id <= max_id LOOP
+        -- id leads the (id, event_timestamp) primary key of every partition.
+        UPDATE security_audit_events e
+        SET user_agent_id = (
+                SELECT d.id FROM audit_user_agents d
+                WHERE d.value_hash = sha256(convert_to(e.user_agent, 'UTF8'))),
+            request_uri_id = (
+                SELECT d.id FROM audit_request_uris d
+                WHERE d.value_hash = sha256(convert_to(e.request_uri, 'UTF8')))
+        WHERE e.id >= next_id AND e.id < next_id + batch_size
+          AND ((e.user_agent IS NOT NULL AND e.user_agent_id IS NULL)
+            OR (e.request_uri IS NOT NULL AND e.request_uri_id IS NULL));
+        COMMIT;
+        next_id := next_id + batch_size;
+    END LOOP;
+END
+$$;
+
+-- The space of the dropped columns is reused by new rows; existing partitions only shrink once
+-- they are rewritten (VACUUM FULL or pg_repack) or dropped by retention.
+ALTER TABLE security_audit_events
+    DROP COLUMN IF EXISTS user_agent,
+    DROP COLUMN IF EXISTS request_uri;
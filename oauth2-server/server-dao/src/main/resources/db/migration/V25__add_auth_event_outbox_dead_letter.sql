@@ -0,0 +1,16 @@
+-- Poison-row handling for the auth event outbox.
+--
+-- attempts counts how often an entry was rejected on its own. Entries that reach
+-- auth.events.outbox.max-attempts, or whose payload cannot be read, are moved to
+-- auth_event_outbox_dead_letter so they no longer block the relay.
+ALTER TABLE auth_event_outbox ADD COLUMN IF NOT EXISTS attempts INTEGER NOT NULL DEFAULT 0;
+
+CREATE TABLE IF NOT EXISTS auth_event_outbox_dead_letter (
+    id BIGINT PRIMARY KEY,
+    event_id UUID NOT NULL,
+    payload TEXT NOT NULL,
+    attempts INTEGER NOT NULL,
+    reason VARCHAR(100) NOT NULL,
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    dead_lettered_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
@@ -1,37 +0,0 @@
-package com.bootsandcats.oauth2.config;
-
-import java.util.concurrent.Executor;
-
-import org.springframework.context.annotation.Bean;
-import org.springframework.context.annotation.Configuration;
-import org.springframework.scheduling.annotation.EnableAsync;
-import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
-
-/**
- * Configuration for asynchronous task execution.
- *
- * <p>Provides a dedicated thread pool for audit event recording to minimize impact on request
- * processing performance.
- */
-@Configuration
-@EnableAsync
-public class AsyncConfig {
-
-    /**
-     * Creates a thread pool executor for async audit event processing.
-     *
-     * @return the configured task executor
-     */
-    @Bean(name = "auditTaskExecutor")
-    public Executor auditTaskExecutor() {
-        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
-        executor.setCorePoolSize(2);
-        executor.setMaxPoolSize(5);
-        executor.setQueueCapacity(100);
-        executor.setThreadNamePrefix("audit-");
-        executor.setWaitForTasksToCompleteOnShutdown(true);
-        executor.setAwaitTerminationSeconds(30);
-        executor.initialize();
-        return executor;
-    }
-}
@@ -0,0 +1,77 @@
+package com.bootsandcats.oauth2.config;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import com.bootsandcats.oauth2.model.AuditEventType;
+
+/**
+ * Configuration properties for how much of each audit event type is recorded. Types without a
+ * policy are recorded in full; events that did not succeed always are.
+ */
+@Component
+@ConfigurationProperties(prefix = "oauth2.audit.policies")
+public class AuditEventPolicyProperties {
+
+    /** How successful events of a type are recorded. */
+    public enum Mode {
+        /** Record every event. */
+        FULL,
+        /** Record one event in {@link Policy#getSampleRate() sample-rate}. */
+        SAMPLED,
+        /** Record one summary event per client and aggregation interval, with a count. */
+        AGGREGATED
+    }
+
+    /** Policy of a single event type. */
+    public static class Policy {
+
+        /** How successful events of the type are recorded. */
+        private Mode mode = Mode.FULL;
+
+        /** For {@link Mode#SAMPLED}: one event in this many is recorded. */
+        private int sampleRate = 100;
+
+        public Mode getMode() {
+            return mode;
+        }
+
+        public void setMode(Mode mode) {
+            this.mode = mode;
+        }
+
+        public int getSampleRate() {
+            return sampleRate;
+        }
+
+        public void setSampleRate(int sampleRate) {
+            this.sampleRate = sampleRate;
+        }
+    }
+
+    /** Policies per event type. */
+    private Map<AuditEventType, Policy> byType = new EnumMap<>(AuditEventType.class);
+
+    /** Interval covered by each summary event of aggregated types. */
+    private Duration aggregationInterval = Duration.ofMinutes(1);
+
+    public Map<AuditEventType, Policy> getByType() {
+        return byType;
+    }
+
+    public void setByType(Map<AuditEventType, Policy> byType) {
+        this.byType = byType;
+    }
+
+    public Duration getAggregationInterval() {
+        return aggregationInterval;
+    }
+
+    public void setAggregationInterval(Duration aggregationInterval) {
+        this.aggregationInterval = aggregationInterval;
+    }
+}
@@ -0,0 +1,117 @@
+package com.bootsandcats.oauth2.config;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import com.bootsandcats.oauth2.model.AuditEventType;
+
+/**
+ * Configuration properties for the partitions of {@code security_audit_events} and the retention
+ * of audit events. Only used on PostgreSQL, where the table is range-partitioned by {@code
+ * event_timestamp}.
+ */
+@Component
+@ConfigurationProperties(prefix = "oauth2.audit.partitions")
+public class AuditPartitionProperties {
+
+    /** Time span covered by each partition. */
+    public enum Interval {
+        DAILY,
+        MONTHLY
+    }
+
+    /** What happens to a partition that falls out of the retention window. */
+    public enum RetentionAction {
+        /** Detach it, leaving a standalone table to archive and drop out of band. */
+        DETACH,
+        /** Drop it. */
+        DROP
+    }
+
+    /** Whether partitions are created and retired automatically. */
+    private boolean enabled = true;
+
+    /** Time span covered by each newly created partition. */
+    private Interval interval = Interval.MONTHLY;
+
+    /** Number of future partitions kept ready beyond the current one. */
+    private int premake = 3;
+
+    /**
+     * How long audit events are kept. Unset keeps them forever. Whole partitions are retired once
+     * their newest possible event is older than the longest retention in effect.
+     */
+    private Duration retention;
+
+    /**
+     * Retention overrides per event type. Types kept for less than the longest retention are
+     * trimmed with batched deletes from the partitions that are still kept.
+     */
+    private Map<AuditEventType, Duration> retentionByType = new EnumMap<>(AuditEventType.class);
+
+    /** What happens to partitions that fall out of the retention window. */
+    private RetentionAction retentionAction = RetentionAction.DROP;
+
+    /** Maximum number of rows removed per statement when trimming single event types. */
+    private int deleteBatchSize = 5000;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Interval getInterval() {
+        return interval;
+    }
+
+    public void setInterval(Interval interval) {
+        this.interval = interval;
+    }
+
+    public int getPremake() {
+        return premake;
+    }
+
+    public void setPremake(int premake) {
+        this.premake = premake;
+    }
+
+    public Duration getRetention() {
+        return retention;
+    }
+
+    public void setRetention(Duration retention) {
+        this.retention = retention;
+    }
+
+    public Map<AuditEventType, Duration> getRetentionByType() {
+        return retentionByType;
+    }
+
+    public void setRetentionByType(Map<AuditEventType, Duration> retentionByType) {
+        this.retentionByType = retentionByType;
+    }
+
+    public RetentionAction getRetentionAction() {
+        return retentionAction;
+    }
+
+    public void setRetentionAction(RetentionAction retentionAction) {
+        this.retentionAction = retentionAction;
+    }
+
+    public int getDeleteBatchSize() {
+        return deleteBatchSize;
+    }
+
+    public void setDeleteBatchSize(int deleteBatchSize) {
+        this.deleteBatchSize = deleteBatchSize;
+    }
+}
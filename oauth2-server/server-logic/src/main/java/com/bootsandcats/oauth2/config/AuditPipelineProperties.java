@@ -0,0 +1,118 @@
+package com.bootsandcats.oauth2.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/** Configuration properties for the in-process audit event pipeline. */
+@Component
+@ConfigurationProperties(prefix = "oauth2.audit.pipeline")
+public class AuditPipelineProperties {
+
+    /**
+     * What to do with an audit event when the pipeline queue is full.
+     *
+     * <ul>
+     *   <li>{@code BLOCK}: wait up to {@code block-timeout} for space, then drop the event.
+     *   <li>{@code DROP_OLDEST}: evict the oldest queued event to make room.
+     *   <li>{@code SPILL}: append the event to a local spill file that the drainer replays once
+     *       the queue has caught up (also across restarts).
+     * </ul>
+     */
+    public enum OverflowPolicy {
+        BLOCK,
+        DROP_OLDEST,
+        SPILL
+    }
+
+    /**
+     * Whether audit events are queued and written by a background drainer. When disabled, events
+     * are written on the calling thread.
+     */
+    private boolean enabled = true;
+
+    /** Maximum number of events buffered in memory. */
+    private int queueCapacity = 10_000;
+
+    /** Maximum number of events written per batch. */
+    private int batchSize = 200;
+
+    /** Maximum time the drainer waits to fill a batch once the first event has arrived. */
+    private Duration maxBatchDelay = Duration.ofMillis(50);
+
+    private OverflowPolicy overflowPolicy = OverflowPolicy.BLOCK;
+
+    /** Maximum time a caller blocks for queue space when the overflow policy is BLOCK. */
+    private Duration blockTimeout = Duration.ofMillis(50);
+
+    /** Directory for the spill file used by the SPILL overflow policy. */
+    private String spillDirectory = System.getProperty("java.io.tmpdir") + "/oauth2-audit-spill";
+
+    /** Maximum time to keep draining queued events on shutdown. */
+    private Duration shutdownTimeout = Duration.ofSeconds(30);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public void setQueueCapacity(int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public Duration getMaxBatchDelay() {
+        return maxBatchDelay;
+    }
+
+    public void setMaxBatchDelay(Duration maxBatchDelay) {
+        this.maxBatchDelay = maxBatchDelay;
+    }
+
+    public OverflowPolicy getOverflowPolicy() {
+        return overflowPolicy;
+    }
+
+    public void setOverflowPolicy(OverflowPolicy overflowPolicy) {
+        this.overflowPolicy = overflowPolicy;
+    }
+
+    public Duration getBlockTimeout() {
+        return blockTimeout;
+    }
+
+    public void setBlockTimeout(Duration blockTimeout) {
+        this.blockTimeout = blockTimeout;
+    }
+
+    public String getSpillDirectory() {
+        return spillDirectory;
+    }
+
+    public void setSpillDirectory(String spillDirectory) {
+        this.spillDirectory = spillDirectory;
+    }
+
+    public Duration getShutdownTimeout() {
+        return shutdownTimeout;
+    }
+
+    public void setShutdownTimeout(Duration shutdownTimeout) {
+        this.shutdownTimeout = shutdownTimeout;
+    }
+}
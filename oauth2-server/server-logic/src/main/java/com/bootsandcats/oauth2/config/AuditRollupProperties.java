@@ -0,0 +1,45 @@
+package com.bootsandcats.oauth2.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/** Configuration properties for the per-minute and per-hour audit counters. */
+@Component
+@ConfigurationProperties(prefix = "oauth2.audit.rollups")
+public class AuditRollupProperties {
+
+    /** How long per-minute counters are kept. Unset keeps them forever. */
+    private Duration minuteRetention = Duration.ofDays(2);
+
+    /** How long per-hour counters are kept. Unset keeps them forever. */
+    private Duration hourRetention;
+
+    /** Maximum number of buckets a single stats query may span. */
+    private int maxBuckets = 10_000;
+
+    public Duration getMinuteRetention() {
+        return minuteRetention;
+    }
+
+    public void setMinuteRetention(Duration minuteRetention) {
+        this.minuteRetention = minuteRetention;
+    }
+
+    public Duration getHourRetention() {
+        return hourRetention;
+    }
+
+    public void setHourRetention(Duration hourRetention) {
+        this.hourRetention = hourRetention;
+    }
+
+    public int getMaxBuckets() {
+        return maxBuckets;
+    }
+
+    public void setMaxBuckets(int maxBuckets) {
+        this.maxBuckets = maxBuckets;
+    }
+}
@@ -0,0 +1,104 @@
+package com.bootsandcats.oauth2.config;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Configuration properties for the best-effort audit sinks (Redis Stream, Kubernetes Events). Each
+ * sink is configured under {@code oauth2.audit.sinks.<name>}; sinks without an entry use the
+ * {@link Sink} defaults.
+ */
+@Component
+@ConfigurationProperties(prefix = "oauth2.audit")
+public class AuditSinkProperties {
+
+    /** Per-sink settings, keyed by sink name ({@code redis-stream}, {@code kubernetes-events}). */
+    private Map<String, Sink> sinks = new LinkedHashMap<>();
+
+    /** Maximum time to keep writing queued events to the sinks on shutdown. */
+    private Duration sinkShutdownTimeout = Duration.ofSeconds(10);
+
+    public Map<String, Sink> getSinks() {
+        return sinks;
+    }
+
+    public void setSinks(Map<String, Sink> sinks) {
+        this.sinks = sinks;
+    }
+
+    public Duration getSinkShutdownTimeout() {
+        return sinkShutdownTimeout;
+    }
+
+    public void setSinkShutdownTimeout(Duration sinkShutdownTimeout) {
+        this.sinkShutdownTimeout = sinkShutdownTimeout;
+    }
+
+    /** Settings for the named sink, falling back to the defaults. */
+    public Sink sink(String name) {
+        return sinks.getOrDefault(name, new Sink());
+    }
+
+    /** Queue, batching and circuit breaker settings of one sink. */
+    public static class Sink {
+
+        /** Maximum number of events waiting for this sink; further events are dropped. */
+        private int queueCapacity = 10_000;
+
+        /** Maximum number of events handed to the sink per write. */
+        private int batchSize = 100;
+
+        /** Maximum time to wait to fill a batch once the first event has arrived. */
+        private Duration maxBatchDelay = Duration.ofMillis(50);
+
+        /** Consecutive failed writes that open the circuit. */
+        private int failureThreshold = 5;
+
+        /** How long an open circuit skips writes before a trial write is let through. */
+        private Duration openDuration = Duration.ofSeconds(30);
+
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public Duration getMaxBatchDelay() {
+            return maxBatchDelay;
+        }
+
+        public void setMaxBatchDelay(Duration maxBatchDelay) {
+            this.maxBatchDelay = maxBatchDelay;
+        }
+
+        public int getFailureThreshold() {
+            return failureThreshold;
+        }
+
+        public void setFailureThreshold(int failureThreshold) {
+            this.failureThreshold = failureThreshold;
+        }
+
+        public Duration getOpenDuration() {
+            return openDuration;
+        }
+
+        public void setOpenDuration(Duration openDuration) {
+            this.openDuration = openDuration;
+        }
+    }
+}
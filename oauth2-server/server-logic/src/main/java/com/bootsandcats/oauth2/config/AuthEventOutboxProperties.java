@@ -0,0 +1,76 @@
+package com.bootsandcats.oauth2.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Configuration properties for the transactional outbox that relays audit events to the auth
+ * events Redis Stream. Only used when a database is configured.
+ */
+@Component
+@ConfigurationProperties(prefix = "auth.events.outbox")
+public class AuthEventOutboxProperties {
+
+    /**
+     * Whether stream entries are written to the outbox table together with the audit rows and
+     * relayed from there. When disabled, events are appended to the stream directly.
+     */
+    private boolean enabled = true;
+
+    /** Maximum number of outbox rows claimed and published per relay round. */
+    private int batchSize = 500;
+
+    /** How long the relay waits before polling again once the outbox is empty. */
+    private Duration pollInterval = Duration.ofMillis(200);
+
+    /** Upper bound for the relay's back-off after failed rounds. */
+    private Duration maxBackoff = Duration.ofSeconds(30);
+
+    /**
+     * How many times an entry may be rejected on its own before it is moved to the dead-letter
+     * table.
+     */
+    private int maxAttempts = 5;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public Duration getPollInterval() {
+        return pollInterval;
+    }
+
+    public void setPollInterval(Duration pollInterval) {
+        this.pollInterval = pollInterval;
+    }
+
+    public Duration getMaxBackoff() {
+        return maxBackoff;
+    }
+
+    public void setMaxBackoff(Duration maxBackoff) {
+        this.maxBackoff = maxBackoff;
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    public void setMaxAttempts(int maxAttempts) {
+        this.maxAttempts = maxAttempts;
+    }
+}
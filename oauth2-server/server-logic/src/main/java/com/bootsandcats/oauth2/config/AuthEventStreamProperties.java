@@ -14,7 +14,10 @@ public class AuthEventStreamProperties {
     /** Stream key where auth events are appended. */
     private String streamName = "auth:events";
 
-    /** Optional maximum length for the stream. Zero or negative disables trimming. */
+    /**
+     * Optional maximum length for the stream, applied approximately ({@code XADD MAXLEN ~}). Zero
+     * or negative disables trimming.
+     */
     private long maxLength = 1000;
 
     public boolean isEnabled() {
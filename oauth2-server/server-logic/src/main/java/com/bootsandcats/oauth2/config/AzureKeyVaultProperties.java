@@ -16,6 +16,12 @@ public class AzureKeyVaultProperties {
 
     private Duration cacheTtl = Duration.ofMinutes(10);
 
+    /** Delay before the first retry after a failed background refresh of the Key Vault JWK set. */
+    private Duration refreshBackoffMin = Duration.ofSeconds(5);
+
+    /** Upper bound for the (doubling, jittered) retry delay after repeated refresh failures. */
+    private Duration refreshBackoffMax = Duration.ofMinutes(5);
+
     /**
      * Static JWK JSON string for use when Key Vault is not configured. If set, this will be used
      * instead of generating a random key on startup. The value should be a valid JWK JSON object
@@ -55,6 +61,22 @@ public class AzureKeyVaultProperties {
         this.cacheTtl = cacheTtl;
     }
 
+    public Duration getRefreshBackoffMin() {
+        return refreshBackoffMin;
+    }
+
+    public void setRefreshBackoffMin(Duration refreshBackoffMin) {
+        this.refreshBackoffMin = refreshBackoffMin;
+    }
+
+    public Duration getRefreshBackoffMax() {
+        return refreshBackoffMax;
+    }
+
+    public void setRefreshBackoffMax(Duration refreshBackoffMax) {
+        this.refreshBackoffMax = refreshBackoffMax;
+    }
+
     public String getStaticJwk() {
         return staticJwk;
     }
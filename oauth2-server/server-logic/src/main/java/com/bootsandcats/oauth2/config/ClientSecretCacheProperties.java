@@ -0,0 +1,45 @@
+package com.bootsandcats.oauth2.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/** Configuration properties for the verified client-secret cache (opt-in). */
+@Component
+@ConfigurationProperties(prefix = "oauth2.clients.secret-cache")
+public class ClientSecretCacheProperties {
+
+    /** Whether successful client-secret verifications are remembered. */
+    private boolean enabled = false;
+
+    /** Maximum number of remembered verifications. */
+    private long maximumSize = 1000;
+
+    /** How long a verification is remembered before the secret is checked by the encoder again. */
+    private Duration ttl = Duration.ofMinutes(10);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public long getMaximumSize() {
+        return maximumSize;
+    }
+
+    public void setMaximumSize(long maximumSize) {
+        this.maximumSize = maximumSize;
+    }
+
+    public Duration getTtl() {
+        return ttl;
+    }
+
+    public void setTtl(Duration ttl) {
+        this.ttl = ttl;
+    }
+}
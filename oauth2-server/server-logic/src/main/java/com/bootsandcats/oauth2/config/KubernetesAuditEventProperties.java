@@ -0,0 +1,106 @@
+package com.bootsandcats.oauth2.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/** Configuration properties for emitting security audit events as Kubernetes Events. */
+@Component
+@ConfigurationProperties(prefix = "oauth2.audit.kubernetes-events")
+public class KubernetesAuditEventProperties {
+
+    /** Whether audit events are emitted as Kubernetes Events. */
+    private boolean enabled = false;
+
+    /** Namespace for emitted Events; defaults to {@code POD_NAMESPACE}, then {@code default}. */
+    private String namespace;
+
+    /** Pod the Events refer to; defaults to {@code POD_NAME}. */
+    private String podName;
+
+    /**
+     * How long a series of identical events (same reason, type and principal) keeps counting into
+     * one Kubernetes Event after its last occurrence. A later occurrence starts a new Event.
+     */
+    private Duration aggregationWindow = Duration.ofMinutes(10);
+
+    /** Minimum time between two updates of the same Event's count. */
+    private Duration updateInterval = Duration.ofSeconds(10);
+
+    /** Sustained Kubernetes API calls (creates and patches) per second. */
+    private double requestsPerSecond = 5;
+
+    /** API calls that may be made in a burst above the sustained rate. */
+    private int burst = 25;
+
+    /**
+     * Maximum number of distinct event series tracked at once. Occurrences that would start a
+     * further series are dropped.
+     */
+    private int maxSeries = 1000;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public String getNamespace() {
+        return namespace;
+    }
+
+    public void setNamespace(String namespace) {
+        this.namespace = namespace;
+    }
+
+    public String getPodName() {
+        return podName;
+    }
+
+    public void setPodName(String podName) {
+        this.podName = podName;
+    }
+
+    public Duration getAggregationWindow() {
+        return aggregationWindow;
+    }
+
+    public void setAggregationWindow(Duration aggregationWindow) {
+        this.aggregationWindow = aggregationWindow;
+    }
+
+    public Duration getUpdateInterval() {
+        return updateInterval;
+    }
+
+    public void setUpdateInterval(Duration updateInterval) {
+        this.updateInterval = updateInterval;
+    }
+
+    public double getRequestsPerSecond() {
+        return requestsPerSecond;
+    }
+
+    public void setRequestsPerSecond(double requestsPerSecond) {
+        this.requestsPerSecond = requestsPerSecond;
+    }
+
+    public int getBurst() {
+        return burst;
+    }
+
+    public void setBurst(int burst) {
+        this.burst = burst;
+    }
+
+    public int getMaxSeries() {
+        return maxSeries;
+    }
+
+    public void setMaxSeries(int maxSeries) {
+        this.maxSeries = maxSeries;
+    }
+}
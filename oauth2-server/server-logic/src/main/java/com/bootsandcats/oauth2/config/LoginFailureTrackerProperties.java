@@ -0,0 +1,79 @@
+package com.bootsandcats.oauth2.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/** Configuration properties for the sliding-window login failure counters. */
+@Component
+@ConfigurationProperties(prefix = "oauth2.security.login-failures")
+public class LoginFailureTrackerProperties {
+
+    /** Where the counting windows live. */
+    public enum Mode {
+        /** In this process only; each replica counts the failures it sees. */
+        LOCAL,
+        /** In Redis, shared by all replicas; falls back to the local windows if Redis fails. */
+        REDIS
+    }
+
+    /** Where the counting windows live. */
+    private Mode mode = Mode.LOCAL;
+
+    /** Length of the sliding window failures are counted over. */
+    private Duration window = Duration.ofMinutes(15);
+
+    /**
+     * Number of slices the window is divided into. The window slides one slice at a time, so a
+     * failure stops counting between {@code window - window / slices} and {@code window} after it
+     * happened.
+     */
+    private int slices = 15;
+
+    /** Maximum number of principals and of IP addresses tracked locally. */
+    private long maximumKeys = 100_000;
+
+    /** Prefix of the Redis keys holding the shared windows. */
+    private String redisKeyPrefix = "oauth2:login-failures:";
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    public void setMode(Mode mode) {
+        this.mode = mode;
+    }
+
+    public Duration getWindow() {
+        return window;
+    }
+
+    public void setWindow(Duration window) {
+        this.window = window;
+    }
+
+    public int getSlices() {
+        return slices;
+    }
+
+    public void setSlices(int slices) {
+        this.slices = slices;
+    }
+
+    public long getMaximumKeys() {
+        return maximumKeys;
+    }
+
+    public void setMaximumKeys(long maximumKeys) {
+        this.maximumKeys = maximumKeys;
+    }
+
+    public String getRedisKeyPrefix() {
+        return redisKeyPrefix;
+    }
+
+    public void setRedisKeyPrefix(String redisKeyPrefix) {
+        this.redisKeyPrefix = redisKeyPrefix;
+    }
+}
@@ -0,0 +1,62 @@
+package com.bootsandcats.oauth2.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/** Configuration properties for the OAuth2 authorization (codes/tokens) store. */
+@Component
+@ConfigurationProperties(prefix = "oauth2.authorization")
+public class OAuth2AuthorizationStoreProperties {
+
+    /**
+     * Backing store: {@code memory} (Spring Authorization Server's single-pod default), {@code
+     * jdbc} or {@code redis}.
+     */
+    private String store = "memory";
+
+    /**
+     * Lifetime of authorizations that do not carry an expiring token yet (e.g. an authorization
+     * request waiting for the code to be issued).
+     */
+    private Duration defaultTtl = Duration.ofMinutes(30);
+
+    /** Key prefix for the Redis store. */
+    private String redisKeyPrefix = "oauth2:authz:";
+
+    /** How often the JDBC store deletes expired authorizations. */
+    private Duration purgeInterval = Duration.ofMinutes(5);
+
+    public String getStore() {
+        return store;
+    }
+
+    public void setStore(String store) {
+        this.store = store;
+    }
+
+    public Duration getDefaultTtl() {
+        return defaultTtl;
+    }
+
+    public void setDefaultTtl(Duration defaultTtl) {
+        this.defaultTtl = defaultTtl;
+    }
+
+    public String getRedisKeyPrefix() {
+        return redisKeyPrefix;
+    }
+
+    public void setRedisKeyPrefix(String redisKeyPrefix) {
+        this.redisKeyPrefix = redisKeyPrefix;
+    }
+
+    public Duration getPurgeInterval() {
+        return purgeInterval;
+    }
+
+    public void setPurgeInterval(Duration purgeInterval) {
+        this.purgeInterval = purgeInterval;
+    }
+}
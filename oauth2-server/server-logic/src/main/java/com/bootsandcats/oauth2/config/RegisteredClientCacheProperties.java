@@ -0,0 +1,67 @@
+package com.bootsandcats.oauth2.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/** Configuration properties for the cache of resolved registered clients (JPA client store). */
+@Component
+@ConfigurationProperties(prefix = "oauth2.clients.cache")
+public class RegisteredClientCacheProperties {
+
+    /** Whether resolved clients are cached at all. */
+    private boolean enabled = true;
+
+    /** Maximum number of cached clients per lookup key (client id and registered client id). */
+    private long maximumSize = 1000;
+
+    /** How long a resolved client is reused before it is loaded again. */
+    private Duration ttl = Duration.ofMinutes(5);
+
+    /** Whether admin changes are broadcast to other replicas over Redis pub/sub. */
+    private boolean broadcast = false;
+
+    /** Redis channel used for invalidation broadcasts. */
+    private String broadcastChannel = "oauth2:clients:invalidate";
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public long getMaximumSize() {
+        return maximumSize;
+    }
+
+    public void setMaximumSize(long maximumSize) {
+        this.maximumSize = maximumSize;
+    }
+
+    public Duration getTtl() {
+        return ttl;
+    }
+
+    public void setTtl(Duration ttl) {
+        this.ttl = ttl;
+    }
+
+    public boolean isBroadcast() {
+        return broadcast;
+    }
+
+    public void setBroadcast(boolean broadcast) {
+        this.broadcast = broadcast;
+    }
+
+    public String getBroadcastChannel() {
+        return broadcastChannel;
+    }
+
+    public void setBroadcastChannel(String broadcastChannel) {
+        this.broadcastChannel = broadcastChannel;
+    }
+}
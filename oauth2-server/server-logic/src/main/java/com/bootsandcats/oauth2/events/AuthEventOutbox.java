@@ -0,0 +1,263 @@
+package com.bootsandcats.oauth2.events;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.bootsandcats.oauth2.config.AuthEventOutboxProperties;
+import com.bootsandcats.oauth2.config.AuthEventStreamProperties;
+import com.bootsandcats.oauth2.model.SecurityAuditEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Transactional outbox for the auth events Redis Stream.
+ *
+ * <p>{@link #append} stores the stream entry of each audit event in {@code auth_event_outbox}
+ * inside the transaction that inserts the audit rows, so an event is either both recorded and
+ * queued for the stream or neither. {@link #relay} later claims rows with {@code FOR UPDATE SKIP
+ * LOCKED}, publishes them in one pipelined round trip and deletes them in the same transaction:
+ * replicas never relay the same row twice, and a failed publish leaves the rows for the next
+ * round. Delivery is at-least-once; consumers de-duplicate on {@code eventId}.
+ *
+ * <p>A batch that fails as a whole (e.g. Redis is down) is rolled back and retried. When only some
+ * entries of a batch fail, they are published one by one to find the ones that fail on their own;
+ * those get their {@code attempts} raised and, after {@code max-attempts}, are moved to {@code
+ * auth_event_outbox_dead_letter}, as are rows whose payload cannot be read. So a poison row never
+ * stalls the outbox.
+ */
+@Component
+public class AuthEventOutbox {
+
+    private static final Logger log = LoggerFactory.getLogger(AuthEventOutbox.class);
+
+    static final String TABLE = "auth_event_outbox";
+    static final String DEAD_LETTER_TABLE = "auth_event_outbox_dead_letter";
+
+    /** Rows per multi-row statement, well below the PostgreSQL bind-parameter limit. */
+    private static final int MAX_ROWS_PER_STATEMENT = 1000;
+
+    private static final TypeReference<Map<String, String>> FIELDS = new TypeReference<>() {};
+
+    private final ObjectProvider<JdbcTemplate> jdbcTemplate;
+    private final AuthEventPublisher authEventPublisher;
+    private final AuthEventStreamProperties streamProperties;
+    private final AuthEventOutboxProperties properties;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter deadLettered;
+
+    public AuthEventOutbox(
+            ObjectProvider<JdbcTemplate> jdbcTemplate,
+            AuthEventPublisher authEventPublisher,
+            AuthEventStreamProperties streamProperties,
+            AuthEventOutboxProperties properties,
+            ObjectMapper objectMapper,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.authEventPublisher = authEventPublisher;
+        this.streamProperties = streamProperties;
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.deadLettered =
+                Counter.builder("oauth2.auth-events.outbox.dead-lettered")
+                        .description("Outbox entries moved to the dead-letter table")
+                        .register(meterRegistry);
+    }
+
+    /** Whether stream entries go through the outbox (requires a database). */
+    public boolean isEnabled() {
+        return properties.isEnabled()
+                && streamProperties.isEnabled()
+                && jdbcTemplate.getIfAvailable() != null;
+    }
+
+    /**
+     * Queue the stream entries of {@code events}. Call inside the transaction that persists the
+     * events.
+     *
+     * @param events the audit events
+     */
+    public void append(List<SecurityAuditEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        JdbcTemplate jdbc = jdbcTemplate.getObject();
+        Timestamp now = Timestamp.from(Instant.now());
+        for (int from = 0; from < events.size(); from += MAX_ROWS_PER_STATEMENT) {
+            List<SecurityAuditEvent> chunk =
+                    events.subList(from, Math.min(events.size(), from + MAX_ROWS_PER_STATEMENT));
+            Object[] params = new Object[chunk.size() * 3];
+            int i = 0;
+            for (SecurityAuditEvent event : chunk) {
+                params[i++] = event.getEventId();
+                params[i++] = serialize(authEventPublisher.toFields(event));
+                params[i++] = now;
+            }
+            jdbc.update(
+                    "INSERT INTO "
+                            + TABLE
+                            + " (event_id, payload, created_at) VALUES "
+                            + String.join(", ", Collections.nCopies(chunk.size(), "(?, ?, ?)")),
+                    params);
+        }
+    }
+
+    /**
+     * Claim up to {@code limit} outbox rows, publish them to the stream and delete them, all in one
+     * transaction.
+     *
+     * @param limit maximum number of rows to relay
+     * @return number of rows relayed or dead-lettered
+     * @throws RuntimeException if no entry could be published; the claimed rows stay in the outbox
+     */
+    public int relay(int limit) {
+        Integer relayed = transactionTemplate.execute(status -> relayClaimed(limit));
+        return relayed == null ? 0 : relayed;
+    }
+
+    private int relayClaimed(int limit) {
+        JdbcTemplate jdbc = jdbcTemplate.getObject();
+        List<Long> ids = new ArrayList<>(limit);
+        List<Map<String, String>> entries = new ArrayList<>(limit);
+        List<Long> unreadable = new ArrayList<>();
+        jdbc.query(
+                "SELECT id, payload FROM " + TABLE + " ORDER BY id LIMIT ? FOR UPDATE SKIP LOCKED",
+                (RowCallbackHandler)
+                        rs -> {
+                            long id = rs.getLong(1);
+                            Map<String, String> fields = deserialize(id, rs.getString(2));
+                            if (fields == null) {
+                                unreadable.add(id);
+                            } else {
+                                ids.add(id);
+                                entries.add(fields);
+                            }
+                        },
+                limit);
+        if (ids.isEmpty() && unreadable.isEmpty()) {
+            return 0;
+        }
+
+        List<Long> published = ids;
+        int failed = entries.isEmpty() ? 0 : authEventPublisher.publishFields(entries);
+        if (failed > 0 && failed == entries.size()) {
+            // Roll back the claim; the whole batch is retried, so some entries may repeat.
+            throw new IllegalStateException(
+                    failed + " of " + entries.size() + " outbox entries were not published");
+        }
+        if (failed > 0) {
+            // Some entries were rejected: find them, so the rest of the batch is not held up.
+            // Entries that made it the first time are published again; consumers de-duplicate.
+            published = new ArrayList<>(ids.size());
+            List<Long> rejected = new ArrayList<>(failed);
+            for (int i = 0; i < ids.size(); i++) {
+                if (authEventPublisher.publishFields(List.of(entries.get(i))) == 0) {
+                    published.add(ids.get(i));
+                } else {
+                    rejected.add(ids.get(i));
+                }
+            }
+            recordFailedAttempts(jdbc, rejected);
+        }
+
+        deleteRows(jdbc, published);
+        return published.size() + deadLetter(jdbc, unreadable, 0, "unreadable payload");
+    }
+
+    private void recordFailedAttempts(JdbcTemplate jdbc, List<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        jdbc.update(
+                "UPDATE " + TABLE + " SET attempts = attempts + 1 WHERE id IN (" + in(ids) + ")",
+                ids.toArray());
+        deadLetter(jdbc, ids, Math.max(1, properties.getMaxAttempts()), "publish rejected");
+    }
+
+    /**
+     * Move the rows among {@code ids} with at least {@code minAttempts} attempts to the dead-letter
+     * table.
+     */
+    private int deadLetter(JdbcTemplate jdbc, List<Long> ids, int minAttempts, String reason) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        Object[] params = new Object[ids.size() + 2];
+        params[0] = reason;
+        for (int i = 0; i < ids.size(); i++) {
+            params[i + 1] = ids.get(i);
+        }
+        params[ids.size() + 1] = minAttempts;
+        int moved =
+                jdbc.update(
+                        "INSERT INTO "
+                                + DEAD_LETTER_TABLE
+                                + " (id, event_id, payload, attempts, created_at, reason)"
+                                + " SELECT id, event_id, payload, attempts, created_at, ? FROM "
+                                + TABLE
+                                + " WHERE id IN ("
+                                + in(ids)
+                                + ") AND attempts >= ?",
+                        params);
+        if (moved == 0) {
+            return 0;
+        }
+        Object[] deleteParams = new Object[ids.size() + 1];
+        System.arraycopy(params, 1, deleteParams, 0, ids.size() + 1);
+        jdbc.update(
+                "DELETE FROM " + TABLE + " WHERE id IN (" + in(ids) + ") AND attempts >= ?",
+                deleteParams);
+        deadLettered.increment(moved);
+        log.warn("Moved {} auth event outbox entries to {} ({})", moved, DEAD_LETTER_TABLE, reason);
+        return moved;
+    }
+
+    private static void deleteRows(JdbcTemplate jdbc, List<Long> ids) {
+        for (int from = 0; from < ids.size(); from += MAX_ROWS_PER_STATEMENT) {
+            List<Long> chunk =
+                    ids.subList(from, Math.min(ids.size(), from + MAX_ROWS_PER_STATEMENT));
+            jdbc.update(
+                    "DELETE FROM " + TABLE + " WHERE id IN (" + in(chunk) + ")", chunk.toArray());
+        }
+    }
+
+    private static String in(List<Long> ids) {
+        return String.join(", ", Collections.nCopies(ids.size(), "?"));
+    }
+
+    private String serialize(Map<String, String> fields) {
+        try {
+            return objectMapper.writeValueAsString(fields);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize auth event stream entry", e);
+        }
+    }
+
+    private Map<String, String> deserialize(long id, String payload) {
+        try {
+            return objectMapper.readValue(payload, FIELDS);
+        } catch (JsonProcessingException e) {
+            log.warn("Cannot read auth event outbox entry {}", id, e);
+            return null;
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package com.bootsandcats.oauth2.events;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import com.bootsandcats.oauth2.config.AuthEventOutboxProperties;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Background worker that drains the {@link AuthEventOutbox} to the Redis Stream.
+ *
+ * <p>Full batches are relayed back to back; once a round comes back short the relay waits {@code
+ * poll-interval}. Failed rounds back off exponentially (with jitter) up to {@code max-backoff}.
+ * Every replica runs a relay; {@code SKIP LOCKED} keeps them from claiming the same rows.
+ */
+@Component
+public class AuthEventOutboxRelay implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(AuthEventOutboxRelay.class);
+
+    private final AuthEventOutbox outbox;
+    private final AuthEventOutboxProperties properties;
+    private final Object wakeUp = new Object();
+
+    private final Timer roundLatency;
+    private final Counter relayed;
+    private final Counter failures;
+
+    private volatile boolean running;
+    private volatile Thread relay;
+
+    public AuthEventOutboxRelay(
+            AuthEventOutbox outbox,
+            AuthEventOutboxProperties properties,
+            MeterRegistry meterRegistry) {
+        this.outbox = outbox;
+        this.properties = properties;
+        this.roundLatency =
+                Timer.builder("oauth2.auth-events.outbox.relay.latency")
+                        .description("Time to claim, publish and delete one outbox batch")
+                        .register(meterRegistry);
+        this.relayed =
+                Counter.builder("oauth2.auth-events.outbox.relayed")
+                        .description("Outbox entries published to the Redis stream")
+                        .register(meterRegistry);
+        this.failures =
+                Counter.builder("oauth2.auth-events.outbox.failures")
+                        .description("Outbox relay rounds that failed and were rolled back")
+                        .register(meterRegistry);
+    }
+
+    @Override
+    public void start() {
+        if (running || !outbox.isEnabled()) {
+            return;
+        }
+        running = true;
+        Thread thread = new Thread(this::relayLoop, "auth-event-outbox-relay");
+        thread.setDaemon(true);
+        relay = thread;
+        thread.start();
+    }
+
+    @Override
+    public void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        synchronized (wakeUp) {
+            wakeUp.notifyAll();
+        }
+        Thread thread = relay;
+        if (thread == null) {
+            return;
+        }
+        try {
+            thread.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        relay = null;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void relayLoop() {
+        int batchSize = Math.max(1, properties.getBatchSize());
+        int consecutiveFailures = 0;
+        while (running) {
+            long delayMillis;
+            try {
+                int count = relayOnce(batchSize);
+                consecutiveFailures = 0;
+                delayMillis = count < batchSize ? properties.getPollInterval().toMillis() : 0;
+            } catch (RuntimeException e) {
+                consecutiveFailures++;
+                failures.increment();
+                delayMillis = backoffMillis(consecutiveFailures);
+                log.warn(
+                        "Auth event outbox relay failed ({} in a row); retrying in {} ms",
+                        consecutiveFailures,
+                        delayMillis,
+                        e);
+            }
+            if (delayMillis > 0) {
+                pause(delayMillis);
+            }
+        }
+    }
+
+    /** Relay one batch and record its metrics. */
+    int relayOnce(int batchSize) {
+        long start = System.nanoTime();
+        try {
+            int count = outbox.relay(batchSize);
+            relayed.increment(count);
+            return count;
+        } finally {
+            roundLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    long backoffMillis(int consecutiveFailures) {
+        long base = Math.max(1, properties.getPollInterval().toMillis());
+        long max = Math.max(base, properties.getMaxBackoff().toMillis());
+        long delay = base << Math.min(consecutiveFailures, 20);
+        delay = Math.min(delay, max);
+        // Up to 50% jitter so replicas that failed together do not retry in lock step.
+        return delay - ThreadLocalRandom.current().nextLong(delay / 2 + 1);
+    }
+
+    private void pause(long millis) {
+        synchronized (wakeUp) {
+            if (!running) {
+                return;
+            }
+            try {
+                wakeUp.wait(millis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                running = false;
+            }
+        }
+    }
+}
@@ -1,37 +1,84 @@
 package com.bootsandcats.oauth2.events;
 
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.data.redis.connection.stream.MapRecord;
-import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.RedisSystemException;
+import org.springframework.data.redis.connection.RedisPipelineException;
+import org.springframework.data.redis.connection.RedisStreamCommands.XAddOptions;
+import org.springframework.data.redis.connection.StringRedisConnection;
 import org.springframework.data.redis.connection.stream.StreamRecords;
+import org.springframework.data.redis.connection.stream.StringRecord;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.stereotype.Component;
 
 import com.bootsandcats.oauth2.config.AuthEventStreamProperties;
 import com.bootsandcats.oauth2.model.SecurityAuditEvent;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
 /**
  * Publishes authentication and audit events to a Redis Stream so downstream services can react to
  * auth activity.
+ *
+ * <p>A batch is sent as one pipelined round trip of {@code XADD MAXLEN ~ max-length} commands, so
+ * trimming costs no extra command. Queueing and batching are done by the {@code redis-stream}
+ * audit sink, which calls {@link #publishAll} from its own writer thread.
  */
 @Component
 public class AuthEventPublisher {
 
     private static final Logger log = LoggerFactory.getLogger(AuthEventPublisher.class);
 
+    /** Number of fields {@link #toFields} can set, so the payload map never resizes. */
+    private static final int PAYLOAD_FIELDS = 20;
+
     private final StringRedisTemplate redisTemplate;
     private final AuthEventStreamProperties properties;
+    private final XAddOptions addOptions;
+
+    private final Timer publishLatency;
+    private final DistributionSummary batchSizes;
+    private final Counter published;
+    private final Counter failures;
 
     public AuthEventPublisher(
-            StringRedisTemplate redisTemplate, AuthEventStreamProperties properties) {
+            StringRedisTemplate redisTemplate,
+            AuthEventStreamProperties properties,
+            MeterRegistry meterRegistry) {
         this.redisTemplate = redisTemplate;
         this.properties = properties;
+        this.addOptions =
+                properties.getMaxLength() > 0
+                        ? XAddOptions.maxlen(properties.getMaxLength()).approximateTrimming(true)
+                        : XAddOptions.none();
+
+        this.publishLatency =
+                Timer.builder("oauth2.auth-events.publish.latency")
+                        .description("Round-trip time of one pipelined batch of stream appends")
+                        .register(meterRegistry);
+        this.batchSizes =
+                DistributionSummary.builder("oauth2.auth-events.batch.size")
+                        .description("Auth events sent per pipelined batch")
+                        .register(meterRegistry);
+        this.published =
+                Counter.builder("oauth2.auth-events.published")
+                        .description("Auth events appended to the Redis stream")
+                        .register(meterRegistry);
+        this.failures =
+                Counter.builder("oauth2.auth-events.publish.failures")
+                        .description("Auth events that could not be appended to the Redis stream")
+                        .register(meterRegistry);
     }
 
     /**
@@ -39,11 +86,117 @@ public class AuthEventPublisher {
      * prevent the caller from continuing.
      */
     public void publish(SecurityAuditEvent event) {
-        if (!properties.isEnabled()) {
-            return;
+        try {
+            publishAll(List.of(event));
+        } catch (RuntimeException e) {
+            // Already logged and counted by publishAll
+        }
+    }
+
+    /**
+     * Append {@code events} to the configured Redis stream in one pipelined round trip.
+     *
+     * @param events the audit events
+     * @return number of events that could not be appended
+     * @throws RedisSystemException if none of the events could be appended
+     */
+    public int publishAll(List<SecurityAuditEvent> events) {
+        if (!properties.isEnabled() || events.isEmpty()) {
+            return 0;
+        }
+        List<StringRecord> records = new ArrayList<>(events.size());
+        for (SecurityAuditEvent event : events) {
+            records.add(toRecord(toFields(event)));
+        }
+        return send(records);
+    }
+
+    /**
+     * Append stream entries previously built with {@link #toFields} in one pipelined round trip.
+     *
+     * @param entries field maps, one per stream entry
+     * @return number of entries that could not be appended
+     * @throws RedisSystemException if none of the entries could be appended
+     */
+    public int publishFields(List<Map<String, String>> entries) {
+        if (!properties.isEnabled() || entries.isEmpty()) {
+            return 0;
+        }
+        List<StringRecord> records = new ArrayList<>(entries.size());
+        for (Map<String, String> fields : entries) {
+            records.add(toRecord(fields));
+        }
+        return send(records);
+    }
+
+    private int send(List<StringRecord> records) {
+        batchSizes.record(records.size());
+        long start = System.nanoTime();
+        int failed;
+        RuntimeException failure = null;
+        try {
+            redisTemplate.executePipelined(
+                    (RedisCallback<Object>)
+                            connection -> {
+                                StringRedisConnection strings = (StringRedisConnection) connection;
+                                for (StringRecord record : records) {
+                                    strings.xAdd(record, addOptions);
+                                }
+                                return null;
+                            });
+            failed = 0;
+        } catch (RedisPipelineException e) {
+            failed = countFailures(e, records.size());
+            failure = e;
+        } catch (RuntimeException e) {
+            failed = records.size();
+            failure = e;
+        } finally {
+            publishLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
         }
+        published.increment(records.size() - failed);
+        if (failed > 0) {
+            failures.increment(failed);
+            log.warn(
+                    "Failed to publish {} of {} auth event(s) to stream {}",
+                    failed,
+                    records.size(),
+                    properties.getStreamName(),
+                    failure);
+        }
+        if (failed == records.size()) {
+            throw failure instanceof RedisSystemException redisFailure
+                    ? redisFailure
+                    : new RedisSystemException("Failed to publish auth events", failure);
+        }
+        log.debug(
+                "Published {} auth event(s) to stream {}",
+                records.size() - failed,
+                properties.getStreamName());
+        return failed;
+    }
 
-        Map<String, String> payload = new HashMap<>();
+    private static int countFailures(RedisPipelineException e, int total) {
+        List<Object> results = e.getPipelineResult();
+        if (results == null || results.size() != total) {
+            return total;
+        }
+        int failed = 0;
+        for (Object result : results) {
+            if (result instanceof Throwable) {
+                failed++;
+            }
+        }
+        return failed;
+    }
+
+    private StringRecord toRecord(Map<String, String> fields) {
+        return StreamRecords.string(fields).withStreamKey(properties.getStreamName());
+    }
+
+    /** The stream entry fields for {@code event}; {@code null} values are left out. */
+    public Map<String, String> toFields(SecurityAuditEvent event) {
+        Map<String, String> payload = HashMap.newHashMap(PAYLOAD_FIELDS);
         put(payload, "eventId", event.getEventId());
         put(payload, "eventType", event.getEventType());
         put(payload, "eventCategory", event.getEventCategory());
@@ -69,39 +222,11 @@ public class AuthEventPublisher {
         put(payload, "requestMethod", event.getRequestMethod());
         put(payload, "sessionId", event.getSessionId());
         put(payload, "details", event.getDetails());
-
-        MapRecord<String, String, String> record =
-                StreamRecords.mapBacked(payload).withStreamKey(properties.getStreamName());
-
-        try {
-            RecordId recordId = redisTemplate.opsForStream().add(record);
-            if (properties.getMaxLength() > 0) {
-                redisTemplate
-                        .opsForStream()
-                        .trim(properties.getStreamName(), properties.getMaxLength(), true);
-            }
-            log.debug(
-                    "Published auth event {} ({}) to stream {} as record {}",
-                    event.getEventId(),
-                    event.getEventType(),
-                    properties.getStreamName(),
-                    recordId);
-        } catch (Exception e) {
-            log.warn(
-                    "Failed to publish auth event {} to stream {}",
-                    event.getEventId(),
-                    properties.getStreamName(),
-                    e);
-        }
+        return payload;
     }
 
     private void put(Map<String, String> map, String key, Object value) {
-        if (value == null) {
-            return;
-        }
-        if (value instanceof UUID uuid) {
-            map.put(key, uuid.toString());
-        } else {
+        if (value != null) {
             map.put(key, value.toString());
         }
     }
@@ -1,47 +1,132 @@
 package com.bootsandcats.oauth2.k8s;
 
 import java.time.Instant;
+import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
 import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
 
+import com.bootsandcats.oauth2.config.KubernetesAuditEventProperties;
 import com.bootsandcats.oauth2.model.AuditEventResult;
 import com.bootsandcats.oauth2.model.AuditEventType;
 import com.bootsandcats.oauth2.model.SecurityAuditEvent;
 
 import io.fabric8.kubernetes.api.model.Event;
 import io.fabric8.kubernetes.api.model.EventBuilder;
+import io.fabric8.kubernetes.api.model.EventSeries;
+import io.fabric8.kubernetes.api.model.EventSeriesBuilder;
+import io.fabric8.kubernetes.api.model.MicroTime;
 import io.fabric8.kubernetes.api.model.ObjectReference;
 import io.fabric8.kubernetes.api.model.ObjectReferenceBuilder;
 import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.kubernetes.client.KubernetesClientException;
+import io.fabric8.kubernetes.client.dsl.base.PatchContext;
+import io.fabric8.kubernetes.client.dsl.base.PatchType;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
 
-/** Best-effort publisher that emits {@link SecurityAuditEvent} records as Kubernetes Events. */
+/**
+ * Best-effort publisher that emits {@link SecurityAuditEvent} records as Kubernetes Events.
+ *
+ * <p>Like the kubelet's event recorder, identical occurrences are coalesced: events with the same
+ * reason, type and principal form a series that is reported as one Kubernetes Event whose {@code
+ * count} and {@code series} are patched as further occurrences arrive (at most once per {@code
+ * update-interval}). A series ends once it has been quiet for {@code aggregation-window}.
+ *
+ * <p>{@link #publish} never calls the API server: it only updates the series and queues it. A
+ * background thread makes the create and patch calls, throttled by a token bucket ({@code
+ * requests-per-second}, {@code burst}). At most {@code max-series} series are tracked; occurrences
+ * beyond that are dropped and counted.
+ */
 @Component
 @ConditionalOnProperty(
         prefix = "oauth2.audit.kubernetes-events",
         name = "enabled",
         havingValue = "true")
-public class KubernetesAuditEventEmitter {
+public class KubernetesAuditEventEmitter implements SmartLifecycle {
 
     private static final Logger log = LoggerFactory.getLogger(KubernetesAuditEventEmitter.class);
 
+    private static final int PHASE = SmartLifecycle.DEFAULT_PHASE - 8192;
+
+    private static final long EVICTION_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private static final DateTimeFormatter MICRO_TIME =
+            DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSSSSS'Z'")
+                    .withZone(ZoneOffset.UTC);
+
     private final KubernetesClient kubernetesClient;
     private final String namespace;
     private final String podName;
+    private final long aggregationWindowNanos;
+    private final long updateIntervalNanos;
+    private final int maxSeries;
+    private final TokenBucket rateLimiter;
+
+    private final Map<SeriesKey, Series> seriesByKey = new ConcurrentHashMap<>();
+    private final DelayQueue<Series> pending = new DelayQueue<>();
+
+    private final Counter created;
+    private final Counter patched;
+    private final Counter coalesced;
+    private final Counter droppedSeriesLimit;
+    private final Counter droppedShutdown;
+    private final Counter failures;
+
+    private volatile boolean running;
+    private volatile boolean draining;
+    private volatile Thread worker;
+
+    private long lastEviction = System.nanoTime();
+    private long lastNameSuffix;
 
     public KubernetesAuditEventEmitter(
             KubernetesClient kubernetesClient,
-            @Value("${oauth2.audit.kubernetes-events.namespace:}") String configuredNamespace,
-            @Value("${oauth2.audit.kubernetes-events.pod-name:}") String configuredPodName) {
+            KubernetesAuditEventProperties properties,
+            MeterRegistry meterRegistry) {
         this.kubernetesClient = kubernetesClient;
-        this.namespace = resolveNamespace(configuredNamespace);
-        this.podName = resolvePodName(configuredPodName);
+        this.namespace = resolveNamespace(properties.getNamespace());
+        this.podName = resolvePodName(properties.getPodName());
+        this.aggregationWindowNanos = properties.getAggregationWindow().toNanos();
+        this.updateIntervalNanos = properties.getUpdateInterval().toNanos();
+        this.maxSeries = Math.max(1, properties.getMaxSeries());
+        this.rateLimiter =
+                new TokenBucket(
+                        properties.getRequestsPerSecond(),
+                        properties.getBurst(),
+                        System.nanoTime());
+
+        Gauge.builder("oauth2.audit.kubernetes-events.series", seriesByKey, Map::size)
+                .description("Event series currently tracked for Kubernetes Events")
+                .register(meterRegistry);
+        Gauge.builder("oauth2.audit.kubernetes-events.queue.depth", pending, DelayQueue::size)
+                .description("Event series waiting to be created or updated")
+                .register(meterRegistry);
+        this.created = requestCounter(meterRegistry, "create");
+        this.patched = requestCounter(meterRegistry, "patch");
+        this.coalesced =
+                Counter.builder("oauth2.audit.kubernetes-events.coalesced")
+                        .description("Audit events folded into an existing Kubernetes Event")
+                        .register(meterRegistry);
+        this.droppedSeriesLimit = droppedCounter(meterRegistry, "series_limit");
+        this.droppedShutdown = droppedCounter(meterRegistry, "shutdown");
+        this.failures =
+                Counter.builder("oauth2.audit.kubernetes-events.failures")
+                        .description("Kubernetes Event create or patch calls that failed")
+                        .register(meterRegistry);
 
         log.info(
                 "Kubernetes audit events enabled (namespace={}, podName={})",
@@ -49,37 +134,193 @@ public class KubernetesAuditEventEmitter {
                 this.podName != null ? this.podName : "(none)");
     }
 
+    private static Counter requestCounter(MeterRegistry meterRegistry, String operation) {
+        return Counter.builder("oauth2.audit.kubernetes-events.requests")
+                .description("Kubernetes API calls made for audit events")
+                .tag("operation", operation)
+                .register(meterRegistry);
+    }
+
+    private static Counter droppedCounter(MeterRegistry meterRegistry, String reason) {
+        return Counter.builder("oauth2.audit.kubernetes-events.dropped")
+                .description("Audit events that were not reported as Kubernetes Events")
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+
     public void publish(SecurityAuditEvent auditEvent) {
         if (auditEvent == null) {
             return;
         }
 
+        SeriesKey key =
+                new SeriesKey(
+                        toReason(auditEvent.getEventType()),
+                        toType(auditEvent.getResult()),
+                        auditEvent.getPrincipal());
+        String message = buildMessage(auditEvent);
+        Instant observedAt = Instant.now();
+        long now = System.nanoTime();
+
+        int[] occurrences = new int[1];
+        Series series =
+                seriesByKey.compute(
+                        key,
+                        (k, existing) -> {
+                            if (existing == null) {
+                                if (seriesByKey.size() >= maxSeries) {
+                                    return null;
+                                }
+                                existing = new Series(k);
+                            }
+                            occurrences[0] = existing.observe(message, observedAt, now);
+                            return existing;
+                        });
+        if (series == null) {
+            droppedSeriesLimit.increment();
+            return;
+        }
+        if (occurrences[0] > 1) {
+            coalesced.increment();
+        }
+        if (series.markQueued(now)) {
+            pending.add(series);
+        }
+    }
+
+    @Override
+    public void start() {
+        if (running) {
+            return;
+        }
+        draining = false;
+        running = true;
+        Thread thread = new Thread(this::emitLoop, "k8s-audit-events");
+        thread.setDaemon(true);
+        worker = thread;
+        thread.start();
+    }
+
+    @Override
+    public void stop() {
+        if (!running) {
+            return;
+        }
+        // Queued updates become due at once; whatever the rate limit allows is still sent.
+        draining = true;
+        running = false;
+        Thread thread = worker;
+        if (thread == null) {
+            return;
+        }
         try {
-            Event k8sEvent = toKubernetesEvent(auditEvent);
-            // Fabric8 supports typed operations for core/v1 events.
-            kubernetesClient.v1().events().inNamespace(namespace).resource(k8sEvent).create();
+            thread.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        worker = null;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return PHASE;
+    }
+
+    private void emitLoop() {
+        while (running || (draining && !pending.isEmpty())) {
+            Series series;
+            try {
+                series = pending.poll(100, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.interrupted();
+                continue;
+            }
+            if (series != null) {
+                emit(series);
+            }
+            evictIdleSeries(System.nanoTime());
+        }
+    }
+
+    /** Emit every queued series that is due now. */
+    void emitDue() {
+        Series series;
+        while ((series = pending.poll()) != null) {
+            emit(series);
+        }
+    }
+
+    private void emit(Series series) {
+        series.queued.set(false);
+        if (series.observedCount() == series.emittedCount) {
+            // Re-queued by an occurrence that the previous call already reported.
+            return;
+        }
+        if (!acquirePermit()) {
+            droppedShutdown.increment();
+            return;
+        }
+        Observation observation = series.snapshot();
+
+        try {
+            if (series.eventName == null) {
+                create(series, observation);
+                created.increment();
+            } else {
+                patch(series, observation);
+                patched.increment();
+            }
+            series.emittedCount = observation.count();
+            series.nextUpdateAt = System.nanoTime() + updateIntervalNanos;
+        } catch (KubernetesClientException e) {
+            if (e.getCode() == 404 && series.eventName != null) {
+                // The Event expired server-side; report the series as a new one.
+                series.eventName = null;
+                series.emittedCount = 0;
+                if (series.markQueued(System.nanoTime())) {
+                    pending.add(series);
+                }
+                return;
+            }
+            onFailure(series, e);
         } catch (Exception e) {
-            // Best-effort: do not break auth flows
-            log.debug(
-                    "Failed to emit Kubernetes event for audit event {} ({})",
-                    auditEvent.getEventId(),
-                    auditEvent.getEventType(),
-                    e);
+            onFailure(series, e);
         }
     }
 
-    private Event toKubernetesEvent(SecurityAuditEvent e) {
-        String reason = toReason(e.getEventType());
-        String type =
-                e.getResult() != null
-                                && (e.getResult() == AuditEventResult.FAILURE
-                                        || e.getResult() == AuditEventResult.DENIED)
-                        ? "Warning"
-                        : "Normal";
+    private boolean acquirePermit() {
+        if (draining) {
+            return rateLimiter.tryAcquire(System.nanoTime());
+        }
+        long wait = rateLimiter.reserve(System.nanoTime());
+        if (wait > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(wait);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return true;
+    }
 
-        String message = buildMessage(e);
-        String now = DateTimeFormatter.ISO_INSTANT.format(Instant.now());
+    private void onFailure(Series series, Exception e) {
+        // Best-effort: do not break auth flows. The next occurrence re-queues the series.
+        failures.increment();
+        log.debug(
+                "Failed to emit Kubernetes event for {} ({}, principal={})",
+                series.key.reason(),
+                series.key.type(),
+                series.key.principal(),
+                e);
+    }
 
+    private void create(Series series, Observation observation) {
+        String name = nextEventName();
         ObjectReference involvedObject = null;
         if (StringUtils.hasText(podName)) {
             involvedObject =
@@ -91,23 +332,85 @@ public class KubernetesAuditEventEmitter {
                             .build();
         }
 
-        // Use generateName to avoid collisions; K8s will append a unique suffix.
         EventBuilder b =
                 new EventBuilder()
                         .withNewMetadata()
-                        .withGenerateName("oauth2-audit-")
+                        .withName(name)
                         .withNamespace(namespace)
                         .endMetadata()
-                        .withType(type)
-                        .withReason(reason)
-                        .withMessage(message)
-                        .withLastTimestamp(now);
-
+                        .withType(series.key.type())
+                        .withReason(series.key.reason())
+                        .withMessage(observation.message())
+                        .withCount(observation.count())
+                        .withFirstTimestamp(format(observation.firstSeen()))
+                        .withLastTimestamp(format(observation.lastSeen()));
+        if (observation.count() > 1) {
+            b = b.withSeries(toSeries(observation));
+        }
         if (involvedObject != null) {
             b = b.withInvolvedObject(involvedObject);
         }
 
-        return b.build();
+        Event k8sEvent = b.build();
+        // Fabric8 supports typed operations for core/v1 events.
+        kubernetesClient.v1().events().inNamespace(namespace).resource(k8sEvent).create();
+        series.eventName = name;
+    }
+
+    private void patch(Series series, Observation observation) {
+        Event changes =
+                new EventBuilder()
+                        .withNewMetadata()
+                        .withName(series.eventName)
+                        .withNamespace(namespace)
+                        .endMetadata()
+                        .withMessage(observation.message())
+                        .withCount(observation.count())
+                        .withLastTimestamp(format(observation.lastSeen()))
+                        .withSeries(toSeries(observation))
+                        .build();
+        kubernetesClient
+                .v1()
+                .events()
+                .inNamespace(namespace)
+                .resource(changes)
+                .patch(PatchContext.of(PatchType.JSON_MERGE));
+    }
+
+    private static EventSeries toSeries(Observation observation) {
+        return new EventSeriesBuilder()
+                .withCount(observation.count())
+                .withLastObservedTime(new MicroTime(MICRO_TIME.format(observation.lastSeen())))
+                .build();
+    }
+
+    /** Unique, time-ordered Event name, in the style of the kubelet's {@code <name>.<nanos>}. */
+    private String nextEventName() {
+        Instant now = Instant.now();
+        long nanos = now.getEpochSecond() * 1_000_000_000L + now.getNano();
+        lastNameSuffix = Math.max(lastNameSuffix + 1, nanos);
+        return "oauth2-audit." + Long.toHexString(lastNameSuffix);
+    }
+
+    private void evictIdleSeries(long now) {
+        if (now - lastEviction < EVICTION_INTERVAL_NANOS) {
+            return;
+        }
+        lastEviction = now;
+        seriesByKey.forEach(
+                (key, series) ->
+                        seriesByKey.computeIfPresent(
+                                key, (k, current) -> current.isIdle(now) ? null : current));
+    }
+
+    private static String format(Instant instant) {
+        return DateTimeFormatter.ISO_INSTANT.format(instant);
+    }
+
+    private static String toType(AuditEventResult result) {
+        return result == AuditEventResult.FAILURE || result == AuditEventResult.DENIED
+                ? "Warning"
+                : "Normal";
     }
 
     private static String buildMessage(SecurityAuditEvent e) {
@@ -182,4 +485,75 @@ public class KubernetesAuditEventEmitter {
         }
         return null;
     }
+
+    private record SeriesKey(String reason, String type, String principal) {}
+
+    private record Observation(int count, Instant firstSeen, Instant lastSeen, String message) {}
+
+    /** Occurrences of one {@link SeriesKey}, and the Kubernetes Event reporting them. */
+    private final class Series implements Delayed {
+
+        private final SeriesKey key;
+        private final AtomicBoolean queued = new AtomicBoolean();
+
+        private int count;
+        private Instant firstSeen;
+        private Instant lastSeen;
+        private String message;
+        private volatile long lastObservedNanos;
+
+        /** When the queued update may be sent; only written while not queued. */
+        private volatile long dueAt;
+
+        // Written by the emitting thread only.
+        private volatile long nextUpdateAt = Long.MIN_VALUE;
+        private volatile String eventName;
+        private volatile int emittedCount;
+
+        private Series(SeriesKey key) {
+            this.key = key;
+        }
+
+        synchronized int observe(String message, Instant at, long nowNanos) {
+            if (firstSeen == null) {
+                firstSeen = at;
+            }
+            lastSeen = at;
+            this.message = message;
+            lastObservedNanos = nowNanos;
+            return ++count;
+        }
+
+        synchronized int observedCount() {
+            return count;
+        }
+
+        synchronized Observation snapshot() {
+            return new Observation(count, firstSeen, lastSeen, message);
+        }
+
+        /** Claim the single queue slot of this series; returns whether the caller must enqueue. */
+        boolean markQueued(long nowNanos) {
+            if (!queued.compareAndSet(false, true)) {
+                return false;
+            }
+            dueAt = Math.max(nowNanos, nextUpdateAt);
+            return true;
+        }
+
+        boolean isIdle(long nowNanos) {
+            return !queued.get() && nowNanos - lastObservedNanos > aggregationWindowNanos;
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            long delay = draining ? 0 : dueAt - System.nanoTime();
+            return unit.convert(delay, TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return Long.compare(dueAt, ((Series) other).dueAt);
+        }
+    }
 }
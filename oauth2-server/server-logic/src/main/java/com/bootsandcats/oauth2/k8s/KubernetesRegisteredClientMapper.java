@@ -22,8 +22,8 @@ import io.fabric8.kubernetes.api.model.ObjectMeta;
  */
 public class KubernetesRegisteredClientMapper {
 
-    private static final String LABEL_CLIENT_ID = "oauth.bootsandcats.com/client-id";
-    private static final String LABEL_REGISTERED_CLIENT_ID =
+    static final String LABEL_CLIENT_ID = "oauth.bootsandcats.com/client-id";
+    static final String LABEL_REGISTERED_CLIENT_ID =
             "oauth.bootsandcats.com/registered-client-id";
 
     public OAuth2Client toResource(RegisteredClient registeredClient, String namespace) {
@@ -231,7 +231,7 @@ public class KubernetesRegisteredClientMapper {
         return value != null ? value : List.of();
     }
 
-    private static String safeLabelValue(String value) {
+    static String safeLabelValue(String value) {
         if (!StringUtils.hasText(value)) {
             return "empty";
         }
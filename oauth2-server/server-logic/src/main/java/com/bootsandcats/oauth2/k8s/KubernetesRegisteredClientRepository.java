@@ -1,15 +1,20 @@
 package com.bootsandcats.oauth2.k8s;
 
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.Base64;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
 import org.springframework.context.annotation.Primary;
 import org.springframework.security.oauth2.server.authorization.client.RegisteredClient;
 import org.springframework.stereotype.Service;
@@ -23,30 +28,139 @@ import io.fabric8.kubernetes.api.model.Secret;
 import io.fabric8.kubernetes.client.KubernetesClient;
 import io.fabric8.kubernetes.client.dsl.MixedOperation;
 import io.fabric8.kubernetes.client.dsl.Resource;
+import io.fabric8.kubernetes.client.informers.ResourceEventHandler;
+import io.fabric8.kubernetes.client.informers.SharedIndexInformer;
+import io.fabric8.kubernetes.client.informers.cache.Cache;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
 
-/** Kubernetes-backed {@link ClientStore} that persists OAuth2 clients as custom resources. */
+/**
+ * Kubernetes-backed {@link ClientStore} that persists OAuth2 clients as custom resources.
+ *
+ * <p>Lookups are served from two informers: one over OAuth2Client resources (indexed by the
+ * client-id and registered-client-id labels) and one over the Secrets they reference through
+ * {@code spec.secretRef}. Each resource is mapped to a {@link RegisteredClient} once and reused
+ * until the resource's or its Secret's {@code resourceVersion} changes, so a repeat lookup makes no
+ * API calls. Until the informers have synced, lookups fall back to the API. Writes always go
+ * through the API.
+ *
+ * <p>The Secret informer only watches Secrets matching {@code
+ * oauth2.clients.kubernetes.secret-labels}, which must not be empty, so the server never caches
+ * every Secret in the namespace. A referenced Secret without those labels is read from the API on
+ * each lookup.
+ */
 @Service
 @Primary
 @ConditionalOnProperty(prefix = "oauth2.clients", name = "store", havingValue = "kubernetes")
-public class KubernetesRegisteredClientRepository implements ClientStore {
+public class KubernetesRegisteredClientRepository implements ClientStore, SmartLifecycle {
 
     private static final Logger log =
             LoggerFactory.getLogger(KubernetesRegisteredClientRepository.class);
 
+    private static final String CLIENT_ID_INDEX = "clientId";
+    private static final String REGISTERED_CLIENT_ID_INDEX = "registeredClientId";
+
+    /** Label selector of the client Secrets unless configured otherwise. */
+    static final String DEFAULT_SECRET_LABELS = "oauth.bootsandcats.com/client-secret=true";
+
     private final MixedOperation<OAuth2Client, OAuth2ClientList, Resource<OAuth2Client>> crdClient;
     private final KubernetesRegisteredClientMapper mapper = new KubernetesRegisteredClientMapper();
     private final KubernetesClient kubernetesClient;
     private final String namespace;
+    private final SharedIndexInformer<OAuth2Client> clientInformer;
+    private final SharedIndexInformer<Secret> secretInformer;
+    private final Map<String, MappedClient> mappedClients = new ConcurrentHashMap<>();
+    private final Set<String> unlabelledSecrets = ConcurrentHashMap.newKeySet();
 
     public KubernetesRegisteredClientRepository(
             KubernetesClient kubernetesClient,
-            @Value("${oauth2.clients.kubernetes.namespace:}") String configuredNamespace) {
+            @Value("${oauth2.clients.kubernetes.namespace:}") String configuredNamespace,
+            @Value("${oauth2.clients.kubernetes.resync-period:PT10M}") Duration resyncPeriod,
+            @Value("${oauth2.clients.kubernetes.secret-labels:" + DEFAULT_SECRET_LABELS + "}")
+                    String secretLabels,
+            MeterRegistry meterRegistry) {
         this.namespace = resolveNamespace(configuredNamespace);
         this.kubernetesClient = kubernetesClient;
         this.crdClient = kubernetesClient.resources(OAuth2Client.class, OAuth2ClientList.class);
+
+        this.clientInformer =
+                crdClient.inNamespace(namespace).runnableInformer(resyncPeriod.toMillis());
+        this.clientInformer.addIndexers(
+                Map.of(
+                        CLIENT_ID_INDEX,
+                        r -> labelValues(r, KubernetesRegisteredClientMapper.LABEL_CLIENT_ID),
+                        REGISTERED_CLIENT_ID_INDEX,
+                        r ->
+                                labelValues(
+                                        r,
+                                        KubernetesRegisteredClientMapper
+                                                .LABEL_REGISTERED_CLIENT_ID)));
+        this.clientInformer.addEventHandler(new EvictOnDelete());
+
+        Map<String, String> secretSelector = parseLabels(secretLabels);
+        if (secretSelector.isEmpty()) {
+            throw new IllegalArgumentException(
+                    "oauth2.clients.kubernetes.secret-labels must select the client Secrets"
+                            + " (key=value,...), got '"
+                            + secretLabels
+                            + "'");
+        }
+        this.secretInformer =
+                kubernetesClient
+                        .secrets()
+                        .inNamespace(namespace)
+                        .withLabels(secretSelector)
+                        .runnableInformer(resyncPeriod.toMillis());
+
+        Gauge.builder("oauth2.clients.cache.size", clientInformer, i -> i.getStore().list().size())
+                .description("OAuth2Client resources held in the informer cache")
+                .register(meterRegistry);
+        Gauge.builder("oauth2.clients.cache.mapped", mappedClients, Map::size)
+                .description("OAuth2Client resources with a cached RegisteredClient mapping")
+                .register(meterRegistry);
+        Gauge.builder("oauth2.clients.cache.synced", this, r -> r.isSynced() ? 1 : 0)
+                .description("1 once the client and Secret informers have completed their lists")
+                .register(meterRegistry);
         log.info("Using Kubernetes client store in namespace={}", this.namespace);
     }
 
+    @Override
+    public void start() {
+        clientInformer
+                .start()
+                .whenComplete(
+                        (ignored, error) -> {
+                            if (error != null) {
+                                log.warn("OAuth2Client informer failed to start", error);
+                            }
+                        });
+        secretInformer
+                .start()
+                .whenComplete(
+                        (ignored, error) -> {
+                            if (error != null) {
+                                log.warn("Client Secret informer failed to start", error);
+                            }
+                        });
+    }
+
+    @Override
+    public void stop() {
+        clientInformer.stop();
+        secretInformer.stop();
+        mappedClients.clear();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return clientInformer.isRunning();
+    }
+
+    /** Whether lookups are currently served from the informer caches. */
+    public boolean isSynced() {
+        return clientInformer.hasSynced() && secretInformer.hasSynced();
+    }
+
     @Override
     public void save(RegisteredClient registeredClient) {
         OAuth2Client existing = findResourceByClientId(registeredClient.getClientId());
@@ -80,19 +194,35 @@ public class KubernetesRegisteredClientRepository implements ClientStore {
 
     @Override
     public RegisteredClient findById(String id) {
+        if (isSynced()) {
+            return toRegisteredClient(
+                    firstMatch(
+                            REGISTERED_CLIENT_ID_INDEX,
+                            KubernetesRegisteredClientMapper.safeLabelValue(id)));
+        }
         OAuth2Client resource = findByLabel(mapper.selectorForRegisteredClientId(id));
         return toRegisteredClient(resource);
     }
 
     @Override
     public RegisteredClient findByClientId(String clientId) {
+        if (isSynced()) {
+            return toRegisteredClient(
+                    firstMatch(
+                            CLIENT_ID_INDEX,
+                            KubernetesRegisteredClientMapper.safeLabelValue(clientId)));
+        }
         OAuth2Client resource = findResourceByClientId(clientId);
         return toRegisteredClient(resource);
     }
 
     @Override
     public List<RegisteredClient> findAllClients() {
-        return crdClient.inNamespace(namespace).list().getItems().stream()
+        List<OAuth2Client> resources =
+                isSynced()
+                        ? clientInformer.getStore().list()
+                        : crdClient.inNamespace(namespace).list().getItems();
+        return resources.stream()
                 .map(this::toRegisteredClient)
                 .filter(Objects::nonNull)
                 .toList();
@@ -110,6 +240,21 @@ public class KubernetesRegisteredClientRepository implements ClientStore {
         return findByLabel(mapper.selectorForClientId(clientId));
     }
 
+    private OAuth2Client firstMatch(String indexName, String labelValue) {
+        List<OAuth2Client> items = clientInformer.getIndexer().byIndex(indexName, labelValue);
+        if (CollectionUtils.isEmpty(items)) {
+            return null;
+        }
+        if (items.size() > 1) {
+            log.warn(
+                    "Multiple OAuth2Client resources matched {}={}; using first result: {}",
+                    indexName,
+                    labelValue,
+                    items.stream().map(c -> c.getMetadata().getName()).toList());
+        }
+        return items.get(0);
+    }
+
     private OAuth2Client findByLabel(Map<String, String> selector) {
         List<OAuth2Client> items =
                 crdClient.inNamespace(namespace).withLabels(selector).list().getItems();
@@ -133,20 +278,60 @@ public class KubernetesRegisteredClientRepository implements ClientStore {
         if (spec != null && Boolean.FALSE.equals(spec.getEnabled())) {
             return null;
         }
-        if (spec != null && Boolean.TRUE.equals(spec.getSystem())) {
-            // System flag is handled by admin code; for runtime lookups we still return it.
+
+        if (!isSynced()) {
+            return mapRegisteredClient(resource, resolveEncodedSecretFromRef(spec));
+        }
+
+        Secret secret = cachedSecret(spec);
+        OAuth2ClientSecretRef ref = spec != null ? spec.getSecretRef() : null;
+        if (secret == null && ref != null && StringUtils.hasText(ref.getName())) {
+            warnUnlabelled(ref);
+            return mapRegisteredClient(resource, resolveEncodedSecretFromRef(spec));
+        }
+        String resourceVersion = resourceVersion(resource.getMetadata());
+        String secretVersion = secret != null ? resourceVersion(secret.getMetadata()) : null;
+        String key = resource.getMetadata().getName();
+        MappedClient mapped = mappedClients.get(key);
+        if (mapped != null && mapped.matches(resourceVersion, secretVersion)) {
+            return mapped.registeredClient();
         }
+
+        RegisteredClient rc = mapRegisteredClient(resource, secretValue(secret, spec));
+        if (rc != null && resourceVersion != null) {
+            mappedClients.put(key, new MappedClient(resourceVersion, secretVersion, rc));
+        }
+        return rc;
+    }
+
+    private RegisteredClient mapRegisteredClient(OAuth2Client resource, String encodedSecret) {
         RegisteredClient rc = mapper.toRegisteredClient(resource);
         if (rc == null) {
             return null;
         }
+        if (StringUtils.hasText(encodedSecret)) {
+            return RegisteredClient.from(rc).clientSecret(encodedSecret).build();
+        }
+        return rc;
+    }
 
-        String encodedSecretOverride = resolveEncodedSecretFromRef(spec);
-        if (StringUtils.hasText(encodedSecretOverride)) {
-            return RegisteredClient.from(rc).clientSecret(encodedSecretOverride).build();
+    private Secret cachedSecret(OAuth2ClientSpec spec) {
+        OAuth2ClientSecretRef ref = spec != null ? spec.getSecretRef() : null;
+        if (ref == null || !StringUtils.hasText(ref.getName())) {
+            return null;
         }
+        return secretInformer.getStore().getByKey(Cache.namespaceKeyFunc(namespace, ref.getName()));
+    }
 
-        return rc;
+    private void warnUnlabelled(OAuth2ClientSecretRef ref) {
+        if (unlabelledSecrets.add(ref.getName())) {
+            log.warn(
+                    "Secret {}/{} is not in the Secret informer cache; reading it from the API on"
+                            + " every lookup. Label it to match"
+                            + " oauth2.clients.kubernetes.secret-labels.",
+                    namespace,
+                    ref.getName());
+        }
     }
 
     private String resolveEncodedSecretFromRef(OAuth2ClientSpec spec) {
@@ -167,22 +352,7 @@ public class KubernetesRegisteredClientRepository implements ClientStore {
             if (secret == null) {
                 return null;
             }
-
-            // Prefer stringData when present (typically only during creation), otherwise decode
-            // data.
-            if (secret.getStringData() != null) {
-                String v = secret.getStringData().get(ref.getKey());
-                if (StringUtils.hasText(v)) {
-                    return v;
-                }
-            }
-            if (secret.getData() != null) {
-                String b64 = secret.getData().get(ref.getKey());
-                if (StringUtils.hasText(b64)) {
-                    return new String(Base64.getDecoder().decode(b64), StandardCharsets.UTF_8);
-                }
-            }
-            return null;
+            return secretValue(secret, spec);
         } catch (Exception e) {
             // Best-effort: if secret lookup fails, fall back to spec.encodedSecret.
             log.debug(
@@ -195,6 +365,84 @@ public class KubernetesRegisteredClientRepository implements ClientStore {
         }
     }
 
+    private static String secretValue(Secret secret, OAuth2ClientSpec spec) {
+        OAuth2ClientSecretRef ref = spec != null ? spec.getSecretRef() : null;
+        if (secret == null || ref == null || !StringUtils.hasText(ref.getKey())) {
+            return null;
+        }
+        // Prefer stringData when present (typically only during creation), otherwise decode data.
+        if (secret.getStringData() != null) {
+            String v = secret.getStringData().get(ref.getKey());
+            if (StringUtils.hasText(v)) {
+                return v;
+            }
+        }
+        if (secret.getData() != null) {
+            String b64 = secret.getData().get(ref.getKey());
+            if (StringUtils.hasText(b64)) {
+                try {
+                    return new String(Base64.getDecoder().decode(b64), StandardCharsets.UTF_8);
+                } catch (IllegalArgumentException e) {
+                    log.debug("Secret {} key {} is not valid base64", ref.getName(), ref.getKey());
+                }
+            }
+        }
+        return null;
+    }
+
+    private static String resourceVersion(ObjectMeta meta) {
+        return meta != null ? meta.getResourceVersion() : null;
+    }
+
+    private static List<String> labelValues(OAuth2Client resource, String label) {
+        ObjectMeta meta = resource.getMetadata();
+        if (meta == null || meta.getLabels() == null || !meta.getLabels().containsKey(label)) {
+            return List.of();
+        }
+        return List.of(meta.getLabels().get(label));
+    }
+
+    /** Parse {@code key=value,key2=value2} into a label selector. */
+    private static Map<String, String> parseLabels(String value) {
+        Map<String, String> labels = new HashMap<>();
+        if (!StringUtils.hasText(value)) {
+            return labels;
+        }
+        for (String pair : value.split(",")) {
+            int eq = pair.indexOf('=');
+            if (eq > 0) {
+                labels.put(pair.substring(0, eq).trim(), pair.substring(eq + 1).trim());
+            }
+        }
+        return labels;
+    }
+
+    /** A mapped client and the resource versions it was built from. */
+    private record MappedClient(
+            String resourceVersion, String secretVersion, RegisteredClient registeredClient) {
+
+        boolean matches(String currentResourceVersion, String currentSecretVersion) {
+            return resourceVersion.equals(currentResourceVersion)
+                    && Objects.equals(secretVersion, currentSecretVersion);
+        }
+    }
+
+    private final class EvictOnDelete implements ResourceEventHandler<OAuth2Client> {
+
+        @Override
+        public void onAdd(OAuth2Client resource) {}
+
+        @Override
+        public void onUpdate(OAuth2Client oldResource, OAuth2Client newResource) {}
+
+        @Override
+        public void onDelete(OAuth2Client resource, boolean deletedFinalStateUnknown) {
+            if (resource.getMetadata() != null) {
+                mappedClients.remove(resource.getMetadata().getName());
+            }
+        }
+    }
+
     private static String resolveNamespace(String configuredNamespace) {
         if (configuredNamespace != null && !configuredNamespace.isBlank()) {
             return configuredNamespace;
@@ -0,0 +1,55 @@
+package com.bootsandcats.oauth2.k8s;
+
+/**
+ * Token-bucket rate limiter: up to {@code burst} permits at once, refilled at {@code
+ * permitsPerSecond}. Not thread-safe; callers serialize access.
+ */
+final class TokenBucket {
+
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+    private final double permitsPerSecond;
+    private final double capacity;
+
+    private double tokens;
+    private long refilledAt;
+
+    TokenBucket(double permitsPerSecond, int burst, long nowNanos) {
+        if (permitsPerSecond <= 0) {
+            throw new IllegalArgumentException("permitsPerSecond must be positive");
+        }
+        this.permitsPerSecond = permitsPerSecond;
+        this.capacity = Math.max(1, burst);
+        this.tokens = capacity;
+        this.refilledAt = nowNanos;
+    }
+
+    /**
+     * Take one permit, borrowing against future refills if none is available.
+     *
+     * @return nanoseconds the caller must wait before using the permit; zero if it is available now
+     */
+    long reserve(long nowNanos) {
+        refill(nowNanos);
+        tokens -= 1;
+        return tokens >= 0 ? 0 : (long) Math.ceil(-tokens * NANOS_PER_SECOND / permitsPerSecond);
+    }
+
+    /** Take one permit only if it is available now. */
+    boolean tryAcquire(long nowNanos) {
+        refill(nowNanos);
+        if (tokens < 1) {
+            return false;
+        }
+        tokens -= 1;
+        return true;
+    }
+
+    private void refill(long nowNanos) {
+        long elapsed = nowNanos - refilledAt;
+        if (elapsed > 0) {
+            tokens = Math.min(capacity, tokens + elapsed * permitsPerSecond / NANOS_PER_SECOND);
+            refilledAt = nowNanos;
+        }
+    }
+}
@@ -1,22 +1,35 @@
 package com.bootsandcats.oauth2.security;
 
-import java.util.List;
 import java.util.Locale;
 import java.util.Optional;
-import java.util.regex.Pattern;
-import java.util.regex.PatternSyntaxException;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
 import org.springframework.util.StringUtils;
 
 import com.bootsandcats.oauth2.model.DenyMatchField;
-import com.bootsandcats.oauth2.model.DenyMatchType;
 import com.bootsandcats.oauth2.model.DenyRuleEntity;
 
+/**
+ * Checks logins against the deny rules.
+ *
+ * <p>Rules are matched against an in-memory {@link DenyRuleIndex} rather than queried per login.
+ * The index is built on first use and replaced (copy-on-write) when a {@link
+ * DenyRulesChangedEvent} is published after commit, and on {@code oauth2.deny.refresh-interval} to
+ * pick up changes made by other replicas. A failed rebuild keeps the previous index.
+ */
 @Service
 public class DenyListService {
 
+    private static final Logger log = LoggerFactory.getLogger(DenyListService.class);
+
     private final DenyRuleStore denyRuleStore;
+    private final Object rebuildLock = new Object();
+
+    private volatile DenyRuleIndex index;
 
     public DenyListService(DenyRuleStore denyRuleStore) {
         this.denyRuleStore = denyRuleStore;
@@ -26,22 +39,22 @@ public class DenyListService {
             String provider, String email, String username, String providerId) {
         // Provider string used for provider-specific rules; treat null/blank as "local"
         String resolvedProvider = StringUtils.hasText(provider) ? provider : "local";
+        String providerScope = DenyRuleIndex.scopeKey(resolvedProvider);
+        DenyRuleIndex current = currentIndex();
 
         Optional<DenyRuleEntity> emailMatch =
-                findMatchForField(resolvedProvider, DenyMatchField.EMAIL, normalize(email), email);
+                findMatchForField(current, providerScope, DenyMatchField.EMAIL, email);
         if (emailMatch.isPresent()) {
             return emailMatch;
         }
 
         Optional<DenyRuleEntity> usernameMatch =
-                findMatchForField(
-                        resolvedProvider, DenyMatchField.USERNAME, normalize(username), username);
+                findMatchForField(current, providerScope, DenyMatchField.USERNAME, username);
         if (usernameMatch.isPresent()) {
             return usernameMatch;
         }
 
-        return findMatchForField(
-                resolvedProvider, DenyMatchField.PROVIDER_ID, normalize(providerId), providerId);
+        return findMatchForField(current, providerScope, DenyMatchField.PROVIDER_ID, providerId);
     }
 
     public void assertNotDenied(String provider, String email, String username, String providerId) {
@@ -56,48 +69,57 @@ public class DenyListService {
         }
     }
 
-    private Optional<DenyRuleEntity> findMatchForField(
-            String provider,
-            DenyMatchField field,
-            String normalizedCandidate,
-            String rawCandidate) {
-        if (!StringUtils.hasText(rawCandidate)) {
-            return Optional.empty();
+    /** Rebuild the index from the store and swap it in. */
+    public void refresh() {
+        synchronized (rebuildLock) {
+            DenyRuleIndex rebuilt = DenyRuleIndex.build(denyRuleStore.findAll());
+            index = rebuilt;
+            log.debug("Rebuilt deny rule index with {} active rules", rebuilt.size());
         }
+    }
 
-        List<DenyRuleEntity> activeRules =
-                denyRuleStore.findActiveRulesForProvider(provider, field);
-        for (DenyRuleEntity rule : activeRules) {
-            if (matches(rule, normalizedCandidate, rawCandidate)) {
-                return Optional.of(rule);
-            }
-        }
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDenyRulesChanged(DenyRulesChangedEvent event) {
+        refreshQuietly(event.source());
+    }
 
-        // If provider-specific query already includes global rules, no need to separately query
-        // globals.
-        return Optional.empty();
+    @Scheduled(
+            fixedDelayString = "${oauth2.deny.refresh-interval:PT1M}",
+            initialDelayString = "${oauth2.deny.refresh-interval:PT1M}")
+    public void scheduledRefresh() {
+        if (index != null) {
+            refreshQuietly("schedule");
+        }
     }
 
-    private boolean matches(DenyRuleEntity rule, String normalizedCandidate, String rawCandidate) {
-        if (rule.getMatchType() == DenyMatchType.EXACT) {
-            String expected =
-                    rule.getNormalizedValue() != null && !rule.getNormalizedValue().isBlank()
-                            ? rule.getNormalizedValue()
-                            : normalize(rule.getPattern());
-            return expected != null && expected.equals(normalizedCandidate);
+    private void refreshQuietly(String source) {
+        try {
+            refresh();
+        } catch (RuntimeException e) {
+            log.warn("Failed to rebuild deny rule index ({}); keeping previous rules", source, e);
         }
+    }
 
-        if (rule.getMatchType() == DenyMatchType.REGEX) {
-            try {
-                Pattern p = Pattern.compile(rule.getPattern(), Pattern.CASE_INSENSITIVE);
-                return p.matcher(rawCandidate).matches();
-            } catch (PatternSyntaxException ex) {
-                // Invalid patterns should never deny logins unexpectedly.
-                return false;
+    private DenyRuleIndex currentIndex() {
+        DenyRuleIndex current = index;
+        if (current == null) {
+            synchronized (rebuildLock) {
+                current = index;
+                if (current == null) {
+                    current = DenyRuleIndex.build(denyRuleStore.findAll());
+                    index = current;
+                }
             }
         }
+        return current;
+    }
 
-        return false;
+    private Optional<DenyRuleEntity> findMatchForField(
+            DenyRuleIndex current, String providerScope, DenyMatchField field, String candidate) {
+        if (!StringUtils.hasText(candidate)) {
+            return Optional.empty();
+        }
+        return current.match(providerScope, field, normalize(candidate), candidate);
     }
 
     private String normalize(String value) {
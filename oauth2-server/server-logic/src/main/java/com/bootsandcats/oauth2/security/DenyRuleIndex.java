@@ -0,0 +1,235 @@
+package com.bootsandcats.oauth2.security;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.util.StringUtils;
+
+import com.bootsandcats.oauth2.model.DenyMatchField;
+import com.bootsandcats.oauth2.model.DenyMatchType;
+import com.bootsandcats.oauth2.model.DenyRuleEntity;
+
+/**
+ * Immutable, precompiled view of the enabled deny rules.
+ *
+ * <p>Per {@link DenyMatchField} and provider scope ({@code ""} for global rules, i.e. no provider
+ * or {@code *}, otherwise the lower-cased provider):
+ *
+ * <ul>
+ *   <li>EXACT rules are a hash map from normalized value to rule.
+ *   <li>REGEX rules are compiled once. Patterns that are safe to combine are also joined into a
+ *       single case-insensitive alternation, so a miss costs one match attempt per scope; the
+ *       individual patterns are only consulted to identify the rule after a hit.
+ * </ul>
+ *
+ * <p>Invalid patterns are skipped (they never deny a login). Instances are replaced wholesale by
+ * {@link DenyListService} when rules change.
+ */
+final class DenyRuleIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(DenyRuleIndex.class);
+
+    static final String GLOBAL_SCOPE = "";
+
+    /**
+     * Backreferences, named groups, inline flags and {@code \Q} quoting can leak into or change
+     * meaning in neighbouring alternatives, so such patterns are matched on their own.
+     */
+    private static final Pattern NOT_COMBINABLE =
+            Pattern.compile("\\\\[1-9]|\\\\k<|\\\\Q|\\(\\?<[A-Za-z]|\\(\\?[idmsuxU-]");
+
+    private final Map<DenyMatchField, Map<String, Scope>> scopes;
+    private final int ruleCount;
+
+    private DenyRuleIndex(Map<DenyMatchField, Map<String, Scope>> scopes, int ruleCount) {
+        this.scopes = scopes;
+        this.ruleCount = ruleCount;
+    }
+
+    static DenyRuleIndex build(Collection<DenyRuleEntity> rules) {
+        Map<DenyMatchField, Map<String, ScopeBuilder>> builders =
+                new EnumMap<>(DenyMatchField.class);
+        int count = 0;
+        for (DenyRuleEntity rule : rules) {
+            if (!rule.isEnabled()
+                    || rule.getMatchField() == null
+                    || rule.getMatchType() == null
+                    || rule.getPattern() == null) {
+                continue;
+            }
+            ScopeBuilder scope =
+                    builders.computeIfAbsent(rule.getMatchField(), f -> new HashMap<>())
+                            .computeIfAbsent(
+                                    scopeKey(rule.getProvider()), p -> new ScopeBuilder());
+            if (scope.add(rule)) {
+                count++;
+            }
+        }
+
+        Map<DenyMatchField, Map<String, Scope>> scopes = new EnumMap<>(DenyMatchField.class);
+        builders.forEach(
+                (field, byProvider) -> {
+                    Map<String, Scope> built = new HashMap<>();
+                    byProvider.forEach(
+                            (provider, builder) -> built.put(provider, builder.build()));
+                    scopes.put(field, Map.copyOf(built));
+                });
+        return new DenyRuleIndex(scopes, count);
+    }
+
+    /** Number of enabled, valid rules in the index. */
+    int size() {
+        return ruleCount;
+    }
+
+    /**
+     * Find a rule matching a candidate value, checking provider-specific rules before global ones.
+     *
+     * @param providerScope lower-cased provider, see {@link #scopeKey(String)}
+     * @param field the field being checked
+     * @param normalizedCandidate trimmed, lower-cased candidate (used by EXACT rules)
+     * @param rawCandidate candidate as presented (used by REGEX rules)
+     */
+    Optional<DenyRuleEntity> match(
+            String providerScope,
+            DenyMatchField field,
+            String normalizedCandidate,
+            String rawCandidate) {
+        Map<String, Scope> byProvider = scopes.get(field);
+        if (byProvider == null) {
+            return Optional.empty();
+        }
+        if (!GLOBAL_SCOPE.equals(providerScope)) {
+            Scope scope = byProvider.get(providerScope);
+            DenyRuleEntity hit =
+                    scope != null ? scope.match(normalizedCandidate, rawCandidate) : null;
+            if (hit != null) {
+                return Optional.of(hit);
+            }
+        }
+        Scope global = byProvider.get(GLOBAL_SCOPE);
+        return Optional.ofNullable(
+                global != null ? global.match(normalizedCandidate, rawCandidate) : null);
+    }
+
+    /** Scope key for a rule or login provider: {@code ""} for global, else lower-cased. */
+    static String scopeKey(String provider) {
+        if (!StringUtils.hasText(provider) || "*".equals(provider.trim())) {
+            return GLOBAL_SCOPE;
+        }
+        return provider.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private record CompiledRule(DenyRuleEntity rule, Pattern pattern) {}
+
+    private record Scope(
+            Map<String, DenyRuleEntity> exact,
+            Pattern combined,
+            List<CompiledRule> combinedRules,
+            List<CompiledRule> standaloneRules) {
+
+        DenyRuleEntity match(String normalizedCandidate, String rawCandidate) {
+            if (normalizedCandidate != null) {
+                DenyRuleEntity rule = exact.get(normalizedCandidate);
+                if (rule != null) {
+                    return rule;
+                }
+            }
+            if (rawCandidate == null) {
+                return null;
+            }
+            if (combined != null && combined.matcher(rawCandidate).matches()) {
+                for (CompiledRule compiled : combinedRules) {
+                    if (compiled.pattern().matcher(rawCandidate).matches()) {
+                        return compiled.rule();
+                    }
+                }
+            }
+            for (CompiledRule compiled : standaloneRules) {
+                if (compiled.pattern().matcher(rawCandidate).matches()) {
+                    return compiled.rule();
+                }
+            }
+            return null;
+        }
+    }
+
+    private static final class ScopeBuilder {
+        private final Map<String, DenyRuleEntity> exact = new HashMap<>();
+        private final List<CompiledRule> combinable = new ArrayList<>();
+        private final List<CompiledRule> standalone = new ArrayList<>();
+
+        boolean add(DenyRuleEntity rule) {
+            if (rule.getMatchType() == DenyMatchType.EXACT) {
+                String expected =
+                        StringUtils.hasText(rule.getNormalizedValue())
+                                ? rule.getNormalizedValue()
+                                : normalize(rule.getPattern());
+                if (expected == null) {
+                    return false;
+                }
+                exact.putIfAbsent(expected, rule);
+                return true;
+            }
+            if (rule.getMatchType() == DenyMatchType.REGEX) {
+                Pattern pattern;
+                try {
+                    pattern = Pattern.compile(rule.getPattern(), Pattern.CASE_INSENSITIVE);
+                } catch (PatternSyntaxException ex) {
+                    log.warn("Ignoring deny rule {} with invalid pattern", rule.getId());
+                    return false;
+                }
+                CompiledRule compiled = new CompiledRule(rule, pattern);
+                if (NOT_COMBINABLE.matcher(rule.getPattern()).find()) {
+                    standalone.add(compiled);
+                } else {
+                    combinable.add(compiled);
+                }
+                return true;
+            }
+            return false;
+        }
+
+        Scope build() {
+            Pattern combined = null;
+            List<CompiledRule> combinedRules = List.of();
+            List<CompiledRule> standaloneRules = new ArrayList<>(standalone);
+            if (combinable.size() > 1) {
+                StringBuilder alternation = new StringBuilder();
+                for (CompiledRule compiled : combinable) {
+                    if (!alternation.isEmpty()) {
+                        alternation.append('|');
+                    }
+                    alternation.append("(?:").append(compiled.rule().getPattern()).append(')');
+                }
+                try {
+                    combined = Pattern.compile(alternation.toString(), Pattern.CASE_INSENSITIVE);
+                    combinedRules = List.copyOf(combinable);
+                } catch (PatternSyntaxException ex) {
+                    standaloneRules.addAll(combinable);
+                }
+            } else {
+                standaloneRules.addAll(combinable);
+            }
+            return new Scope(
+                    Map.copyOf(exact), combined, combinedRules, List.copyOf(standaloneRules));
+        }
+    }
+
+    private static String normalize(String value) {
+        if (!StringUtils.hasText(value)) {
+            return null;
+        }
+        return value.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,9 @@
+package com.bootsandcats.oauth2.security;
+
+/**
+ * Published when deny rules are created, updated or deleted, so {@link DenyListService} can rebuild
+ * its compiled index.
+ *
+ * @param source short description of where the change came from (e.g. {@code admin})
+ */
+public record DenyRulesChangedEvent(String source) {}
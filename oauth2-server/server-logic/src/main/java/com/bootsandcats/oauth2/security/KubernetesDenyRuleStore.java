@@ -1,5 +1,6 @@
 package com.bootsandcats.oauth2.security;
 
+import java.time.Duration;
 import java.time.Instant;
 import java.time.format.DateTimeParseException;
 import java.util.Comparator;
@@ -7,12 +8,19 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.SmartLifecycle;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 
@@ -25,13 +33,32 @@ import com.bootsandcats.oauth2.model.DenyRuleEntity;
 
 import io.fabric8.kubernetes.api.model.ObjectMeta;
 import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.kubernetes.client.KubernetesClientException;
 import io.fabric8.kubernetes.client.dsl.MixedOperation;
 import io.fabric8.kubernetes.client.dsl.Resource;
-
-/** Kubernetes-backed deny rule store using the OAuth2DenyRule custom resource. */
+import io.fabric8.kubernetes.client.informers.ResourceEventHandler;
+import io.fabric8.kubernetes.client.informers.SharedIndexInformer;
+import io.fabric8.kubernetes.client.informers.cache.Cache;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Kubernetes-backed deny rule store using the OAuth2DenyRule custom resource.
+ *
+ * <p>Reads are served from a {@link SharedIndexInformer} cache; until the informer has synced they
+ * fall back to listing through the API. Writes go through the API and reach the cache via the
+ * watch. Adds, updates and deletes seen by the informer publish a {@link DenyRulesChangedEvent}, so
+ * {@link DenyListService} rebuilds its index without polling. Changes are debounced: a burst, such
+ * as the initial list being delivered to the handler, publishes one event once it has settled.
+ * Nothing is published before the informer has synced; instead one event is published when it
+ * first syncs, so an index built from the API list in the meantime is rebuilt.
+ *
+ * <p>New ids come from the highest id the informer has seen; a create that loses a race with
+ * another replica ({@code 409 Conflict}) retries with the next id.
+ */
 @Service
 @ConditionalOnProperty(prefix = "oauth2.deny", name = "store", havingValue = "kubernetes")
-public class KubernetesDenyRuleStore implements DenyRuleStore {
+public class KubernetesDenyRuleStore implements DenyRuleStore, SmartLifecycle {
 
     private static final Logger log = LoggerFactory.getLogger(KubernetesDenyRuleStore.class);
 
@@ -39,34 +66,104 @@ public class KubernetesDenyRuleStore implements DenyRuleStore {
     private static final String MATCH_FIELD_LABEL = "oauth.bootsandcats.com/deny-match-field";
     private static final String PROVIDER_LABEL = "oauth.bootsandcats.com/deny-provider";
 
+    private static final int MAX_CREATE_ATTEMPTS = 5;
+
+    /** Quiet period after the last change before a {@link DenyRulesChangedEvent} is published. */
+    static final Duration CHANGE_DEBOUNCE = Duration.ofMillis(250);
+
     private final MixedOperation<OAuth2DenyRule, OAuth2DenyRuleList, Resource<OAuth2DenyRule>> crd;
     private final String namespace;
+    private final ApplicationEventPublisher eventPublisher;
+    private final SharedIndexInformer<OAuth2DenyRule> informer;
+    private final AtomicLong highestId = new AtomicLong();
+    private final AtomicLong changes = new AtomicLong();
+    private final Executor debounceExecutor =
+            CompletableFuture.delayedExecutor(CHANGE_DEBOUNCE.toMillis(), TimeUnit.MILLISECONDS);
 
     public KubernetesDenyRuleStore(
             KubernetesClient kubernetesClient,
-            @Value("${oauth2.deny.kubernetes.namespace:}") String configuredNamespace) {
+            @Value("${oauth2.deny.kubernetes.namespace:}") String configuredNamespace,
+            @Value("${oauth2.deny.kubernetes.resync-period:PT10M}") Duration resyncPeriod,
+            ApplicationEventPublisher eventPublisher,
+            MeterRegistry meterRegistry) {
         this.namespace = resolveNamespace(configuredNamespace);
         this.crd = kubernetesClient.resources(OAuth2DenyRule.class, OAuth2DenyRuleList.class);
+        this.eventPublisher = eventPublisher;
+        this.informer = crd.inNamespace(namespace).runnableInformer(resyncPeriod.toMillis());
+        this.informer.addEventHandler(new ChangeHandler());
+
+        Gauge.builder("oauth2.deny.rules.cache.size", informer, i -> i.getStore().list().size())
+                .description("OAuth2DenyRule resources held in the informer cache")
+                .register(meterRegistry);
+        Gauge.builder("oauth2.deny.rules.cache.synced", informer, i -> i.hasSynced() ? 1 : 0)
+                .description("1 once the deny rule informer has completed its initial list")
+                .register(meterRegistry);
         log.info("Using Kubernetes deny rule store in namespace={}", this.namespace);
     }
 
+    @Override
+    public void start() {
+        informer.start()
+                .whenComplete(
+                        (ignored, error) -> {
+                            if (error != null) {
+                                log.warn("Deny rule informer failed to start", error);
+                            } else {
+                                log.info(
+                                        "Deny rule informer synced with {} rules",
+                                        informer.getStore().list().size());
+                                // Changes seen before the sync were not published; an index built
+                                // from the API in the meantime may have missed them.
+                                eventPublisher.publishEvent(
+                                        new DenyRulesChangedEvent("kubernetes"));
+                            }
+                        });
+    }
+
+    @Override
+    public void stop() {
+        informer.stop();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return informer.isRunning();
+    }
+
+    /** Whether reads are currently served from the informer cache. */
+    public boolean isSynced() {
+        return informer.hasSynced();
+    }
+
     @Override
     public List<DenyRuleEntity> findAll() {
-        return crd.inNamespace(namespace).list().getItems().stream().map(this::toEntity).toList();
+        List<OAuth2DenyRule> resources =
+                informer.hasSynced()
+                        ? informer.getStore().list()
+                        : crd.inNamespace(namespace).list().getItems();
+        return resources.stream()
+                .map(this::toEntity)
+                .sorted(
+                        Comparator.comparing(
+                                DenyRuleEntity::getId,
+                                Comparator.nullsLast(Comparator.naturalOrder())))
+                .toList();
     }
 
     @Override
     public Optional<DenyRuleEntity> findById(long id) {
-        OAuth2DenyRule resource = crd.inNamespace(namespace).withName(nameForId(id)).get();
+        OAuth2DenyRule resource =
+                informer.hasSynced()
+                        ? informer.getStore()
+                                .getByKey(Cache.namespaceKeyFunc(namespace, nameForId(id)))
+                        : crd.inNamespace(namespace).withName(nameForId(id)).get();
         return Optional.ofNullable(resource).map(this::toEntity);
     }
 
     @Override
     public DenyRuleEntity save(DenyRuleEntity entity) {
-        Long id = entity.getId();
-        if (id == null) {
-            id = nextId();
-            entity.setId(id);
+        if (entity.getId() == null) {
+            return create(entity);
         }
 
         OAuth2DenyRule desired = toResource(entity);
@@ -95,11 +192,21 @@ public class KubernetesDenyRuleStore implements DenyRuleStore {
         String providerNorm = StringUtils.hasText(provider) ? provider.trim() : "";
 
         String labelValue = matchField.name().toLowerCase(Locale.ROOT);
-        List<OAuth2DenyRule> items =
-                crd.inNamespace(namespace)
-                        .withLabel(MATCH_FIELD_LABEL, labelValue)
-                        .list()
-                        .getItems();
+        List<OAuth2DenyRule> items;
+        if (informer.hasSynced()) {
+            // Not on the login path (DenyListService matches against its own index), so a scan of
+            // the cache is enough.
+            items =
+                    informer.getStore().list().stream()
+                            .filter(r -> labelValue.equals(labelValue(r, MATCH_FIELD_LABEL)))
+                            .toList();
+        } else {
+            items =
+                    crd.inNamespace(namespace)
+                            .withLabel(MATCH_FIELD_LABEL, labelValue)
+                            .list()
+                            .getItems();
+        }
 
         return items.stream()
                 .map(this::toEntity)
@@ -118,6 +225,76 @@ public class KubernetesDenyRuleStore implements DenyRuleStore {
                 .toList();
     }
 
+    private DenyRuleEntity create(DenyRuleEntity entity) {
+        KubernetesClientException lastConflict = null;
+        for (int attempt = 0; attempt < MAX_CREATE_ATTEMPTS; attempt++) {
+            entity.setId(nextId());
+            try {
+                crd.inNamespace(namespace).resource(toResource(entity)).create();
+                return entity;
+            } catch (KubernetesClientException e) {
+                if (e.getCode() != 409) {
+                    entity.setId(null);
+                    throw e;
+                }
+                lastConflict = e;
+                log.debug("Deny rule id {} already taken; retrying", entity.getId());
+            }
+        }
+        entity.setId(null);
+        throw lastConflict;
+    }
+
+    private final class ChangeHandler implements ResourceEventHandler<OAuth2DenyRule> {
+
+        @Override
+        public void onAdd(OAuth2DenyRule resource) {
+            trackId(resource);
+            publishChange();
+        }
+
+        @Override
+        public void onUpdate(OAuth2DenyRule oldResource, OAuth2DenyRule newResource) {
+            trackId(newResource);
+            if (!Objects.equals(resourceVersion(oldResource), resourceVersion(newResource))) {
+                publishChange();
+            }
+        }
+
+        @Override
+        public void onDelete(OAuth2DenyRule resource, boolean deletedFinalStateUnknown) {
+            publishChange();
+        }
+
+        private void trackId(OAuth2DenyRule resource) {
+            Long id = tryParseId(resource.getMetadata());
+            if (id != null) {
+                highestId.accumulateAndGet(id, Math::max);
+            }
+        }
+
+        private void publishChange() {
+            long change = changes.incrementAndGet();
+            debounceExecutor.execute(
+                    () -> {
+                        // Only the last change of a burst publishes. The initial list is picked up
+                        // by the first read after sync; only report changes once synced.
+                        if (changes.get() == change && informer.hasSynced()) {
+                            eventPublisher.publishEvent(new DenyRulesChangedEvent("kubernetes"));
+                        }
+                    });
+        }
+    }
+
+    private static String resourceVersion(OAuth2DenyRule resource) {
+        return resource.getMetadata() != null ? resource.getMetadata().getResourceVersion() : null;
+    }
+
+    private static String labelValue(OAuth2DenyRule resource, String label) {
+        ObjectMeta meta = resource.getMetadata();
+        return meta != null && meta.getLabels() != null ? meta.getLabels().get(label) : null;
+    }
+
     private OAuth2DenyRule toResource(DenyRuleEntity entity) {
         OAuth2DenyRule resource = new OAuth2DenyRule();
 
@@ -198,13 +375,14 @@ public class KubernetesDenyRuleStore implements DenyRuleStore {
         return entity;
     }
 
-    private Long nextId() {
-        return crd.inNamespace(namespace).list().getItems().stream()
-                        .map(r -> tryParseId(r.getMetadata()))
-                        .filter(v -> v != null && v > 0)
-                        .max(Comparator.naturalOrder())
-                        .orElse(0L)
-                + 1;
+    private long nextId() {
+        if (!informer.hasSynced()) {
+            crd.inNamespace(namespace).list().getItems().stream()
+                    .map(r -> tryParseId(r.getMetadata()))
+                    .filter(v -> v != null && v > 0)
+                    .forEach(v -> highestId.accumulateAndGet(v, Math::max));
+        }
+        return highestId.incrementAndGet();
     }
 
     private static Long tryParseId(ObjectMeta meta) {
@@ -0,0 +1,236 @@
+package com.bootsandcats.oauth2.security;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import com.bootsandcats.oauth2.config.LoginFailureTrackerProperties;
+import com.bootsandcats.oauth2.config.LoginFailureTrackerProperties.Mode;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Counts recent authentication failures per principal and per IP address, for lockout and
+ * throttling decisions that must not query the audit table.
+ *
+ * <p>Failures are counted in {@link SlidingWindowCounter}s: recording and reading a count are
+ * constant-time and lock-free. Counters live in size-bounded Caffeine maps and expire once a key
+ * has not been seen for a whole window, so a flood of distinct principals or addresses cannot
+ * grow the heap without bound.
+ *
+ * <p>With {@code mode=REDIS} the windows are shared by all replicas: each slice of each key is a
+ * Redis counter that expires with the window, written with one pipelined round trip and read with
+ * one {@code MGET}. The local counters are kept up to date in either mode and answer reads while
+ * Redis is unavailable.
+ */
+@Component
+public class LoginFailureTracker {
+
+    private static final Logger log = LoggerFactory.getLogger(LoginFailureTracker.class);
+
+    private static final String PRINCIPAL = "principal";
+    private static final String IP_ADDRESS = "ip";
+
+    private final ObjectProvider<StringRedisTemplate> redisTemplate;
+    private final boolean shared;
+    private final String keyPrefix;
+    private final int slices;
+    private final long sliceMillis;
+    private final Cache<String, SlidingWindowCounter> byPrincipal;
+    private final Cache<String, SlidingWindowCounter> byIpAddress;
+
+    public LoginFailureTracker(
+            LoginFailureTrackerProperties properties,
+            ObjectProvider<StringRedisTemplate> redisTemplate,
+            MeterRegistry meterRegistry) {
+        if (properties.getSlices() < 1) {
+            throw new IllegalArgumentException("slices must be at least 1");
+        }
+        this.redisTemplate = redisTemplate;
+        this.shared = properties.getMode() == Mode.REDIS;
+        this.keyPrefix = properties.getRedisKeyPrefix();
+        this.slices = properties.getSlices();
+        this.sliceMillis = Math.max(1, properties.getWindow().toMillis() / slices);
+        this.byPrincipal = newCounterCache(properties);
+        this.byIpAddress = newCounterCache(properties);
+        CaffeineCacheMetrics.monitor(
+                meterRegistry, byPrincipal, "oauth2.login-failures.principals");
+        CaffeineCacheMetrics.monitor(
+                meterRegistry, byIpAddress, "oauth2.login-failures.ip-addresses");
+    }
+
+    /**
+     * Count an authentication failure.
+     *
+     * @param principal the principal that failed to authenticate, or {@code null} if unknown
+     * @param ipAddress the client IP address, or {@code null} if unknown
+     */
+    public void recordFailure(String principal, String ipAddress) {
+        recordFailure(principal, ipAddress, System.currentTimeMillis());
+    }
+
+    /**
+     * Forget the failures of a principal that has just authenticated successfully. Failures from
+     * its IP address keep counting.
+     *
+     * @param principal the authenticated principal
+     */
+    public void recordSuccess(String principal) {
+        recordSuccess(principal, System.currentTimeMillis());
+    }
+
+    /**
+     * Failures of {@code principal} within the window.
+     *
+     * @param principal the principal
+     * @return number of recent failures
+     */
+    public long failuresForPrincipal(String principal) {
+        return failuresForPrincipal(principal, System.currentTimeMillis());
+    }
+
+    /**
+     * Failures from {@code ipAddress} within the window.
+     *
+     * @param ipAddress the client IP address
+     * @return number of recent failures
+     */
+    public long failuresForIpAddress(String ipAddress) {
+        return failuresForIpAddress(ipAddress, System.currentTimeMillis());
+    }
+
+    void recordFailure(String principal, String ipAddress, long nowMillis) {
+        long slice = slice(nowMillis);
+        if (principal != null) {
+            byPrincipal.get(principal, key -> new SlidingWindowCounter(slices)).increment(slice);
+        }
+        if (ipAddress != null) {
+            byIpAddress.get(ipAddress, key -> new SlidingWindowCounter(slices)).increment(slice);
+        }
+        StringRedisTemplate redis = sharedRedis();
+        if (redis != null && (principal != null || ipAddress != null)) {
+            try {
+                incrementShared(redis, principal, ipAddress, slice);
+            } catch (RuntimeException e) {
+                log.warn("Failed to record login failure in the shared window", e);
+            }
+        }
+    }
+
+    void recordSuccess(String principal, long nowMillis) {
+        if (principal == null) {
+            return;
+        }
+        byPrincipal.invalidate(principal);
+        StringRedisTemplate redis = sharedRedis();
+        if (redis != null) {
+            try {
+                redis.delete(keys(PRINCIPAL, principal, slice(nowMillis)));
+            } catch (RuntimeException e) {
+                log.warn("Failed to reset shared login failure window", e);
+            }
+        }
+    }
+
+    long failuresForPrincipal(String principal, long nowMillis) {
+        return failures(PRINCIPAL, byPrincipal, principal, nowMillis);
+    }
+
+    long failuresForIpAddress(String ipAddress, long nowMillis) {
+        return failures(IP_ADDRESS, byIpAddress, ipAddress, nowMillis);
+    }
+
+    private long failures(
+            String kind, Cache<String, SlidingWindowCounter> local, String id, long nowMillis) {
+        if (id == null) {
+            return 0;
+        }
+        long slice = slice(nowMillis);
+        StringRedisTemplate redis = sharedRedis();
+        if (redis != null) {
+            try {
+                return sumShared(redis, kind, id, slice);
+            } catch (RuntimeException e) {
+                log.warn("Failed to read the shared login failure window; using local counts", e);
+            }
+        }
+        SlidingWindowCounter counter = local.getIfPresent(id);
+        return counter != null ? counter.sum(slice) : 0;
+    }
+
+    private void incrementShared(
+            StringRedisTemplate redis, String principal, String ipAddress, long slice) {
+        // Each slice key outlives the window by one slice, so it expires once it stops counting.
+        long ttlMillis = (slices + 1) * sliceMillis;
+        redis.executePipelined(
+                (RedisCallback<Object>)
+                        connection -> {
+                            if (principal != null) {
+                                increment(connection, key(PRINCIPAL, principal, slice), ttlMillis);
+                            }
+                            if (ipAddress != null) {
+                                increment(connection, key(IP_ADDRESS, ipAddress, slice), ttlMillis);
+                            }
+                            return null;
+                        });
+    }
+
+    private static void increment(RedisConnection connection, String key, long ttlMillis) {
+        byte[] raw = key.getBytes(StandardCharsets.UTF_8);
+        connection.stringCommands().incr(raw);
+        connection.keyCommands().pExpire(raw, ttlMillis);
+    }
+
+    private long sumShared(StringRedisTemplate redis, String kind, String id, long slice) {
+        List<String> counts = redis.opsForValue().multiGet(keys(kind, id, slice));
+        long sum = 0;
+        if (counts != null) {
+            for (String count : counts) {
+                if (count != null) {
+                    sum += Long.parseLong(count);
+                }
+            }
+        }
+        return sum;
+    }
+
+    private List<String> keys(String kind, String id, long currentSlice) {
+        List<String> keys = new ArrayList<>(slices);
+        for (long slice = currentSlice - slices + 1; slice <= currentSlice; slice++) {
+            keys.add(key(kind, id, slice));
+        }
+        return keys;
+    }
+
+    private String key(String kind, String id, long slice) {
+        return keyPrefix + kind + ":" + id + ":" + slice;
+    }
+
+    private StringRedisTemplate sharedRedis() {
+        return shared ? redisTemplate.getIfAvailable() : null;
+    }
+
+    private long slice(long nowMillis) {
+        return nowMillis / sliceMillis;
+    }
+
+    private static Cache<String, SlidingWindowCounter> newCounterCache(
+            LoginFailureTrackerProperties properties) {
+        return Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumKeys())
+                .expireAfterAccess(properties.getWindow())
+                .recordStats()
+                .build();
+    }
+}
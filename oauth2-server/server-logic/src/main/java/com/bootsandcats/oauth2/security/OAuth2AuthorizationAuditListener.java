@@ -17,6 +17,7 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.context.request.RequestContextHolder;
 import org.springframework.web.context.request.ServletRequestAttributes;
 
+import com.bootsandcats.oauth2.service.OAuth2RequestPhase;
 import com.bootsandcats.oauth2.service.SecurityAuditService;
 
 import jakarta.servlet.http.HttpServletRequest;
@@ -34,13 +35,20 @@ public class OAuth2AuthorizationAuditListener
             LoggerFactory.getLogger(OAuth2AuthorizationAuditListener.class);
 
     private final SecurityAuditService securityAuditService;
+    private final OAuth2RequestPhaseTimer phaseTimer;
 
-    public OAuth2AuthorizationAuditListener(SecurityAuditService securityAuditService) {
+    public OAuth2AuthorizationAuditListener(
+            SecurityAuditService securityAuditService, OAuth2RequestPhaseTimer phaseTimer) {
         this.securityAuditService = securityAuditService;
+        this.phaseTimer = phaseTimer;
     }
 
     @Override
     public void onApplicationEvent(AuthenticationSuccessEvent event) {
+        phaseTimer.time(OAuth2RequestPhase.AUDIT, () -> recordAuditEvent(event));
+    }
+
+    private void recordAuditEvent(AuthenticationSuccessEvent event) {
         Authentication authentication = event.getAuthentication();
         HttpServletRequest request = getCurrentRequest();
 
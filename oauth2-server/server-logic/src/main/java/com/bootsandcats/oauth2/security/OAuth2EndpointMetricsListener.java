@@ -25,6 +25,9 @@ import jakarta.servlet.http.HttpServletRequest;
  *
  * <p>This intentionally avoids high-cardinality labels (client_id, username, subject, token values,
  * IP addresses). The goal is SLO-style observability and operational dashboards.
+ *
+ * <p>The endpoint and outcome are also left on the request for {@link OAuth2EndpointTimingFilter},
+ * which records the request latency under the same tags.
  */
 @Component
 public class OAuth2EndpointMetricsListener
@@ -55,6 +58,7 @@ public class OAuth2EndpointMetricsListener
         String endpoint = resolveEndpoint(event, request);
         String grantType = resolveGrantType(endpoint, request);
         metricsService.recordEndpointRequest(endpoint, "success", grantType, "none");
+        OAuth2EndpointTimingFilter.setOutcome(request, endpoint, "success");
     }
 
     private void recordFailure(
@@ -63,6 +67,7 @@ public class OAuth2EndpointMetricsListener
         String grantType = resolveGrantType(endpoint, request);
         String error = resolveError(event);
         metricsService.recordEndpointRequest(endpoint, "failure", grantType, error);
+        OAuth2EndpointTimingFilter.setOutcome(request, endpoint, "failure");
     }
 
     private String resolveEndpoint(
@@ -94,7 +99,7 @@ public class OAuth2EndpointMetricsListener
     }
 
     @Nullable
-    private String endpointFromRequestPath(@Nullable HttpServletRequest request) {
+    static String endpointFromRequestPath(@Nullable HttpServletRequest request) {
         if (request == null) {
             return null;
         }
@@ -0,0 +1,157 @@
+package com.bootsandcats.oauth2.security;
+
+import java.io.IOException;
+import java.util.Locale;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.lang.Nullable;
+import org.springframework.security.web.util.OnCommittedResponseWrapper;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.bootsandcats.oauth2.service.OAuth2MetricsService;
+import com.bootsandcats.oauth2.service.OAuth2RequestPhase;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Records the latency of requests to the OAuth2/OIDC endpoints through {@link
+ * OAuth2MetricsService#recordEndpointLatency}.
+ *
+ * <p>Runs ahead of the security filter chain so the time spent authenticating the client is
+ * included. The endpoint and outcome are the ones {@link OAuth2EndpointMetricsListener} resolved
+ * from the authentication events of the request; without any, they are derived from the path and
+ * the response status. An error status or exception always counts as a failure.
+ *
+ * <p>With {@code oauth2.diagnostics.server-timing.enabled}, the phase durations collected by
+ * {@link OAuth2RequestPhaseTimer} are also returned in a {@code Server-Timing} response header.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class OAuth2EndpointTimingFilter extends OncePerRequestFilter {
+
+    private static final String ENDPOINT_ATTRIBUTE =
+            OAuth2EndpointTimingFilter.class.getName() + ".endpoint";
+    private static final String OUTCOME_ATTRIBUTE =
+            OAuth2EndpointTimingFilter.class.getName() + ".outcome";
+    private static final String PHASES_ATTRIBUTE =
+            OAuth2EndpointTimingFilter.class.getName() + ".phases";
+
+    private static final OAuth2RequestPhase[] PHASES = OAuth2RequestPhase.values();
+
+    private final OAuth2MetricsService metricsService;
+    private final boolean serverTiming;
+
+    public OAuth2EndpointTimingFilter(
+            OAuth2MetricsService metricsService,
+            @Value(
+                            "${oauth2.diagnostics.server-timing.enabled:"
+                                    + "${oauth2.diagnostics.enabled:false}}")
+                    boolean serverTiming) {
+        this.metricsService = metricsService;
+        this.serverTiming = serverTiming;
+    }
+
+    /** Remember the endpoint and outcome of an authentication event; a failure is kept. */
+    static void setOutcome(@Nullable HttpServletRequest request, String endpoint, String outcome) {
+        if (request == null || "failure".equals(request.getAttribute(OUTCOME_ATTRIBUTE))) {
+            return;
+        }
+        request.setAttribute(ENDPOINT_ATTRIBUTE, endpoint);
+        request.setAttribute(OUTCOME_ATTRIBUTE, outcome);
+    }
+
+    /** Add the duration of a phase to the request's {@code Server-Timing} header, if collected. */
+    static void addPhase(
+            @Nullable HttpServletRequest request, OAuth2RequestPhase phase, long nanos) {
+        if (request != null && request.getAttribute(PHASES_ATTRIBUTE) instanceof long[] phases) {
+            phases[phase.ordinal()] += nanos;
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return OAuth2EndpointMetricsListener.endpointFromRequestPath(request) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(
+            HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        long start = System.nanoTime();
+        ServerTimingResponse timed = null;
+        if (serverTiming) {
+            long[] phases = new long[PHASES.length];
+            request.setAttribute(PHASES_ATTRIBUTE, phases);
+            timed = new ServerTimingResponse(response, phases, start);
+            response = timed;
+        }
+        boolean failed = true;
+        try {
+            filterChain.doFilter(request, response);
+            failed = response.getStatus() >= 400;
+        } finally {
+            long nanos = System.nanoTime() - start;
+            if (timed != null && !timed.isCommitted()) {
+                timed.addServerTiming();
+            }
+            Object endpoint = request.getAttribute(ENDPOINT_ATTRIBUTE);
+            Object outcome = request.getAttribute(OUTCOME_ATTRIBUTE);
+            metricsService.recordEndpointLatency(
+                    endpoint != null
+                            ? endpoint.toString()
+                            : OAuth2EndpointMetricsListener.endpointFromRequestPath(request),
+                    failed ? "failure" : outcome != null ? outcome.toString() : "success",
+                    nanos);
+        }
+    }
+
+    /** Adds the {@code Server-Timing} header right before the response is committed. */
+    private static final class ServerTimingResponse extends OnCommittedResponseWrapper {
+
+        private final long[] phases;
+        private final long start;
+        private boolean added;
+
+        ServerTimingResponse(HttpServletResponse response, long[] phases, long start) {
+            super(response);
+            this.phases = phases;
+            this.start = start;
+        }
+
+        @Override
+        protected void onResponseCommitted() {
+            addServerTiming();
+        }
+
+        void addServerTiming() {
+            if (added) {
+                return;
+            }
+            added = true;
+            StringBuilder header = new StringBuilder();
+            for (OAuth2RequestPhase phase : PHASES) {
+                long nanos = phases[phase.ordinal()];
+                if (nanos > 0) {
+                    appendMetric(header, phase.getTag(), nanos);
+                }
+            }
+            appendMetric(header, "total", System.nanoTime() - start);
+            setHeader("Server-Timing", header.toString());
+        }
+
+        private static void appendMetric(StringBuilder header, String name, long nanos) {
+            if (!header.isEmpty()) {
+                header.append(", ");
+            }
+            header.append(name)
+                    .append(";dur=")
+                    .append(String.format(Locale.ROOT, "%.3f", nanos / 1_000_000.0));
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package com.bootsandcats.oauth2.security;
+
+import java.util.function.Supplier;
+
+import org.springframework.lang.Nullable;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.oauth2.jwt.JwtEncoder;
+import org.springframework.security.oauth2.server.authorization.OAuth2Authorization;
+import org.springframework.security.oauth2.server.authorization.OAuth2AuthorizationService;
+import org.springframework.security.oauth2.server.authorization.OAuth2TokenType;
+import org.springframework.security.oauth2.server.authorization.client.RegisteredClient;
+import org.springframework.security.oauth2.server.authorization.client.RegisteredClientRepository;
+import org.springframework.security.oauth2.server.authorization.token.JwtEncodingContext;
+import org.springframework.security.oauth2.server.authorization.token.OAuth2TokenCustomizer;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import com.bootsandcats.oauth2.service.OAuth2MetricsService;
+import com.bootsandcats.oauth2.service.OAuth2RequestPhase;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * Times the phases of OAuth2 endpoint requests.
+ *
+ * <p>The collaborators of the authorization server are wrapped with {@code wrap(...)} so each call
+ * is recorded through {@link OAuth2MetricsService#recordRequestPhase}, tagged with the endpoint of
+ * the current request, and added to the request's {@code Server-Timing} breakdown when {@link
+ * OAuth2EndpointTimingFilter} collects one.
+ */
+@Component
+public class OAuth2RequestPhaseTimer {
+
+    private final OAuth2MetricsService metricsService;
+
+    public OAuth2RequestPhaseTimer(OAuth2MetricsService metricsService) {
+        this.metricsService = metricsService;
+    }
+
+    /** Run {@code call} as part of {@code phase}. */
+    public <T> T time(OAuth2RequestPhase phase, Supplier<T> call) {
+        long start = System.nanoTime();
+        try {
+            return call.get();
+        } finally {
+            record(phase, System.nanoTime() - start);
+        }
+    }
+
+    /** Run {@code call} as part of {@code phase}. */
+    public void time(OAuth2RequestPhase phase, Runnable call) {
+        long start = System.nanoTime();
+        try {
+            call.run();
+        } finally {
+            record(phase, System.nanoTime() - start);
+        }
+    }
+
+    private void record(OAuth2RequestPhase phase, long nanos) {
+        HttpServletRequest request = currentRequest();
+        metricsService.recordRequestPhase(
+                OAuth2EndpointMetricsListener.endpointFromRequestPath(request), phase, nanos);
+        OAuth2EndpointTimingFilter.addPhase(request, phase, nanos);
+    }
+
+    /** Times client lookups as {@link OAuth2RequestPhase#CLIENT_LOOKUP}. */
+    public RegisteredClientRepository wrap(RegisteredClientRepository delegate) {
+        return new RegisteredClientRepository() {
+            @Override
+            public void save(RegisteredClient registeredClient) {
+                delegate.save(registeredClient);
+            }
+
+            @Override
+            public RegisteredClient findById(String id) {
+                return time(OAuth2RequestPhase.CLIENT_LOOKUP, () -> delegate.findById(id));
+            }
+
+            @Override
+            public RegisteredClient findByClientId(String clientId) {
+                return time(
+                        OAuth2RequestPhase.CLIENT_LOOKUP, () -> delegate.findByClientId(clientId));
+            }
+        };
+    }
+
+    /** Times {@code matches} as {@link OAuth2RequestPhase#SECRET_VERIFICATION}. */
+    public PasswordEncoder wrap(PasswordEncoder delegate) {
+        return new PasswordEncoder() {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                return delegate.encode(rawPassword);
+            }
+
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                return time(
+                        OAuth2RequestPhase.SECRET_VERIFICATION,
+                        () -> delegate.matches(rawPassword, encodedPassword));
+            }
+
+            @Override
+            public boolean upgradeEncoding(String encodedPassword) {
+                return delegate.upgradeEncoding(encodedPassword);
+            }
+        };
+    }
+
+    /** Times every call as {@link OAuth2RequestPhase#AUTHORIZATION_STORE}. */
+    public OAuth2AuthorizationService wrap(OAuth2AuthorizationService delegate) {
+        return new OAuth2AuthorizationService() {
+            @Override
+            public void save(OAuth2Authorization authorization) {
+                time(OAuth2RequestPhase.AUTHORIZATION_STORE, () -> delegate.save(authorization));
+            }
+
+            @Override
+            public void remove(OAuth2Authorization authorization) {
+                time(
+                        OAuth2RequestPhase.AUTHORIZATION_STORE,
+                        () -> delegate.remove(authorization));
+            }
+
+            @Override
+            public OAuth2Authorization findById(String id) {
+                return time(OAuth2RequestPhase.AUTHORIZATION_STORE, () -> delegate.findById(id));
+            }
+
+            @Override
+            public OAuth2Authorization findByToken(
+                    String token, @Nullable OAuth2TokenType tokenType) {
+                return time(
+                        OAuth2RequestPhase.AUTHORIZATION_STORE,
+                        () -> delegate.findByToken(token, tokenType));
+            }
+        };
+    }
+
+    /** Times encoding, including key selection, as {@link OAuth2RequestPhase#JWT_ENCODING}. */
+    public JwtEncoder wrap(JwtEncoder delegate) {
+        return parameters ->
+                time(OAuth2RequestPhase.JWT_ENCODING, () -> delegate.encode(parameters));
+    }
+
+    /** Times the customizer as {@link OAuth2RequestPhase#JWT_CUSTOMIZATION}. */
+    public OAuth2TokenCustomizer<JwtEncodingContext> wrap(
+            OAuth2TokenCustomizer<JwtEncodingContext> delegate) {
+        return context ->
+                time(OAuth2RequestPhase.JWT_CUSTOMIZATION, () -> delegate.customize(context));
+    }
+
+    @Nullable
+    private static HttpServletRequest currentRequest() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        return attributes instanceof ServletRequestAttributes servletAttributes
+                ? servletAttributes.getRequest()
+                : null;
+    }
+}
@@ -0,0 +1,146 @@
+package com.bootsandcats.oauth2.security;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.util.UriComponents;
+import org.springframework.web.util.UriComponentsBuilder;
+
+/**
+ * A client's registered redirect URIs, parsed once into (scheme, userinfo, host, port, path)
+ * tuples.
+ *
+ * <p>A requested redirect URI matches when every component equals a registered tuple; query and
+ * fragment are ignored on the registered side and must be checked by the caller on the requested
+ * side. Paths compare with at most one trailing slash removed and an empty path treated as {@code
+ * /}. When the requested host is a loopback address (RFC 8252 section 7.3) the port is not
+ * compared. Registered URIs that cannot be parsed never match.
+ *
+ * <p>Instances are immutable; {@link #matches} does not allocate.
+ */
+public final class RedirectUriMatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(RedirectUriMatcher.class);
+
+    private final Collection<String> source;
+    private final Registered[] registered;
+
+    private RedirectUriMatcher(Collection<String> source, Registered[] registered) {
+        this.source = source;
+        this.registered = registered;
+    }
+
+    /** Parse {@code redirectUris} into a matcher. */
+    public static RedirectUriMatcher compile(Collection<String> redirectUris) {
+        List<Registered> compiled = new ArrayList<>(redirectUris.size());
+        for (String redirectUri : redirectUris) {
+            try {
+                UriComponents uri = UriComponentsBuilder.fromUriString(redirectUri).build();
+                compiled.add(
+                        new Registered(
+                                uri.getScheme(),
+                                uri.getUserInfo(),
+                                uri.getHost(),
+                                uri.getPort(),
+                                normalizePath(uri.getPath())));
+            } catch (IllegalArgumentException ex) {
+                log.debug("Ignoring unparseable registered redirect URI {}", redirectUri, ex);
+            }
+        }
+        return new RedirectUriMatcher(redirectUris, compiled.toArray(new Registered[0]));
+    }
+
+    /** Whether this matcher was compiled from exactly {@code redirectUris}. */
+    public boolean isCompiledFrom(Collection<String> redirectUris) {
+        return source == redirectUris || source.equals(redirectUris);
+    }
+
+    /** Whether {@code requested} matches any registered redirect URI. */
+    public boolean matches(UriComponents requested) {
+        String scheme = requested.getScheme();
+        String userInfo = requested.getUserInfo();
+        String host = requested.getHost();
+        String path = requested.getPath();
+        boolean anyPort = isLoopbackAddress(host);
+        int port = requested.getPort();
+        for (Registered candidate : registered) {
+            if (Objects.equals(candidate.scheme(), scheme)
+                    && Objects.equals(candidate.host(), host)
+                    && (anyPort || candidate.port() == port)
+                    && Objects.equals(candidate.userInfo(), userInfo)
+                    && pathMatches(candidate.path(), path)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Whether {@code host} is {@code [::1]} or an IPv4 address in {@code 127.0.0.0/8} (excluding
+     * the {@code .0} host).
+     */
+    public static boolean isLoopbackAddress(String host) {
+        if (host == null || host.isEmpty()) {
+            return false;
+        }
+        if ("[0:0:0:0:0:0:0:1]".equals(host) || "[::1]".equals(host)) {
+            return true;
+        }
+        int octet = 0;
+        int value = -1;
+        int first = -1;
+        for (int i = 0; i <= host.length(); i++) {
+            char c = i < host.length() ? host.charAt(i) : '.';
+            if (c == '.') {
+                if (value < 0 || octet > 3) {
+                    return false;
+                }
+                if (octet == 0) {
+                    first = value;
+                }
+                octet++;
+                if (octet == 4 && value < 1) {
+                    return false;
+                }
+                value = -1;
+            } else if (c >= '0' && c <= '9') {
+                value = (value < 0 ? 0 : value * 10) + (c - '0');
+                if (value > 255) {
+                    return false;
+                }
+            } else {
+                return false;
+            }
+        }
+        return octet == 4 && first == 127;
+    }
+
+    static String normalizePath(String path) {
+        if (path == null || path.isBlank()) {
+            return "/";
+        }
+        if (path.length() > 1 && path.endsWith("/")) {
+            return path.substring(0, path.length() - 1);
+        }
+        return path;
+    }
+
+    /** {@code normalizePath(requested).equals(normalized)}, without the substring. */
+    private static boolean pathMatches(String normalized, String requested) {
+        if (requested == null || requested.isBlank()) {
+            return "/".equals(normalized);
+        }
+        int length = requested.length();
+        if (length > 1 && requested.charAt(length - 1) == '/') {
+            length--;
+        }
+        return length == normalized.length() && requested.regionMatches(0, normalized, 0, length);
+    }
+
+    private record Registered(
+            String scheme, String userInfo, String host, int port, String path) {}
+}
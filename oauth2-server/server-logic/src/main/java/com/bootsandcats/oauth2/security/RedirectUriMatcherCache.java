@@ -0,0 +1,48 @@
+package com.bootsandcats.oauth2.security;
+
+import org.springframework.security.oauth2.server.authorization.client.RegisteredClient;
+import org.springframework.stereotype.Component;
+
+import com.bootsandcats.oauth2.config.RegisteredClientCacheProperties;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Compiled {@link RedirectUriMatcher}s keyed by registered client id, so the authorization endpoint
+ * parses a client's redirect URIs once rather than on every request.
+ *
+ * <p>A cached matcher is reused only while the client's redirect URIs are unchanged, so edits take
+ * effect on the next request without explicit invalidation. Sized by {@code
+ * oauth2.clients.cache.maximum-size}; hits and misses are reported as {@code cache.gets} with
+ * {@code cache=oauth2.clients.redirect-uris}.
+ */
+@Component
+public class RedirectUriMatcherCache {
+
+    private final Cache<String, RedirectUriMatcher> matchers;
+
+    public RedirectUriMatcherCache(
+            RegisteredClientCacheProperties properties, MeterRegistry meterRegistry) {
+        this.matchers =
+                Caffeine.newBuilder()
+                        .maximumSize(properties.getMaximumSize())
+                        .recordStats()
+                        .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, matchers, "oauth2.clients.redirect-uris");
+    }
+
+    /** The compiled matcher for {@code client}'s current redirect URIs. */
+    public RedirectUriMatcher matcherFor(RegisteredClient client) {
+        RedirectUriMatcher matcher =
+                matchers.get(
+                        client.getId(), id -> RedirectUriMatcher.compile(client.getRedirectUris()));
+        if (!matcher.isCompiledFrom(client.getRedirectUris())) {
+            matcher = RedirectUriMatcher.compile(client.getRedirectUris());
+            matchers.put(client.getId(), matcher);
+        }
+        return matcher;
+    }
+}
@@ -25,7 +25,8 @@ import jakarta.servlet.http.HttpServletRequest;
  * Event listener for Spring Security authentication events.
  *
  * <p>Captures authentication success, failure, and logout events and records them for audit
- * compliance purposes.
+ * compliance purposes. Failures are also counted by the {@link LoginFailureTracker}, and a
+ * successful authentication clears the principal's count.
  */
 @Component
 public class SecurityAuditEventListener {
@@ -33,9 +34,12 @@ public class SecurityAuditEventListener {
     private static final Logger log = LoggerFactory.getLogger(SecurityAuditEventListener.class);
 
     private final SecurityAuditService securityAuditService;
+    private final LoginFailureTracker loginFailureTracker;
 
-    public SecurityAuditEventListener(SecurityAuditService securityAuditService) {
+    public SecurityAuditEventListener(
+            SecurityAuditService securityAuditService, LoginFailureTracker loginFailureTracker) {
         this.securityAuditService = securityAuditService;
+        this.loginFailureTracker = loginFailureTracker;
     }
 
     /**
@@ -72,6 +76,7 @@ public class SecurityAuditEventListener {
             details.put("sessionId", webDetails.getSessionId());
         }
 
+        loginFailureTracker.recordSuccess(principal);
         securityAuditService.recordLoginSuccess(principal, request, null, details);
         log.debug("Recorded authentication success for principal: {}", principal);
     }
@@ -127,6 +132,17 @@ public class SecurityAuditEventListener {
             }
         }
 
+        // Key the counters on the connection's address, never on raw X-Forwarded-For, which the
+        // client controls; trusted proxies are resolved by server.forward-headers-strategy.
+        String ipAddress = null;
+        if (request != null) {
+            ipAddress = request.getRemoteAddr();
+        } else if (details.get("remoteAddress") instanceof String remoteAddress) {
+            ipAddress = remoteAddress;
+        }
+        loginFailureTracker.recordFailure(
+                authentication != null ? authentication.getName() : null, ipAddress);
+
         String errorMessage = exception.getMessage();
         securityAuditService.recordLoginFailure(principal, request, errorMessage, details);
         log.debug("Recorded authentication failure for principal: {}", principal);
@@ -0,0 +1,53 @@
+package com.bootsandcats.oauth2.security;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free counter over a sliding window of fixed-length time slices.
+ *
+ * <p>The window is a ring with one slot per slice. Each slot packs the index of the slice it
+ * counts into its upper bits and the count into the lower {@value #COUNT_BITS} bits, so the first
+ * increment in a new slice claims the slot and resets the count with a single CAS, and concurrent
+ * writers never lose an increment. Counts saturate at {@link #MAX_COUNT} per slice.
+ */
+final class SlidingWindowCounter {
+
+    private static final int COUNT_BITS = 20;
+
+    static final long MAX_COUNT = (1L << COUNT_BITS) - 1;
+
+    private final AtomicLongArray slots;
+
+    SlidingWindowCounter(int slices) {
+        this.slots = new AtomicLongArray(slices);
+    }
+
+    /** Count one event in {@code slice}. */
+    void increment(long slice) {
+        int slot = (int) Math.floorMod(slice, (long) slots.length());
+        slots.getAndUpdate(
+                slot,
+                packed -> {
+                    // A writer that read the clock just before a slice boundary still counts into
+                    // the slot if a newer slice has already claimed it.
+                    if ((packed >>> COUNT_BITS) >= slice) {
+                        return (packed & MAX_COUNT) == MAX_COUNT ? packed : packed + 1;
+                    }
+                    return (slice << COUNT_BITS) | 1;
+                });
+    }
+
+    /** Events counted in the window ending with {@code currentSlice}. */
+    long sum(long currentSlice) {
+        long oldest = currentSlice - slots.length();
+        long sum = 0;
+        for (int i = 0; i < slots.length(); i++) {
+            long packed = slots.get(i);
+            long slice = packed >>> COUNT_BITS;
+            if (slice > oldest && slice <= currentSlice) {
+                sum += packed & MAX_COUNT;
+            }
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,135 @@
+package com.bootsandcats.oauth2.security;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.HexFormat;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.bootsandcats.oauth2.config.ClientSecretCacheProperties;
+import com.bootsandcats.oauth2.service.RegisteredClientChangedEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Remembers successful client-secret verifications so repeat client authentication skips the
+ * (deliberately slow) password encoder.
+ *
+ * <p>Entries are keyed by an HMAC of the stored, encoded secret and hold an HMAC of the stored
+ * secret plus the presented secret, under a random per-process key. Nothing reversible is kept, a
+ * presented secret is compared in constant time, and an entry can only ever match the stored secret
+ * it was created for, so changing a client's secret invalidates it implicitly. Failed verifications
+ * are never cached; guessing still costs a full encoder check. All entries are also dropped when a
+ * {@link RegisteredClientChangedEvent} is published.
+ *
+ * <p>Opt-in via {@code oauth2.clients.secret-cache.enabled}; hits and misses are reported as {@code
+ * cache.gets} with {@code cache=oauth2.clients.secret-verifications}.
+ */
+@Component
+public class VerifiedClientSecretCache {
+
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+
+    private final boolean enabled;
+    private final SecretKeySpec key;
+    private final Cache<String, byte[]> verified;
+
+    public VerifiedClientSecretCache(
+            ClientSecretCacheProperties properties, MeterRegistry meterRegistry) {
+        this.enabled = properties.isEnabled();
+        byte[] keyBytes = new byte[32];
+        new SecureRandom().nextBytes(keyBytes);
+        this.key = new SecretKeySpec(keyBytes, HMAC_ALGORITHM);
+        this.verified =
+                Caffeine.newBuilder()
+                        .maximumSize(properties.getMaximumSize())
+                        .expireAfterWrite(properties.getTtl())
+                        .recordStats()
+                        .build();
+        CaffeineCacheMetrics.monitor(
+                meterRegistry, verified, "oauth2.clients.secret-verifications");
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Wrap {@code delegate} so that {@link PasswordEncoder#matches} consults this cache first.
+     * Returns {@code delegate} unchanged when the cache is disabled.
+     */
+    public PasswordEncoder wrap(PasswordEncoder delegate) {
+        return enabled ? new CachingEncoder(delegate) : delegate;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onClientChanged(RegisteredClientChangedEvent event) {
+        verified.invalidateAll();
+    }
+
+    boolean matches(PasswordEncoder delegate, CharSequence rawSecret, String encodedSecret) {
+        if (rawSecret == null || encodedSecret == null) {
+            return delegate.matches(rawSecret, encodedSecret);
+        }
+        String entryKey = HexFormat.of().formatHex(hmac(encodedSecret, null));
+        byte[] expected = hmac(encodedSecret, rawSecret);
+        byte[] remembered = verified.getIfPresent(entryKey);
+        if (remembered != null && MessageDigest.isEqual(remembered, expected)) {
+            return true;
+        }
+        boolean matches = delegate.matches(rawSecret, encodedSecret);
+        if (matches) {
+            verified.put(entryKey, expected);
+        }
+        return matches;
+    }
+
+    private byte[] hmac(String encodedSecret, CharSequence rawSecret) {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(key);
+            mac.update(encodedSecret.getBytes(StandardCharsets.UTF_8));
+            if (rawSecret != null) {
+                mac.update((byte) 0);
+                mac.update(rawSecret.toString().getBytes(StandardCharsets.UTF_8));
+            }
+            return mac.doFinal();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC-SHA256 unavailable", e);
+        }
+    }
+
+    private final class CachingEncoder implements PasswordEncoder {
+
+        private final PasswordEncoder delegate;
+
+        private CachingEncoder(PasswordEncoder delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public String encode(CharSequence rawPassword) {
+            return delegate.encode(rawPassword);
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            return VerifiedClientSecretCache.this.matches(delegate, rawPassword, encodedPassword);
+        }
+
+        @Override
+        public boolean upgradeEncoding(String encodedPassword) {
+            return delegate.upgradeEncoding(encodedPassword);
+        }
+    }
+}
@@ -3,6 +3,7 @@ package com.bootsandcats.oauth2.service;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.annotation.Primary;
 import org.springframework.security.oauth2.server.authorization.client.RegisteredClient;
 import org.springframework.security.oauth2.server.authorization.client.RegisteredClientRepository;
@@ -16,6 +17,9 @@ import com.bootsandcats.oauth2.repository.ClientMetadataRepository;
  *
  * <p>This keeps Spring Authorization Server runtime behavior unchanged while allowing admin code to
  * bypass the filter by injecting {@link JpaRegisteredClientRepository} directly.
+ *
+ * <p>Resolved clients and their enabled flag are served from {@link RegisteredClientCache}, so a
+ * repeat lookup costs no queries until the entry expires or an admin change invalidates it.
  */
 @Service
 @Primary
@@ -31,41 +35,59 @@ public class FilteringRegisteredClientRepository implements RegisteredClientRepo
 
     private final JpaRegisteredClientRepository delegate;
     private final ClientMetadataRepository clientMetadataRepository;
+    private final RegisteredClientCache cache;
+    private final ApplicationEventPublisher eventPublisher;
 
     public FilteringRegisteredClientRepository(
             JpaRegisteredClientRepository delegate,
-            ClientMetadataRepository clientMetadataRepository) {
+            ClientMetadataRepository clientMetadataRepository,
+            RegisteredClientCache cache,
+            ApplicationEventPublisher eventPublisher) {
         this.delegate = delegate;
         this.clientMetadataRepository = clientMetadataRepository;
+        this.cache = cache;
+        this.eventPublisher = eventPublisher;
     }
 
     @Override
     public void save(RegisteredClient registeredClient) {
         delegate.save(registeredClient);
+        // Drops cached copies (and remembered secret verifications) for this client, e.g. after
+        // the DataInitializer secret sync.
+        eventPublisher.publishEvent(
+                new RegisteredClientChangedEvent(registeredClient.getClientId()));
     }
 
     @Override
     public RegisteredClient findById(String id) {
-        RegisteredClient client = delegate.findById(id);
-        if (client == null) {
+        RegisteredClientCache.Entry entry = cache.getById(id, () -> load(delegate.findById(id)));
+        if (entry == null) {
             return null;
         }
-        return isEnabled(client.getClientId()) ? client : null;
+        return entry.enabled() ? entry.client() : null;
     }
 
     @Override
     public RegisteredClient findByClientId(String clientId) {
-        RegisteredClient client = delegate.findByClientId(clientId);
-        if (client == null) {
+        RegisteredClientCache.Entry entry =
+                cache.getByClientId(clientId, () -> load(delegate.findByClientId(clientId)));
+        if (entry == null) {
             return null;
         }
-        boolean enabled = isEnabled(client.getClientId());
+        boolean enabled = entry.enabled();
         if (!enabled) {
             log.debug(
                     "Registered client '{}' is present but disabled via metadata; returning null (invalid_client)",
                     clientId);
         }
-        return enabled ? client : null;
+        return enabled ? entry.client() : null;
+    }
+
+    private RegisteredClientCache.Entry load(RegisteredClient client) {
+        if (client == null) {
+            return null;
+        }
+        return new RegisteredClientCache.Entry(client, isEnabled(client.getClientId()));
     }
 
     private boolean isEnabled(String clientId) {
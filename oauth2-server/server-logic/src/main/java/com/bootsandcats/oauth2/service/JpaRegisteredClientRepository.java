@@ -31,9 +31,14 @@ import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
         matchIfMissing = true)
 public class JpaRegisteredClientRepository implements ClientStore {
 
+    private static final TypeReference<Map<String, Object>> MAP_TYPE = new TypeReference<>() {};
+
     private final RegisteredClientJpaRepository registeredClientJpaRepository;
     private final ObjectMapper objectMapper = new ObjectMapper();
 
+    /** Plain mapper for settings JSON without type info (e.g. plain '{}' or legacy rows). */
+    private final ObjectMapper untypedObjectMapper = new ObjectMapper();
+
     public JpaRegisteredClientRepository(
             RegisteredClientJpaRepository registeredClientJpaRepository) {
         this.registeredClientJpaRepository = registeredClientJpaRepository;
@@ -43,6 +48,7 @@ public class JpaRegisteredClientRepository implements ClientStore {
         this.objectMapper.registerModules(securityModules);
         this.objectMapper.registerModule(new OAuth2AuthorizationServerJackson2Module());
         this.objectMapper.registerModule(new JavaTimeModule());
+        this.untypedObjectMapper.registerModule(new JavaTimeModule());
     }
 
     @Override
@@ -162,14 +168,12 @@ public class JpaRegisteredClientRepository implements ClientStore {
 
     private Map<String, Object> parseMap(String data) {
         try {
-            return this.objectMapper.readValue(data, new TypeReference<Map<String, Object>>() {});
+            return this.objectMapper.readValue(data, MAP_TYPE);
         } catch (Exception ex) {
             // Fallback for JSON without type info (e.g., plain '{}' or simple JSON maps)
             // This handles legacy data or migrations that don't include @class type markers
             try {
-                ObjectMapper simpleMapper = new ObjectMapper();
-                simpleMapper.registerModule(new JavaTimeModule());
-                return simpleMapper.readValue(data, new TypeReference<Map<String, Object>>() {});
+                return this.untypedObjectMapper.readValue(data, MAP_TYPE);
             } catch (Exception fallbackEx) {
                 throw new IllegalArgumentException(
                         "Failed to parse map data: " + ex.getMessage(), ex);
@@ -2,12 +2,17 @@ package com.bootsandcats.oauth2.service;
 
 import java.text.ParseException;
 import java.time.Duration;
-import java.time.Instant;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.SmartLifecycle;
 import org.springframework.stereotype.Component;
 
 import com.azure.core.exception.ResourceNotFoundException;
@@ -15,6 +20,7 @@ import com.azure.security.keyvault.secrets.SecretClient;
 import com.azure.security.keyvault.secrets.models.KeyVaultSecret;
 import com.bootsandcats.oauth2.config.AzureKeyVaultProperties;
 import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.proc.JWSVerifierFactory;
 
 /**
  * Loads JSON Web Keys from Azure Key Vault or a static JWK configuration.
@@ -30,26 +36,41 @@ import com.nimbusds.jose.jwk.JWKSet;
  * </ol>
  *
  * <p>If neither is configured, the application will fail to start.
+ *
+ * <p>Key Vault keys are reloaded by a background thread ahead of {@code azure.keyvault.cache-ttl}
+ * expiring, so request threads never wait on Key Vault after the first load. A failed reload keeps
+ * serving the last known good keys and is retried with jittered exponential backoff between
+ * {@code azure.keyvault.refresh-backoff-min} and {@code refresh-backoff-max}.
  */
 @Component
-public class JwkSetProvider {
+public class JwkSetProvider implements SmartLifecycle {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(JwkSetProvider.class);
 
+    static final double REFRESH_AHEAD_RATIO = 0.8;
+    private static final Duration MIN_REFRESH_INTERVAL = Duration.ofSeconds(1);
+
     private final KeyVaultSettings keyVaultSettings;
     private final ObjectProvider<SecretClient> secretClientProvider;
     private final Duration cacheTtl;
+    private final Duration backoffMin;
+    private final Duration backoffMax;
     private final JWKSet staticJwkSet;
+    private final JwkSnapshot staticSnapshot;
 
-    private volatile JWKSet cachedKeyVaultSet;
-    private volatile Instant cacheExpiresAt = Instant.EPOCH;
+    private volatile JwkSnapshot keyVaultSnapshot;
+    private volatile ScheduledExecutorService refresher;
+    private int consecutiveFailures;
 
     public JwkSetProvider(
             AzureKeyVaultProperties properties, ObjectProvider<SecretClient> secretClientProvider) {
         this.keyVaultSettings = KeyVaultSettings.from(properties);
         this.secretClientProvider = secretClientProvider;
         this.cacheTtl = keyVaultSettings.cacheTtl();
+        this.backoffMin = properties.getRefreshBackoffMin();
+        this.backoffMax = properties.getRefreshBackoffMax();
         this.staticJwkSet = parseStaticJwk(properties.getStaticJwk());
+        this.staticSnapshot = staticJwkSet == null ? null : JwkSnapshot.of(staticJwkSet);
 
         validateConfiguration();
     }
@@ -115,104 +136,185 @@ public class JwkSetProvider {
     /**
      * Returns the active JWK set.
      *
-     * <p>When Azure Key Vault is enabled, keys are fetched from Key Vault with caching. Otherwise,
-     * returns the static JWK set.
+     * <p>When Azure Key Vault is enabled, keys are served from the last successful load; only the
+     * very first load happens on the calling thread. Otherwise, returns the static JWK set.
      *
      * @return JWKSet containing signing keys
      * @throws IllegalStateException if Key Vault is enabled but keys cannot be loaded and no static
      *     fallback exists
      */
     public JWKSet getJwkSet() {
+        return getSnapshot().jwkSet();
+    }
+
+    /**
+     * Returns the active keys together with their {@code kid} index and prebuilt signers and
+     * verifiers. Same source and failure behaviour as {@link #getJwkSet()}.
+     */
+    public JwkSnapshot getSnapshot() {
         if (!keyVaultSettings.enabled()) {
-            if (staticJwkSet == null) {
+            if (staticSnapshot == null) {
                 throw new IllegalStateException("No JWK source configured");
             }
-            return staticJwkSet;
+            return staticSnapshot;
         }
 
-        SecretClient client = secretClientProvider.getIfAvailable();
-        if (client == null) {
-            return fallbackToStaticOrThrow(
-                    "Azure Key Vault is enabled but SecretClient is not available");
+        JwkSnapshot current = keyVaultSnapshot;
+        if (current != null) {
+            return current;
+        }
+        synchronized (this) {
+            current = keyVaultSnapshot;
+            if (current == null) {
+                current = loadInitialSnapshot();
+            }
+            return current;
         }
+    }
+
+    /**
+     * A verifier factory for the token decoder that reuses the prebuilt {@link
+     * com.nimbusds.jose.JWSVerifier}s of the current snapshot.
+     */
+    public JWSVerifierFactory verifierFactory() {
+        return JwkSnapshot.verifierFactory(this::getSnapshot);
+    }
 
-        refreshCacheIfNeeded(client);
+    @Override
+    public void start() {
+        if (!keyVaultSettings.enabled() || refresher != null) {
+            return;
+        }
+        refresher =
+                Executors.newSingleThreadScheduledExecutor(
+                        runnable -> {
+                            Thread thread = new Thread(runnable, "jwk-set-refresh");
+                            thread.setDaemon(true);
+                            return thread;
+                        });
+        JwkSnapshot current = keyVaultSnapshot;
+        boolean loaded = current != null && current != staticSnapshot;
+        scheduleRefresh(loaded ? refreshAheadDelay() : Duration.ZERO);
+    }
 
-        if (cachedKeyVaultSet != null) {
-            return cachedKeyVaultSet;
+    @Override
+    public void stop() {
+        ScheduledExecutorService executor = refresher;
+        refresher = null;
+        if (executor != null) {
+            executor.shutdownNow();
         }
+    }
 
-        return fallbackToStaticOrThrow(
-                "Failed to load JWK from Azure Key Vault and no static JWK configured");
+    @Override
+    public boolean isRunning() {
+        return refresher != null;
     }
 
-    private void refreshCacheIfNeeded(SecretClient client) {
-        if (Instant.now().isBefore(cacheExpiresAt)) {
+    private void scheduleRefresh(Duration delay) {
+        ScheduledExecutorService executor = refresher;
+        if (executor == null) {
             return;
         }
+        try {
+            executor.schedule(
+                    () -> scheduleRefresh(refresh()), delay.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException ex) {
+            // stopped concurrently
+        }
+    }
 
-        synchronized (this) {
-            if (Instant.now().isBefore(cacheExpiresAt)) {
-                return;
-            }
-
-            try {
-                KeyVaultSecret secret = client.getSecret(keyVaultSettings.jwkSecretName());
-                cachedKeyVaultSet = JWKSet.parse(secret.getValue());
-                cacheExpiresAt = Instant.now().plus(cacheTtl);
-                LOGGER.info(
-                        "Loaded {} key(s) from Azure Key Vault secret '{}' (kids: {}).",
-                        cachedKeyCount(),
-                        keyVaultSettings.jwkSecretName(),
-                        describeKeyIds());
-            } catch (ResourceNotFoundException ex) {
-                LOGGER.error(
-                        "FATAL: Azure Key Vault secret '{}' not found.",
-                        keyVaultSettings.jwkSecretName(),
-                        ex);
-                fallbackToStaticOrThrow(
-                        "Azure Key Vault secret '"
-                                + keyVaultSettings.jwkSecretName()
-                                + "' not found",
-                        ex);
-            } catch (ParseException ex) {
-                LOGGER.error(
-                        "FATAL: Failed to parse JWK Set from Azure Key Vault secret '{}'.",
-                        keyVaultSettings.jwkSecretName(),
-                        ex);
-                fallbackToStaticOrThrow("Failed to parse JWK Set from Azure Key Vault", ex);
-            } catch (RuntimeException ex) {
-                LOGGER.error(
-                        "FATAL: Unexpected error while loading JWK Set from Azure Key Vault.", ex);
-                fallbackToStaticOrThrow("Unexpected error loading JWK from Azure Key Vault", ex);
+    /**
+     * Reloads the key set from Key Vault once. On failure the last known good set stays active.
+     *
+     * @return delay until the next refresh should run
+     */
+    Duration refresh() {
+        try {
+            keyVaultSnapshot = load();
+            consecutiveFailures = 0;
+            return refreshAheadDelay();
+        } catch (RuntimeException ex) {
+            consecutiveFailures++;
+            Duration retryIn = backoffDelay(consecutiveFailures);
+            if (keyVaultSnapshot == null && staticSnapshot != null) {
+                keyVaultSnapshot = staticSnapshot;
             }
+            LOGGER.warn(
+                    "Failed to refresh JWK Set from Azure Key Vault (attempt {}), retrying in {};"
+                            + " serving last known good keys.",
+                    consecutiveFailures,
+                    retryIn,
+                    ex);
+            return retryIn;
         }
     }
 
-    private JWKSet fallbackToStaticOrThrow(String message) {
-        return fallbackToStaticOrThrow(message, null);
+    /** Refresh at {@value #REFRESH_AHEAD_RATIO} of the TTL so keys never outlive it. */
+    Duration refreshAheadDelay() {
+        long ttlMillis = Math.max(cacheTtl.toMillis(), MIN_REFRESH_INTERVAL.toMillis());
+        return Duration.ofMillis((long) (ttlMillis * REFRESH_AHEAD_RATIO));
     }
 
-    private JWKSet fallbackToStaticOrThrow(String message, Exception cause) {
-        if (staticJwkSet != null) {
-            LOGGER.warn("{} Falling back to static JWK configuration.", message);
-            cachedKeyVaultSet = staticJwkSet;
-            cacheExpiresAt = Instant.now().plus(cacheTtl);
-            return staticJwkSet;
+    /** Doubling delay capped at the configured maximum, with up to 50% jitter subtracted. */
+    Duration backoffDelay(int failures) {
+        long min = Math.max(1, backoffMin.toMillis());
+        long max = Math.max(min, backoffMax.toMillis());
+        long delay = min << Math.min(failures - 1, 20);
+        if (delay <= 0 || delay > max) {
+            delay = max;
         }
-
-        throw new IllegalStateException(message, cause);
+        long jitter = ThreadLocalRandom.current().nextLong(delay / 2 + 1);
+        return Duration.ofMillis(delay - jitter);
     }
 
-    private long cachedKeyCount() {
-        return cachedKeyVaultSet == null ? 0 : cachedKeyVaultSet.getKeys().size();
+    private JwkSnapshot loadInitialSnapshot() {
+        try {
+            JwkSnapshot loaded = load();
+            keyVaultSnapshot = loaded;
+            return loaded;
+        } catch (RuntimeException ex) {
+            String message =
+                    ex instanceof IllegalStateException
+                            ? ex.getMessage()
+                            : "Unexpected error loading JWK from Azure Key Vault";
+            LOGGER.error("FATAL: {}", message, ex);
+            if (staticSnapshot == null) {
+                throw new IllegalStateException(message, ex);
+            }
+            LOGGER.warn("{} Falling back to static JWK configuration.", message);
+            keyVaultSnapshot = staticSnapshot;
+            return staticSnapshot;
+        }
     }
 
-    private String describeKeyIds() {
-        if (cachedKeyVaultSet == null) {
-            return "n/a";
+    private JwkSnapshot load() {
+        SecretClient client = secretClientProvider.getIfAvailable();
+        if (client == null) {
+            throw new IllegalStateException(
+                    "Azure Key Vault is enabled but SecretClient is not available");
+        }
+
+        String secretName = keyVaultSettings.jwkSecretName();
+        try {
+            KeyVaultSecret secret = client.getSecret(secretName);
+            JWKSet jwkSet = JWKSet.parse(secret.getValue());
+            LOGGER.info(
+                    "Loaded {} key(s) from Azure Key Vault secret '{}' (kids: {}).",
+                    jwkSet.getKeys().size(),
+                    secretName,
+                    describeKeyIds(jwkSet));
+            return JwkSnapshot.of(jwkSet);
+        } catch (ResourceNotFoundException ex) {
+            throw new IllegalStateException(
+                    "Azure Key Vault secret '" + secretName + "' not found", ex);
+        } catch (ParseException ex) {
+            throw new IllegalStateException("Failed to parse JWK Set from Azure Key Vault", ex);
         }
-        return cachedKeyVaultSet.getKeys().stream()
+    }
+
+    private static String describeKeyIds(JWKSet jwkSet) {
+        return jwkSet.getKeys().stream()
                 .map(jwk -> jwk.getKeyID() == null ? "(no kid)" : jwk.getKeyID())
                 .collect(Collectors.joining(", "));
     }
@@ -0,0 +1,205 @@
+package com.bootsandcats.oauth2.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.Key;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.JWSSigner;
+import com.nimbusds.jose.JWSVerifier;
+import com.nimbusds.jose.crypto.ECDSASigner;
+import com.nimbusds.jose.crypto.ECDSAVerifier;
+import com.nimbusds.jose.crypto.MACSigner;
+import com.nimbusds.jose.crypto.MACVerifier;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jose.crypto.RSASSAVerifier;
+import com.nimbusds.jose.crypto.factories.DefaultJWSVerifierFactory;
+import com.nimbusds.jose.jca.JCAContext;
+import com.nimbusds.jose.jwk.ECKey;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSelector;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.OctetSequenceKey;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.proc.JWSVerifierFactory;
+
+/**
+ * An immutable JWK set together with everything derived from it that would otherwise be recomputed
+ * per token: keys indexed by {@code kid}, and ready-built {@link JWSSigner}s and {@link
+ * JWSVerifier}s for every key that supports them. The public half of the set is also pre-rendered
+ * as the JWKS endpoint response.
+ *
+ * <p>Keys whose {@code kid} is missing or shared with another key in the set are not indexed; they
+ * are still found by {@link #select(JWKSelector)}, which then falls back to a full scan.
+ */
+public final class JwkSnapshot {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(JwkSnapshot.class);
+
+    private final JWKSet jwkSet;
+    private final Map<String, JWK> keysById;
+    private final Map<String, JWSSigner> signersById;
+    private final Map<String, PrecomputedVerifier> verifiersById;
+    private final RenderedDocument publicJwkSet;
+
+    private JwkSnapshot(
+            JWKSet jwkSet,
+            Map<String, JWK> keysById,
+            Map<String, JWSSigner> signersById,
+            Map<String, PrecomputedVerifier> verifiersById) {
+        this.jwkSet = jwkSet;
+        this.keysById = keysById;
+        this.signersById = signersById;
+        this.verifiersById = verifiersById;
+        this.publicJwkSet =
+                RenderedDocument.of(
+                        jwkSet.toString(true).getBytes(StandardCharsets.UTF_8), "application/json");
+    }
+
+    /** Index {@code jwkSet} and build its signers and verifiers. */
+    public static JwkSnapshot of(JWKSet jwkSet) {
+        Map<String, JWK> keysById = new HashMap<>();
+        Set<String> duplicateIds = new HashSet<>();
+        for (JWK jwk : jwkSet.getKeys()) {
+            String kid = jwk.getKeyID();
+            if (kid != null && keysById.putIfAbsent(kid, jwk) != null) {
+                duplicateIds.add(kid);
+            }
+        }
+        keysById.keySet().removeAll(duplicateIds);
+
+        Map<String, JWSSigner> signersById = new HashMap<>();
+        Map<String, PrecomputedVerifier> verifiersById = new HashMap<>();
+        keysById.forEach(
+                (kid, jwk) -> {
+                    try {
+                        JWSSigner signer = signerFor(jwk);
+                        if (signer != null) {
+                            signersById.put(kid, signer);
+                        }
+                        PrecomputedVerifier verifier = verifierFor(jwk);
+                        if (verifier != null) {
+                            verifiersById.put(kid, verifier);
+                        }
+                    } catch (JOSEException ex) {
+                        LOGGER.warn("Cannot build signer/verifier for JWK '{}'", kid, ex);
+                    }
+                });
+        return new JwkSnapshot(
+                jwkSet, Map.copyOf(keysById), Map.copyOf(signersById), Map.copyOf(verifiersById));
+    }
+
+    public JWKSet jwkSet() {
+        return jwkSet;
+    }
+
+    /** The public keys, serialized as a JWK Set document. */
+    public RenderedDocument publicJwkSet() {
+        return publicJwkSet;
+    }
+
+    /** The key with {@code kid}, or {@code null} if there is none (or more than one). */
+    public JWK key(String kid) {
+        return kid == null ? null : keysById.get(kid);
+    }
+
+    /** Prebuilt signer for the private key with {@code kid}, or {@code null}. */
+    public JWSSigner signer(String kid) {
+        return kid == null ? null : signersById.get(kid);
+    }
+
+    /** Prebuilt verifier for the key with {@code kid}, or {@code null}. */
+    public JWSVerifier verifier(String kid) {
+        PrecomputedVerifier verifier = kid == null ? null : verifiersById.get(kid);
+        return verifier == null ? null : verifier.verifier();
+    }
+
+    /**
+     * Keys matching {@code selector}. A selector naming a single indexed {@code kid} is answered
+     * from the index; anything else is matched against the whole set.
+     */
+    public List<JWK> select(JWKSelector selector) {
+        Set<String> kids = selector.getMatcher().getKeyIDs();
+        if (kids != null && kids.size() == 1) {
+            JWK jwk = key(kids.iterator().next());
+            if (jwk != null) {
+                return selector.getMatcher().matches(jwk) ? List.of(jwk) : List.of();
+            }
+        }
+        return selector.select(jwkSet);
+    }
+
+    /**
+     * A verifier factory that hands out the prebuilt verifier when the header's {@code kid} names
+     * an indexed key with exactly the key material being verified against, and otherwise defers
+     * to Nimbus' default factory.
+     */
+    static JWSVerifierFactory verifierFactory(Supplier<JwkSnapshot> snapshots) {
+        DefaultJWSVerifierFactory fallback = new DefaultJWSVerifierFactory();
+        return new JWSVerifierFactory() {
+            @Override
+            public JWSVerifier createJWSVerifier(JWSHeader header, Key key) throws JOSEException {
+                String kid = header.getKeyID();
+                PrecomputedVerifier precomputed =
+                        kid == null ? null : snapshots.get().verifiersById.get(kid);
+                if (precomputed != null
+                        && precomputed.key().equals(key)
+                        && precomputed
+                                .verifier()
+                                .supportedJWSAlgorithms()
+                                .contains(header.getAlgorithm())) {
+                    return precomputed.verifier();
+                }
+                return fallback.createJWSVerifier(header, key);
+            }
+
+            @Override
+            public Set<JWSAlgorithm> supportedJWSAlgorithms() {
+                return fallback.supportedJWSAlgorithms();
+            }
+
+            @Override
+            public JCAContext getJCAContext() {
+                return fallback.getJCAContext();
+            }
+        };
+    }
+
+    private static JWSSigner signerFor(JWK jwk) throws JOSEException {
+        if (jwk instanceof ECKey ecKey && ecKey.isPrivate()) {
+            return new ECDSASigner(ecKey);
+        }
+        if (jwk instanceof RSAKey rsaKey && rsaKey.isPrivate()) {
+            return new RSASSASigner(rsaKey);
+        }
+        if (jwk instanceof OctetSequenceKey octetKey) {
+            return new MACSigner(octetKey);
+        }
+        return null;
+    }
+
+    private static PrecomputedVerifier verifierFor(JWK jwk) throws JOSEException {
+        if (jwk instanceof ECKey ecKey) {
+            return new PrecomputedVerifier(ecKey.toECPublicKey(), new ECDSAVerifier(ecKey));
+        }
+        if (jwk instanceof RSAKey rsaKey) {
+            return new PrecomputedVerifier(rsaKey.toRSAPublicKey(), new RSASSAVerifier(rsaKey));
+        }
+        if (jwk instanceof OctetSequenceKey octetKey) {
+            return new PrecomputedVerifier(octetKey.toSecretKey(), new MACVerifier(octetKey));
+        }
+        return null;
+    }
+
+    private record PrecomputedVerifier(Key key, JWSVerifier verifier) {}
+}
@@ -1,22 +1,108 @@
 package com.bootsandcats.oauth2.service;
 
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 import org.springframework.lang.Nullable;
+import org.springframework.security.oauth2.core.OAuth2ErrorCodes;
 import org.springframework.stereotype.Service;
 
 import io.micrometer.core.annotation.Timed;
 import io.micrometer.core.instrument.Counter;
 import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 
 /**
  * OAuth2 Metrics Service.
  *
  * <p>Provides custom metrics for OAuth2 authorization operations.
+ *
+ * <p>Endpoint meters are looked up in a table indexed by the position of each tag value in a
+ * fixed list of known values, and registered on first use. Recording one therefore costs a few
+ * hash lookups and no allocation or registry lookup. Tag values outside the known lists, such as a
+ * made-up {@code grant_type} parameter, are recorded as {@code other}, which also bounds the
+ * number of series a client can create.
  */
 @Service
 public class OAuth2MetricsService {
 
+    private static final String OTHER = "other";
+
+    private static final TagValues ENDPOINTS =
+            new TagValues(
+                    "unknown",
+                    "token",
+                    "authorize",
+                    "introspect",
+                    "revoke",
+                    "userinfo",
+                    "discovery",
+                    "jwks",
+                    "client_auth");
+
+    private static final TagValues OUTCOMES = new TagValues("unknown", "success", "failure");
+
+    private static final TagValues GRANT_TYPES =
+            new TagValues(
+                    "none",
+                    "unknown",
+                    "authorization_code",
+                    "client_credentials",
+                    "refresh_token",
+                    "urn:ietf:params:oauth:grant-type:device_code",
+                    "urn:ietf:params:oauth:grant-type:token-exchange",
+                    "urn:ietf:params:oauth:grant-type:jwt-bearer");
+
+    private static final TagValues ERRORS =
+            new TagValues(
+                    "none",
+                    "unknown",
+                    "exception",
+                    OAuth2ErrorCodes.INVALID_REQUEST,
+                    OAuth2ErrorCodes.INVALID_CLIENT,
+                    OAuth2ErrorCodes.INVALID_GRANT,
+                    OAuth2ErrorCodes.INVALID_SCOPE,
+                    OAuth2ErrorCodes.INVALID_TOKEN,
+                    OAuth2ErrorCodes.INVALID_REDIRECT_URI,
+                    OAuth2ErrorCodes.INSUFFICIENT_SCOPE,
+                    OAuth2ErrorCodes.UNAUTHORIZED_CLIENT,
+                    OAuth2ErrorCodes.UNSUPPORTED_GRANT_TYPE,
+                    OAuth2ErrorCodes.UNSUPPORTED_RESPONSE_TYPE,
+                    OAuth2ErrorCodes.UNSUPPORTED_TOKEN_TYPE,
+                    OAuth2ErrorCodes.ACCESS_DENIED,
+                    OAuth2ErrorCodes.SERVER_ERROR,
+                    OAuth2ErrorCodes.TEMPORARILY_UNAVAILABLE,
+                    "authorization_pending",
+                    "slow_down",
+                    "expired_token");
+
+    /** Latency buckets of the endpoint timers, for SLO queries on the histogram. */
+    private static final Duration[] LATENCY_SLOS = {
+        Duration.ofMillis(5),
+        Duration.ofMillis(10),
+        Duration.ofMillis(25),
+        Duration.ofMillis(50),
+        Duration.ofMillis(100),
+        Duration.ofMillis(250),
+        Duration.ofMillis(500),
+        Duration.ofSeconds(1),
+        Duration.ofMillis(2500),
+        Duration.ofSeconds(5)
+    };
+
+    private final AtomicReferenceArray<Counter> endpointCounters =
+            new AtomicReferenceArray<>(
+                    ENDPOINTS.size() * OUTCOMES.size() * GRANT_TYPES.size() * ERRORS.size());
+    private final AtomicReferenceArray<Timer> endpointTimers =
+            new AtomicReferenceArray<>(ENDPOINTS.size() * OUTCOMES.size());
+    private final AtomicReferenceArray<Timer> phaseTimers =
+            new AtomicReferenceArray<>(ENDPOINTS.size() * OAuth2RequestPhase.values().length);
+
     private final Counter tokenIssuedCounter;
     private final Counter tokenRevokedCounter;
     private final Counter authorizationRequestCounter;
@@ -61,31 +147,83 @@ public class OAuth2MetricsService {
      */
     public void recordEndpointRequest(
             String endpoint, String outcome, @Nullable String grantType, @Nullable String error) {
-        String safeEndpoint = normalize(endpoint, "unknown");
-        String safeOutcome = normalize(outcome, "unknown");
-        String safeGrantType = normalize(grantType, "none");
-        String safeError = normalize(error, "none");
-
-        Counter.builder("oauth2.endpoint.requests")
-                .description(
-                        "OAuth2/OIDC endpoint requests by endpoint, outcome, grant_type, and error")
-                .tag("endpoint", safeEndpoint)
-                .tag("outcome", safeOutcome)
-                .tag("grant_type", safeGrantType)
-                .tag("error", safeError)
-                .register(meterRegistry)
-                .increment();
+        int e = ENDPOINTS.indexOf(endpoint, "unknown");
+        int o = OUTCOMES.indexOf(outcome, "unknown");
+        int g = GRANT_TYPES.indexOf(grantType, "none");
+        int r = ERRORS.indexOf(error, "none");
+        int slot = ((e * OUTCOMES.size() + o) * GRANT_TYPES.size() + g) * ERRORS.size() + r;
+
+        Counter counter = endpointCounters.get(slot);
+        if (counter == null) {
+            // Registration is idempotent, so a racing thread at worst looks the counter up twice.
+            counter =
+                    Counter.builder("oauth2.endpoint.requests")
+                            .description(
+                                    "OAuth2/OIDC endpoint requests by endpoint, outcome,"
+                                            + " grant_type, and error")
+                            .tag("endpoint", ENDPOINTS.get(e))
+                            .tag("outcome", OUTCOMES.get(o))
+                            .tag("grant_type", GRANT_TYPES.get(g))
+                            .tag("error", ERRORS.get(r))
+                            .register(meterRegistry);
+            endpointCounters.set(slot, counter);
+        }
+        counter.increment();
     }
 
-    private String normalize(@Nullable String value, String fallback) {
-        if (value == null) {
-            return fallback;
+    /**
+     * Record the latency of one request to an OAuth2/OIDC endpoint.
+     *
+     * <p>Published as a histogram with {@link #LATENCY_SLOS SLO buckets}, tagged like {@link
+     * #recordEndpointRequest} by endpoint and outcome only.
+     *
+     * @param endpoint logical endpoint name (e.g. token, authorize, introspect, revoke, userinfo)
+     * @param outcome success or failure
+     * @param nanos request duration in nanoseconds
+     */
+    public void recordEndpointLatency(String endpoint, String outcome, long nanos) {
+        int e = ENDPOINTS.indexOf(endpoint, "unknown");
+        int o = OUTCOMES.indexOf(outcome, "unknown");
+        int slot = e * OUTCOMES.size() + o;
+
+        Timer timer = endpointTimers.get(slot);
+        if (timer == null) {
+            timer =
+                    Timer.builder("oauth2.endpoint.latency")
+                            .description("OAuth2/OIDC endpoint request latency")
+                            .tag("endpoint", ENDPOINTS.get(e))
+                            .tag("outcome", OUTCOMES.get(o))
+                            .serviceLevelObjectives(LATENCY_SLOS)
+                            .register(meterRegistry);
+            endpointTimers.set(slot, timer);
         }
-        String trimmed = value.trim();
-        if (trimmed.isEmpty()) {
-            return fallback;
+        timer.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Record the time one phase of a request to an OAuth2/OIDC endpoint took.
+     *
+     * @param endpoint logical endpoint name, or null outside of an endpoint request
+     * @param phase the phase
+     * @param nanos duration in nanoseconds
+     */
+    public void recordRequestPhase(
+            @Nullable String endpoint, OAuth2RequestPhase phase, long nanos) {
+        int e = ENDPOINTS.indexOf(endpoint, "unknown");
+        int slot = e * OAuth2RequestPhase.values().length + phase.ordinal();
+
+        Timer timer = phaseTimers.get(slot);
+        if (timer == null) {
+            timer =
+                    Timer.builder("oauth2.endpoint.phase")
+                            .description("Time per phase of OAuth2/OIDC endpoint requests")
+                            .tag("endpoint", ENDPOINTS.get(e))
+                            .tag("phase", phase.getTag())
+                            .serviceLevelObjectives(LATENCY_SLOS)
+                            .register(meterRegistry);
+            phaseTimers.set(slot, timer);
         }
-        return trimmed.toLowerCase(Locale.ROOT);
+        timer.record(nanos, TimeUnit.NANOSECONDS);
     }
 
     @Timed(value = "oauth2.token.issue", description = "Time to issue token")
@@ -120,4 +258,39 @@ public class OAuth2MetricsService {
     public double getAuthorizationFailures() {
         return authorizationFailedCounter.count();
     }
+
+    /** Known values of one tag, in a fixed order, followed by {@code other}. */
+    private static final class TagValues {
+
+        private final List<String> values;
+        private final Map<String, Integer> indexes = new HashMap<>();
+
+        private TagValues(String... known) {
+            this.values = List.of(known);
+            for (int i = 0; i < known.length; i++) {
+                indexes.put(known[i], i);
+            }
+            indexes.put(OTHER, known.length);
+        }
+
+        int size() {
+            return values.size() + 1;
+        }
+
+        String get(int index) {
+            return index < values.size() ? values.get(index) : OTHER;
+        }
+
+        /** Index of {@code value}, trimmed and lower-cased; {@code fallback} if it is blank. */
+        int indexOf(@Nullable String value, String fallback) {
+            if (value == null || value.isBlank()) {
+                return indexes.get(fallback);
+            }
+            Integer index = indexes.get(value);
+            if (index == null) {
+                index = indexes.get(value.trim().toLowerCase(Locale.ROOT));
+            }
+            return index != null ? index : values.size();
+        }
+    }
 }
@@ -0,0 +1,31 @@
+package com.bootsandcats.oauth2.service;
+
+/**
+ * Phases of an OAuth2 endpoint request that are timed separately, see {@link
+ * com.bootsandcats.oauth2.security.OAuth2RequestPhaseTimer}.
+ */
+public enum OAuth2RequestPhase {
+    /** Registered client lookups. */
+    CLIENT_LOOKUP("client_lookup"),
+    /** Client secret verification by the password encoder. */
+    SECRET_VERIFICATION("secret_verify"),
+    /** Reads and writes of the authorization store. */
+    AUTHORIZATION_STORE("authorization_store"),
+    /** The JWT customizer. */
+    JWT_CUSTOMIZATION("jwt_customize"),
+    /** JWT encoding: key selection and signing. */
+    JWT_ENCODING("jwt_encode"),
+    /** Recording audit events on the request thread. */
+    AUDIT("audit");
+
+    private final String tag;
+
+    OAuth2RequestPhase(String tag) {
+        this.tag = tag;
+    }
+
+    /** Tag value and {@code Server-Timing} metric name of the phase. */
+    public String getTag() {
+        return tag;
+    }
+}
@@ -0,0 +1,77 @@
+package com.bootsandcats.oauth2.service;
+
+import java.util.function.Supplier;
+
+import org.springframework.security.oauth2.server.authorization.client.RegisteredClient;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.bootsandcats.oauth2.config.RegisteredClientCacheProperties;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Bounded, TTL'd cache of fully built {@link RegisteredClient}s together with their admin-managed
+ * enabled flag, keyed by client id and by registered client id.
+ *
+ * <p>Only clients that exist are cached. Entries are dropped after commit when a {@link
+ * RegisteredClientChangedEvent} is published, and otherwise expire after {@code
+ * oauth2.clients.cache.ttl}. Hits and misses are reported as {@code cache.gets} with {@code
+ * cache=oauth2.clients.by-client-id} or {@code oauth2.clients.by-id}.
+ */
+@Component
+public class RegisteredClientCache {
+
+    /** A resolved client and whether the admin metadata currently allows it. */
+    public record Entry(RegisteredClient client, boolean enabled) {}
+
+    private final boolean enabled;
+    private final Cache<String, Entry> byClientId;
+    private final Cache<String, Entry> byId;
+
+    public RegisteredClientCache(
+            RegisteredClientCacheProperties properties, MeterRegistry meterRegistry) {
+        this.enabled = properties.isEnabled();
+        this.byClientId = newCache(properties);
+        this.byId = newCache(properties);
+        CaffeineCacheMetrics.monitor(meterRegistry, byClientId, "oauth2.clients.by-client-id");
+        CaffeineCacheMetrics.monitor(meterRegistry, byId, "oauth2.clients.by-id");
+    }
+
+    private static Cache<String, Entry> newCache(RegisteredClientCacheProperties properties) {
+        return Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .expireAfterWrite(properties.getTtl())
+                .recordStats()
+                .build();
+    }
+
+    /** Cached entry for {@code clientId}, loading (and caching if found) on a miss. */
+    public Entry getByClientId(String clientId, Supplier<Entry> loader) {
+        return enabled ? byClientId.get(clientId, key -> loader.get()) : loader.get();
+    }
+
+    /** Cached entry for registered client {@code id}, loading (and caching if found) on a miss. */
+    public Entry getById(String id, Supplier<Entry> loader) {
+        return enabled ? byId.get(id, key -> loader.get()) : loader.get();
+    }
+
+    /** Drop every cached entry for {@code clientId}; {@code null} drops everything. */
+    public void invalidate(String clientId) {
+        if (clientId == null) {
+            byClientId.invalidateAll();
+            byId.invalidateAll();
+            return;
+        }
+        byClientId.invalidate(clientId);
+        byId.asMap().values().removeIf(entry -> clientId.equals(entry.client().getClientId()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onClientChanged(RegisteredClientChangedEvent event) {
+        invalidate(event.clientId());
+    }
+}
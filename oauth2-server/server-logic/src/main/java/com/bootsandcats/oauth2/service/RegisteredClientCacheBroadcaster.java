@@ -0,0 +1,85 @@
+package com.bootsandcats.oauth2.service;
+
+import java.nio.charset.StandardCharsets;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.bootsandcats.oauth2.config.RegisteredClientCacheProperties;
+
+/**
+ * Relays {@link RegisteredClientChangedEvent}s to other replicas over Redis pub/sub so their
+ * {@link RegisteredClientCache} drops the same entries.
+ *
+ * <p>The message body is the client id, or {@link #ALL_CLIENTS} to drop everything. Replicas also
+ * receive their own messages; invalidating twice is harmless.
+ */
+@Component
+@ConditionalOnProperty(prefix = "oauth2.clients.cache", name = "broadcast", havingValue = "true")
+public class RegisteredClientCacheBroadcaster implements MessageListener, SmartLifecycle {
+
+    private static final Logger log =
+            LoggerFactory.getLogger(RegisteredClientCacheBroadcaster.class);
+
+    static final String ALL_CLIENTS = "*";
+
+    private final RegisteredClientCache cache;
+    private final StringRedisTemplate redisTemplate;
+    private final String channel;
+    private final RedisMessageListenerContainer container;
+
+    public RegisteredClientCacheBroadcaster(
+            RegisteredClientCache cache,
+            StringRedisTemplate redisTemplate,
+            RedisConnectionFactory connectionFactory,
+            RegisteredClientCacheProperties properties) {
+        this.cache = cache;
+        this.redisTemplate = redisTemplate;
+        this.channel = properties.getBroadcastChannel();
+        this.container = new RedisMessageListenerContainer();
+        this.container.setConnectionFactory(connectionFactory);
+        this.container.addMessageListener(this, new ChannelTopic(channel));
+        this.container.afterPropertiesSet();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onClientChanged(RegisteredClientChangedEvent event) {
+        String body = event.clientId() != null ? event.clientId() : ALL_CLIENTS;
+        try {
+            redisTemplate.convertAndSend(channel, body);
+        } catch (Exception e) {
+            log.warn("Failed to broadcast client cache invalidation for {}", body, e);
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        cache.invalidate(ALL_CLIENTS.equals(body) ? null : body);
+    }
+
+    @Override
+    public void start() {
+        container.start();
+    }
+
+    @Override
+    public void stop() {
+        container.stop();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return container.isRunning();
+    }
+}
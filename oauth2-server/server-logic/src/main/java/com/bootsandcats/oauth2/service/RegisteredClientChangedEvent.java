@@ -0,0 +1,9 @@
+package com.bootsandcats.oauth2.service;
+
+/**
+ * Published when a registered client or its admin metadata changes, so cached copies can be
+ * dropped.
+ *
+ * @param clientId the client's {@code client_id}, or {@code null} for "all clients"
+ */
+public record RegisteredClientChangedEvent(String clientId) {}
@@ -0,0 +1,54 @@
+package com.bootsandcats.oauth2.service;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Base64;
+
+/**
+ * A response body rendered once to bytes, with a strong {@code ETag} derived from its SHA-256.
+ *
+ * @param body the serialized document
+ * @param contentType media type the body was rendered as
+ * @param etag quoted strong entity tag
+ */
+public record RenderedDocument(byte[] body, String contentType, String etag) {
+
+    /** Render {@code body} as a document of {@code contentType}, computing its entity tag. */
+    public static RenderedDocument of(byte[] body, String contentType) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(body);
+            String tag =
+                    Base64.getUrlEncoder()
+                            .withoutPadding()
+                            .encodeToString(Arrays.copyOf(digest, 16));
+            return new RenderedDocument(body, contentType, '"' + tag + '"');
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 unavailable", e);
+        }
+    }
+
+    /**
+     * Whether an {@code If-None-Match} header value names this document, so a {@code 304 Not
+     * Modified} can be sent instead. Uses the weak comparison RFC 9110 requires for {@code
+     * If-None-Match}.
+     */
+    public boolean matchesIfNoneMatch(String ifNoneMatch) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*")) {
+                return true;
+            }
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
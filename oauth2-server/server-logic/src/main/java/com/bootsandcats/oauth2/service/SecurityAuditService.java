@@ -3,24 +3,28 @@ package com.bootsandcats.oauth2.service;
 import java.time.Instant;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.UUID;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import org.springframework.scheduling.annotation.Async;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import com.bootsandcats.oauth2.events.AuthEventPublisher;
-import com.bootsandcats.oauth2.k8s.KubernetesAuditEventEmitter;
 import com.bootsandcats.oauth2.model.AuditEventResult;
 import com.bootsandcats.oauth2.model.AuditEventType;
 import com.bootsandcats.oauth2.model.SecurityAuditEvent;
+import com.bootsandcats.oauth2.model.UuidV7;
 import com.bootsandcats.oauth2.repository.SecurityAuditEventRepository;
+import com.bootsandcats.oauth2.service.audit.AuditEventCursor;
+import com.bootsandcats.oauth2.service.audit.AuditEventPipeline;
+import com.bootsandcats.oauth2.service.audit.AuditEventSampler;
+import com.bootsandcats.oauth2.service.audit.AuditEventWriter;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
@@ -30,39 +34,48 @@ import jakarta.servlet.http.HttpServletRequest;
  * Service for recording and querying security audit events.
  *
  * <p>This service provides methods to create, store, and retrieve security audit events for OAuth2
- * compliance logging. Events are recorded asynchronously to minimize impact on request processing.
+ * compliance logging. Events are queued on a bounded in-process pipeline and written in batches
+ * off the request thread.
  */
 @Service
 public class SecurityAuditService {
 
     private static final Logger log = LoggerFactory.getLogger(SecurityAuditService.class);
 
+    private static final String CORRELATION_ID_ATTRIBUTE =
+            SecurityAuditService.class.getName() + ".correlationId";
+
     private final ObjectProvider<SecurityAuditEventRepository> auditEventRepository;
     private final ObjectMapper objectMapper;
-    private final AuthEventPublisher authEventPublisher;
-    private final ObjectProvider<KubernetesAuditEventEmitter> kubernetesAuditEventEmitter;
+    private final AuditEventWriter auditEventWriter;
+    private final AuditEventPipeline auditEventPipeline;
+    private final AuditEventSampler auditEventSampler;
 
     public SecurityAuditService(
             ObjectProvider<SecurityAuditEventRepository> auditEventRepository,
             ObjectMapper objectMapper,
-            AuthEventPublisher authEventPublisher,
-            ObjectProvider<KubernetesAuditEventEmitter> kubernetesAuditEventEmitter) {
+            AuditEventWriter auditEventWriter,
+            AuditEventPipeline auditEventPipeline,
+            AuditEventSampler auditEventSampler) {
         this.auditEventRepository = auditEventRepository;
         this.objectMapper = objectMapper;
-        this.authEventPublisher = authEventPublisher;
-        this.kubernetesAuditEventEmitter = kubernetesAuditEventEmitter;
+        this.auditEventWriter = auditEventWriter;
+        this.auditEventPipeline = auditEventPipeline;
+        this.auditEventSampler = auditEventSampler;
     }
 
     /**
      * Record a security audit event asynchronously.
      *
+     * <p>The event is handed to the {@link AuditEventPipeline} and written by its drainer thread in
+     * batches, unless the {@link AuditEventSampler} samples it out or aggregates it.
+     *
      * @param event the audit event to record
      */
-    @Async("auditTaskExecutor")
-    @Transactional
     public void recordEventAsync(SecurityAuditEvent event) {
-        SecurityAuditEvent saved = persistEvent(event);
-        publishEvent(saved);
+        if (auditEventSampler.admit(event)) {
+            auditEventPipeline.submit(event);
+        }
     }
 
     /**
@@ -73,56 +86,7 @@ public class SecurityAuditService {
      */
     @Transactional
     public SecurityAuditEvent recordEvent(SecurityAuditEvent event) {
-        SecurityAuditEvent saved = persistEvent(event);
-        publishEvent(saved);
-        return saved;
-    }
-
-    private SecurityAuditEvent persistEvent(SecurityAuditEvent event) {
-        SecurityAuditEventRepository repo = auditEventRepository.getIfAvailable();
-        if (repo == null) {
-            // No database configured (e.g., prod-no-db). Still publish to Redis/K8s sinks.
-            return event;
-        }
-        try {
-            SecurityAuditEvent saved = repo.save(event);
-            log.debug(
-                    "Recorded audit event: type={}, principal={}, result={}",
-                    event.getEventType(),
-                    event.getPrincipal(),
-                    event.getResult());
-            return saved;
-        } catch (Exception e) {
-            log.error("Failed to record audit event: {}", event, e);
-            throw e;
-        }
-    }
-
-    private void publishEvent(SecurityAuditEvent event) {
-        try {
-            authEventPublisher.publish(event);
-        } catch (Exception e) {
-            // Publishing failures should not interrupt auth flows
-            log.warn(
-                    "Auth event publishing failed for event {} of type {}",
-                    event.getEventId(),
-                    event.getEventType(),
-                    e);
-        }
-
-        try {
-            KubernetesAuditEventEmitter emitter = kubernetesAuditEventEmitter.getIfAvailable();
-            if (emitter != null) {
-                emitter.publish(event);
-            }
-        } catch (Exception e) {
-            // Best-effort: Kubernetes Events are an optional sink.
-            log.debug(
-                    "Kubernetes audit event emission failed for event {} of type {}",
-                    event.getEventId(),
-                    event.getEventType(),
-                    e);
-        }
+        return auditEventWriter.write(event);
     }
 
     /**
@@ -723,6 +687,109 @@ public class SecurityAuditService {
                 principal, clientId, eventCategory, result, startTime, endTime, pageable);
     }
 
+    /**
+     * Find recent audit events by keyset.
+     *
+     * @param cursor position of the last event already returned, or {@code null} for the newest
+     * @param size maximum number of events
+     * @return slice of audit events, newest first
+     */
+    @Transactional(readOnly = true)
+    public Slice<SecurityAuditEvent> findRecentEvents(AuditEventCursor cursor, int size) {
+        SecurityAuditEventRepository repo = auditEventRepository.getIfAvailable();
+        if (repo == null) {
+            return emptySlice();
+        }
+        AuditEventCursor from = cursor != null ? cursor : AuditEventCursor.START;
+        return repo.findEventsBefore(from.timestamp(), from.id(), PageRequest.ofSize(size));
+    }
+
+    /**
+     * Find audit events for a principal by keyset.
+     *
+     * @param principal the principal
+     * @param cursor position of the last event already returned, or {@code null} for the newest
+     * @param size maximum number of events
+     * @return slice of audit events, newest first
+     */
+    @Transactional(readOnly = true)
+    public Slice<SecurityAuditEvent> findByPrincipal(
+            String principal, AuditEventCursor cursor, int size) {
+        SecurityAuditEventRepository repo = auditEventRepository.getIfAvailable();
+        if (repo == null) {
+            return emptySlice();
+        }
+        AuditEventCursor from = cursor != null ? cursor : AuditEventCursor.START;
+        return repo.findByPrincipalBefore(
+                principal, from.timestamp(), from.id(), PageRequest.ofSize(size));
+    }
+
+    /**
+     * Find audit events for a client by keyset.
+     *
+     * @param clientId the client ID
+     * @param cursor position of the last event already returned, or {@code null} for the newest
+     * @param size maximum number of events
+     * @return slice of audit events, newest first
+     */
+    @Transactional(readOnly = true)
+    public Slice<SecurityAuditEvent> findByClientId(
+            String clientId, AuditEventCursor cursor, int size) {
+        SecurityAuditEventRepository repo = auditEventRepository.getIfAvailable();
+        if (repo == null) {
+            return emptySlice();
+        }
+        AuditEventCursor from = cursor != null ? cursor : AuditEventCursor.START;
+        return repo.findByClientIdBefore(
+                clientId, from.timestamp(), from.id(), PageRequest.ofSize(size));
+    }
+
+    /**
+     * Search audit events with multiple criteria by keyset.
+     *
+     * @param principal optional principal filter
+     * @param clientId optional client ID filter
+     * @param eventCategory optional category filter
+     * @param result optional result filter
+     * @param startTime start time
+     * @param endTime end time (inclusive)
+     * @param cursor position of the last event already returned, or {@code null} for the newest
+     * @param size maximum number of events
+     * @return slice of matching audit events, newest first
+     */
+    @Transactional(readOnly = true)
+    public Slice<SecurityAuditEvent> searchAuditEvents(
+            String principal,
+            String clientId,
+            String eventCategory,
+            AuditEventResult result,
+            Instant startTime,
+            Instant endTime,
+            AuditEventCursor cursor,
+            int size) {
+        SecurityAuditEventRepository repo = auditEventRepository.getIfAvailable();
+        if (repo == null) {
+            return emptySlice();
+        }
+        AuditEventCursor from = AuditEventCursor.endingAt(endTime);
+        if (cursor != null) {
+            from = from.olderOf(cursor);
+        }
+        return repo.searchAuditEventsBefore(
+                principal,
+                clientId,
+                eventCategory,
+                result,
+                startTime,
+                from.timestamp(),
+                from.id(),
+                PageRequest.ofSize(size));
+    }
+
+    private static Slice<SecurityAuditEvent> emptySlice() {
+        return new SliceImpl<>(java.util.List.of());
+    }
+
     private static Page<SecurityAuditEvent> emptyPage(Pageable pageable) {
         if (pageable == null || pageable.isUnpaged()) {
             return new PageImpl<>(java.util.List.of());
@@ -735,7 +802,7 @@ public class SecurityAuditService {
     private SecurityAuditEvent createBaseEvent(
             AuditEventType eventType, AuditEventResult result, HttpServletRequest request) {
         SecurityAuditEvent event = new SecurityAuditEvent();
-        event.setEventId(UUID.randomUUID());
+        event.setEventId(UuidV7.generate());
         event.setEventType(eventType);
         event.setEventCategory(eventType.getCategory());
         event.setResult(result);
@@ -748,11 +815,37 @@ public class SecurityAuditService {
             event.setRequestMethod(request.getMethod());
             event.setSessionId(
                     request.getSession(false) != null ? request.getSession(false).getId() : null);
+            event.setCorrelationId(getCorrelationId(request));
         }
 
         return event;
     }
 
+    /**
+     * Correlation ID shared by all audit events of one request: the caller's {@code
+     * X-Correlation-ID} or {@code X-Request-Id}, or else a new version 7 UUID.
+     */
+    private static String getCorrelationId(HttpServletRequest request) {
+        Object existing = request.getAttribute(CORRELATION_ID_ATTRIBUTE);
+        if (existing instanceof String correlationId) {
+            return correlationId;
+        }
+        String correlationId = request.getHeader("X-Correlation-ID");
+        if (!isUsableCorrelationId(correlationId)) {
+            correlationId = request.getHeader("X-Request-Id");
+        }
+        if (!isUsableCorrelationId(correlationId)) {
+            correlationId = UuidV7.generate().toString();
+        }
+        request.setAttribute(CORRELATION_ID_ATTRIBUTE, correlationId);
+        return correlationId;
+    }
+
+    private static boolean isUsableCorrelationId(String value) {
+        // correlation_id is VARCHAR(100)
+        return value != null && !value.isBlank() && value.length() <= 100;
+    }
+
     private String getClientIpAddress(HttpServletRequest request) {
         String xForwardedFor = request.getHeader("X-Forwarded-For");
         if (xForwardedFor != null && !xForwardedFor.isEmpty()) {
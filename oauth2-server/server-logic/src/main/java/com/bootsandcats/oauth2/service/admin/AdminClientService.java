@@ -9,6 +9,7 @@ import java.util.Set;
 import java.util.UUID;
 
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.oauth2.core.AuthorizationGrantType;
 import org.springframework.security.oauth2.core.ClientAuthenticationMethod;
 import org.springframework.security.oauth2.server.authorization.client.RegisteredClient;
@@ -31,6 +32,7 @@ import com.bootsandcats.oauth2.repository.ClientScopeRepository;
 import com.bootsandcats.oauth2.repository.RegisteredClientJpaRepository;
 import com.bootsandcats.oauth2.repository.ScopeRepository;
 import com.bootsandcats.oauth2.service.JpaRegisteredClientRepository;
+import com.bootsandcats.oauth2.service.RegisteredClientChangedEvent;
 import com.bootsandcats.oauth2.service.SecurityAuditService;
 
 import jakarta.servlet.http.HttpServletRequest;
@@ -49,6 +51,7 @@ public class AdminClientService implements AdminClientOperations {
     private final ScopeRepository scopeRepository;
     private final ClientScopeRepository clientScopeRepository;
     private final SecurityAuditService securityAuditService;
+    private final ApplicationEventPublisher eventPublisher;
 
     public AdminClientService(
             JpaRegisteredClientRepository jpaRegisteredClientRepository,
@@ -56,13 +59,15 @@ public class AdminClientService implements AdminClientOperations {
             ClientMetadataRepository clientMetadataRepository,
             ScopeRepository scopeRepository,
             ClientScopeRepository clientScopeRepository,
-            SecurityAuditService securityAuditService) {
+            SecurityAuditService securityAuditService,
+            ApplicationEventPublisher eventPublisher) {
         this.jpaRegisteredClientRepository = jpaRegisteredClientRepository;
         this.registeredClientJpaRepository = registeredClientJpaRepository;
         this.clientMetadataRepository = clientMetadataRepository;
         this.scopeRepository = scopeRepository;
         this.clientScopeRepository = clientScopeRepository;
         this.securityAuditService = securityAuditService;
+        this.eventPublisher = eventPublisher;
     }
 
     @Transactional(readOnly = true)
@@ -110,6 +115,7 @@ public class AdminClientService implements AdminClientOperations {
         jpaRegisteredClientRepository.save(toSave);
 
         ClientMetadataEntity savedMeta = upsertMetadata(metadata, request, actor, creating);
+        eventPublisher.publishEvent(new RegisteredClientChangedEvent(request.clientId()));
 
         AuditEventType eventType;
         if (creating) {
@@ -145,6 +151,7 @@ public class AdminClientService implements AdminClientOperations {
         clientScopeRepository.deleteByIdClientId(clientId);
         clientMetadataRepository.deleteById(clientId);
         registeredClientJpaRepository.deleteByClientId(clientId);
+        eventPublisher.publishEvent(new RegisteredClientChangedEvent(clientId));
 
         Map<String, Object> details = new HashMap<>();
         details.put("clientId", clientId);
@@ -177,6 +184,7 @@ public class AdminClientService implements AdminClientOperations {
         meta.setEnabled(enabled);
         meta.setUpdatedAt(Instant.now());
         clientMetadataRepository.save(meta);
+        eventPublisher.publishEvent(new RegisteredClientChangedEvent(clientId));
 
         Map<String, Object> details = new HashMap<>();
         details.put("clientId", clientId);
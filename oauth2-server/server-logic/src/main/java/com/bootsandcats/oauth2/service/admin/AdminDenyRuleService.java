@@ -6,6 +6,7 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
@@ -17,6 +18,7 @@ import com.bootsandcats.oauth2.model.AuditEventType;
 import com.bootsandcats.oauth2.model.DenyMatchType;
 import com.bootsandcats.oauth2.model.DenyRuleEntity;
 import com.bootsandcats.oauth2.security.DenyRuleStore;
+import com.bootsandcats.oauth2.security.DenyRulesChangedEvent;
 import com.bootsandcats.oauth2.service.SecurityAuditService;
 
 import jakarta.servlet.http.HttpServletRequest;
@@ -26,11 +28,15 @@ public class AdminDenyRuleService {
 
     private final DenyRuleStore denyRuleStore;
     private final SecurityAuditService securityAuditService;
+    private final ApplicationEventPublisher eventPublisher;
 
     public AdminDenyRuleService(
-            DenyRuleStore denyRuleStore, SecurityAuditService securityAuditService) {
+            DenyRuleStore denyRuleStore,
+            SecurityAuditService securityAuditService,
+            ApplicationEventPublisher eventPublisher) {
         this.denyRuleStore = denyRuleStore;
         this.securityAuditService = securityAuditService;
+        this.eventPublisher = eventPublisher;
     }
 
     @Transactional(readOnly = true)
@@ -49,6 +55,7 @@ public class AdminDenyRuleService {
         apply(entity, request);
 
         DenyRuleEntity saved = denyRuleStore.save(entity);
+        eventPublisher.publishEvent(new DenyRulesChangedEvent("admin"));
 
         securityAuditService.recordGenericEvent(
                 AuditEventType.DENY_RULE_CREATED,
@@ -78,6 +85,7 @@ public class AdminDenyRuleService {
         apply(entity, request);
 
         DenyRuleEntity saved = denyRuleStore.save(entity);
+        eventPublisher.publishEvent(new DenyRulesChangedEvent("admin"));
 
         securityAuditService.recordGenericEvent(
                 AuditEventType.DENY_RULE_UPDATED,
@@ -99,6 +107,7 @@ public class AdminDenyRuleService {
                                         new AdminResourceNotFoundException(
                                                 "Deny rule not found: " + id));
         denyRuleStore.delete(entity);
+        eventPublisher.publishEvent(new DenyRulesChangedEvent("admin"));
 
         Map<String, Object> details = new HashMap<>();
         details.put("id", id);
@@ -0,0 +1,78 @@
+package com.bootsandcats.oauth2.service.audit;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.util.Base64;
+
+import com.bootsandcats.oauth2.model.SecurityAuditEvent;
+
+/**
+ * Keyset position in the audit log: the {@code (eventTimestamp, id)} of the last event a caller has
+ * seen. The next page is everything strictly older than it, in {@code eventTimestamp DESC, id DESC}
+ * order, so paging deeper never costs more than the first page.
+ *
+ * <p>Encoded for clients as an opaque URL-safe token; callers must not rely on its contents.
+ *
+ * @param timestamp event timestamp of the last event returned
+ * @param id database id of the last event returned
+ */
+public record AuditEventCursor(Instant timestamp, long id) {
+
+    /** Sorts after every real event, so it selects the newest page. */
+    public static final AuditEventCursor START =
+            new AuditEventCursor(Instant.parse("9999-12-31T23:59:59Z"), Long.MAX_VALUE);
+
+    private static final int ENCODED_BYTES = Long.BYTES + Integer.BYTES + Long.BYTES;
+
+    public AuditEventCursor {
+        if (timestamp == null) {
+            throw new IllegalArgumentException("Cursor timestamp must not be null");
+        }
+    }
+
+    /** The position just past {@code event}. */
+    public static AuditEventCursor after(SecurityAuditEvent event) {
+        return new AuditEventCursor(event.getEventTimestamp(), event.getId());
+    }
+
+    /** The position selecting the newest events at or before {@code endTime}. */
+    public static AuditEventCursor endingAt(Instant endTime) {
+        return new AuditEventCursor(endTime, Long.MAX_VALUE);
+    }
+
+    /**
+     * Parse a token produced by {@link #encode()}.
+     *
+     * @throws IllegalArgumentException if {@code token} is not a valid cursor
+     */
+    public static AuditEventCursor decode(String token) {
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(Base64.getUrlDecoder().decode(token));
+            if (buffer.remaining() != ENCODED_BYTES) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            Instant timestamp = Instant.ofEpochSecond(buffer.getLong(), buffer.getInt());
+            return new AuditEventCursor(timestamp, buffer.getLong());
+        } catch (BufferUnderflowException | DateTimeException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+
+    /** The opaque token handed to clients. */
+    public String encode() {
+        ByteBuffer buffer = ByteBuffer.allocate(ENCODED_BYTES);
+        buffer.putLong(timestamp.getEpochSecond()).putInt(timestamp.getNano()).putLong(id);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(buffer.array());
+    }
+
+    /** The older of this position and {@code other}, i.e. the one that selects fewer events. */
+    public AuditEventCursor olderOf(AuditEventCursor other) {
+        int byTime = timestamp.compareTo(other.timestamp);
+        if (byTime != 0) {
+            return byTime < 0 ? this : other;
+        }
+        return id <= other.id ? this : other;
+    }
+}
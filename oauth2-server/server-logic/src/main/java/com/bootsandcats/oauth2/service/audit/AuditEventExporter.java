@@ -0,0 +1,438 @@
+package com.bootsandcats.oauth2.service.audit;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.GZIPOutputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.bootsandcats.oauth2.dto.AuditEventSummary;
+import com.bootsandcats.oauth2.model.AuditEventResult;
+import com.bootsandcats.oauth2.model.AuditEventType;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+/**
+ * Streams audit events straight from a database cursor to an output stream, oldest first.
+ *
+ * <p>Rows are read through a forward-only JDBC cursor with a bounded fetch size, inside a
+ * read-only transaction so PostgreSQL actually uses a server-side cursor instead of materializing
+ * the result. Each row is mapped to an {@link AuditEventSummary} and written out before the next
+ * one is read, so memory use is independent of the time range. Writes block while the client is
+ * not reading, which in turn stops the cursor from fetching: a slow reader slows the export down
+ * instead of buffering it.
+ *
+ * <p>Every export holds a pooled connection and a transaction snapshot while it runs, which also
+ * blocks partition maintenance on the audit table. So at most {@code max-concurrent} exports run at
+ * a time, each taking a {@link Permit} first, and an export is aborted once it has run for {@code
+ * timeout}: the transaction timeout bounds each statement and the row loop checks the deadline.
+ *
+ * <p>A permit is taken on the request thread but the export runs later, on an async thread, which
+ * may never happen (the task is rejected, the request times out or fails first). A permit that has
+ * not been {@link Permit#start() started} within {@code start-timeout} is therefore reclaimed by
+ * the next {@link #tryAcquire}, so abandoned exports cannot use up every slot.
+ */
+@Component
+public class AuditEventExporter {
+
+    private static final Logger log = LoggerFactory.getLogger(AuditEventExporter.class);
+
+    /** Export formats. */
+    public enum Format {
+        /** One JSON {@link AuditEventSummary} per line. */
+        NDJSON("application/x-ndjson", "ndjson"),
+        /** RFC 4180 CSV with a header row. */
+        CSV("text/csv", "csv");
+
+        private final String mediaType;
+        private final String extension;
+
+        Format(String mediaType, String extension) {
+            this.mediaType = mediaType;
+            this.extension = extension;
+        }
+
+        public String getMediaType() {
+            return mediaType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+    }
+
+    private static final String[] CSV_HEADER = {
+        "event_id",
+        "event_type",
+        "event_category",
+        "event_timestamp",
+        "principal",
+        "principal_type",
+        "client_id",
+        "ip_address",
+        "result",
+        "result_code",
+        "error_message",
+        "grant_type",
+        "scopes",
+        "token_type"
+    };
+
+    private static final String SELECT =
+            "SELECT " + String.join(", ", CSV_HEADER) + " FROM security_audit_events";
+
+    private final ObjectProvider<JdbcTemplate> jdbcTemplate;
+    private final ObjectWriter jsonWriter;
+    private final TransactionTemplate transactionTemplate;
+    private final int fetchSize;
+    private final Duration timeout;
+    private final long startTimeoutNanos;
+    private final Semaphore permits;
+    private final Set<Permit> unstarted = ConcurrentHashMap.newKeySet();
+
+    public AuditEventExporter(
+            ObjectProvider<JdbcTemplate> jdbcTemplate,
+            ObjectMapper objectMapper,
+            PlatformTransactionManager transactionManager,
+            @Value("${oauth2.audit.export.fetch-size:1000}") int fetchSize,
+            @Value("${oauth2.audit.export.max-concurrent:2}") int maxConcurrent,
+            @Value("${oauth2.audit.export.timeout:PT10M}") Duration timeout,
+            @Value("${oauth2.audit.export.start-timeout:PT1M}") Duration startTimeout) {
+        this.jdbcTemplate = jdbcTemplate;
+        // Rows are flushed by the output buffers, not after every value.
+        this.jsonWriter =
+                objectMapper
+                        .writerFor(AuditEventSummary.class)
+                        .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.transactionTemplate.setTimeout((int) Math.max(1, timeout.toSeconds()));
+        this.fetchSize = fetchSize;
+        this.timeout = timeout;
+        this.startTimeoutNanos = startTimeout.toNanos();
+        this.permits = new Semaphore(Math.max(1, maxConcurrent));
+    }
+
+    /**
+     * Reserve a slot for one export.
+     *
+     * @return the permit, to be {@link Permit#start() started} when the export begins and closed
+     *     once it is done, or {@code null} if {@code max-concurrent} exports are already running
+     */
+    public Permit tryAcquire() {
+        reclaimUnstarted(System.nanoTime());
+        if (!permits.tryAcquire()) {
+            return null;
+        }
+        Permit permit = new Permit(System.nanoTime());
+        unstarted.add(permit);
+        return permit;
+    }
+
+    private void reclaimUnstarted(long now) {
+        for (Permit permit : unstarted) {
+            if (now - permit.acquiredAt >= startTimeoutNanos && permit.reclaim()) {
+                log.warn("Reclaimed an audit export slot whose export never started");
+            }
+        }
+    }
+
+    /**
+     * Write matching audit events to {@code out}. Writes nothing when no database is configured.
+     *
+     * @param format output format
+     * @param gzip whether to gzip the output
+     * @param principal optional principal filter
+     * @param clientId optional client ID filter
+     * @param eventCategory optional category filter
+     * @param result optional result filter
+     * @param startTime start of the time range (inclusive)
+     * @param endTime end of the time range (inclusive)
+     * @param out destination; flushed but not closed
+     * @return number of events written
+     * @throws IOException if writing to {@code out} fails
+     */
+    public long export(
+            Format format,
+            boolean gzip,
+            String principal,
+            String clientId,
+            String eventCategory,
+            AuditEventResult result,
+            Instant startTime,
+            Instant endTime,
+            OutputStream out)
+            throws IOException {
+        StringBuilder sql =
+                new StringBuilder(SELECT)
+                        .append(" WHERE event_timestamp >= ? AND event_timestamp <= ?");
+        List<Object> params = new ArrayList<>(6);
+        params.add(startTime.atOffset(ZoneOffset.UTC));
+        params.add(endTime.atOffset(ZoneOffset.UTC));
+        if (principal != null) {
+            sql.append(" AND principal = ?");
+            params.add(principal);
+        }
+        if (clientId != null) {
+            sql.append(" AND client_id = ?");
+            params.add(clientId);
+        }
+        if (eventCategory != null) {
+            sql.append(" AND event_category = ?");
+            params.add(eventCategory);
+        }
+        if (result != null) {
+            sql.append(" AND result = ?");
+            params.add(result.name());
+        }
+        sql.append(" ORDER BY event_timestamp, id");
+
+        GZIPOutputStream compressed = gzip ? new GZIPOutputStream(out, 8192) : null;
+        OutputStream target = compressed != null ? compressed : out;
+        long written;
+        try {
+            written =
+                    switch (format) {
+                        case NDJSON -> writeNdjson(target, sql.toString(), params);
+                        case CSV -> writeCsv(target, sql.toString(), params);
+                    };
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        if (compressed != null) {
+            compressed.finish();
+        }
+        out.flush();
+        return written;
+    }
+
+    private long writeNdjson(OutputStream out, String sql, List<Object> params)
+            throws IOException {
+        try (JsonGenerator generator =
+                jsonWriter.createGenerator(out).disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)) {
+            long written =
+                    stream(
+                            sql,
+                            params,
+                            summary -> {
+                                jsonWriter.writeValue(generator, summary);
+                                generator.writeRaw('\n');
+                            });
+            generator.flush();
+            return written;
+        }
+    }
+
+    private long writeCsv(OutputStream out, String sql, List<Object> params) throws IOException {
+        Writer writer =
+                new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 8192);
+        writer.write(String.join(",", CSV_HEADER));
+        writer.write("\r\n");
+        long written = stream(sql, params, summary -> writeCsvRow(writer, summary));
+        writer.flush();
+        return written;
+    }
+
+    private long stream(String sql, List<Object> params, RowWriter rowWriter) {
+        JdbcTemplate jdbc = jdbcTemplate.getIfAvailable();
+        if (jdbc == null) {
+            return 0;
+        }
+        long[] written = {0};
+        long deadline = System.nanoTime() + timeout.toNanos();
+        RowCallbackHandler handler =
+                rs -> {
+                    if (System.nanoTime() - deadline > 0) {
+                        throw new QueryTimeoutException(
+                                "Audit export exceeded "
+                                        + timeout
+                                        + " after "
+                                        + written[0]
+                                        + " events");
+                    }
+                    try {
+                        rowWriter.write(toSummary(rs));
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    written[0]++;
+                };
+        transactionTemplate.executeWithoutResult(
+                status ->
+                        jdbc.query(
+                                con -> {
+                                    PreparedStatement ps =
+                                            con.prepareStatement(
+                                                    sql,
+                                                    ResultSet.TYPE_FORWARD_ONLY,
+                                                    ResultSet.CONCUR_READ_ONLY);
+                                    ps.setFetchSize(fetchSize);
+                                    for (int i = 0; i < params.size(); i++) {
+                                        ps.setObject(i + 1, params.get(i));
+                                    }
+                                    return ps;
+                                },
+                                handler));
+        return written[0];
+    }
+
+    private static AuditEventSummary toSummary(ResultSet rs) throws SQLException {
+        OffsetDateTime timestamp = rs.getObject(4, OffsetDateTime.class);
+        return new AuditEventSummary(
+                rs.getObject(1, UUID.class),
+                AuditEventType.valueOf(rs.getString(2)),
+                rs.getString(3),
+                timestamp != null ? timestamp.toInstant() : null,
+                rs.getString(5),
+                rs.getString(6),
+                rs.getString(7),
+                rs.getString(8),
+                AuditEventResult.valueOf(rs.getString(9)),
+                rs.getString(10),
+                rs.getString(11),
+                rs.getString(12),
+                rs.getString(13),
+                rs.getString(14));
+    }
+
+    private static void writeCsvRow(Writer writer, AuditEventSummary summary) throws IOException {
+        Object[] values = {
+            summary.eventId(),
+            summary.eventType(),
+            summary.eventCategory(),
+            summary.eventTimestamp(),
+            summary.principal(),
+            summary.principalType(),
+            summary.clientId(),
+            summary.ipAddress(),
+            summary.result(),
+            summary.resultCode(),
+            summary.errorMessage(),
+            summary.grantType(),
+            summary.scopes(),
+            summary.tokenType()
+        };
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            if (values[i] != null) {
+                writer.write(csvField(values[i].toString()));
+            }
+        }
+        writer.write("\r\n");
+    }
+
+    static String csvField(String value) {
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\r' || c == '\n';
+        }
+        // Cells starting with a formula character are prefixed so spreadsheets show them as text.
+        boolean formula =
+                !value.isEmpty() && "=+-@\t".indexOf(value.charAt(0)) >= 0 && !isNumber(value);
+        String escaped = formula ? "'" + value : value;
+        return quote ? "\"" + escaped.replace("\"", "\"\"") + "\"" : escaped;
+    }
+
+    private static boolean isNumber(String value) {
+        try {
+            Double.parseDouble(value);
+            return true;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    /** A slot for one export; closing it more than once is harmless. */
+    public final class Permit implements AutoCloseable {
+
+        private enum State {
+            ACQUIRED,
+            STARTED,
+            RELEASED
+        }
+
+        private final long acquiredAt;
+        private final AtomicReference<State> state = new AtomicReference<>(State.ACQUIRED);
+
+        private Permit(long acquiredAt) {
+            this.acquiredAt = acquiredAt;
+        }
+
+        /**
+         * Mark the export as running, so the permit is no longer reclaimed. If it was reclaimed
+         * already, a free slot is taken instead.
+         *
+         * @throws IllegalStateException if the permit was reclaimed and no slot is free
+         */
+        public void start() {
+            if (state.compareAndSet(State.ACQUIRED, State.STARTED)) {
+                unstarted.remove(this);
+                return;
+            }
+            if (state.get() == State.RELEASED) {
+                if (!permits.tryAcquire()) {
+                    throw new IllegalStateException(
+                            "Audit export started after its slot was reclaimed; none is free");
+                }
+                state.set(State.STARTED);
+            }
+        }
+
+        /** Release the slot if this permit has not started yet. */
+        private boolean reclaim() {
+            if (!state.compareAndSet(State.ACQUIRED, State.RELEASED)) {
+                return false;
+            }
+            unstarted.remove(this);
+            permits.release();
+            return true;
+        }
+
+        @Override
+        public void close() {
+            State previous = state.getAndSet(State.RELEASED);
+            unstarted.remove(this);
+            if (previous != State.RELEASED) {
+                permits.release();
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface RowWriter {
+        void write(AuditEventSummary summary) throws IOException;
+    }
+}
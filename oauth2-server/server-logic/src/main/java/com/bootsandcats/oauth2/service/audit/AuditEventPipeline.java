@@ -0,0 +1,376 @@
+package com.bootsandcats.oauth2.service.audit;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import com.bootsandcats.oauth2.config.AuditPipelineProperties;
+import com.bootsandcats.oauth2.config.AuditPipelineProperties.OverflowPolicy;
+import com.bootsandcats.oauth2.model.SecurityAuditEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Bounded in-process queue that decouples audit recording from the request thread.
+ *
+ * <p>Callers {@link #submit(SecurityAuditEvent) submit} events and return immediately. A single
+ * drainer thread collects up to {@code batch-size} events (waiting at most {@code
+ * max-batch-delay} to fill a batch) and hands them to {@link AuditEventWriter#writeBatch(List)},
+ * which writes the audit table on the drainer's thread. A batch that fails is retried every second
+ * until it is saved, so while the database is slow or down the queue backs up and the configured
+ * {@link OverflowPolicy} applies to new events. On shutdown the drainer keeps going until the queue
+ * is empty or {@code shutdown-timeout} elapses; a batch that still cannot be written is spilled
+ * under the SPILL policy and otherwise lost. Spilled events are replayed a batch at a time while
+ * the queue is idle, each removed from the spill file only once the database write succeeded.
+ *
+ * <p>The lifecycle phase is below the embedded web server's, so the pipeline starts before and
+ * stops after request handling. Events submitted while the pipeline is not running are written on
+ * the calling thread.
+ */
+@Component
+public class AuditEventPipeline implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(AuditEventPipeline.class);
+
+    private static final int PHASE = SmartLifecycle.DEFAULT_PHASE - 4096;
+
+    /** Pause before writing a failed batch, or replaying spilled events, again. */
+    private static final long RETRY_DELAY_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final AuditEventWriter writer;
+    private final AuditPipelineProperties properties;
+    private final BlockingQueue<SecurityAuditEvent> queue;
+    private final AuditSpillFile spillFile;
+
+    private final Counter droppedOverflow;
+    private final Counter droppedOldest;
+    private final Counter spilled;
+    private final Counter written;
+    private final Counter writeFailures;
+    private final Counter writeRetries;
+
+    private volatile boolean running;
+    private volatile Thread drainer;
+
+    /** Earliest {@link System#nanoTime()} of the next spill replay. Drainer only. */
+    private long replayRetryAt = System.nanoTime();
+
+    public AuditEventPipeline(
+            AuditEventWriter writer,
+            AuditPipelineProperties properties,
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry) {
+        this.writer = writer;
+        this.properties = properties;
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, properties.getQueueCapacity()));
+        this.spillFile =
+                properties.getOverflowPolicy() == OverflowPolicy.SPILL
+                        ? new AuditSpillFile(Path.of(properties.getSpillDirectory()), objectMapper)
+                        : null;
+
+        Gauge.builder("oauth2.audit.pipeline.queue.depth", queue, BlockingQueue::size)
+                .description("Audit events waiting to be written")
+                .register(meterRegistry);
+        Gauge.builder("oauth2.audit.pipeline.queue.remaining", queue, q -> q.remainingCapacity())
+                .description("Free slots in the audit event queue")
+                .register(meterRegistry);
+        this.droppedOverflow = droppedCounter(meterRegistry, "queue_full");
+        this.droppedOldest = droppedCounter(meterRegistry, "evicted_oldest");
+        this.spilled =
+                Counter.builder("oauth2.audit.pipeline.spilled")
+                        .description("Audit events written to the overflow spill file")
+                        .register(meterRegistry);
+        this.written =
+                Counter.builder("oauth2.audit.pipeline.written")
+                        .description("Audit events the pipeline drainer saved to the audit table")
+                        .register(meterRegistry);
+        this.writeFailures =
+                Counter.builder("oauth2.audit.pipeline.write.failures")
+                        .description("Audit events the drainer failed to persist")
+                        .register(meterRegistry);
+        this.writeRetries =
+                Counter.builder("oauth2.audit.pipeline.write.retries")
+                        .description("Failed batch writes the drainer will retry")
+                        .register(meterRegistry);
+    }
+
+    private static Counter droppedCounter(MeterRegistry meterRegistry, String reason) {
+        return Counter.builder("oauth2.audit.pipeline.dropped")
+                .description("Audit events dropped because the pipeline queue was full")
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Queue an audit event for background writing.
+     *
+     * @param event the audit event
+     */
+    public void submit(SecurityAuditEvent event) {
+        if (!running) {
+            writeDirect(event);
+            return;
+        }
+        if (queue.offer(event)) {
+            return;
+        }
+
+        switch (properties.getOverflowPolicy()) {
+            case BLOCK -> offerBlocking(event);
+            case DROP_OLDEST -> offerEvictingOldest(event);
+            case SPILL -> spill(event);
+        }
+    }
+
+    /** Current number of queued events. */
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    private void offerBlocking(SecurityAuditEvent event) {
+        try {
+            if (queue.offer(
+                    event, properties.getBlockTimeout().toNanos(), TimeUnit.NANOSECONDS)) {
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        droppedOverflow.increment();
+        writer.onLost(1, "queue_full");
+        log.warn(
+                "Audit queue full; dropped event {} ({})",
+                event.getEventId(),
+                event.getEventType());
+    }
+
+    private void offerEvictingOldest(SecurityAuditEvent event) {
+        while (!queue.offer(event)) {
+            SecurityAuditEvent evicted = queue.poll();
+            if (evicted != null) {
+                droppedOldest.increment();
+                writer.onLost(1, "evicted_oldest");
+                log.debug(
+                        "Audit queue full; evicted event {} ({})",
+                        evicted.getEventId(),
+                        evicted.getEventType());
+            }
+        }
+    }
+
+    private void spill(SecurityAuditEvent event) {
+        if (spillFile != null && spillFile.append(event)) {
+            spilled.increment();
+            return;
+        }
+        droppedOverflow.increment();
+        writer.onLost(1, "queue_full");
+    }
+
+    private void writeDirect(SecurityAuditEvent event) {
+        try {
+            writer.write(event);
+        } catch (Exception e) {
+            writeFailures.increment();
+            writer.onLost(1, "write_failed");
+        }
+    }
+
+    @Override
+    public void start() {
+        if (!properties.isEnabled() || running) {
+            return;
+        }
+        running = true;
+        Thread thread = new Thread(this::drainLoop, "audit-drainer");
+        thread.setDaemon(true);
+        drainer = thread;
+        thread.start();
+        log.info(
+                "Audit pipeline started (capacity={}, batchSize={}, overflowPolicy={})",
+                properties.getQueueCapacity(),
+                properties.getBatchSize(),
+                properties.getOverflowPolicy());
+    }
+
+    @Override
+    public void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        Thread thread = drainer;
+        if (thread == null) {
+            return;
+        }
+        try {
+            thread.join(properties.getShutdownTimeout().toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (thread.isAlive()) {
+            log.warn(
+                    "Audit pipeline did not drain within {}; {} event(s) left unwritten",
+                    properties.getShutdownTimeout(),
+                    queue.size());
+        }
+        drainer = null;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return PHASE;
+    }
+
+    private void drainLoop() {
+        int batchSize = Math.max(1, properties.getBatchSize());
+        long maxDelayNanos = properties.getMaxBatchDelay().toNanos();
+        List<SecurityAuditEvent> batch = new ArrayList<>(batchSize);
+
+        while (running || !queue.isEmpty()) {
+            try {
+                SecurityAuditEvent first = queue.poll(maxDelayNanos, TimeUnit.NANOSECONDS);
+                if (first == null) {
+                    replaySpilled(batchSize);
+                    continue;
+                }
+                batch.add(first);
+                fillBatch(batch, batchSize, System.nanoTime() + maxDelayNanos);
+                writeUntilSaved(batch);
+            } catch (InterruptedException e) {
+                // Shutdown is driven by the running flag; keep draining what is queued.
+                Thread.interrupted();
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void fillBatch(List<SecurityAuditEvent> batch, int batchSize, long deadline)
+            throws InterruptedException {
+        while (batch.size() < batchSize) {
+            if (queue.drainTo(batch, batchSize - batch.size()) > 0) {
+                continue;
+            }
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0 || !running) {
+                return;
+            }
+            SecurityAuditEvent next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+        }
+    }
+
+    /**
+     * Write a batch, retrying while the pipeline is running. Holding the batch instead of dropping
+     * it is what lets the queue fill up and the overflow policy take effect.
+     */
+    private void writeUntilSaved(List<SecurityAuditEvent> batch) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                flush(batch);
+                if (attempt > 1) {
+                    log.info("Audit batch written after {} attempt(s)", attempt);
+                }
+                return;
+            } catch (RuntimeException e) {
+                if (!running) {
+                    abandon(batch, e);
+                    return;
+                }
+                writeRetries.increment();
+                if (attempt == 1) {
+                    log.warn(
+                            "Failed to write a batch of {} audit event(s); retrying every 1s",
+                            batch.size(),
+                            e);
+                }
+                pauseBeforeRetry();
+            }
+        }
+    }
+
+    private void pauseBeforeRetry() {
+        long deadline = System.nanoTime() + RETRY_DELAY_NANOS;
+        long remaining;
+        while (running && (remaining = deadline - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(Math.min(remaining, TimeUnit.MILLISECONDS.toNanos(100)));
+        }
+    }
+
+    /** Shutting down with a batch the database still refuses: spill it if possible. */
+    private void abandon(List<SecurityAuditEvent> batch, RuntimeException failure) {
+        int lost = 0;
+        for (SecurityAuditEvent event : batch) {
+            if (spillFile != null && spillFile.append(event)) {
+                spilled.increment();
+            } else {
+                lost++;
+            }
+        }
+        if (lost > 0) {
+            writeFailures.increment(lost);
+            writer.onLost(lost, "write_failed");
+            log.error("Audit drainer stopping; {} unwritten event(s) lost", lost, failure);
+        } else {
+            log.warn(
+                    "Audit drainer stopping; spilled {} unwritten event(s)",
+                    batch.size(),
+                    failure);
+        }
+    }
+
+    private void flush(List<SecurityAuditEvent> batch) {
+        int saved = writer.writeBatch(batch);
+        written.increment(saved);
+        if (saved < batch.size()) {
+            writeFailures.increment(batch.size() - saved);
+        }
+    }
+
+    private void replaySpilled(int batchSize) {
+        if (spillFile == null
+                || !spillFile.hasPending()
+                || System.nanoTime() - replayRetryAt < 0) {
+            return;
+        }
+        int replayed;
+        try {
+            // Yield to live events: stop after the current batch once the queue is not empty.
+            replayed =
+                    spillFile.replay(
+                            batchSize,
+                            this::flush,
+                            () -> running && queue.isEmpty(),
+                            writeFailures::increment);
+        } catch (RuntimeException e) {
+            // The events that were not written stay in the spill file for the next attempt.
+            replayRetryAt = System.nanoTime() + RETRY_DELAY_NANOS;
+            log.warn("Replaying spilled audit events failed; retrying in 1s", e);
+            return;
+        }
+        if (replayed > 0) {
+            log.info("Replayed {} spilled audit event(s)", replayed);
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package com.bootsandcats.oauth2.service.audit;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.bootsandcats.oauth2.config.AuditEventPolicyProperties;
+import com.bootsandcats.oauth2.config.AuditEventPolicyProperties.Policy;
+import com.bootsandcats.oauth2.model.AuditEventResult;
+import com.bootsandcats.oauth2.model.AuditEventType;
+import com.bootsandcats.oauth2.model.SecurityAuditEvent;
+import com.bootsandcats.oauth2.model.UuidV7;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Applies the per-type {@link AuditEventPolicyProperties recording policies} to audit events
+ * before they enter the {@link AuditEventPipeline}.
+ *
+ * <p>Only successful events are subject to a policy. Sampled events keep exactly one event in
+ * {@code sample-rate} per type and note the rate in their details. Aggregated events are only
+ * counted, per event type and client; every aggregation interval one summary event per client is
+ * submitted, carrying the count and the interval in its details. Counts still pending at shutdown
+ * are flushed.
+ */
+@Component
+public class AuditEventSampler {
+
+    private static final Logger log = LoggerFactory.getLogger(AuditEventSampler.class);
+
+    private static final TypeReference<Map<String, Object>> DETAILS = new TypeReference<>() {};
+
+    private final AuditEventPolicyProperties properties;
+    private final AuditEventPipeline auditEventPipeline;
+    private final ObjectMapper objectMapper;
+
+    private final AtomicLongArray sampled = new AtomicLongArray(AuditEventType.values().length);
+    private final Map<Aggregate, LongAdder> aggregates = new ConcurrentHashMap<>();
+
+    private volatile Instant windowStart = Instant.now();
+
+    public AuditEventSampler(
+            AuditEventPolicyProperties properties,
+            AuditEventPipeline auditEventPipeline,
+            ObjectMapper objectMapper) {
+        this.properties = properties;
+        this.auditEventPipeline = auditEventPipeline;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Whether {@code event} should be recorded. Sampled events that are kept get their sample rate
+     * added to their details.
+     *
+     * @param event the audit event
+     * @return {@code false} if the event was sampled out or counted into an aggregate
+     */
+    public boolean admit(SecurityAuditEvent event) {
+        if (event.getResult() != AuditEventResult.SUCCESS || event.getEventType() == null) {
+            return true;
+        }
+        Policy policy = properties.getByType().get(event.getEventType());
+        if (policy == null) {
+            return true;
+        }
+        return switch (policy.getMode()) {
+            case FULL -> true;
+            case SAMPLED -> sample(event, policy.getSampleRate());
+            case AGGREGATED -> {
+                aggregates
+                        .computeIfAbsent(Aggregate.of(event), key -> new LongAdder())
+                        .increment();
+                yield false;
+            }
+        };
+    }
+
+    private boolean sample(SecurityAuditEvent event, int sampleRate) {
+        if (sampleRate <= 1) {
+            return true;
+        }
+        if (sampled.getAndIncrement(event.getEventType().ordinal()) % sampleRate != 0) {
+            return false;
+        }
+        event.setDetails(withDetails(event.getDetails(), Map.of("sampleRate", sampleRate)));
+        return true;
+    }
+
+    /** Submit one summary event per aggregate counted since the previous flush. */
+    @Scheduled(
+            fixedDelayString = "${oauth2.audit.policies.aggregation-interval:PT1M}",
+            initialDelayString = "${oauth2.audit.policies.aggregation-interval:PT1M}")
+    public void scheduledFlush() {
+        try {
+            flush(Instant.now());
+        } catch (RuntimeException e) {
+            log.warn("Flushing aggregated audit events failed", e);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        flush(Instant.now());
+    }
+
+    void flush(Instant now) {
+        Instant start = windowStart;
+        windowStart = now;
+        for (Map.Entry<Aggregate, LongAdder> entry : aggregates.entrySet()) {
+            Aggregate aggregate = entry.getKey();
+            LongAdder counter = entry.getValue();
+            long count = counter.sumThenReset();
+            if (count == 0) {
+                // Idle for a whole interval. Keep any increment that raced with the removal.
+                aggregates.remove(aggregate, counter);
+                long late = counter.sumThenReset();
+                if (late > 0) {
+                    aggregates.computeIfAbsent(aggregate, key -> new LongAdder()).add(late);
+                }
+                continue;
+            }
+            auditEventPipeline.submit(summary(aggregate, count, start, now));
+        }
+    }
+
+    private SecurityAuditEvent summary(
+            Aggregate aggregate, long count, Instant start, Instant end) {
+        SecurityAuditEvent event = new SecurityAuditEvent();
+        event.setEventId(UuidV7.generate());
+        event.setEventType(aggregate.eventType());
+        event.setResult(AuditEventResult.SUCCESS);
+        event.setEventTimestamp(end);
+        event.setClientId(aggregate.clientId());
+        event.setPrincipal(aggregate.principal());
+        event.setPrincipalType(aggregate.principalType());
+        Map<String, Object> details = new LinkedHashMap<>();
+        details.put("aggregated", true);
+        details.put("count", count);
+        details.put("windowStart", start.toString());
+        details.put("windowEnd", end.toString());
+        event.setDetails(withDetails(null, details));
+        return event;
+    }
+
+    private String withDetails(String details, Map<String, Object> extra) {
+        try {
+            Map<String, Object> merged =
+                    details != null
+                            ? objectMapper.readValue(details, DETAILS)
+                            : new LinkedHashMap<>();
+            merged.putAll(extra);
+            return objectMapper.writeValueAsString(merged);
+        } catch (JsonProcessingException e) {
+            log.warn("Failed to add {} to audit details", extra.keySet(), e);
+            return details;
+        }
+    }
+
+    private record Aggregate(
+            AuditEventType eventType, String clientId, String principal, String principalType) {
+
+        static Aggregate of(SecurityAuditEvent event) {
+            return new Aggregate(
+                    event.getEventType(),
+                    event.getClientId(),
+                    event.getPrincipal(),
+                    event.getPrincipalType());
+        }
+    }
+}
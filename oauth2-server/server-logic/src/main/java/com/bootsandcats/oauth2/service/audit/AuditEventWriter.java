@@ -0,0 +1,64 @@
+package com.bootsandcats.oauth2.service.audit;
+
+import java.util.List;
+
+import org.springframework.stereotype.Component;
+
+import com.bootsandcats.oauth2.model.SecurityAuditEvent;
+
+/**
+ * Writes audit events to the audit table through the {@link DatabaseAuditSink}, then hands them to
+ * the best-effort sinks (Redis Stream, Kubernetes Events) through the {@link AuditSinkDispatcher}.
+ *
+ * <p>Used by {@link AuditEventPipeline} for batched background writes and by {@code
+ * SecurityAuditService#recordEvent} for synchronous writes. The database write happens on the
+ * calling thread, so its failures reach the caller.
+ */
+@Component
+public class AuditEventWriter {
+
+    private final DatabaseAuditSink databaseAuditSink;
+    private final AuditSinkDispatcher sinkDispatcher;
+
+    public AuditEventWriter(
+            DatabaseAuditSink databaseAuditSink, AuditSinkDispatcher sinkDispatcher) {
+        this.databaseAuditSink = databaseAuditSink;
+        this.sinkDispatcher = sinkDispatcher;
+    }
+
+    /**
+     * Persist a single event on the calling thread, then queue it for the other sinks.
+     *
+     * @param event the audit event
+     * @return the saved audit event
+     */
+    public SecurityAuditEvent write(SecurityAuditEvent event) {
+        SecurityAuditEvent saved = databaseAuditSink.save(event);
+        sinkDispatcher.dispatch(List.of(saved));
+        return saved;
+    }
+
+    /**
+     * Persist a batch of events on the calling thread, then queue them for the other sinks.
+     *
+     * @param events the audit events
+     * @return number of events saved; the rest could not be written and are lost
+     * @throws RuntimeException if the batch was not saved; nothing is dispatched and the caller
+     *     should retry it
+     */
+    public int writeBatch(List<SecurityAuditEvent> events) {
+        int saved = databaseAuditSink.write(events);
+        sinkDispatcher.dispatch(events);
+        return saved;
+    }
+
+    /**
+     * Report audit events that will never be written, e.g. because the pipeline dropped them.
+     *
+     * @param count number of events lost
+     * @param reason why they were lost
+     */
+    public void onLost(int count, String reason) {
+        databaseAuditSink.onLost(count, reason);
+    }
+}
@@ -0,0 +1,378 @@
+package com.bootsandcats.oauth2.service.audit;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.bootsandcats.oauth2.config.AuditPartitionProperties;
+import com.bootsandcats.oauth2.config.AuditPartitionProperties.Interval;
+import com.bootsandcats.oauth2.config.AuditPartitionProperties.RetentionAction;
+import com.bootsandcats.oauth2.model.AuditEventType;
+import com.bootsandcats.oauth2.repository.DatabaseDialect;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Maintains the range partitions of {@code security_audit_events} on PostgreSQL and enforces audit
+ * retention.
+ *
+ * <p>Each run creates partitions up to {@code premake} intervals past the current one, then
+ * detaches or drops every partition whose upper bound is older than the longest retention in
+ * effect, so expiring a month of events is a catalog change rather than a mass {@code DELETE}.
+ * Event types with a shorter retention override are trimmed with batched deletes bounded by {@code
+ * event_timestamp}, which the planner prunes to the partitions that can match. Replicas serialize
+ * on a transaction-scoped advisory lock; whoever does not get it skips the run.
+ *
+ * <p>Events past the last range partition land in the DEFAULT partition. When a partition is
+ * created for a period the DEFAULT partition already holds events of, it is created as a plain
+ * table, the events are moved into it and it is then attached, as PostgreSQL refuses to create a
+ * partition whose rows are in the DEFAULT partition.
+ *
+ * <p>Does nothing unless the table is partitioned (H2, or PostgreSQL before the V22 migration).
+ */
+@Component
+public class AuditPartitionManager {
+
+    private static final Logger log = LoggerFactory.getLogger(AuditPartitionManager.class);
+
+    static final String TABLE = "security_audit_events";
+
+    /** Advisory lock key shared by all replicas ({@code "audit"} in ASCII). */
+    private static final long LOCK_KEY = 0x6175646974L;
+
+    static final String PARTITIONS_SQL =
+            "SELECT c.relname, pg_get_expr(c.relpartbound, c.oid) = 'DEFAULT',"
+                    + " (regexp_match(pg_get_expr(c.relpartbound, c.oid),"
+                    + " 'FROM \\(''([^'']+)''\\)'))[1]::timestamptz,"
+                    + " (regexp_match(pg_get_expr(c.relpartbound, c.oid),"
+                    + " 'TO \\(''([^'']+)''\\)'))[1]::timestamptz"
+                    + " FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid"
+                    + " WHERE i.inhparent = '"
+                    + TABLE
+                    + "'::regclass";
+
+    private static final DateTimeFormatter DAILY_SUFFIX =
+            DateTimeFormatter.ofPattern("yyyyMMdd").withZone(ZoneOffset.UTC);
+    private static final DateTimeFormatter MONTHLY_SUFFIX =
+            DateTimeFormatter.ofPattern("yyyyMM").withZone(ZoneOffset.UTC);
+
+    private final ObjectProvider<JdbcTemplate> jdbcTemplate;
+    private final AuditPartitionProperties properties;
+    private final TransactionTemplate transactionTemplate;
+
+    private final Counter created;
+    private final Counter retired;
+    private final Counter trimmed;
+    private final Counter failures;
+
+    public AuditPartitionManager(
+            ObjectProvider<JdbcTemplate> jdbcTemplate,
+            AuditPartitionProperties properties,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.properties = properties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+
+        this.created =
+                Counter.builder("oauth2.audit.partitions.created")
+                        .description("Audit event partitions created ahead of time")
+                        .register(meterRegistry);
+        this.retired =
+                Counter.builder("oauth2.audit.partitions.retired")
+                        .description("Audit event partitions detached or dropped by retention")
+                        .tag(
+                                "action",
+                                properties.getRetentionAction().name().toLowerCase(Locale.ROOT))
+                        .register(meterRegistry);
+        this.trimmed =
+                Counter.builder("oauth2.audit.retention.deleted")
+                        .description("Audit events deleted by per-type retention")
+                        .register(meterRegistry);
+        this.failures =
+                Counter.builder("oauth2.audit.partitions.failures")
+                        .description("Failed audit partition maintenance runs")
+                        .register(meterRegistry);
+    }
+
+    /** Create upcoming partitions and apply retention. */
+    @Scheduled(
+            fixedDelayString = "${oauth2.audit.partitions.maintenance-interval:PT1H}",
+            initialDelayString = "${oauth2.audit.partitions.initial-delay:PT1M}")
+    public void scheduledMaintenance() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        try {
+            maintain(Instant.now());
+        } catch (RuntimeException e) {
+            failures.increment();
+            log.warn("Audit partition maintenance failed", e);
+        }
+    }
+
+    void maintain(Instant now) {
+        JdbcTemplate jdbc = jdbcTemplate.getIfAvailable();
+        if (jdbc == null || !isPartitioned(jdbc)) {
+            return;
+        }
+        Boolean maintained =
+                transactionTemplate.execute(
+                        status -> {
+                            Boolean locked =
+                                    jdbc.queryForObject(
+                                            "SELECT pg_try_advisory_xact_lock(?)",
+                                            Boolean.class,
+                                            LOCK_KEY);
+                            if (!Boolean.TRUE.equals(locked)) {
+                                return false;
+                            }
+                            List<Partition> partitions =
+                                    jdbc.query(PARTITIONS_SQL, (rs, rowNum) -> partition(rs));
+                            createPartitions(jdbc, partitions, now);
+                            retirePartitions(jdbc, partitions, now);
+                            return true;
+                        });
+        if (Boolean.TRUE.equals(maintained)) {
+            trimEventTypes(jdbc, now);
+        } else {
+            log.debug("Audit partition maintenance is running on another instance");
+        }
+    }
+
+    private static boolean isPartitioned(JdbcTemplate jdbc) {
+        Boolean postgres =
+                jdbc.execute((ConnectionCallback<Boolean>) DatabaseDialect::isPostgres);
+        if (!Boolean.TRUE.equals(postgres)) {
+            return false;
+        }
+        return Boolean.TRUE.equals(
+                jdbc.queryForObject(
+                        "SELECT EXISTS (SELECT 1 FROM pg_partitioned_table"
+                                + " WHERE partrelid = to_regclass(?))",
+                        Boolean.class,
+                        TABLE));
+    }
+
+    private void createPartitions(JdbcTemplate jdbc, List<Partition> partitions, Instant now) {
+        Instant next = null;
+        String defaultPartition = null;
+        for (Partition partition : partitions) {
+            if (partition.isDefault()) {
+                defaultPartition = partition.name();
+                continue;
+            }
+            if (partition.upper() == null) {
+                // Bounded by MAXVALUE: nothing can be added after it.
+                return;
+            }
+            if (next == null || partition.upper().isAfter(next)) {
+                next = partition.upper();
+            }
+        }
+        Instant horizon = periodStart(now);
+        for (int i = 0; i <= properties.getPremake(); i++) {
+            horizon = nextPeriod(horizon);
+        }
+        if (next == null) {
+            next = periodStart(now);
+        }
+        while (next.isBefore(horizon)) {
+            Instant start = periodStart(next);
+            Instant end = nextPeriod(start);
+            String name = TABLE + "_p" + suffix(start);
+            if (defaultPartition != null && hasEvents(jdbc, defaultPartition, next, end)) {
+                moveOutOfDefault(jdbc, defaultPartition, name, next, end);
+            } else {
+                jdbc.execute(
+                        String.format(
+                                "CREATE TABLE IF NOT EXISTS %s PARTITION OF %s"
+                                        + " FOR VALUES FROM ('%s') TO ('%s')",
+                                quote(name), TABLE, next, end));
+            }
+            created.increment();
+            log.info("Created audit partition {} for [{}, {})", name, next, end);
+            next = end;
+        }
+    }
+
+    private static boolean hasEvents(
+            JdbcTemplate jdbc, String partition, Instant from, Instant to) {
+        return Boolean.TRUE.equals(
+                jdbc.queryForObject(
+                        "SELECT EXISTS (SELECT 1 FROM "
+                                + quote(partition)
+                                + " WHERE event_timestamp >= ? AND event_timestamp < ?)",
+                        Boolean.class,
+                        Timestamp.from(from),
+                        Timestamp.from(to)));
+    }
+
+    private static void moveOutOfDefault(
+            JdbcTemplate jdbc, String defaultPartition, String name, Instant from, Instant to) {
+        String range =
+                String.format(
+                        " WHERE event_timestamp >= '%s' AND event_timestamp < '%s'", from, to);
+        jdbc.execute(
+                String.format(
+                        "CREATE TABLE %s (LIKE %s INCLUDING DEFAULTS INCLUDING CONSTRAINTS)",
+                        quote(name), TABLE));
+        jdbc.execute(
+                "INSERT INTO " + quote(name) + " SELECT * FROM " + quote(defaultPartition) + range);
+        int moved = jdbc.update("DELETE FROM " + quote(defaultPartition) + range);
+        jdbc.execute(
+                String.format(
+                        "ALTER TABLE %s ATTACH PARTITION %s FOR VALUES FROM ('%s') TO ('%s')",
+                        TABLE, quote(name), from, to));
+        log.warn(
+                "Moved {} audit events for [{}, {}) out of the default partition into {}",
+                moved,
+                from,
+                to,
+                name);
+    }
+
+    private void retirePartitions(JdbcTemplate jdbc, List<Partition> partitions, Instant now) {
+        Duration keep = longestRetention();
+        if (keep == null) {
+            return;
+        }
+        Instant cutoff = now.minus(keep);
+        for (Partition partition : partitions) {
+            if (partition.isDefault()
+                    || partition.upper() == null
+                    || partition.upper().isAfter(cutoff)) {
+                continue;
+            }
+            if (properties.getRetentionAction() == RetentionAction.DETACH) {
+                jdbc.execute(
+                        "ALTER TABLE " + TABLE + " DETACH PARTITION " + quote(partition.name()));
+            } else {
+                jdbc.execute("DROP TABLE " + quote(partition.name()));
+            }
+            retired.increment();
+            log.info(
+                    "Retired audit partition {} (events before {}): {}",
+                    partition.name(),
+                    partition.upper(),
+                    properties.getRetentionAction());
+        }
+    }
+
+    private void trimEventTypes(JdbcTemplate jdbc, Instant now) {
+        Duration keep = longestRetention();
+        Map<Duration, List<String>> typesByRetention = new TreeMap<>();
+        for (AuditEventType type : AuditEventType.values()) {
+            Duration retention = retention(type);
+            if (retention != null && (keep == null || retention.compareTo(keep) < 0)) {
+                typesByRetention
+                        .computeIfAbsent(retention, r -> new ArrayList<>())
+                        .add(type.name());
+            }
+        }
+        int batchSize = Math.max(1, properties.getDeleteBatchSize());
+        typesByRetention.forEach(
+                (retention, types) -> {
+                    String sql =
+                            "DELETE FROM "
+                                    + TABLE
+                                    + " WHERE (id, event_timestamp) IN (SELECT id, event_timestamp"
+                                    + " FROM "
+                                    + TABLE
+                                    + " WHERE event_type IN ("
+                                    + String.join(", ", Collections.nCopies(types.size(), "?"))
+                                    + ") AND event_timestamp < ? LIMIT ?)";
+                    List<Object> params = new ArrayList<>(types);
+                    params.add(Timestamp.from(now.minus(retention)));
+                    params.add(batchSize);
+                    int deleted;
+                    do {
+                        deleted = jdbc.update(sql, params.toArray());
+                        trimmed.increment(deleted);
+                    } while (deleted == batchSize);
+                });
+    }
+
+    /** Retention of {@code type}, or {@code null} to keep it forever. */
+    private Duration retention(AuditEventType type) {
+        Duration override = properties.getRetentionByType().get(type);
+        return override != null ? override : properties.getRetention();
+    }
+
+    /** The longest retention of any event type, or {@code null} if some type is kept forever. */
+    private Duration longestRetention() {
+        Duration longest = Duration.ZERO;
+        for (AuditEventType type : AuditEventType.values()) {
+            Duration retention = retention(type);
+            if (retention == null) {
+                return null;
+            }
+            if (retention.compareTo(longest) > 0) {
+                longest = retention;
+            }
+        }
+        return longest;
+    }
+
+    private Instant periodStart(Instant instant) {
+        ZonedDateTime day = instant.atZone(ZoneOffset.UTC).truncatedTo(ChronoUnit.DAYS);
+        return (properties.getInterval() == Interval.DAILY ? day : day.withDayOfMonth(1))
+                .toInstant();
+    }
+
+    private Instant nextPeriod(Instant periodStart) {
+        ZonedDateTime start = periodStart.atZone(ZoneOffset.UTC);
+        return (properties.getInterval() == Interval.DAILY
+                        ? start.plusDays(1)
+                        : start.plusMonths(1))
+                .toInstant();
+    }
+
+    private String suffix(Instant periodStart) {
+        return (properties.getInterval() == Interval.DAILY ? DAILY_SUFFIX : MONTHLY_SUFFIX)
+                .format(periodStart);
+    }
+
+    private static String quote(String identifier) {
+        return '"' + identifier.replace("\"", "\"\"") + '"';
+    }
+
+    private static Partition partition(ResultSet rs) throws SQLException {
+        return new Partition(
+                rs.getString(1), rs.getBoolean(2), instant(rs, 3), instant(rs, 4));
+    }
+
+    private static Instant instant(ResultSet rs, int column) throws SQLException {
+        OffsetDateTime value = rs.getObject(column, OffsetDateTime.class);
+        return value == null ? null : value.toInstant();
+    }
+
+    /**
+     * One partition of the audit table; {@code null} bounds are {@code MINVALUE}/{@code MAXVALUE}.
+     */
+    record Partition(String name, boolean isDefault, Instant lower, Instant upper) {}
+}
@@ -0,0 +1,117 @@
+package com.bootsandcats.oauth2.service.audit;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Locale;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.bootsandcats.oauth2.config.AuditRollupProperties;
+import com.bootsandcats.oauth2.dto.AuditStatsBucket;
+import com.bootsandcats.oauth2.model.AuditRollupGranularity;
+import com.bootsandcats.oauth2.repository.SecurityAuditEventRepository;
+
+/**
+ * Reads and expires the pre-aggregated audit counters.
+ *
+ * <p>The counters themselves are written alongside the audit rows by the repository; this service
+ * only answers stats queries from them and purges buckets past their retention.
+ */
+@Service
+public class AuditRollupService {
+
+    private static final Logger log = LoggerFactory.getLogger(AuditRollupService.class);
+
+    private final ObjectProvider<SecurityAuditEventRepository> auditEventRepository;
+    private final AuditRollupProperties properties;
+
+    public AuditRollupService(
+            ObjectProvider<SecurityAuditEventRepository> auditEventRepository,
+            AuditRollupProperties properties) {
+        this.auditEventRepository = auditEventRepository;
+        this.properties = properties;
+    }
+
+    /**
+     * Event counts per bucket, event type and result.
+     *
+     * @param granularity bucket size
+     * @param startTime start of the range; widened to the start of its bucket
+     * @param endTime end of the range (exclusive)
+     * @param eventCategory optional category filter
+     * @param clientId optional client ID filter
+     * @param grantType optional grant type filter
+     * @return counters ordered by bucket, event type and result
+     * @throws IllegalArgumentException if the range is empty or spans too many buckets
+     */
+    @Transactional(readOnly = true)
+    public List<AuditStatsBucket> findStats(
+            AuditRollupGranularity granularity,
+            Instant startTime,
+            Instant endTime,
+            String eventCategory,
+            String clientId,
+            String grantType) {
+        Instant from = granularity.bucketStart(startTime);
+        if (!from.isBefore(endTime)) {
+            throw new IllegalArgumentException("startTime must be before endTime");
+        }
+        long buckets = granularity.getUnit().between(from, endTime.minusNanos(1)) + 1;
+        if (buckets > properties.getMaxBuckets()) {
+            throw new IllegalArgumentException(
+                    "Range spans "
+                            + buckets
+                            + " "
+                            + granularity.name().toLowerCase(Locale.ROOT)
+                            + " buckets; at most "
+                            + properties.getMaxBuckets()
+                            + " are allowed");
+        }
+        SecurityAuditEventRepository repo = auditEventRepository.getIfAvailable();
+        if (repo == null) {
+            return List.of();
+        }
+        return repo.findRollups(granularity, from, endTime, eventCategory, clientId, grantType);
+    }
+
+    /** Delete counters past their retention. */
+    @Scheduled(
+            fixedDelayString = "${oauth2.audit.rollups.purge-interval:PT1H}",
+            initialDelayString = "${oauth2.audit.rollups.initial-delay:PT2M}")
+    public void scheduledPurge() {
+        try {
+            purge(Instant.now());
+        } catch (RuntimeException e) {
+            log.warn("Audit rollup purge failed", e);
+        }
+    }
+
+    void purge(Instant now) {
+        SecurityAuditEventRepository repo = auditEventRepository.getIfAvailable();
+        if (repo == null) {
+            return;
+        }
+        purge(repo, AuditRollupGranularity.MINUTE, properties.getMinuteRetention(), now);
+        purge(repo, AuditRollupGranularity.HOUR, properties.getHourRetention(), now);
+    }
+
+    private static void purge(
+            SecurityAuditEventRepository repo,
+            AuditRollupGranularity granularity,
+            Duration retention,
+            Instant now) {
+        if (retention == null) {
+            return;
+        }
+        int purged = repo.purgeRollups(granularity, granularity.bucketStart(now.minus(retention)));
+        if (purged > 0) {
+            log.debug("Purged {} {} audit rollup buckets", purged, granularity);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.bootsandcats.oauth2.service.audit;
+
+import java.util.List;
+
+import com.bootsandcats.oauth2.model.SecurityAuditEvent;
+
+/**
+ * A best-effort destination for recorded audit events, such as the Redis Stream or Kubernetes
+ * Events. The audit table itself is written by {@link DatabaseAuditSink}, which is not an {@code
+ * AuditSink}.
+ *
+ * <p>Every enabled sink bean is registered with the {@link AuditSinkDispatcher}, which gives it its
+ * own bounded queue, writer thread and circuit breaker, so a slow or failing sink cannot hold up
+ * the others or the request path. Settings are read from {@code oauth2.audit.sinks.<name>}.
+ */
+public interface AuditSink {
+
+    /** Name used in configuration keys and as the {@code sink} metric tag. */
+    String name();
+
+    /** Whether this sink is configured in the running application. */
+    default boolean isEnabled() {
+        return true;
+    }
+
+    /**
+     * Write a batch of events. Called from the sink's own writer thread, never concurrently.
+     *
+     * @param events the audit events, in the order they were recorded
+     * @throws RuntimeException if the write failed; counts towards opening the circuit
+     */
+    void write(List<SecurityAuditEvent> events);
+
+    /**
+     * Told when the dispatcher drops events for this sink without calling {@link #write}.
+     *
+     * @param count number of events dropped
+     * @param reason the {@code reason} tag of {@code oauth2.audit.sink.dropped}
+     */
+    default void onDropped(int count, String reason) {}
+}
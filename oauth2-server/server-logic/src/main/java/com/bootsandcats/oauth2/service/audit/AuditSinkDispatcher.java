@@ -0,0 +1,294 @@
+package com.bootsandcats.oauth2.service.audit;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import com.bootsandcats.oauth2.config.AuditSinkProperties;
+import com.bootsandcats.oauth2.model.SecurityAuditEvent;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Fans recorded audit events out to every enabled best-effort {@link AuditSink}, isolating the
+ * sinks from each other and from the caller. The audit table is not one of them: {@link
+ * AuditEventWriter} writes it through {@link DatabaseAuditSink} before dispatching.
+ *
+ * <p>Each sink has its own bounded queue and writer thread, which hands it batches of up to {@code
+ * batch-size} events (waiting at most {@code max-batch-delay} to fill one). {@link #dispatch} only
+ * offers events to the queues; a full queue drops the event for that sink alone. A {@link
+ * CircuitBreaker} per sink stops calling a sink that keeps failing, so its batches are dropped
+ * instead of each waiting out a network timeout, until a trial write succeeds.
+ *
+ * <p>The lifecycle phase is below the audit pipeline's, so the sinks start before and stop after
+ * it. Events dispatched while the dispatcher is not running are written on the calling thread.
+ */
+@Component
+public class AuditSinkDispatcher implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(AuditSinkDispatcher.class);
+
+    private static final int PHASE = SmartLifecycle.DEFAULT_PHASE - 6144;
+
+    private final List<SinkChannel> channels;
+    private final AuditSinkProperties properties;
+
+    private volatile boolean running;
+
+    public AuditSinkDispatcher(
+            List<AuditSink> sinks, AuditSinkProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        List<SinkChannel> enabled = new ArrayList<>();
+        for (AuditSink sink : sinks) {
+            if (sink.isEnabled()) {
+                enabled.add(new SinkChannel(sink, properties.sink(sink.name()), meterRegistry));
+            }
+        }
+        this.channels = List.copyOf(enabled);
+        log.info(
+                "Audit sinks enabled: {}",
+                channels.stream().map(channel -> channel.sink.name()).toList());
+    }
+
+    /**
+     * Queue events for every sink.
+     *
+     * @param events the audit events
+     */
+    public void dispatch(List<SecurityAuditEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        for (SinkChannel channel : channels) {
+            if (running) {
+                channel.offer(events);
+            } else {
+                channel.write(events, System.nanoTime());
+            }
+        }
+    }
+
+    /** Names of the sinks events are dispatched to. */
+    public List<String> getSinkNames() {
+        return channels.stream().map(channel -> channel.sink.name()).toList();
+    }
+
+    @Override
+    public void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        channels.forEach(SinkChannel::start);
+    }
+
+    @Override
+    public void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        long deadline = System.nanoTime() + properties.getSinkShutdownTimeout().toNanos();
+        for (SinkChannel channel : channels) {
+            channel.awaitDrained(deadline);
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return PHASE;
+    }
+
+    /** Queue, writer thread, circuit breaker and meters of one sink. */
+    private final class SinkChannel {
+
+        private final AuditSink sink;
+        private final int batchSize;
+        private final long maxBatchDelayNanos;
+        private final BlockingQueue<Queued> queue;
+        private final CircuitBreaker circuitBreaker;
+
+        private final Timer lag;
+        private final Counter written;
+        private final Counter errors;
+        private final Counter droppedQueueFull;
+        private final Counter droppedCircuitOpen;
+
+        private volatile Thread writer;
+
+        SinkChannel(AuditSink sink, AuditSinkProperties.Sink settings, MeterRegistry registry) {
+            this.sink = sink;
+            this.batchSize = Math.max(1, settings.getBatchSize());
+            this.maxBatchDelayNanos = settings.getMaxBatchDelay().toNanos();
+            this.queue = new ArrayBlockingQueue<>(Math.max(1, settings.getQueueCapacity()));
+            this.circuitBreaker =
+                    new CircuitBreaker(
+                            settings.getFailureThreshold(), settings.getOpenDuration().toNanos());
+
+            String name = sink.name();
+            Gauge.builder("oauth2.audit.sink.queue.depth", queue, BlockingQueue::size)
+                    .description("Audit events waiting for the sink")
+                    .tag("sink", name)
+                    .register(registry);
+            Gauge.builder(
+                            "oauth2.audit.sink.circuit.open",
+                            circuitBreaker,
+                            breaker -> breaker.isOpen() ? 1 : 0)
+                    .description("Whether the sink's circuit breaker is skipping writes")
+                    .tag("sink", name)
+                    .register(registry);
+            this.lag =
+                    Timer.builder("oauth2.audit.sink.lag")
+                            .description("Time from dispatch until the sink write completed")
+                            .tag("sink", name)
+                            .register(registry);
+            this.written =
+                    Counter.builder("oauth2.audit.sink.written")
+                            .description("Audit events written by the sink")
+                            .tag("sink", name)
+                            .register(registry);
+            this.errors =
+                    Counter.builder("oauth2.audit.sink.errors")
+                            .description("Failed sink writes")
+                            .tag("sink", name)
+                            .register(registry);
+            this.droppedQueueFull = droppedCounter(registry, name, "queue_full");
+            this.droppedCircuitOpen = droppedCounter(registry, name, "circuit_open");
+        }
+
+        private static Counter droppedCounter(
+                MeterRegistry registry, String sinkName, String reason) {
+            return Counter.builder("oauth2.audit.sink.dropped")
+                    .description("Audit events the sink never received")
+                    .tag("sink", sinkName)
+                    .tag("reason", reason)
+                    .register(registry);
+        }
+
+        void offer(List<SecurityAuditEvent> events) {
+            long now = System.nanoTime();
+            int dropped = 0;
+            for (SecurityAuditEvent event : events) {
+                if (!queue.offer(new Queued(event, now))) {
+                    dropped++;
+                }
+            }
+            if (dropped > 0) {
+                droppedQueueFull.increment(dropped);
+                sink.onDropped(dropped, "queue_full");
+                log.debug("Audit sink {} queue full; dropped {} event(s)", sink.name(), dropped);
+            }
+        }
+
+        void start() {
+            Thread thread = new Thread(this::writeLoop, "audit-sink-" + sink.name());
+            thread.setDaemon(true);
+            writer = thread;
+            thread.start();
+        }
+
+        void awaitDrained(long deadline) {
+            Thread thread = writer;
+            if (thread == null) {
+                return;
+            }
+            try {
+                long remainingMillis = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                thread.join(Math.max(1, remainingMillis));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (thread.isAlive()) {
+                log.warn(
+                        "Audit sink {} did not drain in time; {} event(s) left unwritten",
+                        sink.name(),
+                        queue.size());
+            }
+            writer = null;
+        }
+
+        private void writeLoop() {
+            List<Queued> batch = new ArrayList<>(batchSize);
+            while (running || !queue.isEmpty()) {
+                try {
+                    Queued first = queue.poll(100, TimeUnit.MILLISECONDS);
+                    if (first == null) {
+                        continue;
+                    }
+                    batch.add(first);
+                    fillBatch(batch, System.nanoTime() + maxBatchDelayNanos);
+                } catch (InterruptedException e) {
+                    // Shutdown is driven by the running flag; keep writing what is queued.
+                    Thread.interrupted();
+                }
+                if (!batch.isEmpty()) {
+                    List<SecurityAuditEvent> events = new ArrayList<>(batch.size());
+                    for (Queued queued : batch) {
+                        events.add(queued.event());
+                    }
+                    write(events, batch.get(0).enqueuedAt());
+                    batch.clear();
+                }
+            }
+        }
+
+        private void fillBatch(List<Queued> batch, long deadline) throws InterruptedException {
+            while (batch.size() < batchSize) {
+                if (queue.drainTo(batch, batchSize - batch.size()) > 0) {
+                    continue;
+                }
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0 || !running) {
+                    return;
+                }
+                Queued next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                if (next == null) {
+                    return;
+                }
+                batch.add(next);
+            }
+        }
+
+        void write(List<SecurityAuditEvent> events, long oldestEnqueuedAt) {
+            if (!circuitBreaker.allowRequest(System.nanoTime())) {
+                droppedCircuitOpen.increment(events.size());
+                sink.onDropped(events.size(), "circuit_open");
+                return;
+            }
+            try {
+                sink.write(events);
+                circuitBreaker.recordSuccess();
+                written.increment(events.size());
+            } catch (RuntimeException e) {
+                errors.increment();
+                if (circuitBreaker.recordFailure(System.nanoTime())) {
+                    log.warn("Audit sink {} failing; opening circuit", sink.name(), e);
+                } else {
+                    log.debug(
+                            "Audit sink {} failed to write {} event(s)",
+                            sink.name(),
+                            events.size(),
+                            e);
+                }
+            }
+            lag.record(System.nanoTime() - oldestEnqueuedAt, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private record Queued(SecurityAuditEvent event, long enqueuedAt) {}
+}
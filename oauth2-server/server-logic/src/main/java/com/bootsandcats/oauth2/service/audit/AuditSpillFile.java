@@ -0,0 +1,183 @@
+package com.bootsandcats.oauth2.service.audit;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.bootsandcats.oauth2.model.SecurityAuditEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Append-only NDJSON file holding audit events that did not fit in the pipeline queue.
+ *
+ * <p>Appends go to {@code audit-spill.ndjson}. On replay the file is atomically renamed to {@code
+ * audit-spill.replay} so new spills can continue while the old ones are written. A batch counts as
+ * replayed once the sink returns, which for the pipeline means the database write succeeded. The
+ * next replay resumes after the last replayed batch, whether the previous one stopped because the
+ * sink failed or because it was asked to pause. The replay file is only removed once every event in
+ * it was replayed; one left behind by a crash is picked up on the next replay.
+ */
+final class AuditSpillFile {
+
+    private static final Logger log = LoggerFactory.getLogger(AuditSpillFile.class);
+
+    private final Path directory;
+    private final Path spillFile;
+    private final Path replayFile;
+    private final ObjectMapper objectMapper;
+    private final Object lock = new Object();
+
+    private volatile boolean pending;
+
+    /** Bytes of the replay file already replayed. Drainer only. */
+    private long replayedBytes;
+
+    /** End of the last line counted as unreadable, so each is counted once. Drainer only. */
+    private long skippedBytes;
+
+    AuditSpillFile(Path directory, ObjectMapper objectMapper) {
+        this.directory = directory;
+        this.spillFile = directory.resolve("audit-spill.ndjson");
+        this.replayFile = directory.resolve("audit-spill.replay");
+        this.objectMapper = objectMapper;
+        this.pending = Files.exists(spillFile) || Files.exists(replayFile);
+    }
+
+    boolean hasPending() {
+        return pending;
+    }
+
+    /**
+     * Append an event to the spill file.
+     *
+     * @return {@code true} if the event was written
+     */
+    boolean append(SecurityAuditEvent event) {
+        String line;
+        try {
+            line = objectMapper.writeValueAsString(event) + "\n";
+        } catch (IOException e) {
+            log.warn("Failed to serialize audit event {} for spilling", event.getEventId(), e);
+            return false;
+        }
+        synchronized (lock) {
+            try {
+                Files.createDirectories(directory);
+                Files.writeString(
+                        spillFile,
+                        line,
+                        StandardCharsets.UTF_8,
+                        StandardOpenOption.CREATE,
+                        StandardOpenOption.APPEND);
+                pending = true;
+                return true;
+            } catch (IOException e) {
+                log.warn("Failed to spill audit event {} to {}", event.getEventId(), spillFile, e);
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Hand spilled events to {@code sink} in batches of at most {@code batchSize}, removing the
+     * file once all of them were replayed.
+     *
+     * @param keepGoing checked after each batch; once {@code false}, the rest is kept for the next
+     *     replay
+     * @param onUnreadable called once for every line that cannot be read back; that event is lost
+     * @return number of events replayed
+     * @throws RuntimeException if {@code sink} failed; that batch and the rest are kept
+     */
+    int replay(
+            int batchSize,
+            Consumer<List<SecurityAuditEvent>> sink,
+            BooleanSupplier keepGoing,
+            Runnable onUnreadable) {
+        synchronized (lock) {
+            try {
+                if (!Files.exists(replayFile) && Files.exists(spillFile)) {
+                    Files.move(spillFile, replayFile, StandardCopyOption.ATOMIC_MOVE);
+                }
+            } catch (IOException e) {
+                log.warn("Failed to rotate audit spill file {}", spillFile, e);
+                return 0;
+            }
+            pending = false;
+        }
+        if (!Files.exists(replayFile)) {
+            return 0;
+        }
+
+        int replayed = 0;
+        long position = replayedBytes;
+        List<SecurityAuditEvent> batch = new ArrayList<>(batchSize);
+        try (InputStream in = Files.newInputStream(replayFile)) {
+            in.skipNBytes(replayedBytes);
+            BufferedReader reader =
+                    new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+            String line;
+            while ((line = reader.readLine()) != null) {
+                // Lines are written with a single '\n'; serialized events contain no raw newlines.
+                position += line.getBytes(StandardCharsets.UTF_8).length + 1;
+                if (line.isBlank()) {
+                    continue;
+                }
+                try {
+                    batch.add(objectMapper.readValue(line, SecurityAuditEvent.class));
+                } catch (IOException e) {
+                    if (position > skippedBytes) {
+                        skippedBytes = position;
+                        onUnreadable.run();
+                        log.warn("Skipping unreadable line in audit spill file {}", replayFile, e);
+                    }
+                    continue;
+                }
+                if (batch.size() >= batchSize) {
+                    sink.accept(batch);
+                    replayed += batch.size();
+                    replayedBytes = position;
+                    batch = new ArrayList<>(batchSize);
+                    if (!keepGoing.getAsBoolean()) {
+                        pending = true;
+                        return replayed;
+                    }
+                }
+            }
+            if (!batch.isEmpty()) {
+                sink.accept(batch);
+                replayed += batch.size();
+            }
+        } catch (IOException e) {
+            log.warn("Failed to replay audit spill file {}", replayFile, e);
+            pending = true;
+            return replayed;
+        } catch (RuntimeException e) {
+            pending = true;
+            throw e;
+        }
+        try {
+            Files.deleteIfExists(replayFile);
+            replayedBytes = 0;
+            skippedBytes = 0;
+        } catch (IOException e) {
+            // Everything in it was replayed; keep the position so it is not replayed again.
+            replayedBytes = position;
+            pending = true;
+            log.warn("Failed to remove replayed audit spill file {}", replayFile, e);
+        }
+        return replayed;
+    }
+}
@@ -0,0 +1,68 @@
+package com.bootsandcats.oauth2.service.audit;
+
+/**
+ * Consecutive-failure circuit breaker for one audit sink.
+ *
+ * <p>After {@code failureThreshold} failed writes in a row the circuit opens and {@link
+ * #allowRequest} refuses writes for {@code openNanos}. Then a single trial write is let through:
+ * success closes the circuit, failure opens it again.
+ */
+final class CircuitBreaker {
+
+    enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private final int failureThreshold;
+    private final long openNanos;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAt;
+
+    CircuitBreaker(int failureThreshold, long openNanos) {
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.openNanos = openNanos;
+    }
+
+    synchronized boolean allowRequest(long nowNanos) {
+        return switch (state) {
+            case CLOSED -> true;
+            case HALF_OPEN -> false;
+            case OPEN -> {
+                if (nowNanos - openedAt < openNanos) {
+                    yield false;
+                }
+                state = State.HALF_OPEN;
+                yield true;
+            }
+        };
+    }
+
+    synchronized void recordSuccess() {
+        state = State.CLOSED;
+        consecutiveFailures = 0;
+    }
+
+    /** @return whether this failure opened the circuit */
+    synchronized boolean recordFailure(long nowNanos) {
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+            boolean opened = state != State.OPEN;
+            state = State.OPEN;
+            openedAt = nowNanos;
+            return opened;
+        }
+        return false;
+    }
+
+    synchronized State state() {
+        return state;
+    }
+
+    synchronized boolean isOpen() {
+        return state != State.CLOSED;
+    }
+}
@@ -0,0 +1,178 @@
+package com.bootsandcats.oauth2.service.audit;
+
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.bootsandcats.oauth2.events.AuthEventOutbox;
+import com.bootsandcats.oauth2.model.SecurityAuditEvent;
+import com.bootsandcats.oauth2.repository.SecurityAuditEventRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Writes audit events to the audit table. Disabled when no database is configured.
+ *
+ * <p>Unlike the {@link AuditSink}s this is not fanned out through the {@link AuditSinkDispatcher}:
+ * {@link AuditEventWriter} calls it on the pipeline drainer's thread, so a slow or unavailable
+ * database backs up the {@link AuditEventPipeline} queue and its overflow policy applies, instead
+ * of audit rows being dropped.
+ *
+ * <p>When the {@link AuthEventOutbox} is enabled, the events' stream entries are written to the
+ * outbox in the same transaction as the audit rows. Events saved one at a time through JPA are
+ * added to the audit counters explicitly; batch inserts maintain them themselves.
+ *
+ * <p>With the outbox enabled the redis-stream sink is switched off, so events that are never
+ * written here never reach the stream either. They are counted as {@code
+ * oauth2.auth-events.outbox.lost}, tagged with the reason.
+ */
+@Component
+public class DatabaseAuditSink {
+
+    private static final Logger log = LoggerFactory.getLogger(DatabaseAuditSink.class);
+
+    private final ObjectProvider<SecurityAuditEventRepository> auditEventRepository;
+    private final AuthEventOutbox outbox;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+
+    public DatabaseAuditSink(
+            ObjectProvider<SecurityAuditEventRepository> auditEventRepository,
+            AuthEventOutbox outbox,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry) {
+        this.auditEventRepository = auditEventRepository;
+        this.outbox = outbox;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Persist the batch with a single multi-row insert.
+     *
+     * <p>If the batch insert fails because of the data, events are retried one by one so a single
+     * bad row does not discard the whole batch; rows that still fail are lost. If the database is
+     * unavailable before anything was saved, the exception is rethrown and nothing is counted as
+     * lost: the caller still holds the batch and retries it.
+     *
+     * @param events the audit events
+     * @return number of events saved; {@code events.size()} when no database is configured, where
+     *     the other sinks are the only record
+     * @throws RuntimeException if the database was unavailable and nothing was saved
+     */
+    public int write(List<SecurityAuditEvent> events) {
+        SecurityAuditEventRepository repo = auditEventRepository.getIfAvailable();
+        if (repo == null || events.isEmpty()) {
+            return events.size();
+        }
+        boolean useOutbox = outbox.isEnabled();
+        try {
+            transactionTemplate.executeWithoutResult(
+                    status -> {
+                        repo.insertBatch(events);
+                        if (useOutbox) {
+                            outbox.append(events);
+                        }
+                    });
+            return events.size();
+        } catch (RuntimeException batchFailure) {
+            if (isUnavailable(batchFailure)) {
+                throw batchFailure;
+            }
+            log.warn(
+                    "Batch insert of {} audit events failed; retrying individually",
+                    events.size(),
+                    batchFailure);
+        }
+        int saved = 0;
+        for (SecurityAuditEvent event : events) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> persist(repo, event, useOutbox));
+                saved++;
+            } catch (RuntimeException e) {
+                if (isUnavailable(e) && saved == 0) {
+                    throw e;
+                }
+                log.error("Failed to record audit event: {}", event, e);
+            }
+        }
+        if (saved < events.size()) {
+            onLost(events.size() - saved, "write_failed");
+        }
+        return saved;
+    }
+
+    /**
+     * Told when audit events will never be written here, e.g. because the pipeline dropped them.
+     *
+     * @param count number of events lost
+     * @param reason the {@code reason} tag of {@code oauth2.auth-events.outbox.lost}
+     */
+    public void onLost(int count, String reason) {
+        if (!outbox.isEnabled()) {
+            return;
+        }
+        Counter.builder("oauth2.auth-events.outbox.lost")
+                .description("Audit events that never reached the outbox, and so the stream")
+                .tag("reason", reason)
+                .register(meterRegistry)
+                .increment(count);
+    }
+
+    /**
+     * Persist a single event on the calling thread, joining the caller's transaction if there is
+     * one.
+     *
+     * @param event the audit event
+     * @return the saved audit event, or {@code event} itself when no database is configured
+     */
+    public SecurityAuditEvent save(SecurityAuditEvent event) {
+        SecurityAuditEventRepository repo = auditEventRepository.getIfAvailable();
+        if (repo == null) {
+            // No database configured (e.g., prod-no-db). Still publish to Redis/K8s sinks.
+            return event;
+        }
+        try {
+            SecurityAuditEvent saved =
+                    transactionTemplate.execute(
+                            status -> persist(repo, event, outbox.isEnabled()));
+            log.debug(
+                    "Recorded audit event: type={}, principal={}, result={}",
+                    event.getEventType(),
+                    event.getPrincipal(),
+                    event.getResult());
+            return saved;
+        } catch (Exception e) {
+            log.error("Failed to record audit event: {}", event, e);
+            throw e;
+        }
+    }
+
+    /** Whether the failure says nothing about the rows, so retrying them one by one is futile. */
+    private static boolean isUnavailable(RuntimeException e) {
+        return e instanceof TransientDataAccessException
+                || e instanceof RecoverableDataAccessException
+                || e instanceof DataAccessResourceFailureException
+                || e instanceof TransactionException;
+    }
+
+    private SecurityAuditEvent persist(
+            SecurityAuditEventRepository repo, SecurityAuditEvent event, boolean useOutbox) {
+        SecurityAuditEvent saved = repo.save(event);
+        repo.addToRollups(List.of(saved));
+        if (useOutbox) {
+            outbox.append(List.of(saved));
+        }
+        return saved;
+    }
+}
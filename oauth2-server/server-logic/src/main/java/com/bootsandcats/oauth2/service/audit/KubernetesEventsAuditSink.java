@@ -0,0 +1,44 @@
+package com.bootsandcats.oauth2.service.audit;
+
+import java.util.List;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+import com.bootsandcats.oauth2.k8s.KubernetesAuditEventEmitter;
+import com.bootsandcats.oauth2.model.SecurityAuditEvent;
+
+/**
+ * Reports audit events as Kubernetes Events. Enabled with {@code
+ * oauth2.audit.kubernetes-events.enabled}.
+ */
+@Component
+public class KubernetesEventsAuditSink implements AuditSink {
+
+    public static final String NAME = "kubernetes-events";
+
+    private final ObjectProvider<KubernetesAuditEventEmitter> kubernetesAuditEventEmitter;
+
+    public KubernetesEventsAuditSink(
+            ObjectProvider<KubernetesAuditEventEmitter> kubernetesAuditEventEmitter) {
+        this.kubernetesAuditEventEmitter = kubernetesAuditEventEmitter;
+    }
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return kubernetesAuditEventEmitter.getIfAvailable() != null;
+    }
+
+    @Override
+    public void write(List<SecurityAuditEvent> events) {
+        KubernetesAuditEventEmitter emitter = kubernetesAuditEventEmitter.getObject();
+        for (SecurityAuditEvent event : events) {
+            emitter.publish(event);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.bootsandcats.oauth2.service.audit;
+
+import java.util.List;
+
+import org.springframework.stereotype.Component;
+
+import com.bootsandcats.oauth2.config.AuthEventStreamProperties;
+import com.bootsandcats.oauth2.events.AuthEventOutbox;
+import com.bootsandcats.oauth2.events.AuthEventPublisher;
+import com.bootsandcats.oauth2.model.SecurityAuditEvent;
+
+/**
+ * Appends audit events to the auth events Redis Stream, one pipelined round trip per batch.
+ *
+ * <p>Only used without the {@link AuthEventOutbox}; with a database, stream entries are written
+ * alongside the audit rows and relayed by {@code AuthEventOutboxRelay} instead.
+ */
+@Component
+public class RedisStreamAuditSink implements AuditSink {
+
+    public static final String NAME = "redis-stream";
+
+    private final AuthEventPublisher authEventPublisher;
+    private final AuthEventStreamProperties properties;
+    private final AuthEventOutbox outbox;
+
+    public RedisStreamAuditSink(
+            AuthEventPublisher authEventPublisher,
+            AuthEventStreamProperties properties,
+            AuthEventOutbox outbox) {
+        this.authEventPublisher = authEventPublisher;
+        this.properties = properties;
+        this.outbox = outbox;
+    }
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return properties.isEnabled() && !outbox.isEnabled();
+    }
+
+    @Override
+    public void write(List<SecurityAuditEvent> events) {
+        authEventPublisher.publishAll(events);
+    }
+}
@@ -0,0 +1,90 @@
+package com.bootsandcats.oauth2.service.authorization;
+
+import java.time.Instant;
+
+import org.springframework.security.oauth2.core.OAuth2AccessToken;
+import org.springframework.security.oauth2.core.OAuth2DeviceCode;
+import org.springframework.security.oauth2.core.OAuth2RefreshToken;
+import org.springframework.security.oauth2.core.OAuth2Token;
+import org.springframework.security.oauth2.core.OAuth2UserCode;
+import org.springframework.security.oauth2.core.endpoint.OAuth2ParameterNames;
+import org.springframework.security.oauth2.core.oidc.OidcIdToken;
+import org.springframework.security.oauth2.core.oidc.endpoint.OidcParameterNames;
+import org.springframework.security.oauth2.server.authorization.OAuth2Authorization;
+import org.springframework.security.oauth2.server.authorization.OAuth2AuthorizationCode;
+import org.springframework.security.oauth2.server.authorization.OAuth2TokenType;
+
+/**
+ * The values an {@link OAuth2Authorization} can be looked up by, with the storage name each
+ * backend uses for its digest index ({@code <name>_digest} column, {@code <name>:} key segment).
+ */
+public enum AuthorizationTokenKind {
+    STATE(OAuth2ParameterNames.STATE, "state", null),
+    AUTHORIZATION_CODE(
+            OAuth2ParameterNames.CODE, "authorization_code", OAuth2AuthorizationCode.class),
+    ACCESS_TOKEN(OAuth2ParameterNames.ACCESS_TOKEN, "access_token", OAuth2AccessToken.class),
+    REFRESH_TOKEN(OAuth2ParameterNames.REFRESH_TOKEN, "refresh_token", OAuth2RefreshToken.class),
+    ID_TOKEN(OidcParameterNames.ID_TOKEN, "oidc_id_token", OidcIdToken.class),
+    USER_CODE(OAuth2ParameterNames.USER_CODE, "user_code", OAuth2UserCode.class),
+    DEVICE_CODE(OAuth2ParameterNames.DEVICE_CODE, "device_code", OAuth2DeviceCode.class);
+
+    private final String tokenType;
+    private final String storageName;
+    private final Class<? extends OAuth2Token> tokenClass;
+
+    AuthorizationTokenKind(
+            String tokenType, String storageName, Class<? extends OAuth2Token> tokenClass) {
+        this.tokenType = tokenType;
+        this.storageName = storageName;
+        this.tokenClass = tokenClass;
+    }
+
+    /** Name used for the digest column / key segment of this kind. */
+    public String getStorageName() {
+        return storageName;
+    }
+
+    Class<? extends OAuth2Token> tokenClass() {
+        return tokenClass;
+    }
+
+    /**
+     * Resolve the kind for a token type passed to {@code findByToken}.
+     *
+     * @return the matching kind, or {@code null} if {@code tokenType} is {@code null} or unknown
+     */
+    public static AuthorizationTokenKind from(OAuth2TokenType tokenType) {
+        if (tokenType == null) {
+            return null;
+        }
+        for (AuthorizationTokenKind kind : values()) {
+            if (kind.tokenType.equals(tokenType.getValue())) {
+                return kind;
+            }
+        }
+        return null;
+    }
+
+    /** The raw value of this kind on {@code authorization}, or {@code null} if absent. */
+    public String valueOf(OAuth2Authorization authorization) {
+        if (tokenClass == null) {
+            return authorization.getAttribute(OAuth2ParameterNames.STATE);
+        }
+        OAuth2Authorization.Token<? extends OAuth2Token> token =
+                authorization.getToken(tokenClass);
+        return token != null ? token.getToken().getTokenValue() : null;
+    }
+
+    /**
+     * Expiry of this kind's token on {@code authorization}, or {@code null} for {@link #STATE} and
+     * tokens without an expiry.
+     */
+    public Instant expiresAt(OAuth2Authorization authorization) {
+        if (tokenClass == null) {
+            return null;
+        }
+        OAuth2Authorization.Token<? extends OAuth2Token> token =
+                authorization.getToken(tokenClass);
+        return token != null ? token.getToken().getExpiresAt() : null;
+    }
+}
@@ -0,0 +1,193 @@
+package com.bootsandcats.oauth2.service.authorization;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.oauth2.server.authorization.OAuth2Authorization;
+import org.springframework.security.oauth2.server.authorization.OAuth2AuthorizationService;
+import org.springframework.security.oauth2.server.authorization.OAuth2TokenType;
+import org.springframework.stereotype.Service;
+import org.springframework.util.Assert;
+
+/**
+ * {@link OAuth2AuthorizationService} backed by the {@code oauth2_authorization} table.
+ *
+ * <p>Each row holds the {@link OAuth2AuthorizationCodec} document plus one indexed SHA-256 digest
+ * column per lookup value ({@code state}, code, access/refresh/ID token, user code, device code),
+ * so raw tokens are never used as lookup keys. Expired rows are ignored on read and purged every
+ * {@code oauth2.authorization.purge-interval}.
+ */
+@Service
+@ConditionalOnProperty(prefix = "oauth2.authorization", name = "store", havingValue = "jdbc")
+public class JdbcDigestOAuth2AuthorizationService implements OAuth2AuthorizationService {
+
+    private static final Logger log =
+            LoggerFactory.getLogger(JdbcDigestOAuth2AuthorizationService.class);
+
+    private static final String TABLE = "oauth2_authorization";
+
+    private static final List<String> DIGEST_COLUMNS =
+            Arrays.stream(AuthorizationTokenKind.values())
+                    .map(JdbcDigestOAuth2AuthorizationService::digestColumn)
+                    .toList();
+
+    private static final String UPDATE_SQL =
+            "UPDATE "
+                    + TABLE
+                    + " SET registered_client_id = ?, principal_name = ?,"
+                    + " authorization_grant_type = ?, authorized_scopes = ?,"
+                    + " authorization_payload = ?, expires_at = ?, "
+                    + DIGEST_COLUMNS.stream().map(c -> c + " = ?").collect(Collectors.joining(", "))
+                    + " WHERE id = ?";
+
+    private static final String INSERT_SQL =
+            "INSERT INTO "
+                    + TABLE
+                    + " (registered_client_id, principal_name, authorization_grant_type,"
+                    + " authorized_scopes, authorization_payload, expires_at, "
+                    + String.join(", ", DIGEST_COLUMNS)
+                    + ", id) VALUES ("
+                    + "?, ".repeat(6 + DIGEST_COLUMNS.size())
+                    + "?)";
+
+    private static final String SELECT_PAYLOAD =
+            "SELECT authorization_payload FROM " + TABLE + " WHERE ";
+
+    private static final String NOT_EXPIRED = " AND (expires_at IS NULL OR expires_at > ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final OAuth2AuthorizationCodec codec;
+
+    public JdbcDigestOAuth2AuthorizationService(
+            JdbcTemplate jdbcTemplate, OAuth2AuthorizationCodec codec) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.codec = codec;
+    }
+
+    @Override
+    public void save(OAuth2Authorization authorization) {
+        Assert.notNull(authorization, "authorization cannot be null");
+        Object[] params = rowParameters(authorization);
+        if (jdbcTemplate.update(UPDATE_SQL, params) == 0) {
+            jdbcTemplate.update(INSERT_SQL, params);
+        }
+    }
+
+    @Override
+    public void remove(OAuth2Authorization authorization) {
+        Assert.notNull(authorization, "authorization cannot be null");
+        jdbcTemplate.update("DELETE FROM " + TABLE + " WHERE id = ?", authorization.getId());
+    }
+
+    @Override
+    public OAuth2Authorization findById(String id) {
+        Assert.hasText(id, "id cannot be empty");
+        return findOne(SELECT_PAYLOAD + "id = ?" + NOT_EXPIRED, null, null, id);
+    }
+
+    @Override
+    public OAuth2Authorization findByToken(String token, OAuth2TokenType tokenType) {
+        Assert.hasText(token, "token cannot be empty");
+        String digest = OAuth2AuthorizationCodec.digest(token);
+        if (tokenType == null) {
+            String anyColumn =
+                    DIGEST_COLUMNS.stream()
+                            .map(c -> c + " = ?")
+                            .collect(Collectors.joining(" OR ", "(", ")"));
+            Object[] digests = new Object[DIGEST_COLUMNS.size()];
+            Arrays.fill(digests, digest);
+            return findOne(SELECT_PAYLOAD + anyColumn + NOT_EXPIRED, token, null, digests);
+        }
+        AuthorizationTokenKind kind = AuthorizationTokenKind.from(tokenType);
+        if (kind == null) {
+            return null;
+        }
+        return findOne(
+                SELECT_PAYLOAD + digestColumn(kind) + " = ?" + NOT_EXPIRED, token, kind, digest);
+    }
+
+    /** Delete authorizations whose last token has expired. */
+    @Scheduled(
+            fixedDelayString = "${oauth2.authorization.purge-interval:PT5M}",
+            initialDelayString = "${oauth2.authorization.purge-interval:PT5M}")
+    public void purgeExpired() {
+        try {
+            int purged =
+                    jdbcTemplate.update(
+                            "DELETE FROM " + TABLE + " WHERE expires_at < ?",
+                            Timestamp.from(Instant.now()));
+            if (purged > 0) {
+                log.debug("Purged {} expired OAuth2 authorizations", purged);
+            }
+        } catch (Exception e) {
+            log.warn("Failed to purge expired OAuth2 authorizations", e);
+        }
+    }
+
+    /**
+     * Run a payload query and return the first row that decodes and, when {@code token} is given,
+     * actually carries that token.
+     */
+    private OAuth2Authorization findOne(
+            String sql, String token, AuthorizationTokenKind kind, Object... keys) {
+        List<Object> params = new ArrayList<>(Arrays.asList(keys));
+        params.add(Timestamp.from(Instant.now()));
+
+        List<String> payloads =
+                jdbcTemplate.query(sql, (rs, rowNum) -> rs.getString(1), params.toArray());
+        for (String payload : payloads) {
+            if (payload == null) {
+                continue;
+            }
+            OAuth2Authorization authorization = codec.decode(payload);
+            if (authorization != null
+                    && (token == null || matchesAny(authorization, token, kind))) {
+                return authorization;
+            }
+        }
+        return null;
+    }
+
+    private static boolean matchesAny(
+            OAuth2Authorization authorization, String token, AuthorizationTokenKind kind) {
+        if (kind != null) {
+            return OAuth2AuthorizationCodec.matches(authorization, kind, token);
+        }
+        for (AuthorizationTokenKind candidate : AuthorizationTokenKind.values()) {
+            if (OAuth2AuthorizationCodec.matches(authorization, candidate, token)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Object[] rowParameters(OAuth2Authorization authorization) {
+        Map<AuthorizationTokenKind, String> digests = codec.digests(authorization);
+        List<Object> params = new ArrayList<>();
+        params.add(authorization.getRegisteredClientId());
+        params.add(authorization.getPrincipalName());
+        params.add(authorization.getAuthorizationGrantType().getValue());
+        params.add(String.join(",", authorization.getAuthorizedScopes()));
+        params.add(codec.encode(authorization));
+        params.add(Timestamp.from(codec.expiresAt(authorization)));
+        for (AuthorizationTokenKind kind : AuthorizationTokenKind.values()) {
+            params.add(digests.get(kind));
+        }
+        params.add(authorization.getId());
+        return params.toArray();
+    }
+
+    private static String digestColumn(AuthorizationTokenKind kind) {
+        return kind.getStorageName() + "_digest";
+    }
+}
@@ -0,0 +1,310 @@
+package com.bootsandcats.oauth2.service.authorization;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.security.jackson2.SecurityJackson2Modules;
+import org.springframework.security.oauth2.core.AuthorizationGrantType;
+import org.springframework.security.oauth2.core.OAuth2AccessToken;
+import org.springframework.security.oauth2.core.OAuth2DeviceCode;
+import org.springframework.security.oauth2.core.OAuth2RefreshToken;
+import org.springframework.security.oauth2.core.OAuth2Token;
+import org.springframework.security.oauth2.core.OAuth2UserCode;
+import org.springframework.security.oauth2.core.oidc.OidcIdToken;
+import org.springframework.security.oauth2.server.authorization.OAuth2Authorization;
+import org.springframework.security.oauth2.server.authorization.OAuth2AuthorizationCode;
+import org.springframework.security.oauth2.server.authorization.client.RegisteredClient;
+import org.springframework.security.oauth2.server.authorization.client.RegisteredClientRepository;
+import org.springframework.security.oauth2.server.authorization.jackson2.OAuth2AuthorizationServerJackson2Module;
+import org.springframework.stereotype.Component;
+
+import com.bootsandcats.oauth2.config.OAuth2AuthorizationStoreProperties;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+/**
+ * Serializes {@link OAuth2Authorization}s for the JDBC and Redis authorization stores.
+ *
+ * <p>The document itself is plain JSON. Attributes and token metadata (principal, authorization
+ * request, ID token claims, ...) are embedded as strings written with the Spring Security Jackson
+ * modules, the same way {@code JdbcOAuth2AuthorizationService} stores them in its columns.
+ *
+ * <p>Stores index authorizations by the SHA-256 {@link #digest(String) digest} of each lookup value
+ * rather than the raw token.
+ */
+@Component
+public class OAuth2AuthorizationCodec {
+
+    private static final List<AuthorizationGrantType> KNOWN_GRANT_TYPES =
+            List.of(
+                    AuthorizationGrantType.AUTHORIZATION_CODE,
+                    AuthorizationGrantType.CLIENT_CREDENTIALS,
+                    AuthorizationGrantType.REFRESH_TOKEN,
+                    AuthorizationGrantType.DEVICE_CODE,
+                    AuthorizationGrantType.TOKEN_EXCHANGE);
+
+    private final RegisteredClientRepository registeredClientRepository;
+    private final OAuth2AuthorizationStoreProperties properties;
+    private final ObjectMapper documentMapper = new ObjectMapper();
+    private final ObjectMapper securityMapper = new ObjectMapper();
+
+    public OAuth2AuthorizationCodec(
+            RegisteredClientRepository registeredClientRepository,
+            OAuth2AuthorizationStoreProperties properties) {
+        this.registeredClientRepository = registeredClientRepository;
+        this.properties = properties;
+
+        ClassLoader classLoader = OAuth2AuthorizationCodec.class.getClassLoader();
+        this.securityMapper.registerModules(SecurityJackson2Modules.getModules(classLoader));
+        this.securityMapper.registerModule(new OAuth2AuthorizationServerJackson2Module());
+        this.securityMapper.registerModule(new JavaTimeModule());
+    }
+
+    /**
+     * Serialize an authorization.
+     *
+     * @param authorization the authorization
+     * @return the JSON document
+     */
+    public String encode(OAuth2Authorization authorization) {
+        ObjectNode doc = documentMapper.createObjectNode();
+        doc.put("id", authorization.getId());
+        doc.put("registeredClientId", authorization.getRegisteredClientId());
+        doc.put("principalName", authorization.getPrincipalName());
+        doc.put("grantType", authorization.getAuthorizationGrantType().getValue());
+        ArrayNode scopes = doc.putArray("scopes");
+        authorization.getAuthorizedScopes().forEach(scopes::add);
+        doc.put("attributes", writeSecure(authorization.getAttributes()));
+
+        ObjectNode tokens = doc.putObject("tokens");
+        for (AuthorizationTokenKind kind : AuthorizationTokenKind.values()) {
+            Class<? extends OAuth2Token> tokenClass = kind.tokenClass();
+            OAuth2Authorization.Token<? extends OAuth2Token> token =
+                    tokenClass != null ? authorization.getToken(tokenClass) : null;
+            if (token == null) {
+                continue;
+            }
+            ObjectNode node = tokens.putObject(kind.name());
+            node.put("value", token.getToken().getTokenValue());
+            putInstant(node, "issuedAt", token.getToken().getIssuedAt());
+            putInstant(node, "expiresAt", token.getToken().getExpiresAt());
+            node.put("metadata", writeSecure(token.getMetadata()));
+            if (token.getToken() instanceof OAuth2AccessToken accessToken) {
+                node.put("tokenType", accessToken.getTokenType().getValue());
+                ArrayNode accessScopes = node.putArray("scopes");
+                accessToken.getScopes().forEach(accessScopes::add);
+            }
+        }
+
+        try {
+            return documentMapper.writeValueAsString(doc);
+        } catch (Exception ex) {
+            throw new IllegalArgumentException(ex.getMessage(), ex);
+        }
+    }
+
+    /**
+     * Deserialize an authorization.
+     *
+     * @param payload JSON document produced by {@link #encode(OAuth2Authorization)}
+     * @return the authorization, or {@code null} if its registered client no longer resolves
+     *     (deleted or disabled)
+     */
+    public OAuth2Authorization decode(String payload) {
+        JsonNode doc;
+        try {
+            doc = documentMapper.readTree(payload);
+        } catch (Exception ex) {
+            throw new IllegalArgumentException(ex.getMessage(), ex);
+        }
+
+        RegisteredClient registeredClient =
+                registeredClientRepository.findById(doc.path("registeredClientId").asText());
+        if (registeredClient == null) {
+            return null;
+        }
+
+        Map<String, Object> attributes = readSecure(doc.path("attributes").asText());
+        OAuth2Authorization.Builder builder =
+                OAuth2Authorization.withRegisteredClient(registeredClient)
+                        .id(doc.path("id").asText())
+                        .principalName(doc.path("principalName").asText())
+                        .authorizationGrantType(
+                                resolveAuthorizationGrantType(doc.path("grantType").asText()))
+                        .authorizedScopes(readStrings(doc.path("scopes")))
+                        .attributes(attrs -> attrs.putAll(attributes));
+
+        JsonNode tokens = doc.path("tokens");
+        for (AuthorizationTokenKind kind : AuthorizationTokenKind.values()) {
+            JsonNode node = tokens.get(kind.name());
+            if (node == null) {
+                continue;
+            }
+            String value = node.path("value").asText();
+            Instant issuedAt = readInstant(node, "issuedAt");
+            Instant expiresAt = readInstant(node, "expiresAt");
+            Map<String, Object> metadata = readSecure(node.path("metadata").asText());
+            OAuth2Token token =
+                    switch (kind) {
+                        case AUTHORIZATION_CODE ->
+                                new OAuth2AuthorizationCode(value, issuedAt, expiresAt);
+                        case ACCESS_TOKEN ->
+                                new OAuth2AccessToken(
+                                        resolveAccessTokenType(node.path("tokenType").asText()),
+                                        value,
+                                        issuedAt,
+                                        expiresAt,
+                                        readStrings(node.path("scopes")));
+                        case REFRESH_TOKEN -> new OAuth2RefreshToken(value, issuedAt, expiresAt);
+                        case ID_TOKEN ->
+                                new OidcIdToken(
+                                        value, issuedAt, expiresAt, idTokenClaims(metadata));
+                        case USER_CODE -> new OAuth2UserCode(value, issuedAt, expiresAt);
+                        case DEVICE_CODE -> new OAuth2DeviceCode(value, issuedAt, expiresAt);
+                        case STATE -> null;
+                    };
+            if (token != null) {
+                builder.token(token, md -> md.putAll(metadata));
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Digests of every lookup value present on an authorization.
+     *
+     * @param authorization the authorization
+     * @return digest per kind; kinds without a value are absent
+     */
+    public Map<AuthorizationTokenKind, String> digests(OAuth2Authorization authorization) {
+        Map<AuthorizationTokenKind, String> digests = new EnumMap<>(AuthorizationTokenKind.class);
+        for (AuthorizationTokenKind kind : AuthorizationTokenKind.values()) {
+            String value = kind.valueOf(authorization);
+            if (value != null) {
+                digests.put(kind, digest(value));
+            }
+        }
+        return digests;
+    }
+
+    /**
+     * When a stored authorization can be discarded: the latest expiry of any of its tokens, or
+     * {@code oauth2.authorization.default-ttl} from now if none of them expire.
+     *
+     * @param authorization the authorization
+     * @return expiry instant
+     */
+    public Instant expiresAt(OAuth2Authorization authorization) {
+        Instant latest = null;
+        for (AuthorizationTokenKind kind : AuthorizationTokenKind.values()) {
+            Instant expiresAt = kind.expiresAt(authorization);
+            if (expiresAt != null && (latest == null || expiresAt.isAfter(latest))) {
+                latest = expiresAt;
+            }
+        }
+        return latest != null ? latest : Instant.now().plus(properties.getDefaultTtl());
+    }
+
+    /**
+     * SHA-256 digest of a token value, hex encoded.
+     *
+     * @param value the raw token value
+     * @return 64-character lowercase hex digest
+     */
+    public static String digest(String value) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of()
+                    .formatHex(sha256.digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 not available", ex);
+        }
+    }
+
+    /**
+     * Constant-time check that {@code kind}'s value on {@code authorization} is {@code value}.
+     *
+     * <p>Guards against index entries that outlived a token rotation.
+     */
+    public static boolean matches(
+            OAuth2Authorization authorization, AuthorizationTokenKind kind, String value) {
+        String actual = kind.valueOf(authorization);
+        return actual != null
+                && MessageDigest.isEqual(
+                        actual.getBytes(StandardCharsets.UTF_8),
+                        value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String writeSecure(Map<String, Object> data) {
+        try {
+            return securityMapper.writeValueAsString(data);
+        } catch (Exception ex) {
+            throw new IllegalArgumentException(ex.getMessage(), ex);
+        }
+    }
+
+    private Map<String, Object> readSecure(String data) {
+        if (data == null || data.isEmpty()) {
+            return Map.of();
+        }
+        try {
+            return securityMapper.readValue(data, new TypeReference<Map<String, Object>>() {});
+        } catch (Exception ex) {
+            throw new IllegalArgumentException(ex.getMessage(), ex);
+        }
+    }
+
+    private static void putInstant(ObjectNode node, String field, Instant instant) {
+        if (instant != null) {
+            node.put(field, instant.toString());
+        }
+    }
+
+    private static Instant readInstant(JsonNode node, String field) {
+        JsonNode value = node.get(field);
+        return value != null && !value.isNull() ? Instant.parse(value.asText()) : null;
+    }
+
+    private static Set<String> readStrings(JsonNode array) {
+        Set<String> values = new HashSet<>();
+        array.forEach(v -> values.add(v.asText()));
+        return values;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> idTokenClaims(Map<String, Object> metadata) {
+        Object claims = metadata.get(OAuth2Authorization.Token.CLAIMS_METADATA_NAME);
+        return claims instanceof Map<?, ?> map
+                ? new LinkedHashMap<>((Map<String, Object>) map)
+                : new LinkedHashMap<>();
+    }
+
+    private static AuthorizationGrantType resolveAuthorizationGrantType(String value) {
+        for (AuthorizationGrantType known : KNOWN_GRANT_TYPES) {
+            if (known.getValue().equals(value)) {
+                return known;
+            }
+        }
+        return new AuthorizationGrantType(value);
+    }
+
+    private static OAuth2AccessToken.TokenType resolveAccessTokenType(String value) {
+        if (OAuth2AccessToken.TokenType.DPOP.getValue().equalsIgnoreCase(value)) {
+            return OAuth2AccessToken.TokenType.DPOP;
+        }
+        return OAuth2AccessToken.TokenType.BEARER;
+    }
+}
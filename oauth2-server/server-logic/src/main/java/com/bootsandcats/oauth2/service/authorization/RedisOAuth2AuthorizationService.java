@@ -0,0 +1,148 @@
+package com.bootsandcats.oauth2.service.authorization;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.security.oauth2.server.authorization.OAuth2Authorization;
+import org.springframework.security.oauth2.server.authorization.OAuth2AuthorizationService;
+import org.springframework.security.oauth2.server.authorization.OAuth2TokenType;
+import org.springframework.stereotype.Service;
+import org.springframework.util.Assert;
+
+import com.bootsandcats.oauth2.config.OAuth2AuthorizationStoreProperties;
+
+/**
+ * {@link OAuth2AuthorizationService} backed by Redis.
+ *
+ * <p>Layout (with the default {@code oauth2:authz:} prefix):
+ *
+ * <ul>
+ *   <li>{@code oauth2:authz:<id>} holds the {@link OAuth2AuthorizationCodec} document and expires
+ *       with the authorization's last token.
+ *   <li>{@code oauth2:authz:<kind>:<sha256(value)>} maps each lookup value to the authorization id
+ *       and expires with that token.
+ * </ul>
+ *
+ * <p>Index keys are not deleted when a token is rotated; lookups verify the token against the
+ * loaded authorization, and stale index keys disappear with their TTL.
+ */
+@Service
+@ConditionalOnProperty(prefix = "oauth2.authorization", name = "store", havingValue = "redis")
+public class RedisOAuth2AuthorizationService implements OAuth2AuthorizationService {
+
+    private static final Duration MIN_TTL = Duration.ofSeconds(1);
+
+    private final StringRedisTemplate redisTemplate;
+    private final OAuth2AuthorizationCodec codec;
+    private final OAuth2AuthorizationStoreProperties properties;
+
+    public RedisOAuth2AuthorizationService(
+            StringRedisTemplate redisTemplate,
+            OAuth2AuthorizationCodec codec,
+            OAuth2AuthorizationStoreProperties properties) {
+        this.redisTemplate = redisTemplate;
+        this.codec = codec;
+        this.properties = properties;
+    }
+
+    @Override
+    public void save(OAuth2Authorization authorization) {
+        Assert.notNull(authorization, "authorization cannot be null");
+        String payload = codec.encode(authorization);
+        Instant now = Instant.now();
+        Duration authorizationTtl = ttl(now, codec.expiresAt(authorization));
+        Map<AuthorizationTokenKind, String> digests = codec.digests(authorization);
+        String id = authorization.getId();
+
+        redisTemplate.executePipelined(
+                new SessionCallback<Object>() {
+                    @Override
+                    @SuppressWarnings("unchecked")
+                    public <K, V> Object execute(RedisOperations<K, V> operations) {
+                        ValueOperations<String, String> values =
+                                (ValueOperations<String, String>) operations.opsForValue();
+                        values.set(authorizationKey(id), payload, authorizationTtl);
+                        digests.forEach(
+                                (kind, digest) -> {
+                                    Instant expiresAt = kind.expiresAt(authorization);
+                                    values.set(
+                                            indexKey(kind, digest),
+                                            id,
+                                            expiresAt != null
+                                                    ? ttl(now, expiresAt)
+                                                    : authorizationTtl);
+                                });
+                        return null;
+                    }
+                });
+    }
+
+    @Override
+    public void remove(OAuth2Authorization authorization) {
+        Assert.notNull(authorization, "authorization cannot be null");
+        List<String> keys = new ArrayList<>();
+        keys.add(authorizationKey(authorization.getId()));
+        codec.digests(authorization).forEach((kind, digest) -> keys.add(indexKey(kind, digest)));
+        redisTemplate.delete(keys);
+    }
+
+    @Override
+    public OAuth2Authorization findById(String id) {
+        Assert.hasText(id, "id cannot be empty");
+        String payload = redisTemplate.opsForValue().get(authorizationKey(id));
+        return payload != null ? codec.decode(payload) : null;
+    }
+
+    @Override
+    public OAuth2Authorization findByToken(String token, OAuth2TokenType tokenType) {
+        Assert.hasText(token, "token cannot be empty");
+        String digest = OAuth2AuthorizationCodec.digest(token);
+        AuthorizationTokenKind requested = AuthorizationTokenKind.from(tokenType);
+        if (tokenType != null && requested == null) {
+            return null;
+        }
+        List<AuthorizationTokenKind> kinds =
+                requested != null ? List.of(requested) : List.of(AuthorizationTokenKind.values());
+
+        List<String> ids =
+                redisTemplate
+                        .opsForValue()
+                        .multiGet(kinds.stream().map(kind -> indexKey(kind, digest)).toList());
+        if (ids == null) {
+            return null;
+        }
+        for (int i = 0; i < kinds.size(); i++) {
+            String id = ids.get(i);
+            if (id == null) {
+                continue;
+            }
+            OAuth2Authorization authorization = findById(id);
+            if (authorization != null
+                    && OAuth2AuthorizationCodec.matches(authorization, kinds.get(i), token)) {
+                return authorization;
+            }
+        }
+        return null;
+    }
+
+    private String authorizationKey(String id) {
+        return properties.getRedisKeyPrefix() + id;
+    }
+
+    private String indexKey(AuthorizationTokenKind kind, String digest) {
+        return properties.getRedisKeyPrefix() + kind.getStorageName() + ":" + digest;
+    }
+
+    private static Duration ttl(Instant now, Instant expiresAt) {
+        Duration ttl = Duration.between(now, expiresAt);
+        return ttl.compareTo(MIN_TTL) < 0 ? MIN_TTL : ttl;
+    }
+}
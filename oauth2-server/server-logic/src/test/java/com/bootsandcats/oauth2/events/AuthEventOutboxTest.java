@@ -0,0 +1,218 @@
+package com.bootsandcats.oauth2.events;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.ResultSet;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import com.bootsandcats.oauth2.config.AuthEventOutboxProperties;
+import com.bootsandcats.oauth2.config.AuthEventStreamProperties;
+import com.bootsandcats.oauth2.model.AuditEventResult;
+import com.bootsandcats.oauth2.model.AuditEventType;
+import com.bootsandcats.oauth2.model.SecurityAuditEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@ExtendWith(MockitoExtension.class)
+class AuthEventOutboxTest {
+
+    @Mock private ObjectProvider<JdbcTemplate> jdbcTemplateProvider;
+    @Mock private JdbcTemplate jdbcTemplate;
+    @Mock private AuthEventPublisher publisher;
+    @Mock private PlatformTransactionManager transactionManager;
+
+    private AuthEventOutboxProperties properties;
+    private SimpleMeterRegistry meterRegistry;
+    private AuthEventOutbox outbox;
+
+    @BeforeEach
+    void setUp() {
+        properties = new AuthEventOutboxProperties();
+        meterRegistry = new SimpleMeterRegistry();
+        lenient().when(jdbcTemplateProvider.getObject()).thenReturn(jdbcTemplate);
+        lenient().when(jdbcTemplateProvider.getIfAvailable()).thenReturn(jdbcTemplate);
+        lenient()
+                .when(transactionManager.getTransaction(any()))
+                .thenReturn(new SimpleTransactionStatus());
+        outbox =
+                new AuthEventOutbox(
+                        jdbcTemplateProvider,
+                        publisher,
+                        new AuthEventStreamProperties(),
+                        properties,
+                        new ObjectMapper(),
+                        transactionManager,
+                        meterRegistry);
+    }
+
+    @Test
+    void enabledOnlyWithADatabase() {
+        assertThat(outbox.isEnabled()).isTrue();
+
+        when(jdbcTemplateProvider.getIfAvailable()).thenReturn(null);
+        assertThat(outbox.isEnabled()).isFalse();
+    }
+
+    @Test
+    void appendsAllEntriesInOneStatement() {
+        SecurityAuditEvent first = sampleEvent();
+        SecurityAuditEvent second = sampleEvent();
+        when(publisher.toFields(any())).thenReturn(Map.of("eventType", "LOGIN_SUCCESS"));
+
+        outbox.append(List.of(first, second));
+
+        ArgumentCaptor<Object[]> params = ArgumentCaptor.forClass(Object[].class);
+        verify(jdbcTemplate)
+                .update(
+                        eq(
+                                "INSERT INTO auth_event_outbox (event_id, payload, created_at)"
+                                        + " VALUES (?, ?, ?), (?, ?, ?)"),
+                        params.capture());
+        assertThat(params.getValue()).hasSize(6);
+        assertThat(params.getValue()[0]).isEqualTo(first.getEventId());
+        assertThat(params.getValue()[1]).isEqualTo("{\"eventType\":\"LOGIN_SUCCESS\"}");
+        assertThat(params.getValue()[3]).isEqualTo(second.getEventId());
+    }
+
+    @Test
+    void relaysClaimedRowsAndDeletesThem() throws Exception {
+        claimTwoRows();
+        when(publisher.publishFields(anyList())).thenReturn(0);
+
+        int relayed = outbox.relay(500);
+
+        assertThat(relayed).isEqualTo(2);
+        verify(publisher)
+                .publishFields(
+                        argThat(
+                                entries ->
+                                        entries.size() == 2
+                                                && "1".equals(entries.get(0).get("eventId"))));
+        verify(jdbcTemplate)
+                .update("DELETE FROM auth_event_outbox WHERE id IN (?, ?)", 1L, 2L);
+        verify(transactionManager).commit(any());
+    }
+
+    @Test
+    void keepsRowsWhenPublishingFails() throws Exception {
+        claimTwoRows();
+        when(publisher.publishFields(anyList())).thenReturn(2);
+
+        assertThatThrownBy(() -> outbox.relay(500)).isInstanceOf(IllegalStateException.class);
+
+        verify(jdbcTemplate, never()).update(anyString(), any(Object[].class));
+        verify(transactionManager).rollback(any());
+    }
+
+    @Test
+    void relaysTheRestOfABatchAroundARejectedEntry() throws Exception {
+        claimTwoRows();
+        when(publisher.publishFields(anyList())).thenReturn(1, 0, 1);
+
+        int relayed = outbox.relay(500);
+
+        assertThat(relayed).isEqualTo(1);
+        verify(jdbcTemplate).update("DELETE FROM auth_event_outbox WHERE id IN (?)", 1L);
+        verify(jdbcTemplate)
+                .update(
+                        "UPDATE auth_event_outbox SET attempts = attempts + 1 WHERE id IN (?)",
+                        2L);
+        verify(jdbcTemplate)
+                .update(
+                        startsWith("INSERT INTO auth_event_outbox_dead_letter"),
+                        eq("publish rejected"),
+                        eq(2L),
+                        eq(properties.getMaxAttempts()));
+        verify(transactionManager).commit(any());
+    }
+
+    @Test
+    void deadLettersUnreadablePayloads() throws Exception {
+        claimRows("not json", "{\"eventId\":\"2\"}");
+        when(publisher.publishFields(anyList())).thenReturn(0);
+        lenient()
+                .when(
+                        jdbcTemplate.update(
+                                startsWith("INSERT INTO auth_event_outbox_dead_letter"),
+                                any(Object[].class)))
+                .thenReturn(1);
+
+        int relayed = outbox.relay(500);
+
+        assertThat(relayed).isEqualTo(2);
+        verify(publisher).publishFields(argThat(entries -> entries.size() == 1));
+        verify(jdbcTemplate).update("DELETE FROM auth_event_outbox WHERE id IN (?)", 2L);
+        verify(jdbcTemplate)
+                .update(
+                        "DELETE FROM auth_event_outbox WHERE id IN (?) AND attempts >= ?",
+                        1L,
+                        0);
+        assertThat(meterRegistry.counter("oauth2.auth-events.outbox.dead-lettered").count())
+                .isEqualTo(1.0);
+        verify(transactionManager).commit(any());
+    }
+
+    @Test
+    void emptyOutboxPublishesNothing() {
+        int relayed = outbox.relay(500);
+
+        assertThat(relayed).isZero();
+        verify(publisher, never()).publishFields(anyList());
+    }
+
+    private void claimTwoRows() throws Exception {
+        claimRows("{\"eventId\":\"1\"}", "{\"eventId\":\"2\"}");
+    }
+
+    private void claimRows(String firstPayload, String secondPayload) throws Exception {
+        ResultSet resultSet = mock(ResultSet.class);
+        when(resultSet.getLong(1)).thenReturn(1L, 2L);
+        when(resultSet.getString(2)).thenReturn(firstPayload, secondPayload);
+        doAnswer(
+                        invocation -> {
+                            RowCallbackHandler handler = invocation.getArgument(1);
+                            handler.processRow(resultSet);
+                            handler.processRow(resultSet);
+                            return null;
+                        })
+                .when(jdbcTemplate)
+                .query(anyString(), any(RowCallbackHandler.class), eq(500));
+    }
+
+    private static SecurityAuditEvent sampleEvent() {
+        SecurityAuditEvent event = new SecurityAuditEvent();
+        event.setEventId(UUID.randomUUID());
+        event.setEventType(AuditEventType.LOGIN_SUCCESS);
+        event.setResult(AuditEventResult.SUCCESS);
+        event.setPrincipal("alice");
+        return event;
+    }
+}
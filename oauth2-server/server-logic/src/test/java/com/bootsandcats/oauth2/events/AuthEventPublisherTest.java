@@ -2,15 +2,20 @@ package com.bootsandcats.oauth2.events;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatNoException;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.Mockito.doThrow;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.lenient;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 import java.time.Instant;
+import java.util.List;
 import java.util.UUID;
 
 import org.junit.jupiter.api.BeforeEach;
@@ -19,9 +24,12 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.data.redis.connection.stream.MapRecord;
-import org.springframework.data.redis.connection.stream.RecordId;
-import org.springframework.data.redis.core.StreamOperations;
+import org.springframework.data.redis.RedisSystemException;
+import org.springframework.data.redis.connection.RedisPipelineException;
+import org.springframework.data.redis.connection.RedisStreamCommands.XAddOptions;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.connection.stream.StringRecord;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.StringRedisTemplate;
 
 import com.bootsandcats.oauth2.config.AuthEventStreamProperties;
@@ -29,13 +37,16 @@ import com.bootsandcats.oauth2.model.AuditEventResult;
 import com.bootsandcats.oauth2.model.AuditEventType;
 import com.bootsandcats.oauth2.model.SecurityAuditEvent;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
 @ExtendWith(MockitoExtension.class)
 class AuthEventPublisherTest {
 
     @Mock private StringRedisTemplate redisTemplate;
-    @Mock private StreamOperations<String, Object, Object> streamOperations;
+    @Mock private StringRedisConnection connection;
 
     private AuthEventStreamProperties properties;
+    private SimpleMeterRegistry meterRegistry;
     private AuthEventPublisher publisher;
 
     @BeforeEach
@@ -44,46 +55,94 @@ class AuthEventPublisherTest {
         properties.setStreamName("auth:events");
         properties.setMaxLength(1000);
         properties.setEnabled(true);
-        lenient().when(redisTemplate.opsForStream()).thenReturn(streamOperations);
-
-        publisher = new AuthEventPublisher(redisTemplate, properties);
+        meterRegistry = new SimpleMeterRegistry();
+        lenient()
+                .when(redisTemplate.executePipelined(any(RedisCallback.class)))
+                .thenAnswer(
+                        invocation -> {
+                            RedisCallback<?> callback = invocation.getArgument(0);
+                            callback.doInRedis(connection);
+                            return List.of();
+                        });
+
+        publisher = new AuthEventPublisher(redisTemplate, properties, meterRegistry);
     }
 
     @Test
     void publishesWithApproximateMaxLength() {
         SecurityAuditEvent event = sampleEvent();
-        when(streamOperations.add(any(MapRecord.class))).thenReturn(RecordId.autoGenerate());
 
         publisher.publish(event);
 
-        ArgumentCaptor<MapRecord<String, String, String>> recordCaptor =
-                ArgumentCaptor.forClass(MapRecord.class);
-        verify(streamOperations).add(recordCaptor.capture());
-        verify(streamOperations).trim("auth:events", 1000L, true);
+        ArgumentCaptor<StringRecord> recordCaptor = ArgumentCaptor.forClass(StringRecord.class);
+        ArgumentCaptor<XAddOptions> optionsCaptor = ArgumentCaptor.forClass(XAddOptions.class);
+        verify(connection).xAdd(recordCaptor.capture(), optionsCaptor.capture());
+        verify(connection, never()).xTrim(anyString(), anyLong(), anyBoolean());
 
-        MapRecord<String, String, String> record = recordCaptor.getValue();
+        StringRecord record = recordCaptor.getValue();
         assertThat(record.getStream()).isEqualTo("auth:events");
         assertThat(record.getValue().get("eventId")).isEqualTo(event.getEventId().toString());
         assertThat(record.getValue().get("eventType")).isEqualTo(event.getEventType().name());
+        assertThat(optionsCaptor.getValue().getMaxlen()).isEqualTo(1000L);
+        assertThat(optionsCaptor.getValue().isApproximateTrimming()).isTrue();
+        assertThat(meterRegistry.counter("oauth2.auth-events.published").count()).isEqualTo(1);
     }
 
     @Test
     void skipsPublishingWhenDisabled() {
         properties.setEnabled(false);
-        publisher = new AuthEventPublisher(redisTemplate, properties);
+        publisher = new AuthEventPublisher(redisTemplate, properties, meterRegistry);
 
         publisher.publish(sampleEvent());
 
-        verify(redisTemplate, never()).opsForStream();
-        verifyNoInteractions(streamOperations);
+        verify(redisTemplate, never()).executePipelined(any(RedisCallback.class));
+        verifyNoInteractions(connection);
     }
 
     @Test
     void swallowsPublishFailures() {
         SecurityAuditEvent event = sampleEvent();
-        doThrow(new RuntimeException("boom")).when(streamOperations).add(any(MapRecord.class));
+        when(redisTemplate.executePipelined(any(RedisCallback.class)))
+                .thenThrow(new RuntimeException("boom"));
 
         assertThatNoException().isThrownBy(() -> publisher.publish(event));
+        assertThat(meterRegistry.counter("oauth2.auth-events.publish.failures").count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void sendsABatchInOnePipelinedRoundTrip() {
+        int failed = publisher.publishAll(List.of(sampleEvent(), sampleEvent(), sampleEvent()));
+
+        assertThat(failed).isZero();
+        verify(redisTemplate).executePipelined(any(RedisCallback.class));
+        verify(connection, times(3)).xAdd(any(StringRecord.class), any(XAddOptions.class));
+        assertThat(meterRegistry.summary("oauth2.auth-events.batch.size").max()).isEqualTo(3);
+    }
+
+    @Test
+    void publishAllThrowsWhenNothingWasAppended() {
+        when(redisTemplate.executePipelined(any(RedisCallback.class)))
+                .thenThrow(new RuntimeException("boom"));
+
+        assertThatThrownBy(() -> publisher.publishAll(List.of(sampleEvent())))
+                .isInstanceOf(RedisSystemException.class);
+    }
+
+    @Test
+    void countsOnlyFailedCommandsOfAPartiallyFailedPipeline() {
+        when(redisTemplate.executePipelined(any(RedisCallback.class)))
+                .thenThrow(
+                        new RedisPipelineException(
+                                "partial",
+                                List.<Object>of("1-0", new RuntimeException("OOM"), "1-1")));
+
+        int failed = publisher.publishAll(List.of(sampleEvent(), sampleEvent(), sampleEvent()));
+
+        assertThat(failed).isEqualTo(1);
+        assertThat(meterRegistry.counter("oauth2.auth-events.published").count()).isEqualTo(2);
+        assertThat(meterRegistry.counter("oauth2.auth-events.publish.failures").count())
+                .isEqualTo(1);
     }
 
     private SecurityAuditEvent sampleEvent() {
@@ -0,0 +1,197 @@
+package com.bootsandcats.oauth2.k8s;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Answers;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.bootsandcats.oauth2.config.KubernetesAuditEventProperties;
+import com.bootsandcats.oauth2.model.AuditEventResult;
+import com.bootsandcats.oauth2.model.AuditEventType;
+import com.bootsandcats.oauth2.model.SecurityAuditEvent;
+
+import io.fabric8.kubernetes.api.model.Event;
+import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.kubernetes.client.KubernetesClientException;
+import io.fabric8.kubernetes.client.dsl.Resource;
+import io.fabric8.kubernetes.client.dsl.base.PatchContext;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@ExtendWith(MockitoExtension.class)
+class KubernetesAuditEventEmitterTest {
+
+    @Mock(answer = Answers.RETURNS_DEEP_STUBS)
+    private KubernetesClient kubernetesClient;
+
+    @Mock private Resource<Event> eventResource;
+
+    private KubernetesAuditEventProperties properties;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        properties = new KubernetesAuditEventProperties();
+        properties.setNamespace("auth");
+        properties.setPodName("oauth2-server-0");
+        properties.setUpdateInterval(Duration.ZERO);
+        meterRegistry = new SimpleMeterRegistry();
+        lenient()
+                .when(kubernetesClient.v1().events().inNamespace("auth").resource(any(Event.class)))
+                .thenReturn(eventResource);
+    }
+
+    @Test
+    void publishDoesNotCallTheApiServer() {
+        KubernetesAuditEventEmitter emitter = newEmitter();
+
+        emitter.publish(loginFailure("alice"));
+
+        verify(eventResource, never()).create();
+    }
+
+    @Test
+    void coalescesIdenticalEventsIntoOneEventWithCount() {
+        KubernetesAuditEventEmitter emitter = newEmitter();
+
+        emitter.publish(loginFailure("alice"));
+        emitter.publish(loginFailure("alice"));
+        emitter.publish(loginFailure("alice"));
+        emitter.emitDue();
+
+        List<Event> sent = sentEvents(1);
+        Event event = sent.get(0);
+        verify(eventResource).create();
+        assertThat(event.getReason()).isEqualTo("LoginFailure");
+        assertThat(event.getType()).isEqualTo("Warning");
+        assertThat(event.getCount()).isEqualTo(3);
+        assertThat(event.getSeries().getCount()).isEqualTo(3);
+        assertThat(event.getInvolvedObject().getName()).isEqualTo("oauth2-server-0");
+        assertThat(meterRegistry.counter("oauth2.audit.kubernetes-events.coalesced").count())
+                .isEqualTo(2);
+    }
+
+    @Test
+    void patchesTheExistingEventForLaterOccurrences() {
+        KubernetesAuditEventEmitter emitter = newEmitter();
+        emitter.publish(loginFailure("alice"));
+        emitter.emitDue();
+
+        emitter.publish(loginFailure("alice"));
+        emitter.publish(loginFailure("alice"));
+        emitter.emitDue();
+
+        List<Event> sent = sentEvents(2);
+        verify(eventResource).create();
+        verify(eventResource).patch(any(PatchContext.class));
+        Event patch = sent.get(1);
+        assertThat(patch.getMetadata().getName()).isEqualTo(sent.get(0).getMetadata().getName());
+        assertThat(patch.getCount()).isEqualTo(3);
+        assertThat(patch.getSeries().getCount()).isEqualTo(3);
+    }
+
+    @Test
+    void distinctPrincipalsGetSeparateEvents() {
+        KubernetesAuditEventEmitter emitter = newEmitter();
+
+        emitter.publish(loginFailure("alice"));
+        emitter.publish(loginFailure("bob"));
+        emitter.emitDue();
+
+        verify(eventResource, times(2)).create();
+    }
+
+    @Test
+    void waitsForTheUpdateIntervalBeforePatching() {
+        properties.setUpdateInterval(Duration.ofMinutes(1));
+        KubernetesAuditEventEmitter emitter = newEmitter();
+        emitter.publish(loginFailure("alice"));
+        emitter.emitDue();
+
+        emitter.publish(loginFailure("alice"));
+        emitter.emitDue();
+
+        verify(eventResource).create();
+        verify(eventResource, never()).patch(any(PatchContext.class));
+    }
+
+    @Test
+    void dropsOccurrencesBeyondTheSeriesLimit() {
+        properties.setMaxSeries(1);
+        KubernetesAuditEventEmitter emitter = newEmitter();
+
+        emitter.publish(loginFailure("alice"));
+        emitter.publish(loginFailure("bob"));
+        emitter.emitDue();
+
+        verify(eventResource).create();
+        assertThat(
+                        meterRegistry
+                                .counter(
+                                        "oauth2.audit.kubernetes-events.dropped",
+                                        "reason",
+                                        "series_limit")
+                                .count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void recreatesTheEventWhenItNoLongerExists() {
+        KubernetesAuditEventEmitter emitter = newEmitter();
+        emitter.publish(loginFailure("alice"));
+        emitter.emitDue();
+        when(eventResource.patch(any(PatchContext.class)))
+                .thenThrow(new KubernetesClientException("gone", 404, null));
+
+        emitter.publish(loginFailure("alice"));
+        emitter.emitDue();
+
+        verify(eventResource, times(2)).create();
+        assertThat(sentEvents(3).get(2).getCount()).isEqualTo(2);
+    }
+
+    @Test
+    void swallowsApiFailures() {
+        KubernetesAuditEventEmitter emitter = newEmitter();
+        when(eventResource.create()).thenThrow(new KubernetesClientException("boom"));
+
+        emitter.publish(loginFailure("alice"));
+        emitter.emitDue();
+
+        assertThat(meterRegistry.counter("oauth2.audit.kubernetes-events.failures").count())
+                .isEqualTo(1);
+    }
+
+    private KubernetesAuditEventEmitter newEmitter() {
+        return new KubernetesAuditEventEmitter(kubernetesClient, properties, meterRegistry);
+    }
+
+    private List<Event> sentEvents(int expected) {
+        ArgumentCaptor<Event> captor = ArgumentCaptor.forClass(Event.class);
+        verify(kubernetesClient.v1().events().inNamespace("auth"), times(expected))
+                .resource(captor.capture());
+        return captor.getAllValues();
+    }
+
+    private static SecurityAuditEvent loginFailure(String principal) {
+        SecurityAuditEvent event = new SecurityAuditEvent();
+        event.setEventType(AuditEventType.LOGIN_FAILURE);
+        event.setResult(AuditEventResult.FAILURE);
+        event.setPrincipal(principal);
+        event.setIpAddress("203.0.113.7");
+        return event;
+    }
+}
@@ -0,0 +1,34 @@
+package com.bootsandcats.oauth2.k8s;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+class TokenBucketTest {
+
+    private static final long SECOND = 1_000_000_000L;
+
+    @Test
+    void allowsBurstThenPacesAtTheSustainedRate() {
+        TokenBucket bucket = new TokenBucket(2, 3, 0);
+
+        assertThat(bucket.reserve(0)).isZero();
+        assertThat(bucket.reserve(0)).isZero();
+        assertThat(bucket.reserve(0)).isZero();
+        assertThat(bucket.reserve(0)).isEqualTo(SECOND / 2);
+        assertThat(bucket.reserve(0)).isEqualTo(SECOND);
+    }
+
+    @Test
+    void refillsUpToCapacity() {
+        TokenBucket bucket = new TokenBucket(1, 2, 0);
+        bucket.reserve(0);
+        bucket.reserve(0);
+
+        assertThat(bucket.tryAcquire(0)).isFalse();
+        assertThat(bucket.tryAcquire(SECOND)).isTrue();
+        assertThat(bucket.tryAcquire(100 * SECOND)).isTrue();
+        assertThat(bucket.tryAcquire(100 * SECOND)).isTrue();
+        assertThat(bucket.tryAcquire(100 * SECOND)).isFalse();
+    }
+}
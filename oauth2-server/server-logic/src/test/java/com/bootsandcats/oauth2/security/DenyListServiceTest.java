@@ -2,6 +2,7 @@ package com.bootsandcats.oauth2.security;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -9,7 +10,6 @@ import java.util.List;
 
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
@@ -33,8 +33,7 @@ class DenyListServiceTest {
         rule.setNormalizedValue("alice@example.com");
         rule.setReason("blocked");
 
-        when(denyRuleStore.findActiveRulesForProvider("github", DenyMatchField.EMAIL))
-                .thenReturn(List.of(rule));
+        when(denyRuleStore.findAll()).thenReturn(List.of(rule));
 
         DenyListService service = new DenyListService(denyRuleStore);
 
@@ -59,10 +58,7 @@ class DenyListServiceTest {
         rule.setPattern("^bad-.*$");
         rule.setReason("nope");
 
-        when(denyRuleStore.findActiveRulesForProvider("google", DenyMatchField.EMAIL))
-                .thenReturn(List.of());
-        when(denyRuleStore.findActiveRulesForProvider("google", DenyMatchField.USERNAME))
-                .thenReturn(List.of(rule));
+        when(denyRuleStore.findAll()).thenReturn(List.of(rule));
 
         DenyListService service = new DenyListService(denyRuleStore);
 
@@ -70,6 +66,8 @@ class DenyListServiceTest {
                 .contains(rule);
         assertThat(service.findMatchingRule("google", "ok@example.com", "not-bad-user", "abc"))
                 .isEmpty();
+        assertThat(service.findMatchingRule("github", "ok@example.com", "bad-user", "abc"))
+                .isEmpty();
     }
 
     @Test
@@ -81,12 +79,7 @@ class DenyListServiceTest {
         rule.setMatchType(DenyMatchType.REGEX);
         rule.setPattern("(");
 
-        when(denyRuleStore.findActiveRulesForProvider("github", DenyMatchField.EMAIL))
-                .thenReturn(List.of(rule));
-        when(denyRuleStore.findActiveRulesForProvider("github", DenyMatchField.USERNAME))
-                .thenReturn(List.of());
-        when(denyRuleStore.findActiveRulesForProvider("github", DenyMatchField.PROVIDER_ID))
-                .thenReturn(List.of());
+        when(denyRuleStore.findAll()).thenReturn(List.of(rule));
 
         DenyListService service = new DenyListService(denyRuleStore);
 
@@ -95,21 +88,92 @@ class DenyListServiceTest {
 
     @Test
     void nullProviderResolvesToLocal() {
-        when(denyRuleStore.findActiveRulesForProvider("local", DenyMatchField.EMAIL))
-                .thenReturn(List.of());
-        when(denyRuleStore.findActiveRulesForProvider("local", DenyMatchField.USERNAME))
-                .thenReturn(List.of());
-        when(denyRuleStore.findActiveRulesForProvider("local", DenyMatchField.PROVIDER_ID))
-                .thenReturn(List.of());
+        DenyRuleEntity localRule =
+                rule("local", DenyMatchField.EMAIL, DenyMatchType.EXACT, "x@example.com");
+        DenyRuleEntity githubRule =
+                rule("github", DenyMatchField.USERNAME, DenyMatchType.EXACT, "x");
+        when(denyRuleStore.findAll()).thenReturn(List.of(githubRule, localRule));
 
         DenyListService service = new DenyListService(denyRuleStore);
-        service.findMatchingRule(null, "x@example.com", "x", "y");
-
-        ArgumentCaptor<String> providerCaptor = ArgumentCaptor.forClass(String.class);
-        verify(denyRuleStore)
-                .findActiveRulesForProvider(
-                        providerCaptor.capture(),
-                        org.mockito.ArgumentMatchers.eq(DenyMatchField.EMAIL));
-        assertThat(providerCaptor.getValue()).isEqualTo("local");
+
+        assertThat(service.findMatchingRule(null, "x@example.com", "x", "y")).contains(localRule);
+        assertThat(service.findMatchingRule(" ", "other@example.com", "x", "y")).isEmpty();
+    }
+
+    @Test
+    void disabledRulesAreIgnored_andGlobalWildcardAppliesToEveryProvider() {
+        DenyRuleEntity disabled =
+                rule(null, DenyMatchField.EMAIL, DenyMatchType.EXACT, "off@example.com");
+        disabled.setEnabled(false);
+        DenyRuleEntity wildcard = rule("*", DenyMatchField.PROVIDER_ID, DenyMatchType.EXACT, "42");
+        when(denyRuleStore.findAll()).thenReturn(List.of(disabled, wildcard));
+
+        DenyListService service = new DenyListService(denyRuleStore);
+
+        assertThat(service.findMatchingRule("github", "off@example.com", "u", "1")).isEmpty();
+        assertThat(service.findMatchingRule("Google", "a@example.com", "u", "42"))
+                .contains(wildcard);
+    }
+
+    @Test
+    void combinedRegexAlternationReportsTheRuleThatMatched() {
+        DenyRuleEntity first =
+                rule(null, DenyMatchField.EMAIL, DenyMatchType.REGEX, ".*@spam\\.io");
+        DenyRuleEntity second =
+                rule(null, DenyMatchField.EMAIL, DenyMatchType.REGEX, ".*@junk\\.io");
+        DenyRuleEntity backref =
+                rule(null, DenyMatchField.EMAIL, DenyMatchType.REGEX, "(.)\\1@example\\.com");
+        when(denyRuleStore.findAll()).thenReturn(List.of(first, second, backref));
+
+        DenyListService service = new DenyListService(denyRuleStore);
+
+        assertThat(service.findMatchingRule("github", "A@JUNK.IO", "u", "1")).contains(second);
+        assertThat(service.findMatchingRule("github", "a@spam.io", "u", "1")).contains(first);
+        assertThat(service.findMatchingRule("github", "aa@example.com", "u", "1"))
+                .contains(backref);
+        assertThat(service.findMatchingRule("github", "ab@example.com", "u", "1")).isEmpty();
+    }
+
+    @Test
+    void indexIsBuiltOnce_andRebuiltOnChangeEvent() {
+        DenyRuleEntity rule = rule(null, DenyMatchField.USERNAME, DenyMatchType.EXACT, "mallory");
+        when(denyRuleStore.findAll()).thenReturn(List.of()).thenReturn(List.of(rule));
+
+        DenyListService service = new DenyListService(denyRuleStore);
+
+        assertThat(service.findMatchingRule("local", null, "mallory", null)).isEmpty();
+        assertThat(service.findMatchingRule("local", null, "mallory", null)).isEmpty();
+        verify(denyRuleStore, times(1)).findAll();
+
+        service.onDenyRulesChanged(new DenyRulesChangedEvent("admin"));
+
+        assertThat(service.findMatchingRule("local", null, "MALLORY", null)).contains(rule);
+        verify(denyRuleStore, times(2)).findAll();
+    }
+
+    @Test
+    void failedRebuildKeepsPreviousIndex() {
+        DenyRuleEntity rule = rule(null, DenyMatchField.USERNAME, DenyMatchType.EXACT, "mallory");
+        when(denyRuleStore.findAll())
+                .thenReturn(List.of(rule))
+                .thenThrow(new IllegalStateException("store unavailable"));
+
+        DenyListService service = new DenyListService(denyRuleStore);
+        assertThat(service.findMatchingRule("local", null, "mallory", null)).contains(rule);
+
+        service.scheduledRefresh();
+
+        assertThat(service.findMatchingRule("local", null, "mallory", null)).contains(rule);
+    }
+
+    private static DenyRuleEntity rule(
+            String provider, DenyMatchField field, DenyMatchType type, String pattern) {
+        DenyRuleEntity rule = new DenyRuleEntity();
+        rule.setEnabled(true);
+        rule.setProvider(provider);
+        rule.setMatchField(field);
+        rule.setMatchType(type);
+        rule.setPattern(pattern);
+        return rule;
     }
 }
@@ -0,0 +1,159 @@
+package com.bootsandcats.oauth2.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import com.bootsandcats.oauth2.config.LoginFailureTrackerProperties;
+import com.bootsandcats.oauth2.config.LoginFailureTrackerProperties.Mode;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@ExtendWith(MockitoExtension.class)
+class LoginFailureTrackerTest {
+
+    /** 2026-10-16T10:00:00Z, on a slice boundary. */
+    private static final long NOW = 1_792_144_800_000L;
+
+    private static final long MINUTE = Duration.ofMinutes(1).toMillis();
+
+    @Mock private ObjectProvider<StringRedisTemplate> redisProvider;
+
+    private LoginFailureTrackerProperties properties;
+
+    @BeforeEach
+    void setUp() {
+        properties = new LoginFailureTrackerProperties();
+        properties.setWindow(Duration.ofMinutes(15));
+        properties.setSlices(15);
+    }
+
+    @Test
+    void countsFailuresPerPrincipalAndPerIpAddress() {
+        LoginFailureTracker tracker = tracker();
+
+        tracker.recordFailure("alice", "10.0.0.1", NOW);
+        tracker.recordFailure("alice", "10.0.0.2", NOW + MINUTE);
+        tracker.recordFailure("bob", "10.0.0.1", NOW + 2 * MINUTE);
+
+        assertThat(tracker.failuresForPrincipal("alice", NOW + 2 * MINUTE)).isEqualTo(2);
+        assertThat(tracker.failuresForPrincipal("bob", NOW + 2 * MINUTE)).isEqualTo(1);
+        assertThat(tracker.failuresForIpAddress("10.0.0.1", NOW + 2 * MINUTE)).isEqualTo(2);
+        assertThat(tracker.failuresForIpAddress("10.0.0.3", NOW + 2 * MINUTE)).isZero();
+    }
+
+    @Test
+    void failuresSlideOutOfTheWindow() {
+        LoginFailureTracker tracker = tracker();
+
+        tracker.recordFailure("alice", null, NOW);
+        tracker.recordFailure("alice", null, NOW + 10 * MINUTE);
+
+        assertThat(tracker.failuresForPrincipal("alice", NOW + 14 * MINUTE)).isEqualTo(2);
+        assertThat(tracker.failuresForPrincipal("alice", NOW + 15 * MINUTE)).isEqualTo(1);
+        assertThat(tracker.failuresForPrincipal("alice", NOW + 25 * MINUTE)).isZero();
+    }
+
+    @Test
+    void reusedSlotsStartCountingAfresh() {
+        LoginFailureTracker tracker = tracker();
+
+        tracker.recordFailure("alice", null, NOW);
+        tracker.recordFailure("alice", null, NOW);
+        tracker.recordFailure("alice", null, NOW + 15 * MINUTE);
+
+        assertThat(tracker.failuresForPrincipal("alice", NOW + 15 * MINUTE)).isEqualTo(1);
+    }
+
+    @Test
+    void successClearsThePrincipalButNotTheIpAddress() {
+        LoginFailureTracker tracker = tracker();
+        tracker.recordFailure("alice", "10.0.0.1", NOW);
+
+        tracker.recordSuccess("alice", NOW);
+
+        assertThat(tracker.failuresForPrincipal("alice", NOW)).isZero();
+        assertThat(tracker.failuresForIpAddress("10.0.0.1", NOW)).isEqualTo(1);
+    }
+
+    @Test
+    void concurrentFailuresAreNotLost() throws Exception {
+        SlidingWindowCounter counter = new SlidingWindowCounter(15);
+        long slice = NOW / MINUTE;
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                futures.add(
+                        executor.submit(
+                                () -> {
+                                    for (int i = 0; i < 10_000; i++) {
+                                        counter.increment(slice);
+                                    }
+                                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertThat(counter.sum(slice)).isEqualTo(80_000);
+    }
+
+    @Test
+    void sharedModeReadsTheWindowFromRedis() {
+        properties.setMode(Mode.REDIS);
+        ValueOperations<String, String> values = givenRedis();
+        when(values.multiGet(anyList())).thenReturn(Arrays.asList("2", null, "3"));
+
+        assertThat(tracker().failuresForPrincipal("alice", NOW)).isEqualTo(5);
+    }
+
+    @Test
+    void sharedModeFallsBackToLocalCountsWhenRedisFails() {
+        properties.setMode(Mode.REDIS);
+        ValueOperations<String, String> values = givenRedis();
+        when(values.multiGet(anyList()))
+                .thenThrow(new RedisConnectionFailureException("connection refused"));
+        LoginFailureTracker tracker = tracker();
+
+        tracker.recordFailure("alice", "10.0.0.1", NOW);
+
+        assertThat(tracker.failuresForPrincipal("alice", NOW)).isEqualTo(1);
+    }
+
+    private ValueOperations<String, String> givenRedis() {
+        StringRedisTemplate redis = mock(StringRedisTemplate.class);
+        @SuppressWarnings("unchecked")
+        ValueOperations<String, String> values = mock(ValueOperations.class);
+        lenient().when(redis.opsForValue()).thenReturn(values);
+        lenient().when(redisProvider.getIfAvailable()).thenReturn(redis);
+        return values;
+    }
+
+    private LoginFailureTracker tracker() {
+        return new LoginFailureTracker(properties, redisProvider, new SimpleMeterRegistry());
+    }
+}
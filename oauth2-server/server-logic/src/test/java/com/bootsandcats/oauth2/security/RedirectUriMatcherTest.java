@@ -0,0 +1,115 @@
+package com.bootsandcats.oauth2.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.core.AuthorizationGrantType;
+import org.springframework.security.oauth2.server.authorization.client.RegisteredClient;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import com.bootsandcats.oauth2.config.RegisteredClientCacheProperties;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class RedirectUriMatcherTest {
+
+    private static boolean matches(RedirectUriMatcher matcher, String requested) {
+        return matcher.matches(UriComponentsBuilder.fromUriString(requested).build());
+    }
+
+    @Test
+    void matchesIgnoringQueryAndTrailingSlash() {
+        RedirectUriMatcher matcher =
+                RedirectUriMatcher.compile(List.of("https://app.example.com/callback?x=1"));
+
+        assertThat(matches(matcher, "https://app.example.com/callback")).isTrue();
+        assertThat(matches(matcher, "https://app.example.com/callback/?rd=/home")).isTrue();
+        assertThat(matches(matcher, "https://app.example.com/callback2")).isFalse();
+        assertThat(matches(matcher, "https://app.example.com/call")).isFalse();
+    }
+
+    @Test
+    void comparesSchemeHostPortAndUserInfo() {
+        RedirectUriMatcher matcher =
+                RedirectUriMatcher.compile(List.of("https://app.example.com:8443/cb"));
+
+        assertThat(matches(matcher, "https://app.example.com:8443/cb")).isTrue();
+        assertThat(matches(matcher, "http://app.example.com:8443/cb")).isFalse();
+        assertThat(matches(matcher, "https://evil.example.com:8443/cb")).isFalse();
+        assertThat(matches(matcher, "https://app.example.com/cb")).isFalse();
+        assertThat(matches(matcher, "https://user@app.example.com:8443/cb")).isFalse();
+    }
+
+    @Test
+    void emptyPathMatchesRoot() {
+        RedirectUriMatcher matcher = RedirectUriMatcher.compile(List.of("https://app.example.com"));
+
+        assertThat(matches(matcher, "https://app.example.com/")).isTrue();
+        assertThat(matches(matcher, "https://app.example.com")).isTrue();
+        assertThat(matches(matcher, "https://app.example.com/x")).isFalse();
+    }
+
+    @Test
+    void loopbackRequestsMatchAnyPort() {
+        RedirectUriMatcher matcher =
+                RedirectUriMatcher.compile(
+                        List.of("http://127.0.0.1/cb", "http://[::1]:8080/cb", "http://x.test/cb"));
+
+        assertThat(matches(matcher, "http://127.0.0.1:51234/cb")).isTrue();
+        assertThat(matches(matcher, "http://[::1]:9999/cb")).isTrue();
+        assertThat(matches(matcher, "http://127.0.0.2:51234/cb")).isFalse();
+        assertThat(matches(matcher, "http://x.test:51234/cb")).isFalse();
+    }
+
+    @Test
+    void unparseableRegisteredUrisAreSkipped() {
+        RedirectUriMatcher matcher =
+                RedirectUriMatcher.compile(List.of("http://[bad", "https://app.example.com/cb"));
+
+        assertThat(matches(matcher, "https://app.example.com/cb")).isTrue();
+    }
+
+    @Test
+    void detectsLoopbackAddresses() {
+        assertThat(RedirectUriMatcher.isLoopbackAddress("127.0.0.1")).isTrue();
+        assertThat(RedirectUriMatcher.isLoopbackAddress("127.10.20.255")).isTrue();
+        assertThat(RedirectUriMatcher.isLoopbackAddress("[::1]")).isTrue();
+        assertThat(RedirectUriMatcher.isLoopbackAddress("[0:0:0:0:0:0:0:1]")).isTrue();
+
+        assertThat(RedirectUriMatcher.isLoopbackAddress("127.0.0.0")).isFalse();
+        assertThat(RedirectUriMatcher.isLoopbackAddress("127.0.0.256")).isFalse();
+        assertThat(RedirectUriMatcher.isLoopbackAddress("127.0.1")).isFalse();
+        assertThat(RedirectUriMatcher.isLoopbackAddress("127.0.0.1.1")).isFalse();
+        assertThat(RedirectUriMatcher.isLoopbackAddress("127..0.1")).isFalse();
+        assertThat(RedirectUriMatcher.isLoopbackAddress("10.0.0.1")).isFalse();
+        assertThat(RedirectUriMatcher.isLoopbackAddress("localhost")).isFalse();
+        assertThat(RedirectUriMatcher.isLoopbackAddress(null)).isFalse();
+    }
+
+    @Test
+    void cacheReusesMatcherUntilRedirectUrisChange() {
+        RedirectUriMatcherCache cache =
+                new RedirectUriMatcherCache(
+                        new RegisteredClientCacheProperties(), new SimpleMeterRegistry());
+        RegisteredClient client = client("https://a.example.com/cb");
+
+        RedirectUriMatcher first = cache.matcherFor(client);
+        assertThat(cache.matcherFor(client)).isSameAs(first);
+
+        RegisteredClient edited = client("https://b.example.com/cb");
+        RedirectUriMatcher second = cache.matcherFor(edited);
+        assertThat(second).isNotSameAs(first);
+        assertThat(matches(second, "https://b.example.com/cb")).isTrue();
+        assertThat(matches(second, "https://a.example.com/cb")).isFalse();
+    }
+
+    private static RegisteredClient client(String redirectUri) {
+        return RegisteredClient.withId("rc-1")
+                .clientId("web")
+                .authorizationGrantType(AuthorizationGrantType.AUTHORIZATION_CODE)
+                .redirectUri(redirectUri)
+                .build();
+    }
+}
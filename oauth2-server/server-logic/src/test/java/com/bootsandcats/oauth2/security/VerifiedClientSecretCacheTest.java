@@ -0,0 +1,89 @@
+package com.bootsandcats.oauth2.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import com.bootsandcats.oauth2.config.ClientSecretCacheProperties;
+import com.bootsandcats.oauth2.service.RegisteredClientChangedEvent;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@ExtendWith(MockitoExtension.class)
+class VerifiedClientSecretCacheTest {
+
+    private static final String STORED = "{bcrypt}$2a$10$stored";
+
+    @Mock private PasswordEncoder delegate;
+
+    private VerifiedClientSecretCache cache;
+    private PasswordEncoder encoder;
+
+    @BeforeEach
+    void setUp() {
+        ClientSecretCacheProperties properties = new ClientSecretCacheProperties();
+        properties.setEnabled(true);
+        cache = new VerifiedClientSecretCache(properties, new SimpleMeterRegistry());
+        encoder = cache.wrap(delegate);
+    }
+
+    @Test
+    void successfulVerificationIsRemembered() {
+        when(delegate.matches("secret", STORED)).thenReturn(true);
+
+        assertThat(encoder.matches("secret", STORED)).isTrue();
+        assertThat(encoder.matches("secret", STORED)).isTrue();
+
+        verify(delegate, times(1)).matches("secret", STORED);
+    }
+
+    @Test
+    void failedVerificationsAreNeverRemembered() {
+        when(delegate.matches("secret", STORED)).thenReturn(true);
+        when(delegate.matches("guess", STORED)).thenReturn(false);
+
+        assertThat(encoder.matches("secret", STORED)).isTrue();
+        assertThat(encoder.matches("guess", STORED)).isFalse();
+        assertThat(encoder.matches("guess", STORED)).isFalse();
+
+        verify(delegate, times(2)).matches("guess", STORED);
+    }
+
+    @Test
+    void entryOnlyMatchesTheStoredSecretItWasCreatedFor() {
+        String rotated = "{bcrypt}$2a$10$rotated";
+        when(delegate.matches("secret", STORED)).thenReturn(true);
+        when(delegate.matches("secret", rotated)).thenReturn(false);
+
+        assertThat(encoder.matches("secret", STORED)).isTrue();
+        assertThat(encoder.matches("secret", rotated)).isFalse();
+    }
+
+    @Test
+    void clientChangeDropsRememberedVerifications() {
+        when(delegate.matches("secret", STORED)).thenReturn(true);
+
+        assertThat(encoder.matches("secret", STORED)).isTrue();
+        cache.onClientChanged(new RegisteredClientChangedEvent("m2m-client"));
+        assertThat(encoder.matches("secret", STORED)).isTrue();
+
+        verify(delegate, times(2)).matches("secret", STORED);
+    }
+
+    @Test
+    void disabledCacheReturnsDelegate() {
+        VerifiedClientSecretCache disabled =
+                new VerifiedClientSecretCache(
+                        new ClientSecretCacheProperties(), new SimpleMeterRegistry());
+
+        assertThat(disabled.wrap(delegate)).isSameAs(delegate);
+    }
+}
@@ -0,0 +1,105 @@
+package com.bootsandcats.oauth2.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.security.oauth2.core.AuthorizationGrantType;
+import org.springframework.security.oauth2.core.ClientAuthenticationMethod;
+import org.springframework.security.oauth2.server.authorization.client.RegisteredClient;
+
+import com.bootsandcats.oauth2.config.RegisteredClientCacheProperties;
+import com.bootsandcats.oauth2.model.ClientMetadataEntity;
+import com.bootsandcats.oauth2.repository.ClientMetadataRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@ExtendWith(MockitoExtension.class)
+class FilteringRegisteredClientRepositoryTest {
+
+    @Mock private JpaRegisteredClientRepository delegate;
+    @Mock private ClientMetadataRepository clientMetadataRepository;
+    @Mock private ApplicationEventPublisher eventPublisher;
+
+    private RegisteredClient client;
+    private SimpleMeterRegistry meterRegistry;
+    private RegisteredClientCache cache;
+    private FilteringRegisteredClientRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        client =
+                RegisteredClient.withId("rc-1")
+                        .clientId("m2m")
+                        .clientSecret("{noop}secret")
+                        .clientAuthenticationMethod(ClientAuthenticationMethod.CLIENT_SECRET_BASIC)
+                        .authorizationGrantType(AuthorizationGrantType.CLIENT_CREDENTIALS)
+                        .build();
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new RegisteredClientCache(new RegisteredClientCacheProperties(), meterRegistry);
+        repository =
+                new FilteringRegisteredClientRepository(
+                        delegate, clientMetadataRepository, cache, eventPublisher);
+    }
+
+    @Test
+    void repeatLookupsAreServedFromCache() {
+        when(delegate.findByClientId("m2m")).thenReturn(client);
+        when(clientMetadataRepository.findById("m2m")).thenReturn(Optional.empty());
+
+        assertThat(repository.findByClientId("m2m")).isSameAs(client);
+        assertThat(repository.findByClientId("m2m")).isSameAs(client);
+
+        verify(delegate, times(1)).findByClientId("m2m");
+        verify(clientMetadataRepository, times(1)).findById("m2m");
+        assertThat(
+                        meterRegistry
+                                .get("cache.gets")
+                                .tag("cache", "oauth2.clients.by-client-id")
+                                .tag("result", "hit")
+                                .functionCounter()
+                                .count())
+                .isEqualTo(1.0);
+    }
+
+    @Test
+    void disabledFlagIsCachedAndClearedByChangeEvent() {
+        ClientMetadataEntity disabled = new ClientMetadataEntity();
+        disabled.setClientId("m2m");
+        disabled.setEnabled(false);
+        ClientMetadataEntity enabled = new ClientMetadataEntity();
+        enabled.setClientId("m2m");
+        enabled.setEnabled(true);
+        when(delegate.findById("rc-1")).thenReturn(client);
+        when(clientMetadataRepository.findById("m2m"))
+                .thenReturn(Optional.of(disabled))
+                .thenReturn(Optional.of(enabled));
+
+        assertThat(repository.findById("rc-1")).isNull();
+        assertThat(repository.findById("rc-1")).isNull();
+
+        cache.onClientChanged(new RegisteredClientChangedEvent("m2m"));
+
+        assertThat(repository.findById("rc-1")).isSameAs(client);
+        verify(delegate, times(2)).findById("rc-1");
+    }
+
+    @Test
+    void unknownClientsAreNotCached() {
+        when(delegate.findByClientId("missing")).thenReturn(null);
+
+        assertThat(repository.findByClientId("missing")).isNull();
+        assertThat(repository.findByClientId("missing")).isNull();
+
+        verify(delegate, times(2)).findByClientId("missing");
+    }
+}
@@ -0,0 +1,54 @@
+package com.bootsandcats.oauth2.service.audit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Instant;
+
+import org.junit.jupiter.api.Test;
+
+import com.bootsandcats.oauth2.model.SecurityAuditEvent;
+
+class AuditEventCursorTest {
+
+    @Test
+    void roundTripsThroughToken() {
+        AuditEventCursor cursor =
+                new AuditEventCursor(Instant.parse("2026-03-01T12:00:00.123456Z"), 42L);
+
+        String token = cursor.encode();
+
+        assertThat(token).matches("[A-Za-z0-9_-]+");
+        assertThat(AuditEventCursor.decode(token)).isEqualTo(cursor);
+    }
+
+    @Test
+    void pointsJustPastTheLastEvent() {
+        SecurityAuditEvent event = new SecurityAuditEvent();
+        event.setId(7L);
+        event.setEventTimestamp(Instant.parse("2026-03-01T12:00:00Z"));
+
+        assertThat(AuditEventCursor.after(event))
+                .isEqualTo(new AuditEventCursor(Instant.parse("2026-03-01T12:00:00Z"), 7L));
+    }
+
+    @Test
+    void rejectsMalformedTokens() {
+        assertThatThrownBy(() -> AuditEventCursor.decode("not a cursor"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> AuditEventCursor.decode("AAAA"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void olderOfPrefersEarlierTimestampThenLowerId() {
+        Instant now = Instant.parse("2026-03-01T12:00:00Z");
+        AuditEventCursor end = AuditEventCursor.endingAt(now);
+        AuditEventCursor earlier = new AuditEventCursor(now.minusSeconds(1), 99L);
+        AuditEventCursor sameInstant = new AuditEventCursor(now, 5L);
+
+        assertThat(end.olderOf(earlier)).isSameAs(earlier);
+        assertThat(end.olderOf(sameInstant)).isSameAs(sameInstant);
+        assertThat(earlier.olderOf(AuditEventCursor.START)).isSameAs(earlier);
+    }
+}
@@ -0,0 +1,265 @@
+package com.bootsandcats.oauth2.service.audit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.UUID;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import com.bootsandcats.oauth2.model.AuditEventResult;
+import com.bootsandcats.oauth2.service.audit.AuditEventExporter.Format;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+@ExtendWith(MockitoExtension.class)
+class AuditEventExporterTest {
+
+    private static final Instant START = Instant.parse("2026-09-01T00:00:00Z");
+    private static final Instant END = Instant.parse("2026-10-01T00:00:00Z");
+    private static final UUID EVENT_ID = UUID.fromString("0192f0c4-5a6b-7c8d-9e0f-112233445566");
+
+    @Mock private ObjectProvider<JdbcTemplate> jdbcTemplateProvider;
+    @Mock private JdbcTemplate jdbcTemplate;
+    @Mock private PlatformTransactionManager transactionManager;
+    @Mock private ResultSet resultSet;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        lenient().when(jdbcTemplateProvider.getIfAvailable()).thenReturn(jdbcTemplate);
+        lenient()
+                .when(transactionManager.getTransaction(any()))
+                .thenReturn(new SimpleTransactionStatus());
+        lenient().when(resultSet.getObject(1, UUID.class)).thenReturn(EVENT_ID);
+        lenient().when(resultSet.getString(2)).thenReturn("LOGIN_FAILURE");
+        lenient().when(resultSet.getString(3)).thenReturn("AUTHENTICATION");
+        lenient()
+                .when(resultSet.getObject(4, OffsetDateTime.class))
+                .thenReturn(OffsetDateTime.of(2026, 9, 15, 12, 0, 0, 0, ZoneOffset.UTC));
+        lenient().when(resultSet.getString(5)).thenReturn("alice");
+        lenient().when(resultSet.getString(9)).thenReturn("FAILURE");
+        lenient().when(resultSet.getString(11)).thenReturn("Bad credentials, \"twice\"");
+    }
+
+    @Test
+    void writesOneJsonObjectPerLine() throws Exception {
+        givenRows(2);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long written =
+                exporter().export(Format.NDJSON, false, null, null, null, null, START, END, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n", -1);
+        assertThat(written).isEqualTo(2);
+        assertThat(lines).hasSize(3);
+        assertThat(lines[0])
+                .startsWith("{")
+                .contains("\"eventId\":\"" + EVENT_ID + "\"")
+                .contains("\"eventTimestamp\":\"2026-09-15T12:00:00Z\"")
+                .contains("\"principal\":\"alice\"");
+        assertThat(lines[2]).isEmpty();
+    }
+
+    @Test
+    void writesCsvWithHeaderAndQuotedFields() throws Exception {
+        givenRows(1);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        exporter().export(Format.CSV, false, null, null, null, null, START, END, out);
+
+        assertThat(out.toString(StandardCharsets.UTF_8))
+                .startsWith("event_id,event_type,event_category,event_timestamp,principal,")
+                .contains(
+                        EVENT_ID
+                                + ",LOGIN_FAILURE,AUTHENTICATION,2026-09-15T12:00:00Z,alice,,,,"
+                                + "FAILURE,,\"Bad credentials, \"\"twice\"\"\",,,\r\n");
+    }
+
+    @Test
+    void gzipsTheOutputWhenAsked() throws Exception {
+        givenRows(1);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        exporter().export(Format.NDJSON, true, null, null, null, null, START, END, out);
+
+        try (GZIPInputStream in =
+                new GZIPInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+            assertThat(new String(in.readAllBytes(), StandardCharsets.UTF_8))
+                    .contains("\"principal\":\"alice\"");
+        }
+    }
+
+    @Test
+    void readsThroughAForwardOnlyCursorWithTheConfiguredFetchSize() throws Exception {
+        givenRows(0);
+
+        exporter()
+                .export(
+                        Format.CSV,
+                        false,
+                        "alice",
+                        null,
+                        null,
+                        AuditEventResult.FAILURE,
+                        START,
+                        END,
+                        new ByteArrayOutputStream());
+
+        ArgumentCaptor<PreparedStatementCreator> creator =
+                ArgumentCaptor.forClass(PreparedStatementCreator.class);
+        verify(jdbcTemplate).query(creator.capture(), any(RowCallbackHandler.class));
+        Connection connection = mock(Connection.class);
+        PreparedStatement statement = mock(PreparedStatement.class);
+        when(connection.prepareStatement(
+                        anyString(),
+                        eq(ResultSet.TYPE_FORWARD_ONLY),
+                        eq(ResultSet.CONCUR_READ_ONLY)))
+                .thenReturn(statement);
+
+        creator.getValue().createPreparedStatement(connection);
+
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        verify(connection).prepareStatement(sql.capture(), any(int.class), any(int.class));
+        assertThat(sql.getValue())
+                .contains("AND principal = ?")
+                .contains("AND result = ?")
+                .endsWith("ORDER BY event_timestamp, id");
+        verify(statement).setFetchSize(250);
+        verify(statement).setObject(3, "alice");
+        verify(statement).setObject(4, "FAILURE");
+    }
+
+    @Test
+    void limitsConcurrentExports() {
+        AuditEventExporter exporter = exporter();
+
+        AuditEventExporter.Permit first = exporter.tryAcquire();
+        AuditEventExporter.Permit second = exporter.tryAcquire();
+
+        assertThat(first).isNotNull();
+        assertThat(second).isNotNull();
+        assertThat(exporter.tryAcquire()).isNull();
+        first.close();
+        first.close();
+        assertThat(exporter.tryAcquire()).isNotNull();
+        assertThat(exporter.tryAcquire()).isNull();
+    }
+
+    @Test
+    void reclaimsAPermitWhoseExportNeverStarts() {
+        AuditEventExporter exporter = exporter(Duration.ZERO);
+
+        // The body of the first export is never invoked, e.g. its async task was rejected.
+        AuditEventExporter.Permit abandoned = exporter.tryAcquire();
+        AuditEventExporter.Permit running = exporter.tryAcquire();
+        running.start();
+        AuditEventExporter.Permit next = exporter.tryAcquire();
+
+        assertThat(next).isNotNull();
+        next.start();
+        abandoned.close();
+        assertThat(exporter.tryAcquire()).isNull();
+        assertThatThrownBy(abandoned::start).isInstanceOf(IllegalStateException.class);
+        running.close();
+        assertThat(exporter.tryAcquire()).isNotNull();
+    }
+
+    @Test
+    void abortsAnExportPastItsTimeout() {
+        givenRows(1);
+        AuditEventExporter exporter =
+                new AuditEventExporter(
+                        jdbcTemplateProvider,
+                        new ObjectMapper(),
+                        transactionManager,
+                        250,
+                        2,
+                        Duration.ofNanos(-1),
+                        Duration.ofMinutes(1));
+
+        assertThatThrownBy(
+                        () ->
+                                exporter.export(
+                                        Format.NDJSON,
+                                        false,
+                                        null,
+                                        null,
+                                        null,
+                                        null,
+                                        START,
+                                        END,
+                                        new ByteArrayOutputStream()))
+                .isInstanceOf(QueryTimeoutException.class);
+    }
+
+    @Test
+    void neutralizesSpreadsheetFormulas() {
+        assertThat(AuditEventExporter.csvField("=HYPERLINK(\"x\")"))
+                .isEqualTo("\"'=HYPERLINK(\"\"x\"\")\"");
+        assertThat(AuditEventExporter.csvField("-1")).isEqualTo("-1");
+        assertThat(AuditEventExporter.csvField("plain")).isEqualTo("plain");
+    }
+
+    private void givenRows(int rows) {
+        doAnswer(
+                        invocation -> {
+                            RowCallbackHandler handler = invocation.getArgument(1);
+                            for (int i = 0; i < rows; i++) {
+                                handler.processRow(resultSet);
+                            }
+                            return null;
+                        })
+                .when(jdbcTemplate)
+                .query(any(PreparedStatementCreator.class), any(RowCallbackHandler.class));
+    }
+
+    private AuditEventExporter exporter() {
+        return exporter(Duration.ofMinutes(1));
+    }
+
+    private AuditEventExporter exporter(Duration startTimeout) {
+        ObjectMapper objectMapper = new ObjectMapper();
+        objectMapper.registerModule(new JavaTimeModule());
+        objectMapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        return new AuditEventExporter(
+                jdbcTemplateProvider,
+                objectMapper,
+                transactionManager,
+                250,
+                2,
+                Duration.ofMinutes(10),
+                startTimeout);
+    }
+}
@@ -0,0 +1,298 @@
+package com.bootsandcats.oauth2.service.audit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.bootsandcats.oauth2.config.AuditPipelineProperties;
+import com.bootsandcats.oauth2.config.AuditPipelineProperties.OverflowPolicy;
+import com.bootsandcats.oauth2.model.AuditEventResult;
+import com.bootsandcats.oauth2.model.AuditEventType;
+import com.bootsandcats.oauth2.model.SecurityAuditEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@ExtendWith(MockitoExtension.class)
+class AuditEventPipelineTest {
+
+    @Mock private AuditEventWriter writer;
+
+    @TempDir Path spillDirectory;
+
+    private AuditPipelineProperties properties;
+    private SimpleMeterRegistry meterRegistry;
+    private ObjectMapper objectMapper;
+    private AuditEventPipeline pipeline;
+
+    /** Events handed to {@link AuditEventWriter#writeBatch}, in order. */
+    private final List<UUID> written = new CopyOnWriteArrayList<>();
+
+    private final CountDownLatch drainerBusy = new CountDownLatch(1);
+    private final CountDownLatch releaseDrainer = new CountDownLatch(1);
+
+    @BeforeEach
+    void setUp() {
+        properties = new AuditPipelineProperties();
+        properties.setQueueCapacity(1);
+        properties.setBatchSize(10);
+        properties.setMaxBatchDelay(Duration.ofMillis(5));
+        properties.setBlockTimeout(Duration.ofMillis(10));
+        properties.setShutdownTimeout(Duration.ofSeconds(5));
+        properties.setSpillDirectory(spillDirectory.toString());
+        meterRegistry = new SimpleMeterRegistry();
+        objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+    }
+
+    @AfterEach
+    void tearDown() {
+        releaseDrainer.countDown();
+        if (pipeline != null) {
+            pipeline.stop();
+        }
+    }
+
+    @Test
+    void writesOnCallingThreadWhenNotRunning() {
+        pipeline = newPipeline();
+        SecurityAuditEvent event = sampleEvent();
+
+        pipeline.submit(event);
+
+        verify(writer).write(event);
+        verify(writer, never()).writeBatch(anyList());
+    }
+
+    @Test
+    void drainsQueuedEventsInBatchesOnShutdown() {
+        properties.setQueueCapacity(100);
+        recordBatches(false);
+        pipeline = newPipeline();
+        pipeline.start();
+
+        for (int i = 0; i < 25; i++) {
+            pipeline.submit(sampleEvent());
+        }
+        pipeline.stop();
+
+        assertThat(written).hasSize(25);
+        assertThat(pipeline.getQueueDepth()).isZero();
+        assertThat(meterRegistry.counter("oauth2.audit.pipeline.written").count())
+                .isEqualTo(25.0);
+    }
+
+    @Test
+    void dropOldestEvictsQueuedEventWhenFull() throws InterruptedException {
+        properties.setOverflowPolicy(OverflowPolicy.DROP_OLDEST);
+        SecurityAuditEvent inFlight = sampleEvent();
+        SecurityAuditEvent evicted = sampleEvent();
+        SecurityAuditEvent newest = sampleEvent();
+        startWithBusyDrainer(inFlight);
+
+        pipeline.submit(evicted);
+        pipeline.submit(newest);
+        releaseDrainer.countDown();
+        pipeline.stop();
+
+        assertThat(written).containsExactly(inFlight.getEventId(), newest.getEventId());
+        assertThat(droppedCount("evicted_oldest")).isEqualTo(1.0);
+    }
+
+    @Test
+    void blockPolicyDropsNewEventAfterTimeout() throws InterruptedException {
+        properties.setOverflowPolicy(OverflowPolicy.BLOCK);
+        SecurityAuditEvent inFlight = sampleEvent();
+        SecurityAuditEvent queued = sampleEvent();
+        SecurityAuditEvent rejected = sampleEvent();
+        startWithBusyDrainer(inFlight);
+
+        pipeline.submit(queued);
+        pipeline.submit(rejected);
+        releaseDrainer.countDown();
+        pipeline.stop();
+
+        assertThat(written).containsExactly(inFlight.getEventId(), queued.getEventId());
+        assertThat(droppedCount("queue_full")).isEqualTo(1.0);
+    }
+
+    @Test
+    void spillPolicyReplaysOverflowOnceQueueDrains() throws InterruptedException {
+        properties.setOverflowPolicy(OverflowPolicy.SPILL);
+        SecurityAuditEvent inFlight = sampleEvent();
+        SecurityAuditEvent queued = sampleEvent();
+        SecurityAuditEvent spilled = sampleEvent();
+        startWithBusyDrainer(inFlight);
+
+        pipeline.submit(queued);
+        pipeline.submit(spilled);
+        assertThat(meterRegistry.counter("oauth2.audit.pipeline.spilled").count())
+                .isEqualTo(1.0);
+
+        releaseDrainer.countDown();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (written.size() < 3 && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+
+        assertThat(written)
+                .containsExactly(
+                        inFlight.getEventId(), queued.getEventId(), spilled.getEventId());
+        assertThat(droppedCount("queue_full")).isZero();
+    }
+
+    @Test
+    void retriesAFailedBatchInsteadOfDroppingIt() throws InterruptedException {
+        properties.setQueueCapacity(100);
+        SecurityAuditEvent event = sampleEvent();
+        AtomicInteger attempts = new AtomicInteger();
+        doAnswer(
+                        invocation -> {
+                            if (attempts.getAndIncrement() == 0) {
+                                throw new IllegalStateException("database down");
+                            }
+                            List<SecurityAuditEvent> batch = invocation.getArgument(0);
+                            batch.forEach(e -> written.add(e.getEventId()));
+                            return batch.size();
+                        })
+                .when(writer)
+                .writeBatch(anyList());
+        pipeline = newPipeline();
+        pipeline.start();
+
+        pipeline.submit(event);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (written.isEmpty() && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+
+        assertThat(written).containsExactly(event.getEventId());
+        assertThat(meterRegistry.counter("oauth2.audit.pipeline.write.retries").count())
+                .isEqualTo(1.0);
+        assertThat(meterRegistry.counter("oauth2.audit.pipeline.write.failures").count())
+                .isZero();
+    }
+
+    @Test
+    void countsOnlySavedEventsAsWritten() {
+        properties.setQueueCapacity(100);
+        doAnswer(invocation -> invocation.<List<SecurityAuditEvent>>getArgument(0).size() - 1)
+                .when(writer)
+                .writeBatch(anyList());
+        pipeline = newPipeline();
+        pipeline.start();
+
+        for (int i = 0; i < 3; i++) {
+            pipeline.submit(sampleEvent());
+        }
+        pipeline.stop();
+
+        double written = meterRegistry.counter("oauth2.audit.pipeline.written").count();
+        double failed = meterRegistry.counter("oauth2.audit.pipeline.write.failures").count();
+        assertThat(written + failed).isEqualTo(3.0);
+        assertThat(failed).isPositive();
+    }
+
+    @Test
+    void keepsSpilledEventsUntilReplaySucceeds() throws Exception {
+        properties.setOverflowPolicy(OverflowPolicy.SPILL);
+        SecurityAuditEvent first = sampleEvent();
+        SecurityAuditEvent second = sampleEvent();
+        Files.writeString(
+                spillDirectory.resolve("audit-spill.ndjson"),
+                objectMapper.writeValueAsString(first)
+                        + "\nnot json\n"
+                        + objectMapper.writeValueAsString(second)
+                        + "\n");
+        AtomicInteger attempts = new AtomicInteger();
+        doAnswer(
+                        invocation -> {
+                            if (attempts.getAndIncrement() == 0) {
+                                throw new IllegalStateException("database down");
+                            }
+                            List<SecurityAuditEvent> batch = invocation.getArgument(0);
+                            batch.forEach(e -> written.add(e.getEventId()));
+                            return batch.size();
+                        })
+                .when(writer)
+                .writeBatch(anyList());
+        pipeline = newPipeline();
+
+        pipeline.start();
+        Path replayFile = spillDirectory.resolve("audit-spill.replay");
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while ((written.size() < 2 || Files.exists(replayFile))
+                && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+
+        assertThat(attempts.get()).isGreaterThan(1);
+        assertThat(written).containsExactly(first.getEventId(), second.getEventId());
+        assertThat(meterRegistry.counter("oauth2.audit.pipeline.write.failures").count())
+                .isEqualTo(1.0);
+        assertThat(replayFile).doesNotExist();
+    }
+
+    private void startWithBusyDrainer(SecurityAuditEvent first) throws InterruptedException {
+        recordBatches(true);
+        pipeline = newPipeline();
+        pipeline.start();
+        pipeline.submit(first);
+        assertThat(drainerBusy.await(5, TimeUnit.SECONDS)).isTrue();
+    }
+
+    private void recordBatches(boolean holdFirstBatch) {
+        doAnswer(
+                        invocation -> {
+                            List<SecurityAuditEvent> batch = invocation.getArgument(0);
+                            batch.forEach(e -> written.add(e.getEventId()));
+                            if (holdFirstBatch && drainerBusy.getCount() > 0) {
+                                drainerBusy.countDown();
+                                releaseDrainer.await(5, TimeUnit.SECONDS);
+                            }
+                            return batch.size();
+                        })
+                .when(writer)
+                .writeBatch(anyList());
+    }
+
+    private AuditEventPipeline newPipeline() {
+        return new AuditEventPipeline(writer, properties, objectMapper, meterRegistry);
+    }
+
+    private double droppedCount(String reason) {
+        return meterRegistry.counter("oauth2.audit.pipeline.dropped", "reason", reason).count();
+    }
+
+    private static SecurityAuditEvent sampleEvent() {
+        SecurityAuditEvent event = new SecurityAuditEvent();
+        event.setEventId(UUID.randomUUID());
+        event.setEventType(AuditEventType.LOGIN_SUCCESS);
+        event.setEventCategory(AuditEventType.LOGIN_SUCCESS.getCategory());
+        event.setResult(AuditEventResult.SUCCESS);
+        event.setEventTimestamp(Instant.now());
+        event.setPrincipal("user");
+        return event;
+    }
+}
@@ -0,0 +1,136 @@
+package com.bootsandcats.oauth2.service.audit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.bootsandcats.oauth2.config.AuditEventPolicyProperties;
+import com.bootsandcats.oauth2.config.AuditEventPolicyProperties.Mode;
+import com.bootsandcats.oauth2.config.AuditEventPolicyProperties.Policy;
+import com.bootsandcats.oauth2.model.AuditEventResult;
+import com.bootsandcats.oauth2.model.AuditEventType;
+import com.bootsandcats.oauth2.model.SecurityAuditEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+@ExtendWith(MockitoExtension.class)
+class AuditEventSamplerTest {
+
+    private static final Instant NOW = Instant.parse("2026-10-01T12:00:00Z");
+
+    @Mock private AuditEventPipeline pipeline;
+
+    private AuditEventPolicyProperties properties;
+    private AuditEventSampler sampler;
+
+    @BeforeEach
+    void setUp() {
+        properties = new AuditEventPolicyProperties();
+        sampler = new AuditEventSampler(properties, pipeline, new ObjectMapper());
+    }
+
+    @Test
+    void recordsTypesWithoutAPolicyInFull() {
+        assertThat(sampler.admit(event(AuditEventType.LOGIN_SUCCESS, "web"))).isTrue();
+    }
+
+    @Test
+    void keepsOneInSampleRateAndNotesTheRate() {
+        policy(AuditEventType.CLIENT_AUTHENTICATION_SUCCESS, Mode.SAMPLED, 10);
+        List<SecurityAuditEvent> events =
+                IntStream.range(0, 100)
+                        .mapToObj(i -> event(AuditEventType.CLIENT_AUTHENTICATION_SUCCESS, "api"))
+                        .toList();
+
+        List<SecurityAuditEvent> kept = events.stream().filter(sampler::admit).toList();
+
+        assertThat(kept).hasSize(10);
+        assertThat(kept.get(0).getDetails()).contains("\"sampleRate\":10");
+    }
+
+    @Test
+    void alwaysRecordsFailures() {
+        policy(AuditEventType.CLIENT_AUTHENTICATION_FAILURE, Mode.AGGREGATED, 0);
+        SecurityAuditEvent failure = event(AuditEventType.CLIENT_AUTHENTICATION_FAILURE, "api");
+        failure.setResult(AuditEventResult.FAILURE);
+
+        assertThat(sampler.admit(failure)).isTrue();
+    }
+
+    @Test
+    void aggregatesIntoOneSummaryPerClientAndInterval() {
+        policy(AuditEventType.TOKEN_INTROSPECTION_ACTIVE, Mode.AGGREGATED, 0);
+        for (int i = 0; i < 3; i++) {
+            assertThat(sampler.admit(event(AuditEventType.TOKEN_INTROSPECTION_ACTIVE, "api")))
+                    .isFalse();
+        }
+        sampler.admit(event(AuditEventType.TOKEN_INTROSPECTION_ACTIVE, "other"));
+
+        sampler.flush(NOW);
+
+        ArgumentCaptor<SecurityAuditEvent> summaries =
+                ArgumentCaptor.forClass(SecurityAuditEvent.class);
+        verify(pipeline, times(2)).submit(summaries.capture());
+        SecurityAuditEvent api =
+                summaries.getAllValues().stream()
+                        .filter(e -> "api".equals(e.getClientId()))
+                        .findFirst()
+                        .orElseThrow();
+        assertThat(api.getEventType()).isEqualTo(AuditEventType.TOKEN_INTROSPECTION_ACTIVE);
+        assertThat(api.getEventTimestamp()).isEqualTo(NOW);
+        assertThat(api.getDetails())
+                .contains("\"count\":3")
+                .contains("\"windowEnd\":\"2026-10-01T12:00:00Z\"");
+    }
+
+    @Test
+    void submitsNothingForAnIdleInterval() {
+        policy(AuditEventType.TOKEN_INTROSPECTION_ACTIVE, Mode.AGGREGATED, 0);
+        sampler.admit(event(AuditEventType.TOKEN_INTROSPECTION_ACTIVE, "api"));
+        sampler.flush(NOW);
+
+        sampler.flush(NOW.plusSeconds(60));
+        sampler.flush(NOW.plusSeconds(120));
+
+        verify(pipeline, times(1)).submit(any());
+    }
+
+    @Test
+    void aggregatedEventsAreNotSubmittedBeforeTheFlush() {
+        policy(AuditEventType.TOKEN_INTROSPECTION_ACTIVE, Mode.AGGREGATED, 0);
+
+        sampler.admit(event(AuditEventType.TOKEN_INTROSPECTION_ACTIVE, "api"));
+
+        verify(pipeline, never()).submit(any());
+    }
+
+    private void policy(AuditEventType type, Mode mode, int sampleRate) {
+        Policy policy = new Policy();
+        policy.setMode(mode);
+        if (sampleRate > 0) {
+            policy.setSampleRate(sampleRate);
+        }
+        properties.getByType().put(type, policy);
+    }
+
+    private static SecurityAuditEvent event(AuditEventType type, String clientId) {
+        SecurityAuditEvent event = new SecurityAuditEvent();
+        event.setEventType(type);
+        event.setResult(AuditEventResult.SUCCESS);
+        event.setClientId(clientId);
+        event.setDetails("{\"authenticationMethod\":\"client_secret_basic\"}");
+        return event;
+    }
+}
@@ -0,0 +1,268 @@
+package com.bootsandcats.oauth2.service.audit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import com.bootsandcats.oauth2.config.AuditPartitionProperties;
+import com.bootsandcats.oauth2.config.AuditPartitionProperties.Interval;
+import com.bootsandcats.oauth2.config.AuditPartitionProperties.RetentionAction;
+import com.bootsandcats.oauth2.model.AuditEventType;
+import com.bootsandcats.oauth2.service.audit.AuditPartitionManager.Partition;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@ExtendWith(MockitoExtension.class)
+class AuditPartitionManagerTest {
+
+    private static final Instant NOW = Instant.parse("2026-10-16T10:00:00Z");
+
+    @Mock private ObjectProvider<JdbcTemplate> jdbcTemplateProvider;
+    @Mock private JdbcTemplate jdbcTemplate;
+    @Mock private PlatformTransactionManager transactionManager;
+
+    private AuditPartitionProperties properties;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        properties = new AuditPartitionProperties();
+        meterRegistry = new SimpleMeterRegistry();
+        lenient().when(jdbcTemplateProvider.getIfAvailable()).thenReturn(jdbcTemplate);
+        lenient().when(jdbcTemplate.execute(any(ConnectionCallback.class))).thenReturn(true);
+        lenient()
+                .when(
+                        jdbcTemplate.queryForObject(
+                                startsWith("SELECT EXISTS"),
+                                eq(Boolean.class),
+                                eq(AuditPartitionManager.TABLE)))
+                .thenReturn(true);
+        lenient()
+                .when(
+                        jdbcTemplate.queryForObject(
+                                eq("SELECT pg_try_advisory_xact_lock(?)"),
+                                eq(Boolean.class),
+                                any()))
+                .thenReturn(true);
+        lenient()
+                .when(transactionManager.getTransaction(any()))
+                .thenReturn(new SimpleTransactionStatus());
+    }
+
+    @Test
+    void createsMonthlyPartitionsThroughThePremakeHorizon() {
+        properties.setPremake(2);
+        givenPartitions(new Partition("security_audit_events_legacy", false, null, at("11-01")));
+
+        manager().maintain(NOW);
+
+        assertThat(executedStatements())
+                .containsExactly(
+                        "CREATE TABLE IF NOT EXISTS \"security_audit_events_p202611\" PARTITION"
+                                + " OF security_audit_events FOR VALUES FROM"
+                                + " ('2026-11-01T00:00:00Z') TO ('2026-12-01T00:00:00Z')",
+                        "CREATE TABLE IF NOT EXISTS \"security_audit_events_p202612\" PARTITION"
+                                + " OF security_audit_events FOR VALUES FROM"
+                                + " ('2026-12-01T00:00:00Z') TO ('2027-01-01T00:00:00Z')");
+        assertThat(meterRegistry.counter("oauth2.audit.partitions.created").count()).isEqualTo(2);
+    }
+
+    @Test
+    void catchesUpDailyPartitionsFromTheLastBound() {
+        properties.setInterval(Interval.DAILY);
+        properties.setPremake(1);
+        givenPartitions(
+                new Partition("security_audit_events_p20261014", false, at("10-14"), at("10-15")),
+                new Partition("security_audit_events_default", true, null, null));
+
+        manager().maintain(NOW);
+
+        assertThat(executedStatements())
+                .hasSize(3)
+                .allMatch(sql -> sql.startsWith("CREATE TABLE IF NOT EXISTS"))
+                .anyMatch(sql -> sql.contains("\"security_audit_events_p20261015\""))
+                .anyMatch(sql -> sql.contains("\"security_audit_events_p20261017\""));
+    }
+
+    @Test
+    void movesEventsOutOfTheDefaultPartitionBeforeAttaching() {
+        properties.setPremake(1);
+        givenPartitions(
+                new Partition("security_audit_events_legacy", false, null, at("11-01")),
+                new Partition("security_audit_events_default", true, null, null));
+        when(jdbcTemplate.queryForObject(
+                        startsWith(
+                                "SELECT EXISTS (SELECT 1 FROM"
+                                        + " \"security_audit_events_default\""),
+                        eq(Boolean.class),
+                        any(),
+                        any()))
+                .thenReturn(true);
+        when(jdbcTemplate.update(startsWith("DELETE FROM \"security_audit_events_default\"")))
+                .thenReturn(5);
+
+        manager().maintain(NOW);
+
+        assertThat(executedStatements())
+                .containsExactly(
+                        "CREATE TABLE \"security_audit_events_p202611\" (LIKE"
+                                + " security_audit_events INCLUDING DEFAULTS INCLUDING"
+                                + " CONSTRAINTS)",
+                        "INSERT INTO \"security_audit_events_p202611\" SELECT * FROM"
+                                + " \"security_audit_events_default\" WHERE event_timestamp >="
+                                + " '2026-11-01T00:00:00Z' AND event_timestamp <"
+                                + " '2026-12-01T00:00:00Z'",
+                        "ALTER TABLE security_audit_events ATTACH PARTITION"
+                                + " \"security_audit_events_p202611\" FOR VALUES FROM"
+                                + " ('2026-11-01T00:00:00Z') TO ('2026-12-01T00:00:00Z')");
+        assertThat(meterRegistry.counter("oauth2.audit.partitions.created").count()).isEqualTo(1);
+    }
+
+    @Test
+    void dropsPartitionsPastTheRetentionWindow() {
+        properties.setPremake(0);
+        properties.setRetention(Duration.ofDays(30));
+        givenPartitions(
+                new Partition("security_audit_events_legacy", false, null, at("09-01")),
+                new Partition("security_audit_events_p202609", false, at("09-01"), at("10-01")),
+                new Partition("security_audit_events_p202610", false, at("10-01"), at("11-01")));
+
+        manager().maintain(NOW);
+
+        assertThat(executedStatements())
+                .containsExactly("DROP TABLE \"security_audit_events_legacy\"");
+        assertThat(
+                        meterRegistry
+                                .counter("oauth2.audit.partitions.retired", "action", "drop")
+                                .count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void detachesInsteadOfDroppingWhenConfigured() {
+        properties.setPremake(0);
+        properties.setRetention(Duration.ofDays(30));
+        properties.setRetentionAction(RetentionAction.DETACH);
+        givenPartitions(
+                new Partition("security_audit_events_p202608", false, at("08-01"), at("09-01")),
+                new Partition("security_audit_events_p202610", false, at("10-01"), at("11-01")));
+
+        manager().maintain(NOW);
+
+        assertThat(executedStatements())
+                .containsExactly(
+                        "ALTER TABLE security_audit_events DETACH PARTITION"
+                                + " \"security_audit_events_p202608\"");
+    }
+
+    @Test
+    void keepsPartitionsForTheLongestRetentionAndTrimsShorterLivedTypes() {
+        properties.setPremake(0);
+        properties.setRetention(Duration.ofDays(30));
+        properties.setRetentionByType(
+                new EnumMap<>(
+                        Map.of(
+                                AuditEventType.LOGIN_FAILURE,
+                                Duration.ofDays(90),
+                                AuditEventType.TOKEN_INTROSPECTION,
+                                Duration.ofDays(7))));
+        properties.setDeleteBatchSize(2);
+        givenPartitions(
+                new Partition("security_audit_events_p202608", false, at("08-01"), at("09-01")),
+                new Partition("security_audit_events_p202610", false, at("10-01"), at("11-01")));
+        // The 30-day default group is trimmed too, with its own (unstubbed) statement.
+        lenient()
+                .when(
+                        jdbcTemplate.update(
+                                startsWith("DELETE FROM security_audit_events"),
+                                eq("TOKEN_INTROSPECTION"),
+                                any(Timestamp.class),
+                                eq(2)))
+                .thenReturn(2, 1);
+
+        manager().maintain(NOW);
+
+        assertThat(executedStatements()).isEmpty();
+        verify(jdbcTemplate, times(2))
+                .update(
+                        startsWith("DELETE FROM security_audit_events"),
+                        eq("TOKEN_INTROSPECTION"),
+                        eq(Timestamp.from(NOW.minus(Duration.ofDays(7)))),
+                        eq(2));
+        assertThat(meterRegistry.counter("oauth2.audit.retention.deleted").count())
+                .isEqualTo(3);
+    }
+
+    @Test
+    void doesNothingWhenTheTableIsNotPartitioned() {
+        when(jdbcTemplate.execute(any(ConnectionCallback.class))).thenReturn(false);
+
+        manager().maintain(NOW);
+
+        verify(transactionManager, never()).getTransaction(any());
+        verify(jdbcTemplate, never()).execute(anyString());
+    }
+
+    @Test
+    void skipsTheRunWhenAnotherInstanceHoldsTheLock() {
+        properties.setRetention(Duration.ofDays(1));
+        when(jdbcTemplate.queryForObject(
+                        eq("SELECT pg_try_advisory_xact_lock(?)"), eq(Boolean.class), any()))
+                .thenReturn(false);
+
+        manager().maintain(NOW);
+
+        verify(jdbcTemplate, never()).query(anyString(), any(RowMapper.class));
+        verify(jdbcTemplate, never()).execute(anyString());
+    }
+
+    private AuditPartitionManager manager() {
+        return new AuditPartitionManager(
+                jdbcTemplateProvider, properties, transactionManager, meterRegistry);
+    }
+
+    private void givenPartitions(Partition... partitions) {
+        doReturn(List.of(partitions))
+                .when(jdbcTemplate)
+                .query(eq(AuditPartitionManager.PARTITIONS_SQL), any(RowMapper.class));
+    }
+
+    private List<String> executedStatements() {
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        verify(jdbcTemplate, atLeast(0)).execute(sql.capture());
+        return sql.getAllValues();
+    }
+
+    private static Instant at(String monthDay) {
+        return Instant.parse("2026-" + monthDay + "T00:00:00Z");
+    }
+}
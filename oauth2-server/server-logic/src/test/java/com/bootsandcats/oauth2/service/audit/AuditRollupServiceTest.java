@@ -0,0 +1,169 @@
+package com.bootsandcats.oauth2.service.audit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+
+import com.bootsandcats.oauth2.config.AuditRollupProperties;
+import com.bootsandcats.oauth2.dto.AuditStatsBucket;
+import com.bootsandcats.oauth2.model.AuditEventResult;
+import com.bootsandcats.oauth2.model.AuditEventType;
+import com.bootsandcats.oauth2.model.AuditRollupGranularity;
+import com.bootsandcats.oauth2.repository.SecurityAuditEventRepository;
+
+@ExtendWith(MockitoExtension.class)
+class AuditRollupServiceTest {
+
+    private static final Instant NOW = Instant.parse("2026-10-16T10:17:42Z");
+
+    @Mock private ObjectProvider<SecurityAuditEventRepository> repositoryProvider;
+    @Mock private SecurityAuditEventRepository repository;
+
+    private AuditRollupProperties properties;
+
+    @BeforeEach
+    void setUp() {
+        properties = new AuditRollupProperties();
+        lenient().when(repositoryProvider.getIfAvailable()).thenReturn(repository);
+    }
+
+    @Test
+    void findStatsAlignsTheStartToItsBucket() {
+        List<AuditStatsBucket> buckets =
+                List.of(
+                        new AuditStatsBucket(
+                                Instant.parse("2026-10-16T09:00:00Z"),
+                                AuditEventType.LOGIN_FAILURE,
+                                AuditEventResult.FAILURE,
+                                3));
+        when(repository.findRollups(
+                        AuditRollupGranularity.HOUR,
+                        Instant.parse("2026-10-16T09:00:00Z"),
+                        NOW,
+                        "AUTHENTICATION",
+                        null,
+                        null))
+                .thenReturn(buckets);
+
+        assertThat(
+                        service()
+                                .findStats(
+                                        AuditRollupGranularity.HOUR,
+                                        Instant.parse("2026-10-16T09:30:00Z"),
+                                        NOW,
+                                        "AUTHENTICATION",
+                                        null,
+                                        null))
+                .isEqualTo(buckets);
+    }
+
+    @Test
+    void findStatsRejectsRangesSpanningTooManyBuckets() {
+        properties.setMaxBuckets(60);
+
+        assertThatThrownBy(
+                        () ->
+                                service()
+                                        .findStats(
+                                                AuditRollupGranularity.MINUTE,
+                                                NOW.minus(Duration.ofHours(2)),
+                                                NOW,
+                                                null,
+                                                null,
+                                                null))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("at most 60");
+        verify(repository, never()).findRollups(any(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void findStatsAllowsAThirtyDayHourlyRange() {
+        service()
+                .findStats(
+                        AuditRollupGranularity.HOUR,
+                        NOW.minus(Duration.ofDays(30)),
+                        NOW,
+                        null,
+                        null,
+                        null);
+
+        verify(repository)
+                .findRollups(
+                        AuditRollupGranularity.HOUR,
+                        Instant.parse("2026-09-16T10:00:00Z"),
+                        NOW,
+                        null,
+                        null,
+                        null);
+    }
+
+    @Test
+    void findStatsRejectsAnEmptyRange() {
+        assertThatThrownBy(
+                        () ->
+                                service()
+                                        .findStats(
+                                                AuditRollupGranularity.HOUR,
+                                                NOW,
+                                                NOW.minus(Duration.ofHours(1)),
+                                                null,
+                                                null,
+                                                null))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void findStatsReturnsNothingWithoutADatabase() {
+        when(repositoryProvider.getIfAvailable()).thenReturn(null);
+
+        assertThat(
+                        service()
+                                .findStats(
+                                        AuditRollupGranularity.HOUR,
+                                        NOW.minus(Duration.ofHours(1)),
+                                        NOW,
+                                        null,
+                                        null,
+                                        null))
+                .isEmpty();
+    }
+
+    @Test
+    void purgeDeletesMinuteBucketsPastRetentionAndKeepsHoursByDefault() {
+        service().purge(NOW);
+
+        verify(repository)
+                .purgeRollups(AuditRollupGranularity.MINUTE, Instant.parse("2026-10-14T10:17:00Z"));
+        verify(repository, never()).purgeRollups(eq(AuditRollupGranularity.HOUR), any());
+    }
+
+    @Test
+    void purgeDeletesHourBucketsWhenHourRetentionIsSet() {
+        properties.setHourRetention(Duration.ofDays(400));
+
+        service().purge(NOW);
+
+        verify(repository)
+                .purgeRollups(AuditRollupGranularity.HOUR, Instant.parse("2025-09-11T10:00:00Z"));
+    }
+
+    private AuditRollupService service() {
+        return new AuditRollupService(repositoryProvider, properties);
+    }
+}
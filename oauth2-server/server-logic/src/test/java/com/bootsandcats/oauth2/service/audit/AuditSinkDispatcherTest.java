@@ -0,0 +1,234 @@
+package com.bootsandcats.oauth2.service.audit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.bootsandcats.oauth2.config.AuditSinkProperties;
+import com.bootsandcats.oauth2.model.AuditEventResult;
+import com.bootsandcats.oauth2.model.AuditEventType;
+import com.bootsandcats.oauth2.model.SecurityAuditEvent;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class AuditSinkDispatcherTest {
+
+    private AuditSinkProperties properties;
+    private SimpleMeterRegistry meterRegistry;
+    private AuditSinkDispatcher dispatcher;
+
+    private final CountDownLatch releaseSlowSink = new CountDownLatch(1);
+
+    @BeforeEach
+    void setUp() {
+        properties = new AuditSinkProperties();
+        properties.setSinkShutdownTimeout(Duration.ofSeconds(5));
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @AfterEach
+    void tearDown() {
+        releaseSlowSink.countDown();
+        if (dispatcher != null) {
+            dispatcher.stop();
+        }
+    }
+
+    @Test
+    void writesOnCallingThreadWhenNotRunning() {
+        RecordingSink kubernetes = new RecordingSink("kubernetes-events");
+        RecordingSink redis = new RecordingSink("redis-stream");
+        dispatcher = newDispatcher(kubernetes, redis);
+        SecurityAuditEvent event = sampleEvent();
+
+        dispatcher.dispatch(List.of(event));
+
+        assertThat(kubernetes.received).containsExactly(event);
+        assertThat(redis.received).containsExactly(event);
+    }
+
+    @Test
+    void skipsDisabledSinks() {
+        RecordingSink redis = new RecordingSink("redis-stream");
+        RecordingSink disabled = new RecordingSink("kubernetes-events");
+        disabled.enabled = false;
+        dispatcher = newDispatcher(redis, disabled);
+
+        dispatcher.dispatch(List.of(sampleEvent()));
+
+        assertThat(dispatcher.getSinkNames()).containsExactly("redis-stream");
+        assertThat(redis.received).hasSize(1);
+        assertThat(disabled.received).isEmpty();
+    }
+
+    @Test
+    void slowSinkDoesNotDelayTheOthers() throws InterruptedException {
+        RecordingSink slow = new RecordingSink("redis-stream");
+        slow.blockUntil = releaseSlowSink;
+        RecordingSink fast = new RecordingSink("kubernetes-events");
+        dispatcher = newDispatcher(slow, fast);
+        dispatcher.start();
+
+        dispatcher.dispatch(List.of(sampleEvent()));
+        dispatcher.dispatch(List.of(sampleEvent()));
+
+        assertThat(fast.awaitReceived(2)).isTrue();
+        assertThat(slow.received).hasSizeLessThan(2);
+    }
+
+    @Test
+    void dropsEventsForAFullSinkOnly() throws InterruptedException {
+        AuditSinkProperties.Sink settings = new AuditSinkProperties.Sink();
+        settings.setQueueCapacity(1);
+        settings.setBatchSize(1);
+        properties.getSinks().put("redis-stream", settings);
+        RecordingSink slow = new RecordingSink("redis-stream");
+        slow.blockUntil = releaseSlowSink;
+        RecordingSink fast = new RecordingSink("kubernetes-events");
+        dispatcher = newDispatcher(slow, fast);
+        dispatcher.start();
+
+        for (int i = 0; i < 5; i++) {
+            dispatcher.dispatch(List.of(sampleEvent()));
+        }
+
+        assertThat(fast.awaitReceived(5)).isTrue();
+        assertThat(dropped("redis-stream", "queue_full")).isPositive();
+        assertThat(dropped("kubernetes-events", "queue_full")).isZero();
+    }
+
+    @Test
+    void openCircuitSkipsTheSink() {
+        AuditSinkProperties.Sink settings = new AuditSinkProperties.Sink();
+        settings.setFailureThreshold(2);
+        settings.setOpenDuration(Duration.ofMinutes(1));
+        properties.getSinks().put("redis-stream", settings);
+        RecordingSink failing = new RecordingSink("redis-stream");
+        failing.failure = new IllegalStateException("redis down");
+        dispatcher = newDispatcher(failing);
+
+        for (int i = 0; i < 4; i++) {
+            dispatcher.dispatch(List.of(sampleEvent()));
+        }
+
+        assertThat(failing.calls).isEqualTo(2);
+        assertThat(dropped("redis-stream", "circuit_open")).isEqualTo(2);
+        assertThat(errors("redis-stream")).isEqualTo(2);
+        assertThat(
+                        meterRegistry
+                                .get("oauth2.audit.sink.circuit.open")
+                                .tag("sink", "redis-stream")
+                                .gauge()
+                                .value())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void successfulTrialWriteClosesTheCircuit() {
+        AuditSinkProperties.Sink settings = new AuditSinkProperties.Sink();
+        settings.setFailureThreshold(1);
+        settings.setOpenDuration(Duration.ZERO);
+        properties.getSinks().put("redis-stream", settings);
+        RecordingSink flaky = new RecordingSink("redis-stream");
+        flaky.failure = new IllegalStateException("redis down");
+        dispatcher = newDispatcher(flaky);
+
+        dispatcher.dispatch(List.of(sampleEvent()));
+        flaky.failure = null;
+        dispatcher.dispatch(List.of(sampleEvent()));
+        dispatcher.dispatch(List.of(sampleEvent()));
+
+        assertThat(flaky.received).hasSize(2);
+        assertThat(
+                        meterRegistry
+                                .get("oauth2.audit.sink.circuit.open")
+                                .tag("sink", "redis-stream")
+                                .gauge()
+                                .value())
+                .isZero();
+    }
+
+    private AuditSinkDispatcher newDispatcher(AuditSink... sinks) {
+        return new AuditSinkDispatcher(List.of(sinks), properties, meterRegistry);
+    }
+
+    private double dropped(String sink, String reason) {
+        return meterRegistry
+                .counter("oauth2.audit.sink.dropped", "sink", sink, "reason", reason)
+                .count();
+    }
+
+    private double errors(String sink) {
+        return meterRegistry.counter("oauth2.audit.sink.errors", "sink", sink).count();
+    }
+
+    private static SecurityAuditEvent sampleEvent() {
+        SecurityAuditEvent event = new SecurityAuditEvent();
+        event.setEventId(UUID.randomUUID());
+        event.setEventType(AuditEventType.LOGIN_SUCCESS);
+        event.setEventCategory(AuditEventType.LOGIN_SUCCESS.getCategory());
+        event.setResult(AuditEventResult.SUCCESS);
+        event.setEventTimestamp(Instant.now());
+        event.setPrincipal("user");
+        return event;
+    }
+
+    private static final class RecordingSink implements AuditSink {
+
+        private final String name;
+        private final List<SecurityAuditEvent> received = new CopyOnWriteArrayList<>();
+
+        private volatile boolean enabled = true;
+        private volatile RuntimeException failure;
+        private volatile CountDownLatch blockUntil;
+        private volatile int calls;
+
+        RecordingSink(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public String name() {
+            return name;
+        }
+
+        @Override
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        @Override
+        public void write(List<SecurityAuditEvent> events) {
+            calls++;
+            if (blockUntil != null) {
+                try {
+                    blockUntil.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            if (failure != null) {
+                throw failure;
+            }
+            received.addAll(events);
+        }
+
+        boolean awaitReceived(int count) throws InterruptedException {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (received.size() < count && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            return received.size() >= count;
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.bootsandcats.oauth2.service.authorization;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+import java.security.Principal;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.oauth2.core.AuthorizationGrantType;
+import org.springframework.security.oauth2.core.ClientAuthenticationMethod;
+import org.springframework.security.oauth2.core.OAuth2AccessToken;
+import org.springframework.security.oauth2.core.OAuth2RefreshToken;
+import org.springframework.security.oauth2.core.endpoint.OAuth2ParameterNames;
+import org.springframework.security.oauth2.server.authorization.OAuth2Authorization;
+import org.springframework.security.oauth2.server.authorization.OAuth2AuthorizationCode;
+import org.springframework.security.oauth2.server.authorization.client.RegisteredClient;
+import org.springframework.security.oauth2.server.authorization.client.RegisteredClientRepository;
+
+import com.bootsandcats.oauth2.config.OAuth2AuthorizationStoreProperties;
+
+@ExtendWith(MockitoExtension.class)
+class OAuth2AuthorizationCodecTest {
+
+    @Mock private RegisteredClientRepository registeredClientRepository;
+
+    private RegisteredClient registeredClient;
+    private OAuth2AuthorizationCodec codec;
+
+    @BeforeEach
+    void setUp() {
+        registeredClient =
+                RegisteredClient.withId("client-1")
+                        .clientId("demo-client")
+                        .clientSecret("{noop}secret")
+                        .clientAuthenticationMethod(ClientAuthenticationMethod.CLIENT_SECRET_BASIC)
+                        .authorizationGrantType(AuthorizationGrantType.AUTHORIZATION_CODE)
+                        .authorizationGrantType(AuthorizationGrantType.REFRESH_TOKEN)
+                        .redirectUri("https://app.example.com/callback")
+                        .scope("openid")
+                        .scope("profile")
+                        .build();
+        codec =
+                new OAuth2AuthorizationCodec(
+                        registeredClientRepository, new OAuth2AuthorizationStoreProperties());
+    }
+
+    @Test
+    void roundTripsTokensAttributesAndMetadata() {
+        when(registeredClientRepository.findById("client-1")).thenReturn(registeredClient);
+        OAuth2Authorization authorization = sampleAuthorization();
+
+        OAuth2Authorization decoded = codec.decode(codec.encode(authorization));
+
+        assertThat(decoded.getId()).isEqualTo(authorization.getId());
+        assertThat(decoded.getPrincipalName()).isEqualTo("alice");
+        assertThat(decoded.getAuthorizationGrantType())
+                .isEqualTo(AuthorizationGrantType.AUTHORIZATION_CODE);
+        assertThat(decoded.getAuthorizedScopes()).containsExactlyInAnyOrder("openid", "profile");
+        assertThat((String) decoded.getAttribute(OAuth2ParameterNames.STATE)).isEqualTo("xyz");
+        assertThat((Object) decoded.getAttribute(Principal.class.getName()))
+                .isInstanceOf(UsernamePasswordAuthenticationToken.class);
+
+        OAuth2Authorization.Token<OAuth2AccessToken> accessToken = decoded.getAccessToken();
+        assertThat(accessToken.getToken().getTokenValue()).isEqualTo("access-value");
+        assertThat(accessToken.getToken().getTokenType())
+                .isEqualTo(OAuth2AccessToken.TokenType.BEARER);
+        assertThat(accessToken.getToken().getScopes()).containsExactlyInAnyOrder("openid");
+        assertThat(decoded.getRefreshToken().getToken().getTokenValue())
+                .isEqualTo("refresh-value");
+        OAuth2Authorization.Token<OAuth2AuthorizationCode> code =
+                decoded.getToken(OAuth2AuthorizationCode.class);
+        assertThat(code.isInvalidated()).isTrue();
+    }
+
+    @Test
+    void decodeReturnsNullWhenClientNoLongerResolves() {
+        when(registeredClientRepository.findById("client-1")).thenReturn(null);
+
+        assertThat(codec.decode(codec.encode(sampleAuthorization()))).isNull();
+    }
+
+    @Test
+    void digestsEveryLookupValueAndMatchesInConstantTime() {
+        OAuth2Authorization authorization = sampleAuthorization();
+
+        assertThat(codec.digests(authorization))
+                .containsOnlyKeys(
+                        AuthorizationTokenKind.STATE,
+                        AuthorizationTokenKind.AUTHORIZATION_CODE,
+                        AuthorizationTokenKind.ACCESS_TOKEN,
+                        AuthorizationTokenKind.REFRESH_TOKEN)
+                .containsEntry(
+                        AuthorizationTokenKind.ACCESS_TOKEN,
+                        OAuth2AuthorizationCodec.digest("access-value"));
+        assertThat(OAuth2AuthorizationCodec.digest("access-value")).hasSize(64);
+        AuthorizationTokenKind refresh = AuthorizationTokenKind.REFRESH_TOKEN;
+        assertThat(OAuth2AuthorizationCodec.matches(authorization, refresh, "refresh-value"))
+                .isTrue();
+        assertThat(OAuth2AuthorizationCodec.matches(authorization, refresh, "stale")).isFalse();
+    }
+
+    @Test
+    void expiresWithLatestToken() {
+        OAuth2Authorization authorization = sampleAuthorization();
+
+        assertThat(codec.expiresAt(authorization))
+                .isEqualTo(authorization.getRefreshToken().getToken().getExpiresAt());
+    }
+
+    private OAuth2Authorization sampleAuthorization() {
+        Instant issuedAt = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+        UsernamePasswordAuthenticationToken principal =
+                UsernamePasswordAuthenticationToken.authenticated(
+                        new User("alice", "", List.of(new SimpleGrantedAuthority("ROLE_USER"))),
+                        null,
+                        List.of(new SimpleGrantedAuthority("ROLE_USER")));
+        return OAuth2Authorization.withRegisteredClient(registeredClient)
+                .id("authz-1")
+                .principalName("alice")
+                .authorizationGrantType(AuthorizationGrantType.AUTHORIZATION_CODE)
+                .authorizedScopes(Set.of("openid", "profile"))
+                .attribute(OAuth2ParameterNames.STATE, "xyz")
+                .attribute(Principal.class.getName(), principal)
+                .token(
+                        new OAuth2AuthorizationCode(
+                                "code-value", issuedAt, issuedAt.plusSeconds(300)),
+                        metadata ->
+                                metadata.put(
+                                        OAuth2Authorization.Token.INVALIDATED_METADATA_NAME,
+                                        true))
+                .accessToken(
+                        new OAuth2AccessToken(
+                                OAuth2AccessToken.TokenType.BEARER,
+                                "access-value",
+                                issuedAt,
+                                issuedAt.plusSeconds(900),
+                                Set.of("openid")))
+                .refreshToken(
+                        new OAuth2RefreshToken(
+                                "refresh-value", issuedAt, issuedAt.plusSeconds(86400)))
+                .build();
+    }
+}
@@ -16,4 +16,5 @@ dependencies {
     annotationProcessor("org.projectlombok:lombok:1.18.32")
     
     testImplementation("org.springframework.boot:spring-boot-starter-test")
+    testRuntimeOnly("org.junit.platform:junit-platform-launcher")
 }
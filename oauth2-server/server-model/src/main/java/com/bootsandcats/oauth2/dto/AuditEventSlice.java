@@ -0,0 +1,12 @@
+package com.bootsandcats.oauth2.dto;
+
+import java.util.List;
+
+/**
+ * DTO for one keyset-paginated slice of audit events.
+ *
+ * <p>Unlike a page, a slice carries no total count. Pass {@code nextCursor} back as the {@code
+ * cursor} parameter to fetch the following events; it is {@code null} on the last slice.
+ */
+public record AuditEventSlice(
+        List<AuditEventSummary> content, int size, boolean hasNext, String nextCursor) {}
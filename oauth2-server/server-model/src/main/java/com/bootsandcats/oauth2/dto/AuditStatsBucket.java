@@ -0,0 +1,13 @@
+package com.bootsandcats.oauth2.dto;
+
+import java.time.Instant;
+
+import com.bootsandcats.oauth2.model.AuditEventResult;
+import com.bootsandcats.oauth2.model.AuditEventType;
+
+/**
+ * DTO for one pre-aggregated audit counter: the number of events of a type and result recorded in
+ * a minute or hour bucket.
+ */
+public record AuditStatsBucket(
+        Instant bucketStart, AuditEventType eventType, AuditEventResult result, long count) {}
@@ -0,0 +1,33 @@
+package com.bootsandcats.oauth2.model;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Bucket size of the pre-aggregated audit event counters.
+ *
+ * <p>Buckets are aligned to UTC and identified by their start.
+ */
+public enum AuditRollupGranularity {
+
+    /** One counter per minute. */
+    MINUTE(ChronoUnit.MINUTES),
+
+    /** One counter per hour. */
+    HOUR(ChronoUnit.HOURS);
+
+    private final ChronoUnit unit;
+
+    AuditRollupGranularity(ChronoUnit unit) {
+        this.unit = unit;
+    }
+
+    public ChronoUnit getUnit() {
+        return unit;
+    }
+
+    /** Start of the bucket containing {@code instant}. */
+    public Instant bucketStart(Instant instant) {
+        return instant.truncatedTo(unit);
+    }
+}
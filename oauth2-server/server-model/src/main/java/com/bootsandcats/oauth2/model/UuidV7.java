@@ -0,0 +1,70 @@
+package com.bootsandcats.oauth2.model;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Generates time-ordered version 7 UUIDs (RFC 9562) for audit event and correlation IDs.
+ *
+ * <p>The layout is a 48-bit Unix millisecond timestamp, the version, a 12-bit counter in {@code
+ * rand_a}, the variant and 62 random bits in {@code rand_b}. Consecutive IDs therefore land next
+ * to each other in a B-tree index instead of on a random leaf page, as version 4 UUIDs do.
+ *
+ * <p>Each thread keeps its own timestamp and counter, so IDs from one thread are strictly
+ * increasing and generation takes no lock. The counter starts from a random value below 2048 each
+ * millisecond; if a thread exhausts it within one millisecond the timestamp is advanced by one, as
+ * RFC 9562 allows. Random bits come from {@link ThreadLocalRandom} rather than a shared {@code
+ * SecureRandom}: these IDs identify records and must not be used as secrets.
+ */
+public final class UuidV7 {
+
+    private static final int COUNTER_BITS = 12;
+    private static final int MAX_COUNTER = (1 << COUNTER_BITS) - 1;
+
+    private static final ThreadLocal<State> STATE = ThreadLocal.withInitial(State::new);
+
+    private UuidV7() {}
+
+    /** A new version 7 UUID for the current time. */
+    public static UUID generate() {
+        return generate(System.currentTimeMillis());
+    }
+
+    /** A new version 7 UUID for {@code epochMillis}, ordered after this thread's previous one. */
+    static UUID generate(long epochMillis) {
+        State state = STATE.get();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        if (epochMillis > state.millis) {
+            state.millis = epochMillis;
+            state.counter = random.nextInt(MAX_COUNTER / 2 + 1);
+        } else if (state.counter < MAX_COUNTER) {
+            // Same millisecond, or the clock went backwards: stay on the last timestamp.
+            state.counter++;
+        } else {
+            state.millis++;
+            state.counter = 0;
+        }
+        long msb = (state.millis << 16) | (0x7L << 12) | state.counter;
+        long lsb = (random.nextLong() >>> 2) | 0x8000_0000_0000_0000L;
+        return new UUID(msb, lsb);
+    }
+
+    /**
+     * Unix millisecond timestamp of a version 7 UUID.
+     *
+     * @param uuid a version 7 UUID
+     * @return the embedded timestamp
+     * @throws IllegalArgumentException if {@code uuid} is not version 7
+     */
+    public static long timestamp(UUID uuid) {
+        if (uuid.version() != 7) {
+            throw new IllegalArgumentException("Not a version 7 UUID: " + uuid);
+        }
+        return uuid.getMostSignificantBits() >>> 16;
+    }
+
+    private static final class State {
+        private long millis = -1;
+        private int counter;
+    }
+}
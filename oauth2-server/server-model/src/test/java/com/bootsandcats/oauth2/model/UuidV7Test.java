@@ -0,0 +1,109 @@
+package com.bootsandcats.oauth2.model;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+
+import org.junit.jupiter.api.Test;
+
+class UuidV7Test {
+
+    private static final long NOW = 1_792_144_800_000L;
+
+    @Test
+    void setsVersionVariantAndTimestamp() throws Exception {
+        UUID uuid = onNewThread(() -> UuidV7.generate(NOW));
+
+        assertThat(uuid.version()).isEqualTo(7);
+        assertThat(uuid.variant()).isEqualTo(2);
+        assertThat(UuidV7.timestamp(uuid)).isEqualTo(NOW);
+        assertThat(uuid.toString()).startsWith("01a14427-7900-7");
+    }
+
+    @Test
+    void isStrictlyIncreasingWithinOneMillisecond() throws Exception {
+        List<UUID> uuids =
+                onNewThread(
+                        () -> {
+                            List<UUID> generated = new ArrayList<>();
+                            for (int i = 0; i < 5000; i++) {
+                                generated.add(UuidV7.generate(NOW));
+                            }
+                            return generated;
+                        });
+
+        assertThat(uuids).isSorted().doesNotHaveDuplicates();
+    }
+
+    @Test
+    void borrowsTheNextMillisecondOnceTheCounterIsExhausted() throws Exception {
+        UUID last =
+                onNewThread(
+                        () -> {
+                            UUID uuid = null;
+                            for (int i = 0; i < 5000; i++) {
+                                uuid = UuidV7.generate(NOW);
+                            }
+                            return uuid;
+                        });
+
+        assertThat(UuidV7.timestamp(last)).isGreaterThan(NOW);
+    }
+
+    @Test
+    void staysOrderedWhenTheClockGoesBackwards() throws Exception {
+        List<UUID> uuids =
+                onNewThread(() -> List.of(UuidV7.generate(NOW), UuidV7.generate(NOW - 1000)));
+
+        assertThat(uuids.get(1)).isGreaterThan(uuids.get(0));
+        assertThat(UuidV7.timestamp(uuids.get(1))).isEqualTo(NOW);
+    }
+
+    @Test
+    void isUniqueAcrossThreads() throws Exception {
+        Set<UUID> seen = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                futures.add(
+                        executor.submit(
+                                () -> {
+                                    for (int i = 0; i < 20_000; i++) {
+                                        seen.add(UuidV7.generate());
+                                    }
+                                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertThat(seen).hasSize(160_000);
+    }
+
+    @Test
+    void rejectsOtherVersions() {
+        assertThatThrownBy(() -> UuidV7.timestamp(UUID.randomUUID()))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    /** Runs {@code task} on a thread of its own, so it starts from a fresh generator state. */
+    private static <T> T onNewThread(Callable<T> task) throws Exception {
+        FutureTask<T> future = new FutureTask<>(task);
+        new Thread(future).start();
+        return future.get();
+    }
+}
@@ -1,16 +1,22 @@
 package com.bootsandcats.oauth2.config;
 
 import java.io.IOException;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Objects;
+import java.util.Set;
 import java.util.function.Consumer;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.annotation.Order;
 import org.springframework.http.MediaType;
+import org.springframework.security.authentication.AuthenticationProvider;
 import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
@@ -27,12 +33,19 @@ import org.springframework.security.oauth2.core.endpoint.OAuth2ParameterNames;
 import org.springframework.security.oauth2.core.oidc.OidcScopes;
 import org.springframework.security.oauth2.jose.jws.SignatureAlgorithm;
 import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtEncoder;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+import org.springframework.security.oauth2.jwt.NimbusJwtEncoder;
+import org.springframework.security.oauth2.server.authorization.InMemoryOAuth2AuthorizationService;
+import org.springframework.security.oauth2.server.authorization.OAuth2AuthorizationService;
+import org.springframework.security.oauth2.server.authorization.authentication.ClientSecretAuthenticationProvider;
 import org.springframework.security.oauth2.server.authorization.authentication.OAuth2AuthorizationCodeRequestAuthenticationContext;
 import org.springframework.security.oauth2.server.authorization.authentication.OAuth2AuthorizationCodeRequestAuthenticationException;
 import org.springframework.security.oauth2.server.authorization.authentication.OAuth2AuthorizationCodeRequestAuthenticationProvider;
 import org.springframework.security.oauth2.server.authorization.authentication.OAuth2AuthorizationCodeRequestAuthenticationToken;
 import org.springframework.security.oauth2.server.authorization.authentication.OAuth2AuthorizationCodeRequestAuthenticationValidator;
 import org.springframework.security.oauth2.server.authorization.client.RegisteredClient;
+import org.springframework.security.oauth2.server.authorization.client.RegisteredClientRepository;
 import org.springframework.security.oauth2.server.authorization.settings.AuthorizationServerSettings;
 import org.springframework.security.oauth2.server.authorization.token.JwtEncodingContext;
 import org.springframework.security.oauth2.server.authorization.token.OAuth2TokenCustomizer;
@@ -43,6 +56,7 @@ import org.springframework.security.web.authentication.LoginUrlAuthenticationEnt
 import org.springframework.security.web.context.SecurityContextHolderFilter;
 import org.springframework.security.web.util.matcher.MediaTypeRequestMatcher;
 import org.springframework.util.StringUtils;
+import org.springframework.web.filter.CorsFilter;
 import org.springframework.web.util.UriComponents;
 import org.springframework.web.util.UriComponentsBuilder;
 
@@ -50,9 +64,15 @@ import com.bootsandcats.oauth2.log.AuthorizationDiagnosticsFilter;
 import com.bootsandcats.oauth2.log.TokenDiagnosticsFilter;
 import com.bootsandcats.oauth2.security.FederatedIdentityAuthenticationSuccessHandler;
 import com.bootsandcats.oauth2.security.FormLoginDenyListSuccessHandler;
+import com.bootsandcats.oauth2.security.OAuth2RequestPhaseTimer;
+import com.bootsandcats.oauth2.security.RedirectUriMatcherCache;
+import com.bootsandcats.oauth2.security.VerifiedClientSecretCache;
 import com.bootsandcats.oauth2.service.JwkSetProvider;
+import com.nimbusds.jose.JWSAlgorithm;
 import com.nimbusds.jose.jwk.source.JWKSource;
+import com.nimbusds.jose.proc.JWSVerificationKeySelector;
 import com.nimbusds.jose.proc.SecurityContext;
+import com.nimbusds.jwt.proc.DefaultJWTProcessor;
 
 import jakarta.servlet.http.HttpServletResponse;
 
@@ -111,6 +131,10 @@ public class AuthorizationServerConfig {
     @Value("${oauth2.diagnostics.mask.keep-last:4}")
     private int diagnosticsMaskKeepLast;
 
+    /** How long clients may cache the JWK Set and discovery documents. */
+    @Value("${oauth2.well-known.max-age:PT5M}")
+    private Duration wellKnownMaxAge;
+
     /**
      * Security filter chain for OAuth2 Authorization Server endpoints.
      *
@@ -120,9 +144,25 @@ public class AuthorizationServerConfig {
     @Bean
     @Order(1)
     public SecurityFilterChain authorizationServerSecurityFilterChain(
-            HttpSecurity http, SecurityHeadersConfig securityHeadersConfig) throws Exception {
+            HttpSecurity http,
+            SecurityHeadersConfig securityHeadersConfig,
+            VerifiedClientSecretCache verifiedClientSecretCache,
+            RedirectUriMatcherCache redirectUriMatcherCache,
+            PasswordEncoder passwordEncoder,
+            JwkSetProvider jwkSetProvider,
+            OAuth2RequestPhaseTimer phaseTimer,
+            RegisteredClientRepository registeredClientRepository,
+            ObjectProvider<OAuth2AuthorizationService> authorizationService)
+            throws Exception {
         OAuth2AuthorizationServerConfigurer authorizationServerConfigurer =
                 new OAuth2AuthorizationServerConfigurer();
+        // Time client lookups and authorization store calls per endpoint
+        authorizationServerConfigurer
+                .registeredClientRepository(phaseTimer.wrap(registeredClientRepository))
+                .authorizationService(
+                        phaseTimer.wrap(
+                                authorizationService.getIfAvailable(
+                                        InMemoryOAuth2AuthorizationService::new)));
 
         http.securityMatcher(authorizationServerConfigurer.getEndpointsMatcher())
                 .with(
@@ -143,13 +183,22 @@ public class AuthorizationServerConfig {
                                                                                                         codeProvider) {
                                                                                     codeProvider
                                                                                             .setAuthenticationValidator(
-                                                                                                    redirectUriPathOnlyValidator()
+                                                                                                    redirectUriPathOnlyValidator(
+                                                                                                            redirectUriMatcherCache)
                                                                                                             .andThen(
                                                                                                                     OAuth2AuthorizationCodeRequestAuthenticationValidator
                                                                                                                             .DEFAULT_SCOPE_VALIDATOR));
                                                                                 }
                                                                             }));
                                                 })
+                                        .clientAuthentication(
+                                                clientAuthentication ->
+                                                        clientAuthentication
+                                                                .authenticationProviders(
+                                                                        useVerifiedSecretCache(
+                                                                                verifiedClientSecretCache,
+                                                                                passwordEncoder,
+                                                                                phaseTimer)))
                                         .oidc(
                                                 oidc ->
                                                         oidc.providerConfigurationEndpoint(
@@ -190,6 +239,10 @@ public class AuthorizationServerConfig {
                 .oauth2ResourceServer(
                         (resourceServer) -> resourceServer.jwt(Customizer.withDefaults()));
 
+        // After CorsFilter, so the documents it answers carry the CORS and security headers.
+        http.addFilterAfter(
+                new WellKnownDocumentFilter(jwkSetProvider, wellKnownMaxAge), CorsFilter.class);
+
         http.addFilterBefore(
                 new AuthorizationDiagnosticsFilter(
                         diagnosticsEnabled, diagnosticsMaskKeepFirst, diagnosticsMaskKeepLast),
@@ -276,6 +329,26 @@ public class AuthorizationServerConfig {
         return http.build();
     }
 
+    /**
+     * Let client-secret authentication consult the verified-secret cache before the password
+     * encoder. This is a no-op unless {@code oauth2.clients.secret-cache.enabled=true}. The
+     * verification, cached or not, is timed as the secret verification phase.
+     */
+    private static Consumer<List<AuthenticationProvider>> useVerifiedSecretCache(
+            VerifiedClientSecretCache cache,
+            PasswordEncoder passwordEncoder,
+            OAuth2RequestPhaseTimer phaseTimer) {
+        PasswordEncoder encoder = phaseTimer.wrap(cache.wrap(passwordEncoder));
+        return providers ->
+                providers.forEach(
+                        provider -> {
+                            if (provider
+                                    instanceof ClientSecretAuthenticationProvider secretProvider) {
+                                secretProvider.setPasswordEncoder(encoder);
+                            }
+                        });
+    }
+
     /**
      * User details service for form login authentication.
      *
@@ -323,11 +396,26 @@ public class AuthorizationServerConfig {
     /**
      * JWK Source for JWT signing/verification.
      *
-     * @return JWKSource with RSA key pair
+     * <p>Lookups by {@code kid} are answered from the provider's precomputed index.
+     *
+     * @return JWKSource backed by the current key snapshot
      */
     @Bean
     public JWKSource<SecurityContext> jwkSource(JwkSetProvider jwkSetProvider) {
-        return (selector, securityContext) -> selector.select(jwkSetProvider.getJwkSet());
+        return (selector, securityContext) -> jwkSetProvider.getSnapshot().select(selector);
+    }
+
+    /**
+     * JWT Encoder for issuing tokens, timed as the JWT encoding phase (including key selection).
+     *
+     * @param jwkSource JWK source
+     * @param phaseTimer request phase timer
+     * @return JwtEncoder
+     */
+    @Bean
+    public JwtEncoder jwtEncoder(
+            JWKSource<SecurityContext> jwkSource, OAuth2RequestPhaseTimer phaseTimer) {
+        return phaseTimer.wrap(new NimbusJwtEncoder(jwkSource));
     }
 
     /**
@@ -340,11 +428,13 @@ public class AuthorizationServerConfig {
      *   <li>ADMIN role users: Additionally receive profile:admin scope
      * </ul>
      *
-     * @return OAuth2TokenCustomizer for JWT encoding
+     * @param phaseTimer request phase timer
+     * @return OAuth2TokenCustomizer for JWT encoding, timed as the JWT customization phase
      */
     @Bean
-    public OAuth2TokenCustomizer<JwtEncodingContext> jwtCustomizer() {
-        return context -> {
+    public OAuth2TokenCustomizer<JwtEncodingContext> jwtCustomizer(
+            OAuth2RequestPhaseTimer phaseTimer) {
+        OAuth2TokenCustomizer<JwtEncodingContext> customizer = context -> {
             // Set ES256 algorithm for all tokens
             context.getJwsHeader().algorithm(SignatureAlgorithm.ES256);
 
@@ -390,17 +480,32 @@ public class AuthorizationServerConfig {
                         principal != null ? principal.getName() : "unknown");
             }
         };
+        return phaseTimer.wrap(customizer);
     }
 
     /**
      * JWT Decoder for validating access tokens.
      *
+     * <p>Same setup as {@link OAuth2AuthorizationServerConfiguration#jwtDecoder(JWKSource)}, but
+     * reuses the prebuilt verifiers of the current key snapshot.
+     *
      * @param jwkSource JWK source
+     * @param jwkSetProvider provides prebuilt verifiers
      * @return JwtDecoder
      */
     @Bean
-    public JwtDecoder jwtDecoder(JWKSource<SecurityContext> jwkSource) {
-        return OAuth2AuthorizationServerConfiguration.jwtDecoder(jwkSource);
+    public JwtDecoder jwtDecoder(
+            JWKSource<SecurityContext> jwkSource, JwkSetProvider jwkSetProvider) {
+        Set<JWSAlgorithm> algorithms = new HashSet<>();
+        algorithms.addAll(JWSAlgorithm.Family.RSA);
+        algorithms.addAll(JWSAlgorithm.Family.EC);
+        algorithms.addAll(JWSAlgorithm.Family.HMAC_SHA);
+        DefaultJWTProcessor<SecurityContext> jwtProcessor = new DefaultJWTProcessor<>();
+        jwtProcessor.setJWSKeySelector(new JWSVerificationKeySelector<>(algorithms, jwkSource));
+        jwtProcessor.setJWSVerifierFactory(jwkSetProvider.verifierFactory());
+        // Claims are validated by NimbusJwtDecoder itself
+        jwtProcessor.setJWTClaimsSetVerifier((claims, context) -> {});
+        return new NimbusJwtDecoder(jwtProcessor);
     }
 
     /**
@@ -426,7 +531,7 @@ public class AuthorizationServerConfig {
     }
 
     private Consumer<OAuth2AuthorizationCodeRequestAuthenticationContext>
-            redirectUriPathOnlyValidator() {
+            redirectUriPathOnlyValidator(RedirectUriMatcherCache redirectUriMatcherCache) {
         return authenticationContext -> {
             OAuth2AuthorizationCodeRequestAuthenticationToken
                     authorizationCodeRequestAuthentication =
@@ -462,38 +567,18 @@ public class AuthorizationServerConfig {
                     return;
                 }
 
-                UriComponents requestedWithoutQuery =
-                        UriComponentsBuilder.fromUriString(requestedRedirectUri)
-                                .replaceQuery(null)
-                                .fragment(null)
-                                .build();
-                Integer requestedPort = requestedRedirect.getPort();
-
-                boolean validRedirect;
-                if (!isLoopbackAddress(requestedRedirect.getHost())) {
-                    validRedirect =
-                            registeredClient.getRedirectUris().stream()
-                                    .anyMatch(
-                                            registeredUri ->
-                                                    redirectWithoutQueryMatches(
-                                                            registeredUri, requestedWithoutQuery));
-                } else {
-                    validRedirect =
-                            registeredClient.getRedirectUris().stream()
-                                    .anyMatch(
-                                            registeredUri ->
-                                                    redirectWithoutQueryMatches(
-                                                            UriComponentsBuilder.fromUriString(
-                                                                            registeredUri)
-                                                                    .port(requestedPort)
-                                                                    .replaceQuery(null)
-                                                                    .fragment(null)
-                                                                    .build(),
-                                                            requestedWithoutQuery));
-                }
+                boolean validRedirect =
+                        redirectUriMatcherCache
+                                .matcherFor(registeredClient)
+                                .matches(requestedRedirect);
 
                 if (!validRedirect) {
                     if (diagnosticsEnabled) {
+                        UriComponents requestedWithoutQuery =
+                                UriComponentsBuilder.fromUriString(requestedRedirectUri)
+                                        .replaceQuery(null)
+                                        .fragment(null)
+                                        .build();
                         // redirect_uri is not a secret, but it often contains query parameters
                         // (e.g. rd=...)
                         // which can be noisy. Log without query/fragment so we can compare
@@ -589,21 +674,6 @@ public class AuthorizationServerConfig {
         };
     }
 
-    private boolean redirectWithoutQueryMatches(
-            String registeredRedirectUri, UriComponents requestedWithoutQuery) {
-        try {
-            UriComponents registered =
-                    UriComponentsBuilder.fromUriString(registeredRedirectUri)
-                            .replaceQuery(null)
-                            .fragment(null)
-                            .build();
-            return redirectWithoutQueryMatches(registered, requestedWithoutQuery);
-        } catch (Exception ex) {
-            log.debug("Failed to parse registered redirect URI", ex);
-            return false;
-        }
-    }
-
     private boolean redirectWithoutQueryMatches(
             UriComponents registeredWithoutQuery, UriComponents requestedWithoutQuery) {
         if (registeredWithoutQuery.getFragment() != null
@@ -646,34 +716,6 @@ public class AuthorizationServerConfig {
                 error, authorizationCodeRequestAuthentication);
     }
 
-    private boolean isLoopbackAddress(String host) {
-        if (!StringUtils.hasText(host)) {
-            return false;
-        }
-        if ("[0:0:0:0:0:0:0:1]".equals(host) || "[::1]".equals(host)) {
-            return true;
-        }
-        String[] ipv4Octets = host.split("\\.");
-        if (ipv4Octets.length != 4) {
-            return false;
-        }
-        try {
-            int[] address = new int[ipv4Octets.length];
-            for (int i = 0; i < ipv4Octets.length; i++) {
-                address[i] = Integer.parseInt(ipv4Octets[i]);
-            }
-            return address[0] == 127
-                    && address[1] >= 0
-                    && address[1] <= 255
-                    && address[2] >= 0
-                    && address[2] <= 255
-                    && address[3] >= 1
-                    && address[3] <= 255;
-        } catch (NumberFormatException ex) {
-            return false;
-        }
-    }
-
     private AuthenticationFailureHandler authorizationErrorResponseHandler() {
         return (request, response, exception) -> {
             try {
@@ -20,7 +20,6 @@ import org.springframework.boot.CommandLineRunner;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.oauth2.core.AuthorizationGrantType;
@@ -38,7 +37,6 @@ import com.bootsandcats.oauth2.model.AuditEventType;
 import com.bootsandcats.oauth2.service.SecurityAuditService;
 
 @Configuration
-@EnableScheduling
 @ConditionalOnProperty(
         prefix = "oauth2.clients",
         name = "store",
@@ -0,0 +1,15 @@
+package com.bootsandcats.oauth2.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables {@code @Scheduled} methods for every client store and profile.
+ *
+ * <p>Background jobs such as the audit sampler flush, audit rollups and partition maintenance, and
+ * the deny rule refresh must run whether or not a database is configured, so scheduling is not
+ * tied to a conditional configuration like {@link DataInitializer}.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {}
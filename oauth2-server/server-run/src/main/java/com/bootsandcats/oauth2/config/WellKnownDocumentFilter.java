@@ -0,0 +1,122 @@
+package com.bootsandcats.oauth2.config;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import com.bootsandcats.oauth2.service.JwkSetProvider;
+import com.bootsandcats.oauth2.service.RenderedDocument;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Serves the JWK Set and OpenID discovery documents from pre-rendered bytes with a strong {@code
+ * ETag} and {@code Cache-Control: max-age}, answering a matching {@code If-None-Match} with {@code
+ * 304 Not Modified}.
+ *
+ * <p>The JWK Set comes straight from the current {@link JwkSetProvider} snapshot, which re-renders
+ * it whenever the keys change. The discovery document is rendered once per request origin by the
+ * authorization server's own endpoint and replayed afterwards; it only depends on {@link
+ * org.springframework.security.oauth2.server.authorization.settings.AuthorizationServerSettings},
+ * which are fixed at startup.
+ */
+public class WellKnownDocumentFilter extends OncePerRequestFilter {
+
+    static final String JWKS_PATH = "/oauth2/jwks";
+    static final String DISCOVERY_PATH = "/.well-known/openid-configuration";
+
+    /** Bound on distinct origins (Host headers) remembered for the discovery document. */
+    private static final int MAX_DISCOVERY_ORIGINS = 32;
+
+    private final JwkSetProvider jwkSetProvider;
+    private final String cacheControl;
+    private final Map<String, RenderedDocument> discoveryByOrigin = new ConcurrentHashMap<>();
+
+    public WellKnownDocumentFilter(JwkSetProvider jwkSetProvider, Duration maxAge) {
+        this.jwkSetProvider = jwkSetProvider;
+        this.cacheControl = CacheControl.maxAge(maxAge).cachePublic().getHeaderValue();
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String method = request.getMethod();
+        if (!"GET".equals(method) && !"HEAD".equals(method)) {
+            return true;
+        }
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return !JWKS_PATH.equals(path) && !DISCOVERY_PATH.equals(path);
+    }
+
+    @Override
+    protected void doFilterInternal(
+            HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        if (JWKS_PATH.equals(path)) {
+            write(request, response, jwkSetProvider.getSnapshot().publicJwkSet());
+            return;
+        }
+
+        String origin = origin(request);
+        RenderedDocument discovery = discoveryByOrigin.get(origin);
+        if (discovery == null && !"GET".equals(request.getMethod())) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        if (discovery == null) {
+            ContentCachingResponseWrapper captured = new ContentCachingResponseWrapper(response);
+            filterChain.doFilter(request, captured);
+            if (captured.getStatus() != HttpServletResponse.SC_OK) {
+                captured.copyBodyToResponse();
+                return;
+            }
+            discovery =
+                    RenderedDocument.of(
+                            captured.getContentAsByteArray(), captured.getContentType());
+            if (discoveryByOrigin.size() >= MAX_DISCOVERY_ORIGINS) {
+                discoveryByOrigin.clear();
+            }
+            discoveryByOrigin.put(origin, discovery);
+            captured.setHeader(HttpHeaders.ETAG, discovery.etag());
+            captured.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl);
+            captured.copyBodyToResponse();
+            return;
+        }
+        write(request, response, discovery);
+    }
+
+    private void write(
+            HttpServletRequest request, HttpServletResponse response, RenderedDocument document)
+            throws IOException {
+        response.setHeader(HttpHeaders.ETAG, document.etag());
+        response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl);
+        if (document.matchesIfNoneMatch(request.getHeader(HttpHeaders.IF_NONE_MATCH))) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType(document.contentType());
+        response.setContentLength(document.body().length);
+        if (!"HEAD".equals(request.getMethod())) {
+            response.getOutputStream().write(document.body());
+        }
+    }
+
+    private static String origin(HttpServletRequest request) {
+        return request.getScheme()
+                + "://"
+                + request.getServerName()
+                + ":"
+                + request.getServerPort()
+                + request.getContextPath();
+    }
+}
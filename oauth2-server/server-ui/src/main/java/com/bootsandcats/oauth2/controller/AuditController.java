@@ -2,11 +2,17 @@ package com.bootsandcats.oauth2.controller;
 
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
+import java.util.List;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -14,12 +20,19 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.bootsandcats.oauth2.dto.AuditEventSlice;
 import com.bootsandcats.oauth2.dto.AuditEventSummary;
+import com.bootsandcats.oauth2.dto.AuditStatsBucket;
 import com.bootsandcats.oauth2.mapper.AuditEventMapper;
 import com.bootsandcats.oauth2.model.AuditEventResult;
+import com.bootsandcats.oauth2.model.AuditRollupGranularity;
 import com.bootsandcats.oauth2.model.SecurityAuditEvent;
 import com.bootsandcats.oauth2.service.SecurityAuditService;
+import com.bootsandcats.oauth2.service.audit.AuditEventCursor;
+import com.bootsandcats.oauth2.service.audit.AuditEventExporter;
+import com.bootsandcats.oauth2.service.audit.AuditRollupService;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -30,7 +43,10 @@ import io.swagger.v3.oas.annotations.tags.Tag;
  * REST controller for querying security audit events.
  *
  * <p>Provides endpoints for compliance officers and administrators to search and view audit
- * records.
+ * records. Each listing has a {@code /scroll} variant that pages by an opaque {@code cursor}
+ * instead of a page number; it skips the count query and costs the same however deep the caller
+ * pages. {@code /stats} answers count queries from the pre-aggregated per-minute and per-hour
+ * counters rather than the events. {@code /export} streams whole time ranges as NDJSON or CSV.
  */
 @RestController
 @RequestMapping("/api/audit")
@@ -38,9 +54,16 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 public class AuditController {
 
     private final SecurityAuditService securityAuditService;
+    private final AuditRollupService auditRollupService;
+    private final AuditEventExporter auditEventExporter;
 
-    public AuditController(SecurityAuditService securityAuditService) {
+    public AuditController(
+            SecurityAuditService securityAuditService,
+            AuditRollupService auditRollupService,
+            AuditEventExporter auditEventExporter) {
         this.securityAuditService = securityAuditService;
+        this.auditRollupService = auditRollupService;
+        this.auditEventExporter = auditEventExporter;
     }
 
     /**
@@ -168,4 +191,298 @@ public class AuditController {
         Page<SecurityAuditEvent> events = securityAuditService.findByClientId(clientId, pageable);
         return ResponseEntity.ok(events.map(AuditEventMapper::toSummary));
     }
+
+    /**
+     * Get recent audit events by cursor.
+     *
+     * @param cursor continuation token from the previous slice
+     * @param size slice size
+     * @return slice of recent audit events
+     */
+    @GetMapping("/events/scroll")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(
+            summary = "Scroll recent audit events",
+            description = "Returns recent security audit events using cursor pagination")
+    @ApiResponse(responseCode = "200", description = "Audit events retrieved successfully")
+    @ApiResponse(responseCode = "400", description = "Invalid cursor")
+    @ApiResponse(responseCode = "403", description = "Access denied - requires ADMIN role")
+    public ResponseEntity<AuditEventSlice> scrollRecentEvents(
+            @Parameter(description = "Continuation token from the previous response")
+                    @RequestParam(required = false)
+                    String cursor,
+            @Parameter(description = "Slice size") @RequestParam(defaultValue = "20") int size) {
+        Slice<SecurityAuditEvent> events =
+                securityAuditService.findRecentEvents(toCursor(cursor), sliceSize(size));
+        return ResponseEntity.ok(toSlice(events));
+    }
+
+    /**
+     * Search audit events with filters by cursor.
+     *
+     * @param principal filter by principal
+     * @param clientId filter by client ID
+     * @param category filter by event category
+     * @param result filter by result
+     * @param startTime start of time range
+     * @param endTime end of time range
+     * @param cursor continuation token from the previous slice
+     * @param size slice size
+     * @return slice of matching audit events
+     */
+    @GetMapping("/events/search/scroll")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(
+            summary = "Scroll audit event search results",
+            description = "Search security audit events with optional filters and a cursor")
+    @ApiResponse(responseCode = "200", description = "Search completed successfully")
+    @ApiResponse(responseCode = "400", description = "Invalid cursor")
+    @ApiResponse(responseCode = "403", description = "Access denied - requires ADMIN role")
+    public ResponseEntity<AuditEventSlice> scrollSearchEvents(
+            @Parameter(description = "Filter by principal (username/client)")
+                    @RequestParam(required = false)
+                    String principal,
+            @Parameter(description = "Filter by OAuth2 client ID") @RequestParam(required = false)
+                    String clientId,
+            @Parameter(description = "Filter by event category (AUTHENTICATION, TOKEN, etc.)")
+                    @RequestParam(required = false)
+                    String category,
+            @Parameter(description = "Filter by result (SUCCESS, FAILURE, DENIED)")
+                    @RequestParam(required = false)
+                    AuditEventResult result,
+            @Parameter(description = "Start of time range (ISO-8601)")
+                    @RequestParam(required = false)
+                    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                    Instant startTime,
+            @Parameter(description = "End of time range (ISO-8601)")
+                    @RequestParam(required = false)
+                    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                    Instant endTime,
+            @Parameter(description = "Continuation token from the previous response")
+                    @RequestParam(required = false)
+                    String cursor,
+            @Parameter(description = "Slice size") @RequestParam(defaultValue = "20") int size) {
+
+        // Default time range to last 30 days if not specified
+        if (startTime == null) {
+            startTime = Instant.now().minus(30, ChronoUnit.DAYS);
+        }
+        if (endTime == null) {
+            endTime = Instant.now();
+        }
+
+        Slice<SecurityAuditEvent> events =
+                securityAuditService.searchAuditEvents(
+                        principal,
+                        clientId,
+                        category,
+                        result,
+                        startTime,
+                        endTime,
+                        toCursor(cursor),
+                        sliceSize(size));
+        return ResponseEntity.ok(toSlice(events));
+    }
+
+    /**
+     * Get audit events for a specific principal by cursor.
+     *
+     * @param principal the principal to search for
+     * @param cursor continuation token from the previous slice
+     * @param size slice size
+     * @return slice of audit events for the principal
+     */
+    @GetMapping("/events/principal/{principal}/scroll")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(
+            summary = "Scroll audit events by principal",
+            description = "Returns audit events for a specific user or client using a cursor")
+    public ResponseEntity<AuditEventSlice> scrollEventsByPrincipal(
+            @PathVariable String principal,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        Slice<SecurityAuditEvent> events =
+                securityAuditService.findByPrincipal(principal, toCursor(cursor), sliceSize(size));
+        return ResponseEntity.ok(toSlice(events));
+    }
+
+    /**
+     * Get audit events for a specific OAuth2 client by cursor.
+     *
+     * @param clientId the client ID to search for
+     * @param cursor continuation token from the previous slice
+     * @param size slice size
+     * @return slice of audit events for the client
+     */
+    @GetMapping("/events/client/{clientId}/scroll")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(
+            summary = "Scroll audit events by client",
+            description = "Returns audit events for a specific OAuth2 client using a cursor")
+    public ResponseEntity<AuditEventSlice> scrollEventsByClient(
+            @PathVariable String clientId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        Slice<SecurityAuditEvent> events =
+                securityAuditService.findByClientId(clientId, toCursor(cursor), sliceSize(size));
+        return ResponseEntity.ok(toSlice(events));
+    }
+
+    /**
+     * Get audit event counts per time bucket.
+     *
+     * @param granularity bucket size
+     * @param startTime start of time range
+     * @param endTime end of time range (exclusive)
+     * @param category filter by event category
+     * @param clientId filter by client ID
+     * @param grantType filter by grant type
+     * @return counts per bucket, event type and result
+     */
+    @GetMapping("/stats")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(
+            summary = "Get audit event statistics",
+            description =
+                    "Returns event counts per minute or hour bucket, event type and result from"
+                            + " the pre-aggregated audit counters")
+    @ApiResponse(responseCode = "200", description = "Statistics retrieved successfully")
+    @ApiResponse(responseCode = "400", description = "Invalid or too large time range")
+    @ApiResponse(responseCode = "403", description = "Access denied - requires ADMIN role")
+    public ResponseEntity<List<AuditStatsBucket>> getStats(
+            @Parameter(description = "Bucket size (MINUTE or HOUR)")
+                    @RequestParam(defaultValue = "HOUR")
+                    AuditRollupGranularity granularity,
+            @Parameter(description = "Start of time range (ISO-8601)")
+                    @RequestParam(required = false)
+                    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                    Instant startTime,
+            @Parameter(description = "End of time range (ISO-8601)")
+                    @RequestParam(required = false)
+                    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                    Instant endTime,
+            @Parameter(description = "Filter by event category (AUTHENTICATION, TOKEN, etc.)")
+                    @RequestParam(required = false)
+                    String category,
+            @Parameter(description = "Filter by OAuth2 client ID") @RequestParam(required = false)
+                    String clientId,
+            @Parameter(description = "Filter by grant type") @RequestParam(required = false)
+                    String grantType) {
+
+        // Default time range to last 24 hours if not specified
+        if (endTime == null) {
+            endTime = Instant.now();
+        }
+        if (startTime == null) {
+            startTime = endTime.minus(24, ChronoUnit.HOURS);
+        }
+
+        return ResponseEntity.ok(
+                auditRollupService.findStats(
+                        granularity, startTime, endTime, category, clientId, grantType));
+    }
+
+    /**
+     * Export audit events as a stream.
+     *
+     * @param format output format
+     * @param gzip whether to gzip the response
+     * @param principal filter by principal
+     * @param clientId filter by client ID
+     * @param category filter by event category
+     * @param result filter by result
+     * @param startTime start of time range
+     * @param endTime end of time range
+     * @return the matching events, oldest first, streamed as they are read; 429 if the maximum
+     *     number of exports is already running
+     */
+    @GetMapping("/export")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(
+            summary = "Export audit events",
+            description =
+                    "Streams matching security audit events, oldest first, as NDJSON or CSV"
+                            + " straight from a database cursor")
+    @ApiResponse(responseCode = "200", description = "Export streamed successfully")
+    @ApiResponse(responseCode = "403", description = "Access denied - requires ADMIN role")
+    @ApiResponse(responseCode = "429", description = "Too many exports running, retry later")
+    public ResponseEntity<StreamingResponseBody> exportEvents(
+            @Parameter(description = "Output format (NDJSON or CSV)")
+                    @RequestParam(defaultValue = "NDJSON")
+                    AuditEventExporter.Format format,
+            @Parameter(description = "Gzip the response body") @RequestParam(defaultValue = "false")
+                    boolean gzip,
+            @Parameter(description = "Filter by principal (username/client)")
+                    @RequestParam(required = false)
+                    String principal,
+            @Parameter(description = "Filter by OAuth2 client ID") @RequestParam(required = false)
+                    String clientId,
+            @Parameter(description = "Filter by event category (AUTHENTICATION, TOKEN, etc.)")
+                    @RequestParam(required = false)
+                    String category,
+            @Parameter(description = "Filter by result (SUCCESS, FAILURE, DENIED)")
+                    @RequestParam(required = false)
+                    AuditEventResult result,
+            @Parameter(description = "Start of time range (ISO-8601)")
+                    @RequestParam(required = false)
+                    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                    Instant startTime,
+            @Parameter(description = "End of time range (ISO-8601)")
+                    @RequestParam(required = false)
+                    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                    Instant endTime) {
+
+        // Default time range to last 30 days if not specified
+        Instant from = startTime != null ? startTime : Instant.now().minus(30, ChronoUnit.DAYS);
+        Instant to = endTime != null ? endTime : Instant.now();
+
+        AuditEventExporter.Permit permit = auditEventExporter.tryAcquire();
+        if (permit == null) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, "60")
+                    .build();
+        }
+        ResponseEntity.BodyBuilder response =
+                ResponseEntity.ok()
+                        .contentType(MediaType.parseMediaType(format.getMediaType()))
+                        .header(
+                                HttpHeaders.CONTENT_DISPOSITION,
+                                ContentDisposition.attachment()
+                                        .filename("audit-events." + format.getExtension())
+                                        .build()
+                                        .toString());
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(
+                out -> {
+                    // Runs on an async thread, if at all; an unstarted permit is reclaimed later.
+                    try (permit) {
+                        permit.start();
+                        auditEventExporter.export(
+                                format, gzip, principal, clientId, category, result, from, to, out);
+                    }
+                });
+    }
+
+    private static AuditEventCursor toCursor(String token) {
+        return token == null || token.isBlank() ? null : AuditEventCursor.decode(token);
+    }
+
+    private static int sliceSize(int size) {
+        return Math.max(1, Math.min(size, 100));
+    }
+
+    private static AuditEventSlice toSlice(Slice<SecurityAuditEvent> events) {
+        List<SecurityAuditEvent> content = events.getContent();
+        String nextCursor =
+                events.hasNext() && !content.isEmpty()
+                        ? AuditEventCursor.after(content.get(content.size() - 1)).encode()
+                        : null;
+        return new AuditEventSlice(
+                content.stream().map(AuditEventMapper::toSummary).toList(),
+                content.size(),
+                events.hasNext(),
+                nextCursor);
+    }
 }
@@ -1,24 +1,50 @@
 package com.bootsandcats.oauth2.controller;
 
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.GetMapping;
 
+import com.bootsandcats.oauth2.service.JwkSetProvider;
+import com.bootsandcats.oauth2.service.RenderedDocument;
+
 /**
  * Controller to provide backward compatibility for the /.well-known/jwks.json endpoint.
  *
  * <p>Spring Authorization Server exposes JWKS at /oauth2/jwks, but some clients expect the keys at
- * /.well-known/jwks.json. This controller provides a redirect to the standard endpoint.
+ * /.well-known/jwks.json. This controller serves the same pre-rendered document directly (rather
+ * than redirecting) with an {@code ETag}, so pollers get a {@code 304} when nothing changed.
  */
 @Controller
 public class JwksController {
 
+    private final JwkSetProvider jwkSetProvider;
+    private final CacheControl cacheControl;
+
+    public JwksController(
+            JwkSetProvider jwkSetProvider,
+            @Value("${oauth2.well-known.max-age:PT5M}") Duration maxAge) {
+        this.jwkSetProvider = jwkSetProvider;
+        this.cacheControl = CacheControl.maxAge(maxAge).cachePublic();
+    }
+
     /**
-     * Redirects /.well-known/jwks.json to the standard /oauth2/jwks endpoint.
+     * Serves the public JWK Set; conditional requests are answered by Spring MVC from the {@code
+     * ETag}.
      *
-     * @return redirect to /oauth2/jwks
+     * @return the JWK Set document
      */
     @GetMapping("/.well-known/jwks.json")
-    public String jwksRedirect() {
-        return "redirect:/oauth2/jwks";
+    public ResponseEntity<byte[]> jwks() {
+        RenderedDocument document = jwkSetProvider.getSnapshot().publicJwkSet();
+        return ResponseEntity.ok()
+                .eTag(document.etag())
+                .cacheControl(cacheControl)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(document.body());
     }
 }
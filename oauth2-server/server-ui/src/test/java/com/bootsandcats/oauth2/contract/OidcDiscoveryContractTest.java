@@ -3,6 +3,7 @@ package com.bootsandcats.oauth2.contract;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import java.util.Set;
@@ -474,4 +475,35 @@ class OidcDiscoveryContractTest {
                     .isTrue();
         }
     }
+
+    /**
+     * Test ID: OD-C-011
+     *
+     * <p>Contract: Browser clients on an allowed origin can read the discovery document and JWK Set
+     *
+     * <p>Both documents are answered from cached bytes; the response must still carry the CORS
+     * headers, including a {@code 304 Not Modified} answer to a conditional request.
+     */
+    @Test
+    @DisplayName("OD-C-011: Discovery document and JWK Set carry CORS headers")
+    void wellKnownDocuments_shouldCarryCorsHeaders() throws Exception {
+        // Given: A request from an allowed origin
+        String origin = "http://localhost:3000";
+        AiAgentTestReporter.setExpectedOutcome("Access-Control-Allow-Origin echoes the origin");
+
+        for (String path : new String[] {"/.well-known/openid-configuration", "/oauth2/jwks"}) {
+            // When: The document is fetched, then fetched again conditionally
+            MvcResult result =
+                    mockMvc.perform(get(path).header("Origin", origin))
+                            .andExpect(status().isOk())
+                            .andExpect(header().string("Access-Control-Allow-Origin", origin))
+                            .andReturn();
+            String etag = result.getResponse().getHeader("ETag");
+
+            // Then: The 304 answer carries the CORS headers too
+            mockMvc.perform(get(path).header("Origin", origin).header("If-None-Match", etag))
+                    .andExpect(status().isNotModified())
+                    .andExpect(header().string("Access-Control-Allow-Origin", origin));
+        }
+    }
 }
@@ -1,9 +1,12 @@
 package com.bootsandcats.oauth2.security;
 
+import static org.hamcrest.Matchers.containsString;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
 import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -13,6 +16,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
@@ -63,6 +67,54 @@ class OAuth2SecurityTest {
                 .andExpect(jsonPath("$.keys[0].kty").value("EC"));
     }
 
+    @Test
+    void jwksEndpoint_shouldAnswerMatchingIfNoneMatchWithNotModified() throws Exception {
+        String etag =
+                mockMvc.perform(get("/oauth2/jwks"))
+                        .andExpect(status().isOk())
+                        .andExpect(header().string("Cache-Control", containsString("max-age")))
+                        .andReturn()
+                        .getResponse()
+                        .getHeader("ETag");
+
+        mockMvc.perform(get("/oauth2/jwks").header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", etag));
+    }
+
+    @Test
+    void wellKnownJwksJson_shouldServeSameDocumentWithoutRedirect() throws Exception {
+        String etag =
+                mockMvc.perform(get("/oauth2/jwks"))
+                        .andReturn()
+                        .getResponse()
+                        .getHeader("ETag");
+
+        mockMvc.perform(get("/.well-known/jwks.json"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", etag))
+                .andExpect(jsonPath("$.keys[0].kty").value("EC"));
+        mockMvc.perform(get("/.well-known/jwks.json").header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void wellKnownOpenIdConfiguration_shouldBeReplayedWithEtag() throws Exception {
+        MockHttpServletResponse first =
+                mockMvc.perform(get("/.well-known/openid-configuration"))
+                        .andExpect(status().isOk())
+                        .andReturn()
+                        .getResponse();
+        String etag = first.getHeader("ETag");
+
+        mockMvc.perform(get("/.well-known/openid-configuration"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", etag))
+                .andExpect(content().json(first.getContentAsString()));
+        mockMvc.perform(get("/.well-known/openid-configuration").header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
+    }
+
     @Test
     void tokenEndpoint_shouldRejectInvalidCredentials() throws Exception {
         mockMvc.perform(
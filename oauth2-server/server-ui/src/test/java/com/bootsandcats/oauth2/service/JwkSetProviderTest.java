@@ -7,6 +7,7 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.time.Duration;
+import java.util.List;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -16,6 +17,13 @@ import com.azure.security.keyvault.secrets.SecretClient;
 import com.azure.security.keyvault.secrets.models.KeyVaultSecret;
 import com.bootsandcats.oauth2.config.AzureKeyVaultProperties;
 import com.bootsandcats.oauth2.crypto.JwkSupport;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.JWSObject;
+import com.nimbusds.jose.Payload;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKMatcher;
+import com.nimbusds.jose.jwk.JWKSelector;
 import com.nimbusds.jose.jwk.JWKSet;
 import com.nimbusds.jose.util.JSONObjectUtils;
 
@@ -76,6 +84,92 @@ class JwkSetProviderTest {
         assertThat(jwkSet.getKeys()).hasSize(1);
     }
 
+    @Test
+    void refreshKeepsLastKnownGoodKeysWhenKeyVaultFails() {
+        properties.setEnabled(true);
+        SecretClient secretClient = mock(SecretClient.class);
+        JWKSet loaded = new JWKSet(JwkSupport.generateEcSigningKey());
+        when(secretClient.getSecret("oauth2-jwk"))
+                .thenReturn(secretOf(loaded))
+                .thenThrow(new RuntimeException("Key Vault unavailable"));
+
+        JwkSetProvider provider = new JwkSetProvider(properties, providerReturning(secretClient));
+        provider.getJwkSet();
+
+        Duration retryIn = provider.refresh();
+
+        assertThat(retryIn).isLessThanOrEqualTo(properties.getRefreshBackoffMin());
+        assertThat(provider.getJwkSet().toJSONObject(true)).isEqualTo(loaded.toJSONObject(true));
+    }
+
+    @Test
+    void refreshReplacesKeysAheadOfExpiry() {
+        properties.setEnabled(true);
+        SecretClient secretClient = mock(SecretClient.class);
+        JWKSet initial = new JWKSet(JwkSupport.generateEcSigningKey());
+        JWKSet rotated = new JWKSet(JwkSupport.generateEcSigningKey());
+        when(secretClient.getSecret("oauth2-jwk"))
+                .thenReturn(secretOf(initial))
+                .thenReturn(secretOf(rotated));
+
+        JwkSetProvider provider = new JwkSetProvider(properties, providerReturning(secretClient));
+        provider.getJwkSet();
+        provider.getJwkSet();
+
+        Duration nextRefresh = provider.refresh();
+
+        verify(secretClient, times(2)).getSecret("oauth2-jwk");
+        assertThat(nextRefresh).isLessThan(properties.getCacheTtl());
+        assertThat(provider.getJwkSet().toJSONObject(true)).isEqualTo(rotated.toJSONObject(true));
+    }
+
+    @Test
+    void backoffDoublesWithJitterAndIsCapped() {
+        properties.setRefreshBackoffMin(Duration.ofSeconds(1));
+        properties.setRefreshBackoffMax(Duration.ofSeconds(10));
+        JwkSetProvider provider = new JwkSetProvider(properties, providerReturning(null));
+
+        assertThat(provider.backoffDelay(1))
+                .isBetween(Duration.ofMillis(500), Duration.ofSeconds(1));
+        assertThat(provider.backoffDelay(3))
+                .isBetween(Duration.ofSeconds(2), Duration.ofSeconds(4));
+        assertThat(provider.backoffDelay(50))
+                .isBetween(Duration.ofSeconds(5), Duration.ofSeconds(10));
+    }
+
+    @Test
+    void snapshotIndexesKeysAndPrebuildsSignerAndVerifier() throws Exception {
+        properties.setEnabled(false);
+        JwkSetProvider provider = new JwkSetProvider(properties, providerReturning(null));
+        JwkSnapshot snapshot = provider.getSnapshot();
+        JWK key = snapshot.jwkSet().getKeys().get(0);
+
+        List<JWK> selected =
+                snapshot.select(
+                        new JWKSelector(new JWKMatcher.Builder().keyID(key.getKeyID()).build()));
+        assertThat(selected).containsExactly(key);
+        assertThat(
+                        snapshot.select(
+                                new JWKSelector(new JWKMatcher.Builder().keyID("other").build())))
+                .isEmpty();
+
+        JWSObject jws =
+                new JWSObject(
+                        new JWSHeader.Builder(JWSAlgorithm.ES256).keyID(key.getKeyID()).build(),
+                        new Payload("hello"));
+        jws.sign(snapshot.signer(key.getKeyID()));
+        assertThat(jws.verify(snapshot.verifier(key.getKeyID()))).isTrue();
+        assertThat(
+                        provider.verifierFactory()
+                                .createJWSVerifier(jws.getHeader(), key.toECKey().toECPublicKey()))
+                .isSameAs(snapshot.verifier(key.getKeyID()));
+    }
+
+    private static KeyVaultSecret secretOf(JWKSet jwkSet) {
+        return new KeyVaultSecret(
+                "oauth2-jwk", JSONObjectUtils.toJSONString(jwkSet.toJSONObject(false)));
+    }
+
     private ObjectProvider<SecretClient> providerReturning(SecretClient client) {
         ObjectProvider<SecretClient> provider = mock(ObjectProvider.class);
         when(provider.getIfAvailable()).thenReturn(client);
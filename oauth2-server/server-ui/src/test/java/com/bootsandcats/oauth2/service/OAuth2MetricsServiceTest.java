@@ -2,6 +2,8 @@ package com.bootsandcats.oauth2.service;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import java.util.concurrent.TimeUnit;
+
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
@@ -12,6 +14,9 @@ import com.bootsandcats.oauth2.config.TestKeyManagementConfig;
 import com.bootsandcats.oauth2.config.TestOAuth2ClientConfiguration;
 import com.bootsandcats.oauth2.config.TestObjectMapperConfig;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
 @SpringBootTest
 @ActiveProfiles("test")
 @Import({
@@ -22,6 +27,7 @@ import com.bootsandcats.oauth2.config.TestObjectMapperConfig;
 class OAuth2MetricsServiceTest {
 
     @Autowired private OAuth2MetricsService metricsService;
+    @Autowired private MeterRegistry meterRegistry;
 
     @Test
     void recordTokenIssued_shouldIncrementCounter() {
@@ -58,4 +64,70 @@ class OAuth2MetricsServiceTest {
 
         assertThat(metricsService.getAuthorizationFailures()).isEqualTo(initialCount + 1);
     }
+
+    @Test
+    void recordEndpointRequest_shouldReuseCounterForSameTags() {
+        metricsService.recordEndpointRequest("revoke", "success", null, null);
+        double initialCount = endpointRequests("revoke", "success", "none", "none");
+
+        metricsService.recordEndpointRequest("revoke", "success", null, "none");
+        metricsService.recordEndpointRequest(" Revoke ", "SUCCESS", "", null);
+
+        assertThat(endpointRequests("revoke", "success", "none", "none"))
+                .isEqualTo(initialCount + 2);
+    }
+
+    @Test
+    void recordEndpointRequest_shouldMapUnknownTagValuesToOther() {
+        double initialCount = endpointRequests("token", "failure", "other", "invalid_grant");
+
+        metricsService.recordEndpointRequest(
+                "token", "failure", "made-up-" + System.nanoTime(), "invalid_grant");
+
+        assertThat(endpointRequests("token", "failure", "other", "invalid_grant"))
+                .isEqualTo(initialCount + 1);
+    }
+
+    @Test
+    void recordEndpointLatency_shouldRecordTimerWithSloBuckets() {
+        metricsService.recordEndpointLatency("introspect", "success", 3_000_000);
+
+        Timer timer =
+                meterRegistry
+                        .get("oauth2.endpoint.latency")
+                        .tag("endpoint", "introspect")
+                        .tag("outcome", "success")
+                        .timer();
+        assertThat(timer.count()).isPositive();
+        assertThat(timer.max(TimeUnit.MILLISECONDS)).isGreaterThanOrEqualTo(3);
+        assertThat(timer.takeSnapshot().histogramCounts()).isNotEmpty();
+    }
+
+    @Test
+    void recordRequestPhase_shouldRecordTimerPerEndpointAndPhase() {
+        metricsService.recordRequestPhase(
+                "token", OAuth2RequestPhase.SECRET_VERIFICATION, 2_000_000);
+
+        Timer timer =
+                meterRegistry
+                        .get("oauth2.endpoint.phase")
+                        .tag("endpoint", "token")
+                        .tag("phase", "secret_verify")
+                        .timer();
+        assertThat(timer.count()).isPositive();
+        assertThat(timer.max(TimeUnit.MILLISECONDS)).isGreaterThanOrEqualTo(2);
+    }
+
+    private double endpointRequests(
+            String endpoint, String outcome, String grantType, String error) {
+        var counter =
+                meterRegistry
+                        .find("oauth2.endpoint.requests")
+                        .tag("endpoint", endpoint)
+                        .tag("outcome", outcome)
+                        .tag("grant_type", grantType)
+                        .tag("error", error)
+                        .counter();
+        return counter != null ? counter.count() : 0;
+    }
 }
@@ -0,0 +1,101 @@
+package com.bootsandcats.oauth2.testcontainers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.bootsandcats.oauth2.model.UuidV7;
+
+/**
+ * Compares random (version 4) and time-ordered (version 7) event IDs under a unique B-tree index,
+ * the way {@code security_audit_events.event_id} is indexed.
+ *
+ * <p>Inserts the same number of rows keyed by each kind of ID into otherwise identical tables and
+ * logs insert throughput and the size of the unique index. Random keys split pages all over the
+ * index and leave them about half to two-thirds full; ordered keys only ever split the rightmost
+ * page, which PostgreSQL leaves 90% full. Only the index size is asserted; throughput depends on
+ * the machine and is reported for comparison.
+ *
+ * <p>Run with {@code ./gradlew :oauth2-server:server-ui:postgresTests --tests
+ * '*EventIdIndexBenchmarkTest'}.
+ */
+@Tag("testcontainers")
+@Tag("postgres")
+@Tag("slow")
+@DisplayName("Event ID index benchmark (UUIDv4 vs UUIDv7)")
+class EventIdIndexBenchmarkTest extends AbstractPostgresContainerTest {
+
+    private static final Logger log = LoggerFactory.getLogger(EventIdIndexBenchmarkTest.class);
+
+    private static final int ROWS = 200_000;
+    private static final int BATCH_SIZE = 1000;
+
+    @Test
+    @DisplayName("GIVEN v4 and v7 event IDs WHEN inserting THEN the v7 index is smaller")
+    void shouldBuildSmallerIndexWithTimeOrderedIds() throws SQLException {
+        try (Connection connection =
+                DriverManager.getConnection(
+                        postgresContainer.getJdbcUrl(),
+                        postgresContainer.getUsername(),
+                        postgresContainer.getPassword())) {
+            Result v4 = run(connection, "event_id_bench_v4", UUID::randomUUID);
+            Result v7 = run(connection, "event_id_bench_v7", UuidV7::generate);
+
+            log.info(
+                    "UUIDv4: {} rows/s, index {} KiB; UUIDv7: {} rows/s, index {} KiB",
+                    v4.rowsPerSecond(),
+                    v4.indexBytes() / 1024,
+                    v7.rowsPerSecond(),
+                    v7.indexBytes() / 1024);
+            assertThat(v7.indexBytes()).isLessThan(v4.indexBytes());
+        }
+    }
+
+    private static Result run(Connection connection, String table, Supplier<UUID> ids)
+            throws SQLException {
+        try (Statement ddl = connection.createStatement()) {
+            ddl.execute("DROP TABLE IF EXISTS " + table);
+            ddl.execute(
+                    "CREATE TABLE "
+                            + table
+                            + " (id BIGSERIAL PRIMARY KEY, event_id UUID NOT NULL UNIQUE,"
+                            + " principal VARCHAR(255))");
+        }
+        long started = System.nanoTime();
+        try (PreparedStatement insert =
+                connection.prepareStatement(
+                        "INSERT INTO " + table + " (event_id, principal) VALUES (?, ?)")) {
+            for (int i = 1; i <= ROWS; i++) {
+                insert.setObject(1, ids.get());
+                insert.setString(2, "user-" + (i % 1000));
+                insert.addBatch();
+                if (i % BATCH_SIZE == 0) {
+                    insert.executeBatch();
+                }
+            }
+        }
+        long elapsedNanos = System.nanoTime() - started;
+        try (Statement query = connection.createStatement();
+                ResultSet rs =
+                        query.executeQuery(
+                                "SELECT pg_relation_size('" + table + "_event_id_key')")) {
+            rs.next();
+            return new Result(ROWS * 1_000_000_000L / elapsedNanos, rs.getLong(1));
+        }
+    }
+
+    private record Result(long rowsPerSecond, long indexBytes) {}
+}
@@ -19,7 +19,10 @@ package com.bootsandcats.oauth2.testcontainers;
 import static org.assertj.core.api.Assertions.assertThat;
 
 import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
 import java.util.Optional;
+import java.util.UUID;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -29,13 +32,22 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.transaction.annotation.Transactional;
 
 import com.bootsandcats.oauth2.config.TestKeyManagementConfig;
 import com.bootsandcats.oauth2.config.TestOAuth2ClientConfiguration;
 import com.bootsandcats.oauth2.config.TestObjectMapperConfig;
+import com.bootsandcats.oauth2.dto.AuditStatsBucket;
+import com.bootsandcats.oauth2.model.AuditEventResult;
+import com.bootsandcats.oauth2.model.AuditEventType;
+import com.bootsandcats.oauth2.model.AuditRollupGranularity;
+import com.bootsandcats.oauth2.model.SecurityAuditEvent;
 import com.bootsandcats.oauth2.model.User;
+import com.bootsandcats.oauth2.repository.SecurityAuditEventRepository;
 import com.bootsandcats.oauth2.repository.UserRepository;
 
 /**
@@ -65,6 +77,8 @@ import com.bootsandcats.oauth2.repository.UserRepository;
 class PostgresIntegrationTest extends AbstractPostgresContainerTest {
 
     @Autowired private UserRepository userRepository;
+    @Autowired private SecurityAuditEventRepository auditEventRepository;
+    @Autowired private JdbcTemplate jdbcTemplate;
 
     @BeforeEach
     void setUp() {
@@ -248,6 +262,235 @@ class PostgresIntegrationTest extends AbstractPostgresContainerTest {
         }
     }
 
+    @Nested
+    @DisplayName("Audit Batch Insert")
+    class AuditBatchInsert {
+
+        @Test
+        @DisplayName(
+                "GIVEN a batch of audit events WHEN inserting THEN all rows are persisted")
+        void shouldInsertAuditEventsInBatch() {
+            // GIVEN: A batch of audit events, one with JSON details
+            SecurityAuditEvent first = createAuditEvent("batch-user-1");
+            first.setDetails("{\"provider\":\"github\"}");
+            SecurityAuditEvent second = createAuditEvent("batch-user-2");
+            SecurityAuditEvent third = createAuditEvent("batch-user-3");
+
+            // WHEN: Inserting the batch
+            int inserted = auditEventRepository.insertBatch(List.of(first, second, third));
+
+            // THEN: All rows are persisted with database-generated ids
+            assertThat(inserted).isEqualTo(3);
+            assertThat(auditEventRepository.findByEventId(first.getEventId()))
+                    .as("Batch-inserted event should be readable through JPA")
+                    .hasValueSatisfying(
+                            e -> {
+                                assertThat(e.getId()).isPositive();
+                                assertThat(e.getPrincipal()).isEqualTo("batch-user-1");
+                                assertThat(e.getDetails()).contains("github");
+                            });
+        }
+
+        @Test
+        @DisplayName(
+                "GIVEN an already inserted batch WHEN replaying it THEN duplicates are skipped")
+        void shouldSkipDuplicateEventIdsOnReplay() {
+            // GIVEN: An inserted batch
+            List<SecurityAuditEvent> batch =
+                    List.of(createAuditEvent("replay-user-1"), createAuditEvent("replay-user-2"));
+            auditEventRepository.insertBatch(batch);
+
+            // WHEN: Replaying the same batch
+            int inserted = auditEventRepository.insertBatch(batch);
+
+            // THEN: No new rows are written
+            assertThat(inserted).isZero();
+        }
+
+        @Test
+        @DisplayName(
+                "GIVEN an inserted batch WHEN replaying it THEN the rollups count each event once")
+        void shouldCountReplayedBatchOnceInRollups() {
+            // GIVEN: An inserted batch for a dedicated client
+            String clientId = "rollup-client-" + UUID.randomUUID();
+            List<SecurityAuditEvent> batch =
+                    List.of(createAuditEvent("rollup-user-1"), createAuditEvent("rollup-user-2"));
+            batch.forEach(e -> e.setClientId(clientId));
+            Instant start = Instant.now().minus(1, ChronoUnit.HOURS);
+            auditEventRepository.insertBatch(batch);
+
+            // WHEN: Replaying the same batch
+            auditEventRepository.insertBatch(batch);
+
+            // THEN: The hourly counters hold each event once
+            Instant end = Instant.now().plus(1, ChronoUnit.HOURS);
+            assertThat(
+                            auditEventRepository
+                                    .findRollups(
+                                            AuditRollupGranularity.HOUR,
+                                            start,
+                                            end,
+                                            null,
+                                            clientId,
+                                            null)
+                                    .stream()
+                                    .mapToLong(AuditStatsBucket::count)
+                                    .sum())
+                    .isEqualTo(2);
+        }
+
+        @Test
+        @DisplayName(
+                "GIVEN aggregated and sampled events WHEN inserting THEN the rollups weigh them")
+        void shouldWeighAggregatedAndSampledEventsInRollups() {
+            // GIVEN: An aggregated summary of 40 events and an event sampled 1 in 10
+            String clientId = "weighted-client-" + UUID.randomUUID();
+            SecurityAuditEvent aggregated = createAuditEvent("weighted-user-1");
+            aggregated.setDetails("{\"aggregated\":true,\"count\":40}");
+            SecurityAuditEvent sampled = createAuditEvent("weighted-user-2");
+            sampled.setDetails("{\"sampleRate\":10}");
+            List<SecurityAuditEvent> batch = List.of(aggregated, sampled);
+            batch.forEach(e -> e.setClientId(clientId));
+            Instant start = Instant.now().minus(1, ChronoUnit.HOURS);
+
+            // WHEN: Inserting them
+            auditEventRepository.insertBatch(batch);
+
+            // THEN: The hourly counters hold the events they stand for
+            Instant end = Instant.now().plus(1, ChronoUnit.HOURS);
+            assertThat(
+                            auditEventRepository
+                                    .findRollups(
+                                            AuditRollupGranularity.HOUR,
+                                            start,
+                                            end,
+                                            null,
+                                            clientId,
+                                            null)
+                                    .stream()
+                                    .mapToLong(AuditStatsBucket::count)
+                                    .sum())
+                    .isEqualTo(50);
+        }
+
+        @Test
+        @DisplayName(
+                "GIVEN a shared user agent WHEN inserting THEN it is stored once and read back")
+        void shouldDictionaryEncodeUserAgentAndRequestUri() {
+            // GIVEN: Two events with the same user agent and request URI
+            String userAgent = "Mozilla/5.0 (dictionary-test " + UUID.randomUUID() + ")";
+            List<SecurityAuditEvent> batch =
+                    List.of(createAuditEvent("dict-user-1"), createAuditEvent("dict-user-2"));
+            batch.forEach(
+                    e -> {
+                        e.setUserAgent(userAgent);
+                        e.setRequestUri("/oauth2/token");
+                    });
+
+            // WHEN: Inserting the batch and saving a third event through JPA
+            auditEventRepository.insertBatch(batch);
+            SecurityAuditEvent third = createAuditEvent("dict-user-3");
+            third.setUserAgent(userAgent);
+            auditEventRepository.saveAndFlush(third);
+
+            // THEN: All rows share one dictionary id and read the text back
+            assertThat(batch.get(0).getUserAgentId())
+                    .isNotNull()
+                    .isEqualTo(batch.get(1).getUserAgentId())
+                    .isEqualTo(third.getUserAgentId());
+            assertThat(auditEventRepository.findByEventId(batch.get(1).getEventId()))
+                    .hasValueSatisfying(
+                            e -> {
+                                assertThat(e.getUserAgent()).isEqualTo(userAgent);
+                                assertThat(e.getRequestUri()).isEqualTo("/oauth2/token");
+                            });
+        }
+    }
+
+    @Nested
+    @DisplayName("Audit Keyset Pagination")
+    class AuditKeysetPagination {
+
+        @Test
+        @DisplayName(
+                "GIVEN events sharing a timestamp WHEN paging by keyset THEN each is returned once")
+        void shouldPageThroughEventsSharingATimestamp() {
+            // GIVEN: Three events for one principal, two of them at the same instant
+            String principal = "keyset-user-" + UUID.randomUUID();
+            Instant now = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+            List<SecurityAuditEvent> batch =
+                    List.of(
+                            createAuditEvent(principal),
+                            createAuditEvent(principal),
+                            createAuditEvent(principal));
+            batch.get(0).setEventTimestamp(now.minusSeconds(1));
+            batch.get(1).setEventTimestamp(now);
+            batch.get(2).setEventTimestamp(now);
+            auditEventRepository.insertBatch(batch);
+
+            // WHEN: Paging two at a time from the newest event
+            Slice<SecurityAuditEvent> first =
+                    auditEventRepository.findByPrincipalBefore(
+                            principal, now.plusSeconds(1), Long.MAX_VALUE, PageRequest.of(0, 2));
+            SecurityAuditEvent last = first.getContent().get(1);
+            Slice<SecurityAuditEvent> second =
+                    auditEventRepository.findByPrincipalBefore(
+                            principal,
+                            last.getEventTimestamp(),
+                            last.getId(),
+                            PageRequest.of(0, 2));
+
+            // THEN: The pages hold every event once, newest first
+            assertThat(first.hasNext()).isTrue();
+            assertThat(second.hasNext()).isFalse();
+            assertThat(
+                            List.of(
+                                    first.getContent().get(0).getEventId(),
+                                    last.getEventId(),
+                                    second.getContent().get(0).getEventId()))
+                    .containsExactlyInAnyOrderElementsOf(
+                            batch.stream().map(SecurityAuditEvent::getEventId).toList());
+            assertThat(second.getContent().get(0).getEventId())
+                    .isEqualTo(batch.get(0).getEventId());
+        }
+
+        @Test
+        @DisplayName(
+                "GIVEN the keyset predicate WHEN explaining a page THEN it bounds an index scan")
+        @Transactional
+        void shouldStartThePageWithAnIndexRangeScan() {
+            // GIVEN: Sequential scans ruled out, as they would be on a large table
+            jdbcTemplate.execute("SET LOCAL enable_seqscan = off");
+
+            // WHEN: Explaining a keyset page shaped like the repository's ...Before queries
+            String plan =
+                    String.join(
+                            "\n",
+                            jdbcTemplate.queryForList(
+                                    "EXPLAIN SELECT * FROM security_audit_events "
+                                            + "WHERE (event_timestamp, id) < "
+                                            + "(CURRENT_TIMESTAMP, 9223372036854775807) "
+                                            + "ORDER BY event_timestamp DESC, id DESC LIMIT 50",
+                                    String.class));
+
+            // THEN: The position is an index condition, not a filter applied row by row
+            assertThat(plan)
+                    .as("Keyset position should start an index range scan:%n%s", plan)
+                    .contains("Index Cond: (ROW(event_timestamp, id) < ROW(")
+                    .doesNotContain("Seq Scan");
+        }
+    }
+
+    private SecurityAuditEvent createAuditEvent(String principal) {
+        SecurityAuditEvent event = new SecurityAuditEvent();
+        event.setEventId(UUID.randomUUID());
+        event.setEventType(AuditEventType.LOGIN_SUCCESS);
+        event.setResult(AuditEventResult.SUCCESS);
+        event.setPrincipal(principal);
+        event.setPrincipalType("USER");
+        return event;
+    }
+
     private User createUser(String username, String provider, String providerId) {
         User user = new User();
         user.setUsername(username);